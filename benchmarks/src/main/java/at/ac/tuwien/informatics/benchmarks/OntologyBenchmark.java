@@ -0,0 +1,48 @@
+package at.ac.tuwien.informatics.benchmarks;
+
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import org.openjdk.jmh.annotations.*;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of loading an ontology, i.e., parsing the file, checking that it is in OWL2 QL, and indexing its axioms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OntologyBenchmark {
+
+    @Param({"vvr.owl", "university.owl", "paths1.owl", "paths2.owl"})
+    public String ontology;
+
+    /**
+     * The absolute path of the ontology file.
+     */
+    private String path;
+
+    /**
+     * Resolve the path of the ontology file.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        path = Workload.path(ontology);
+    }
+
+    /**
+     * Load the ontology.
+     *
+     * @return The ontology.
+     * @throws OWLOntologyCreationException If the ontology cannot be read.
+     * @throws NotOWL2QLException If the ontology is not in OWL2 QL.
+     */
+    @Benchmark
+    public Ontology load() throws OWLOntologyCreationException, NotOWL2QLException {
+        return new Ontology(path);
+    }
+}
@@ -0,0 +1,374 @@
+package at.ac.tuwien.informatics.benchmarks;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.FunctionalSyntaxDocumentFormat;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.File;
+import java.util.Random;
+
+/**
+ * A generator of synthetic OWL2 QL ontologies, whose size and shape are set by the parameters of the generator.
+ * <ul>
+ *     <li>The classes form a tree of the given depth, where each class has the given number of subclasses.</li>
+ *     <li>The existential roles r_* form a binary tree of role inclusions, and may occur in existential axioms on
+ *     either side.</li>
+ *     <li>The path roles p_* form another binary tree of role inclusions, and are meant for the paths and arbitrary
+ *     length atoms of queries. They only occur on the left side of existential axioms (as domains and ranges), so the
+ *     ontology is Xi-compliant for any query whose paths use path roles only.</li>
+ *     <li>Each inverse role q_* is declared as the inverse of an existential role.</li>
+ *     <li>The existential axioms A ISA exists R, and the domains and ranges exists r ISA A and exists r- ISA A, are
+ *     drawn at random. The latter are stated as domain and range axioms, which is how the rewriter expects them.</li>
+ * </ul>
+ * All names consist of letters and underscores only, so they can be used in queries of the query grammar.
+ * The generator is deterministic: the same parameters and seed produce the same ontology.
+ */
+public class OntologyGenerator {
+
+    /**
+     * The namespace of the generated names.
+     */
+    public static final String NAMESPACE = "http://example.org/generated#";
+    /**
+     * The digits of the names.
+     */
+    private static final String LETTERS = "abcdefghijklmnoprstuvwxyz";
+
+    /**
+     * The seed of the random choices.
+     */
+    private final long seed;
+    /**
+     * The depth of the class tree.
+     */
+    private final int classDepth;
+    /**
+     * The number of subclasses of each class in the tree.
+     */
+    private final int classWidth;
+    /**
+     * The number of existential roles.
+     */
+    private final int roles;
+    /**
+     * The number of path roles.
+     */
+    private final int pathRoles;
+    /**
+     * The number of inverse roles.
+     */
+    private final int inverses;
+    /**
+     * The number of existential axioms.
+     */
+    private final int existentials;
+
+    /**
+     * Initialize a new generator with the default parameters: a class tree of depth 3 and width 3, 8 existential
+     * roles, 4 path roles, 2 inverse roles and 10 existential axioms.
+     *
+     * @param seed The seed of the random choices.
+     */
+    public OntologyGenerator(long seed) {
+        this(seed, 3, 3, 8, 4, 2, 10);
+    }
+
+    /**
+     * Initialize a new generator.
+     *
+     * @param seed The seed of the random choices.
+     * @param classDepth The depth of the class tree.
+     * @param classWidth The number of subclasses of each class in the tree.
+     * @param roles The number of existential roles.
+     * @param pathRoles The number of path roles.
+     * @param inverses The number of inverse roles, at most the number of existential roles.
+     * @param existentials The number of existential axioms.
+     */
+    private OntologyGenerator(long seed, int classDepth, int classWidth, int roles, int pathRoles, int inverses,
+                              int existentials) {
+        if (classDepth < 0 || classWidth < 1 || roles < 1 || pathRoles < 1 || inverses < 0 || inverses > roles ||
+                existentials < 0) {
+            throw new IllegalArgumentException("invalid ontology parameters");
+        }
+        this.seed = seed;
+        this.classDepth = classDepth;
+        this.classWidth = classWidth;
+        this.roles = roles;
+        this.pathRoles = pathRoles;
+        this.inverses = inverses;
+        this.existentials = existentials;
+    }
+
+    /**
+     * Get a copy of this generator with a different depth of the class tree.
+     *
+     * @param classDepth The depth of the class tree, 0 for a single class.
+     * @return A new generator.
+     */
+    public OntologyGenerator withClassDepth(int classDepth) {
+        return new OntologyGenerator(seed, classDepth, classWidth, roles, pathRoles, inverses, existentials);
+    }
+
+    /**
+     * Get a copy of this generator with a different width of the class tree.
+     *
+     * @param classWidth The number of subclasses of each class in the tree.
+     * @return A new generator.
+     */
+    public OntologyGenerator withClassWidth(int classWidth) {
+        return new OntologyGenerator(seed, classDepth, classWidth, roles, pathRoles, inverses, existentials);
+    }
+
+    /**
+     * Get a copy of this generator with a different number of existential roles.
+     *
+     * @param roles The number of existential roles.
+     * @return A new generator.
+     */
+    public OntologyGenerator withRoles(int roles) {
+        return new OntologyGenerator(seed, classDepth, classWidth, roles, pathRoles, inverses, existentials);
+    }
+
+    /**
+     * Get a copy of this generator with a different number of path roles.
+     *
+     * @param pathRoles The number of path roles.
+     * @return A new generator.
+     */
+    public OntologyGenerator withPathRoles(int pathRoles) {
+        return new OntologyGenerator(seed, classDepth, classWidth, roles, pathRoles, inverses, existentials);
+    }
+
+    /**
+     * Get a copy of this generator with a different number of inverse roles.
+     *
+     * @param inverses The number of inverse roles.
+     * @return A new generator.
+     */
+    public OntologyGenerator withInverses(int inverses) {
+        return new OntologyGenerator(seed, classDepth, classWidth, roles, pathRoles, inverses, existentials);
+    }
+
+    /**
+     * Get a copy of this generator with a different number of existential axioms.
+     *
+     * @param existentials The number of existential axioms.
+     * @return A new generator.
+     */
+    public OntologyGenerator withExistentials(int existentials) {
+        return new OntologyGenerator(seed, classDepth, classWidth, roles, pathRoles, inverses, existentials);
+    }
+
+    /**
+     * Get the number of classes in the class tree.
+     *
+     * @return The number of classes.
+     */
+    public int getClassCount() {
+        int count = 0;
+        int level = 1;
+        for (int d = 0; d <= classDepth; d++) {
+            count += level;
+            level *= classWidth;
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of existential roles.
+     *
+     * @return The number of existential roles.
+     */
+    public int getRoleCount() {
+        return roles;
+    }
+
+    /**
+     * Get the number of path roles.
+     *
+     * @return The number of path roles.
+     */
+    public int getPathRoleCount() {
+        return pathRoles;
+    }
+
+    /**
+     * Get the number of inverse roles.
+     *
+     * @return The number of inverse roles.
+     */
+    public int getInverseCount() {
+        return inverses;
+    }
+
+    /**
+     * Get the name of a class.
+     *
+     * @param i The number of the class in the class tree, in breadth-first order.
+     * @return The name.
+     */
+    public static String className(int i) {
+        return "C_" + letters(i);
+    }
+
+    /**
+     * Get the name of an existential role.
+     *
+     * @param i The number of the role.
+     * @return The name.
+     */
+    public static String roleName(int i) {
+        return "r_" + letters(i);
+    }
+
+    /**
+     * Get the name of a path role.
+     *
+     * @param i The number of the role.
+     * @return The name.
+     */
+    public static String pathRoleName(int i) {
+        return "p_" + letters(i);
+    }
+
+    /**
+     * Get the name of an inverse role.
+     *
+     * @param i The number of the existential role it is the inverse of.
+     * @return The name.
+     */
+    public static String inverseName(int i) {
+        return "q_" + letters(i);
+    }
+
+    /**
+     * Encode a number in letters, i.e., in base 25 with the digits a-z except q.
+     * A name that ends in the single letter q would be read as the head 'q(' of a query by the lexer.
+     *
+     * @param i The number.
+     * @return The letters.
+     */
+    public static String letters(int i) {
+        StringBuilder s = new StringBuilder();
+        do {
+            s.insert(0, LETTERS.charAt(i % LETTERS.length()));
+            i = i / LETTERS.length();
+        } while (i > 0);
+        return s.toString();
+    }
+
+    /**
+     * Generate the ontology.
+     *
+     * @return The ontology.
+     * @throws OWLOntologyCreationException If the ontology cannot be created.
+     */
+    public OWLOntology generate() throws OWLOntologyCreationException {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory factory = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology(IRI.create(NAMESPACE.substring(0, NAMESPACE.length() - 1)));
+        Random random = new Random(seed);
+
+        // the class tree, numbered in breadth-first order
+        int classes = getClassCount();
+        for (int i = 0; i < classes; i++) {
+            OWLClass c = factory.getOWLClass(IRI.create(NAMESPACE + className(i)));
+            manager.addAxiom(ontology, factory.getOWLDeclarationAxiom(c));
+            if (i > 0) {
+                OWLClass parent = factory.getOWLClass(IRI.create(NAMESPACE + className((i - 1) / classWidth)));
+                manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(c, parent));
+            }
+        }
+        // the two trees of role inclusions
+        for (int i = 0; i < roles; i++) {
+            OWLObjectProperty r = factory.getOWLObjectProperty(IRI.create(NAMESPACE + roleName(i)));
+            manager.addAxiom(ontology, factory.getOWLDeclarationAxiom(r));
+            if (i > 0) {
+                OWLObjectProperty parent = factory.getOWLObjectProperty(IRI.create(NAMESPACE + roleName((i - 1) / 2)));
+                manager.addAxiom(ontology, factory.getOWLSubObjectPropertyOfAxiom(r, parent));
+            }
+        }
+        for (int i = 0; i < pathRoles; i++) {
+            OWLObjectProperty p = factory.getOWLObjectProperty(IRI.create(NAMESPACE + pathRoleName(i)));
+            manager.addAxiom(ontology, factory.getOWLDeclarationAxiom(p));
+            if (i > 0) {
+                OWLObjectProperty parent = factory.getOWLObjectProperty(
+                        IRI.create(NAMESPACE + pathRoleName((i - 1) / 2)));
+                manager.addAxiom(ontology, factory.getOWLSubObjectPropertyOfAxiom(p, parent));
+            }
+        }
+        // the inverse roles
+        for (int i = 0; i < inverses; i++) {
+            OWLObjectProperty q = factory.getOWLObjectProperty(IRI.create(NAMESPACE + inverseName(i)));
+            OWLObjectProperty r = factory.getOWLObjectProperty(IRI.create(NAMESPACE + roleName(i)));
+            manager.addAxiom(ontology, factory.getOWLDeclarationAxiom(q));
+            manager.addAxiom(ontology, factory.getOWLInverseObjectPropertiesAxiom(q, r));
+        }
+        // the existential axioms
+        for (int i = 0; i < existentials; i++) {
+            OWLClass c = factory.getOWLClass(IRI.create(NAMESPACE + className(random.nextInt(classes))));
+            OWLObjectPropertyExpression r = existentialRole(factory, random);
+            switch (random.nextInt(3)) {
+                case 0: // A ISA exists R
+                    manager.addAxiom(ontology, factory.getOWLSubClassOfAxiom(c,
+                            factory.getOWLObjectSomeValuesFrom(r, factory.getOWLThing())));
+                    break;
+                case 1: // domain, possibly of a path role
+                    manager.addAxiom(ontology, factory.getOWLObjectPropertyDomainAxiom(
+                            random.nextBoolean() ? r.getNamedProperty() : pathRole(factory, random), c));
+                    break;
+                default: // range, possibly of a path role
+                    manager.addAxiom(ontology, factory.getOWLObjectPropertyRangeAxiom(
+                            random.nextBoolean() ? r.getNamedProperty() : pathRole(factory, random), c));
+                    break;
+            }
+        }
+        return ontology;
+    }
+
+    /**
+     * Generate the ontology and save it in functional syntax.
+     *
+     * @param file The file the ontology is written to.
+     * @throws OWLOntologyCreationException If the ontology cannot be created.
+     * @throws OWLOntologyStorageException If the ontology cannot be written.
+     */
+    public void write(File file) throws OWLOntologyCreationException, OWLOntologyStorageException {
+        OWLOntology ontology = generate();
+        ontology.getOWLOntologyManager().saveOntology(ontology, new FunctionalSyntaxDocumentFormat(),
+                IRI.create(file.getAbsoluteFile()));
+    }
+
+    /**
+     * Draw an existential role, an inverse role, or the inverse of an existential role.
+     *
+     * @param factory The data factory.
+     * @param random The random choices.
+     * @return The property expression.
+     */
+    private OWLObjectPropertyExpression existentialRole(OWLDataFactory factory, Random random) {
+        int i = random.nextInt(roles + inverses);
+        if (i >= roles) {
+            return factory.getOWLObjectProperty(IRI.create(NAMESPACE + inverseName(i - roles)));
+        }
+        OWLObjectProperty r = factory.getOWLObjectProperty(IRI.create(NAMESPACE + roleName(i)));
+        return random.nextBoolean() ? r : r.getInverseProperty();
+    }
+
+    /**
+     * Draw a path role.
+     *
+     * @param factory The data factory.
+     * @param random The random choices.
+     * @return The path role.
+     */
+    private OWLObjectProperty pathRole(OWLDataFactory factory, Random random) {
+        return factory.getOWLObjectProperty(IRI.create(NAMESPACE + pathRoleName(random.nextInt(pathRoles))));
+    }
+
+    @Override
+    public String toString() {
+        return "ontology{depth=" + classDepth + ",width=" + classWidth + ",roles=" + roles + ",pathRoles=" +
+                pathRoles + ",inverses=" + inverses + ",existentials=" + existentials + ",seed=" + seed + "}";
+    }
+}
@@ -0,0 +1,194 @@
+package at.ac.tuwien.informatics.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A generator of synthetic Xi-restricted queries over the names of an {@link OntologyGenerator}, in the syntax of the
+ * query grammar.
+ * The binary atoms of a query form a chain x_a, x_b, ... of variables, whose first variable is the answer variable.
+ * Role atoms use the existential roles, their inverses and the inverse roles, and paths use the path roles only, so
+ * the query is Xi-restricted for the generated ontologies. Concept atoms are attached to random variables of the chain.
+ * The generator is deterministic: the same parameters and seed produce the same query.
+ */
+public class QueryGenerator {
+
+    /**
+     * The seed of the random choices.
+     */
+    private final long seed;
+    /**
+     * The number of atoms of the query.
+     */
+    private final int atoms;
+    /**
+     * The number of atoms that are paths.
+     */
+    private final int paths;
+    /**
+     * The number of elements of each path.
+     */
+    private final int pathLength;
+    /**
+     * The number of arbitrary length elements (Kleene stars) of each path.
+     */
+    private final int stars;
+
+    /**
+     * Initialize a new generator with the default parameters: 4 atoms, one of which is a path of length 2 with a
+     * single Kleene star.
+     *
+     * @param seed The seed of the random choices.
+     */
+    public QueryGenerator(long seed) {
+        this(seed, 4, 1, 2, 1);
+    }
+
+    /**
+     * Initialize a new generator.
+     *
+     * @param seed The seed of the random choices.
+     * @param atoms The number of atoms of the query.
+     * @param paths The number of atoms that are paths, at most the number of atoms.
+     * @param pathLength The number of elements of each path.
+     * @param stars The number of arbitrary length elements of each path, at most the length of the paths.
+     */
+    private QueryGenerator(long seed, int atoms, int paths, int pathLength, int stars) {
+        if (atoms < 1 || paths < 0 || paths > atoms || pathLength < 1 || stars < 0 || stars > pathLength) {
+            throw new IllegalArgumentException("invalid query parameters");
+        }
+        this.seed = seed;
+        this.atoms = atoms;
+        this.paths = paths;
+        this.pathLength = pathLength;
+        this.stars = stars;
+    }
+
+    /**
+     * Get a copy of this generator with a different number of atoms.
+     *
+     * @param atoms The number of atoms of the query.
+     * @return A new generator.
+     */
+    public QueryGenerator withAtoms(int atoms) {
+        return new QueryGenerator(seed, atoms, Math.min(paths, atoms), pathLength, stars);
+    }
+
+    /**
+     * Get a copy of this generator with a different number of paths.
+     *
+     * @param paths The number of atoms that are paths.
+     * @return A new generator.
+     */
+    public QueryGenerator withPaths(int paths) {
+        return new QueryGenerator(seed, atoms, paths, pathLength, stars);
+    }
+
+    /**
+     * Get a copy of this generator with a different length of the paths.
+     *
+     * @param pathLength The number of elements of each path.
+     * @return A new generator.
+     */
+    public QueryGenerator withPathLength(int pathLength) {
+        return new QueryGenerator(seed, atoms, paths, pathLength, Math.min(stars, pathLength));
+    }
+
+    /**
+     * Get a copy of this generator with a different number of Kleene stars.
+     *
+     * @param stars The number of arbitrary length elements of each path.
+     * @return A new generator.
+     */
+    public QueryGenerator withStars(int stars) {
+        return new QueryGenerator(seed, atoms, paths, pathLength, stars);
+    }
+
+    /**
+     * Generate a query over the names of an ontology generator.
+     *
+     * @param ontology The generator of the ontology.
+     * @return The query, in the syntax of the query grammar.
+     */
+    public String generate(OntologyGenerator ontology) {
+        Random random = new Random(seed);
+        // the kinds of the atoms: paths, and an alternation of role and concept atoms
+        List<Character> kinds = new ArrayList<>();
+        for (int i = 0; i < atoms; i++) {
+            kinds.add(i < paths ? 'p' : (i - paths) % 2 == 0 ? 'r' : 'c');
+        }
+        Collections.shuffle(kinds, random);
+
+        List<String> body = new ArrayList<>();
+        int variables = 1;
+        for (char kind : kinds) {
+            if (kind == 'c') {
+                body.add(OntologyGenerator.className(random.nextInt(ontology.getClassCount())) +
+                        "(" + variable(random.nextInt(variables)) + ")");
+                continue;
+            }
+            String left = variable(variables - 1);
+            String right = variable(variables++);
+            if (kind == 'r') {
+                body.add(role(ontology, random) + "(" + left + "," + right + ")");
+            } else {
+                body.add(path(ontology, random) + "(" + left + "," + right + ")");
+            }
+        }
+        return "q(" + variable(0) + "):-" + String.join(",", body);
+    }
+
+    /**
+     * Draw a role for a role atom: an existential role, its inverse, or an inverse role.
+     *
+     * @param ontology The generator of the ontology.
+     * @param random The random choices.
+     * @return The role, in the syntax of the query grammar.
+     */
+    private static String role(OntologyGenerator ontology, Random random) {
+        int i = random.nextInt(ontology.getRoleCount() + ontology.getInverseCount());
+        if (i >= ontology.getRoleCount()) {
+            return OntologyGenerator.inverseName(i - ontology.getRoleCount());
+        }
+        return OntologyGenerator.roleName(i) + (random.nextBoolean() ? "-" : "");
+    }
+
+    /**
+     * Draw the elements of a path, of which a random selection of the given number is of arbitrary length.
+     *
+     * @param ontology The generator of the ontology.
+     * @param random The random choices.
+     * @return The elements, in the syntax of the query grammar.
+     */
+    private String path(OntologyGenerator ontology, Random random) {
+        List<Boolean> starred = new ArrayList<>();
+        for (int i = 0; i < pathLength; i++) {
+            starred.add(i < stars);
+        }
+        Collections.shuffle(starred, random);
+        List<String> elements = new ArrayList<>();
+        for (boolean star : starred) {
+            elements.add(OntologyGenerator.pathRoleName(random.nextInt(ontology.getPathRoleCount())) +
+                    (star ? "*" : ""));
+        }
+        return String.join("/", elements);
+    }
+
+    /**
+     * Get the name of a variable of the chain.
+     *
+     * @param i The position of the variable.
+     * @return The name, which consists of letters only.
+     */
+    private static String variable(int i) {
+        return "x" + OntologyGenerator.letters(i);
+    }
+
+    @Override
+    public String toString() {
+        return "query{atoms=" + atoms + ",paths=" + paths + ",pathLength=" + pathLength + ",stars=" + stars +
+                ",seed=" + seed + "}";
+    }
+}
@@ -0,0 +1,117 @@
+package at.ac.tuwien.informatics.benchmarks;
+
+import at.ac.tuwien.informatics.reformulation.RewriterImpl;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import at.ac.tuwien.informatics.structure.query.InputQuery;
+import at.ac.tuwien.informatics.structure.query.RewritableQuery;
+import at.ac.tuwien.informatics.translation.CypherTranslator;
+import at.ac.tuwien.informatics.translation.Translator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the rewriting of a query, of its single steps, and of the translation of the rewriting to Cypher.
+ * The ontology and the query are loaded once per trial, so only the rewriting itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RewritingBenchmark {
+
+    @Param({"VVR_Q1", "VVR_Q2", "VVR_Q3", "VVR_Q4", "VVR_Q5", "UNIVERSITY", "PATHS1", "PATHS2"})
+    public Workload workload;
+
+    /**
+     * The ontology of the workload.
+     */
+    private Ontology o;
+    /**
+     * The query of the workload.
+     */
+    private InputQuery q;
+    /**
+     * The rewriter, which creates a new session for each rewriting.
+     */
+    private RewriterImpl rewriter;
+    /**
+     * The rewriting of the query, the input of the translation and of tau.
+     */
+    private Set<RewritableQuery> rewriting;
+    /**
+     * The queries of the rewriting, in a fixed order.
+     */
+    private List<RewritableQuery> queries;
+    /**
+     * The translator to Cypher.
+     */
+    private Translator translator;
+
+    /**
+     * Load the ontology and the query, and compute the rewriting.
+     *
+     * @throws OWLOntologyCreationException If the ontology cannot be read.
+     * @throws NotOWL2QLException If the ontology is not in OWL2 QL.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws OWLOntologyCreationException, NotOWL2QLException {
+        o = workload.loadOntology();
+        q = workload.parseQuery(o);
+        rewriter = new RewriterImpl();
+        rewriting = rewriter.rewrite(q, o);
+        queries = new ArrayList<>(rewriting);
+        translator = new CypherTranslator();
+    }
+
+    /**
+     * Rewrite the query.
+     *
+     * @return The rewriting.
+     */
+    @Benchmark
+    public Set<RewritableQuery> rewrite() {
+        return rewriter.rewrite(q, o);
+    }
+
+    /**
+     * Saturate and split the paths of the query.
+     *
+     * @return The saturated query.
+     */
+    @Benchmark
+    public RewritableQuery saturatePaths() {
+        return new RewriterImpl().saturatePaths(q, o);
+    }
+
+    /**
+     * Mark the unbound variables of each query of the rewriting.
+     *
+     * @param bh The sink of the queries.
+     */
+    @Benchmark
+    public void tau(Blackhole bh) {
+        RewriterImpl session = new RewriterImpl();
+        for (RewritableQuery qp : queries) {
+            bh.consume(session.tau(qp));
+        }
+    }
+
+    /**
+     * Translate the rewriting to Cypher.
+     *
+     * @return The Cypher query.
+     */
+    @Benchmark
+    public String translate() {
+        return translator.translate(q.getHead(), rewriting);
+    }
+}
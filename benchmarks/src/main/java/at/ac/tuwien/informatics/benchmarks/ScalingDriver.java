@@ -0,0 +1,319 @@
+package at.ac.tuwien.informatics.benchmarks;
+
+import at.ac.tuwien.informatics.reformulation.CancellationToken;
+import at.ac.tuwien.informatics.reformulation.RewriterImpl;
+import at.ac.tuwien.informatics.reformulation.RewritingBudget;
+import at.ac.tuwien.informatics.reformulation.RewritingResult;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.query.InputQuery;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.*;
+import java.util.function.BiFunction;
+
+/**
+ * A driver that sweeps the parameters of the ontology and query generators, and reports the rewriting time, the
+ * allocated and retained memory, and the size of the union of the rewriting for each point of each sweep as CSV.
+ * Each sweep varies a single parameter and keeps the other parameters at their defaults, so each sweep yields one
+ * scaling curve.
+ * <p>
+ * Usage: {@code java -cp benchmarks.jar at.ac.tuwien.informatics.benchmarks.ScalingDriver [options]} with the options
+ * <ul>
+ *     <li>{@code --sweep <parameter>} run only the sweep of the parameter, may be repeated (default: all sweeps)</li>
+ *     <li>{@code --repeat <n>} the number of measured rewritings per point (default: 5)</li>
+ *     <li>{@code --warmup <n>} the number of rewritings per point before measuring (default: 2)</li>
+ *     <li>{@code --timeout <seconds>} the budget of each rewriting (default: 60)</li>
+ *     <li>{@code --seed <n>} the seed of the generators (default: 1)</li>
+ *     <li>{@code --out <file>} the CSV file (default: standard output)</li>
+ * </ul>
+ * Rewritings that exceed the timeout are reported with their status, and with the queries derived until then.
+ */
+public class ScalingDriver {
+
+    /**
+     * The sweeps, by the name of their parameter.
+     */
+    private static final Map<String, Sweep> SWEEPS = new LinkedHashMap<>();
+
+    static {
+        sweep("classDepth", new int[]{0, 1, 2, 3, 4}, (g, v) -> g.ontology = g.ontology.withClassDepth(v));
+        sweep("classWidth", new int[]{1, 2, 3, 4, 5}, (g, v) -> g.ontology = g.ontology.withClassWidth(v));
+        sweep("roles", new int[]{2, 4, 8, 16, 32}, (g, v) -> g.ontology = g.ontology.withRoles(v));
+        sweep("pathRoles", new int[]{1, 2, 4, 8, 16}, (g, v) -> g.ontology = g.ontology.withPathRoles(v));
+        sweep("inverses", new int[]{0, 1, 2, 4, 8}, (g, v) -> g.ontology = g.ontology.withInverses(v));
+        sweep("existentials", new int[]{0, 5, 10, 20, 40, 80},
+                (g, v) -> g.ontology = g.ontology.withExistentials(v));
+        sweep("atoms", new int[]{1, 2, 4, 6, 8}, (g, v) -> g.query = g.query.withAtoms(v));
+        sweep("pathLength", new int[]{1, 2, 3, 4}, (g, v) -> g.query = g.query.withPathLength(v));
+        sweep("stars", new int[]{0, 1, 2}, (g, v) -> g.query = g.query.withStars(v));
+    }
+
+    /**
+     * Run the sweeps.
+     *
+     * @param args The options, see above.
+     * @throws Exception If an ontology cannot be generated or loaded, or the CSV file cannot be written.
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> sweeps = new ArrayList<>();
+        int repeat = 5;
+        int warmup = 2;
+        Duration timeout = Duration.ofSeconds(60);
+        long seed = 1;
+        PrintStream out = System.out;
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("missing value of option " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--sweep":
+                    if (!SWEEPS.containsKey(value)) {
+                        throw new IllegalArgumentException("unknown parameter " + value + ", expected one of " +
+                                SWEEPS.keySet());
+                    }
+                    sweeps.add(value);
+                    break;
+                case "--repeat":
+                    repeat = Integer.parseInt(value);
+                    break;
+                case "--warmup":
+                    warmup = Integer.parseInt(value);
+                    break;
+                case "--timeout":
+                    timeout = Duration.ofSeconds(Long.parseLong(value));
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--out":
+                    out = new PrintStream(new File(value), "UTF-8");
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown option " + option);
+            }
+        }
+        if (sweeps.isEmpty()) {
+            sweeps.addAll(SWEEPS.keySet());
+        }
+
+        File directory = Files.createTempDirectory("omq-scaling").toFile();
+        out.println("parameter,value,ontology,query,status,queries,medianMillis,allocatedBytes,retainedBytes");
+        for (String parameter : sweeps) {
+            Sweep sweep = SWEEPS.get(parameter);
+            for (int value : sweep.values) {
+                Generators g = new Generators(seed);
+                sweep.apply.apply(g, value);
+                Point point = measure(g, directory, repeat, warmup, timeout);
+                out.println(String.join(",", parameter, Integer.toString(value), quote(g.ontology.toString()),
+                        quote(point.query), point.status.toString(), Integer.toString(point.queries),
+                        String.format(Locale.ROOT, "%.3f", point.medianMillis),
+                        Long.toString(point.allocatedBytes), Long.toString(point.retainedBytes)));
+                out.flush();
+            }
+        }
+        if (out != System.out) {
+            out.close();
+        }
+    }
+
+    /**
+     * Register a sweep.
+     *
+     * @param parameter The name of the parameter.
+     * @param values The values of the parameter.
+     * @param apply Sets the parameter of the generators to a value.
+     */
+    private static void sweep(String parameter, int[] values, BiFunction<Generators, Integer, Object> apply) {
+        SWEEPS.put(parameter, new Sweep(values, apply));
+    }
+
+    /**
+     * Generate the ontology and the query of a point, and measure their rewriting.
+     *
+     * @param g The generators of the point.
+     * @param directory The directory the ontology is written to.
+     * @param repeat The number of measured rewritings.
+     * @param warmup The number of rewritings before measuring.
+     * @param timeout The budget of each rewriting.
+     * @return The measurements.
+     * @throws Exception If the ontology cannot be generated or loaded.
+     */
+    private static Point measure(Generators g, File directory, int repeat, int warmup, Duration timeout)
+            throws Exception {
+        File file = File.createTempFile("ontology", ".owl", directory);
+        file.deleteOnExit();
+        g.ontology.write(file);
+        Ontology o = new Ontology(file.getAbsolutePath());
+        String query = g.query.generate(g.ontology);
+        InputQuery q = Workload.parse(query, o);
+        RewriterImpl rewriter = new RewriterImpl();
+        RewritingBudget budget = RewritingBudget.unlimited().withMaxTime(timeout);
+
+        for (int i = 0; i < warmup; i++) {
+            rewriter.rewrite(q, o, budget, new CancellationToken());
+        }
+        long[] nanos = new long[Math.max(repeat, 1)];
+        long allocated = 0;
+        RewritingResult result = null;
+        for (int i = 0; i < nanos.length; i++) {
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            result = rewriter.rewrite(q, o, budget, new CancellationToken());
+            nanos[i] = System.nanoTime() - start;
+            allocated += allocatedBytes() - bytes;
+        }
+        // the memory retained by the last rewriting, i.e., the difference of the heap with and without it
+        long withResult = usedHeap();
+        int queries = result.getQueries().size();
+        RewritingResult.Status status = result.getStatus();
+        result = null;
+        long retained = Math.max(0, withResult - usedHeap());
+
+        Arrays.sort(nanos);
+        return new Point(query, status, queries, nanos[nanos.length / 2] / 1e6, allocated / nanos.length, retained);
+    }
+
+    /**
+     * Get the number of bytes allocated by the current thread so far.
+     *
+     * @return The number of bytes, or 0 if the JVM does not measure allocations.
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    /**
+     * Get the used heap after a garbage collection.
+     *
+     * @return The number of bytes.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Quote a CSV field.
+     *
+     * @param field The field.
+     * @return The quoted field.
+     */
+    private static String quote(String field) {
+        return "\"" + field.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * The generators of a point of a sweep.
+     */
+    private static final class Generators {
+
+        /**
+         * The generator of the ontology.
+         */
+        private OntologyGenerator ontology;
+        /**
+         * The generator of the query.
+         */
+        private QueryGenerator query;
+
+        /**
+         * Initialize the generators with their defaults.
+         *
+         * @param seed The seed of the generators.
+         */
+        Generators(long seed) {
+            this.ontology = new OntologyGenerator(seed);
+            this.query = new QueryGenerator(seed);
+        }
+    }
+
+    /**
+     * A sweep of a single parameter.
+     */
+    private static final class Sweep {
+
+        /**
+         * The values of the parameter.
+         */
+        private final int[] values;
+        /**
+         * Sets the parameter of the generators to a value.
+         */
+        private final BiFunction<Generators, Integer, Object> apply;
+
+        /**
+         * Initialize a new sweep.
+         *
+         * @param values The values of the parameter.
+         * @param apply Sets the parameter of the generators to a value.
+         */
+        Sweep(int[] values, BiFunction<Generators, Integer, Object> apply) {
+            this.values = values;
+            this.apply = apply;
+        }
+    }
+
+    /**
+     * The measurements of a point of a sweep.
+     */
+    private static final class Point {
+
+        /**
+         * The generated query.
+         */
+        private final String query;
+        /**
+         * The status of the last rewriting.
+         */
+        private final RewritingResult.Status status;
+        /**
+         * The number of queries in the union.
+         */
+        private final int queries;
+        /**
+         * The median time of the rewritings.
+         */
+        private final double medianMillis;
+        /**
+         * The average number of bytes allocated by a rewriting.
+         */
+        private final long allocatedBytes;
+        /**
+         * The number of bytes retained by the union.
+         */
+        private final long retainedBytes;
+
+        /**
+         * Initialize new measurements.
+         *
+         * @param query The generated query.
+         * @param status The status of the last rewriting.
+         * @param queries The number of queries in the union.
+         * @param medianMillis The median time of the rewritings.
+         * @param allocatedBytes The average number of bytes allocated by a rewriting.
+         * @param retainedBytes The number of bytes retained by the union.
+         */
+        Point(String query, RewritingResult.Status status, int queries, double medianMillis, long allocatedBytes,
+              long retainedBytes) {
+            this.query = query;
+            this.status = status;
+            this.queries = queries;
+            this.medianMillis = medianMillis;
+            this.allocatedBytes = allocatedBytes;
+            this.retainedBytes = retainedBytes;
+        }
+    }
+}
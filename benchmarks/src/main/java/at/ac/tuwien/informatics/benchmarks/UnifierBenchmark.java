@@ -0,0 +1,60 @@
+package at.ac.tuwien.informatics.benchmarks;
+
+import at.ac.tuwien.informatics.structure.Unifier;
+import at.ac.tuwien.informatics.structure.query.Term;
+import at.ac.tuwien.informatics.structure.query.UnboundVariable;
+import at.ac.tuwien.informatics.structure.query.Variable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the computation of most general unifiers.
+ * The lists of terms form a chain x_0 = x_1 = ... = x_n, so every term is merged into a single class, and x_0 is an
+ * unbound variable, so the representative has to be chosen among the bound variables.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UnifierBenchmark {
+
+    @Param({"1", "2", "8", "32"})
+    public int length;
+
+    /**
+     * The first list of terms.
+     */
+    private List<Term> t1;
+    /**
+     * The second list of terms.
+     */
+    private List<Term> t2;
+
+    /**
+     * Build the chain of terms.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        t1 = new ArrayList<>();
+        t2 = new ArrayList<>();
+        for (int i = 0; i < length; i++) {
+            t1.add(i == 0 ? new UnboundVariable("x0") : new Variable("x" + i));
+            t2.add(new Variable("x" + (i + 1)));
+        }
+    }
+
+    /**
+     * Compute the most general unifier of the two lists.
+     *
+     * @return The unifier.
+     */
+    @Benchmark
+    public Unifier unify() {
+        return new Unifier(t1, t2);
+    }
+}
@@ -0,0 +1,114 @@
+package at.ac.tuwien.informatics.benchmarks;
+
+import at.ac.tuwien.informatics.structure.InputQueryBuilder;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.InvalidQueryException;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import at.ac.tuwien.informatics.structure.query.InputQuery;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import java.io.File;
+
+/**
+ * The ontologies and queries the benchmarks are run on: the five queries of the use case over vvr.owl, and a query
+ * over each of the smaller test ontologies.
+ * The ontologies are read from the test resources of the main project, or from the directory given by the system
+ * property {@value #RESOURCES_PROPERTY}.
+ */
+public enum Workload {
+
+    VVR_Q1("vvr.owl", "q(x):-pedestrian(x)"),
+    VVR_Q2("vvr.owl", "q(x,xp):-pedestrian(x),LAST_ANNOTATION(x,y),OF(y,z),sample(z)," +
+            "NEXT/NEXT*(z,zp),OF(yp,zp),FIRST_ANNOTATION(xp,yp),pedestrian(xp)"),
+    VVR_Q3("vvr.owl", "q(z,zp):-pedestrian(x),LAST_ANNOTATION(x,y),OF(y,z),sample(z)," +
+            "NEXT/NEXT*(z,zp),OF(yp,zp),FIRST_ANNOTATION(xp,yp),pedestrian(xp)"),
+    VVR_Q4("vvr.owl", "q(x):-pedestrian(x),OF(y,x),HAS(y,z),pedestrian_moving(z),NEXT/NEXT*(y,yp)," +
+            "HAS(yp,zp),pedestrian_stationary(zp)"),
+    VVR_Q5("vvr.owl", "q(x):-pedestrian(x),OF(y,x),HAS(y,z),pedestrian_stationary(z)," +
+            "NEXT/NEXT*(y,yp),HAS(yp,zp),pedestrian_moving(zp)"),
+    UNIVERSITY("university.owl", "q(x):-teaches(x,y),Course(y)"),
+    PATHS1("paths1.owl", "q():-t*(y,za),s*(za,zb),r(zb,x)"),
+    PATHS2("paths2.owl", "q():-A(x),r*(x,y),B(y)");
+
+    /**
+     * The system property that overrides the directory of the ontologies.
+     */
+    public static final String RESOURCES_PROPERTY = "omq.resources";
+
+    /**
+     * The file name of the ontology.
+     */
+    private final String ontology;
+    /**
+     * The query, in the syntax of the query grammar.
+     */
+    private final String query;
+
+    /**
+     * Initialize a new workload.
+     *
+     * @param ontology The file name of the ontology.
+     * @param query The query, in the syntax of the query grammar.
+     */
+    Workload(String ontology, String query) {
+        this.ontology = ontology;
+        this.query = query;
+    }
+
+    /**
+     * Get the file name of the ontology.
+     *
+     * @return The file name, relative to the resources directory.
+     */
+    public String getOntology() {
+        return ontology;
+    }
+
+    /**
+     * Load the ontology of this workload.
+     *
+     * @return The ontology.
+     * @throws OWLOntologyCreationException If the ontology cannot be read.
+     * @throws NotOWL2QLException If the ontology is not in OWL2 QL.
+     */
+    public Ontology loadOntology() throws OWLOntologyCreationException, NotOWL2QLException {
+        return new Ontology(path(ontology));
+    }
+
+    /**
+     * Parse the query of this workload.
+     *
+     * @param o The ontology of this workload.
+     * @return The input query.
+     */
+    public InputQuery parseQuery(Ontology o) {
+        return parse(query, o);
+    }
+
+    /**
+     * Parse a query in the syntax of the query grammar.
+     *
+     * @param query The query.
+     * @param o The ontology the names of the query refer to.
+     * @return The input query.
+     * @throws IllegalArgumentException If the query is not in the syntax of the query grammar.
+     */
+    public static InputQuery parse(String query, Ontology o) {
+        try {
+            return InputQueryBuilder.parse(query, o);
+        } catch (InvalidQueryException e) {
+            throw new IllegalArgumentException("invalid query " + query + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Get the absolute path of a file in the resources directory.
+     *
+     * @param file The name of the file.
+     * @return The absolute path.
+     */
+    public static String path(String file) {
+        File resourcesDirectory = new File(System.getProperty(RESOURCES_PROPERTY, "../omq-cypher/src/test/resources"));
+        return new File(resourcesDirectory, file).getAbsolutePath();
+    }
+}
@@ -0,0 +1,105 @@
+package at.ac.tuwien.informatics.cache;
+
+/**
+ * A snapshot of the statistics of an in-memory cache.
+ */
+public class CacheStatistics {
+
+    /**
+     * The number of lookups that found an entry.
+     */
+    private final long hits;
+    /**
+     * The number of lookups that did not find an entry.
+     */
+    private final long misses;
+    /**
+     * The number of entries that were evicted to make room for other entries.
+     */
+    private final long evictions;
+    /**
+     * The number of entries in the cache.
+     */
+    private final int entries;
+    /**
+     * The estimated number of bytes on the heap used by the entries.
+     */
+    private final long bytes;
+
+    /**
+     * Initialize a new snapshot.
+     *
+     * @param hits The number of lookups that found an entry.
+     * @param misses The number of lookups that did not find an entry.
+     * @param evictions The number of entries that were evicted.
+     * @param entries The number of entries in the cache.
+     * @param bytes The estimated number of bytes on the heap used by the entries.
+     */
+    public CacheStatistics(long hits, long misses, long evictions, int entries, long bytes) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.entries = entries;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Get the number of lookups that found an entry.
+     *
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of lookups that did not find an entry.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Get the number of entries that were evicted to make room for other entries.
+     *
+     * @return The number of evictions.
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Get the number of entries in the cache.
+     *
+     * @return The number of entries.
+     */
+    public int getEntries() {
+        return entries;
+    }
+
+    /**
+     * Get the estimated number of bytes on the heap used by the entries.
+     *
+     * @return The number of bytes.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Get the fraction of lookups that found an entry.
+     *
+     * @return The hit rate, or 0 if there were no lookups.
+     */
+    public double getHitRate() {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + hits + ",misses=" + misses + ",evictions=" + evictions + ",entries=" + entries +
+                ",bytes=" + bytes;
+    }
+}
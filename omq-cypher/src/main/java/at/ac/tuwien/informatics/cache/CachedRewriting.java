@@ -0,0 +1,49 @@
+package at.ac.tuwien.informatics.cache;
+
+import at.ac.tuwien.informatics.structure.query.RewritableQuery;
+
+import java.util.Set;
+
+/**
+ * A cached rewriting: the final set of queries, and optionally their translation.
+ */
+public class CachedRewriting {
+
+    /**
+     * The rewritten queries.
+     */
+    private final Set<RewritableQuery> queries;
+    /**
+     * The translation of the rewritten queries, or null if it was not cached.
+     */
+    private final String translation;
+
+    /**
+     * Initialize a new cached rewriting.
+     *
+     * @param queries The rewritten queries.
+     * @param translation The translation of the rewritten queries, or null if it is not cached.
+     */
+    public CachedRewriting(Set<RewritableQuery> queries, String translation) {
+        this.queries = queries;
+        this.translation = translation;
+    }
+
+    /**
+     * Get the rewritten queries.
+     *
+     * @return Set of queries.
+     */
+    public Set<RewritableQuery> getQueries() {
+        return queries;
+    }
+
+    /**
+     * Get the translation of the rewritten queries.
+     *
+     * @return The translation, or null if it was not cached.
+     */
+    public String getTranslation() {
+        return translation;
+    }
+}
@@ -0,0 +1,122 @@
+package at.ac.tuwien.informatics.cache;
+
+import at.ac.tuwien.informatics.reformulation.CancellationToken;
+import at.ac.tuwien.informatics.reformulation.Rewriter;
+import at.ac.tuwien.informatics.reformulation.RewritingBudget;
+import at.ac.tuwien.informatics.reformulation.RewritingResult;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.query.*;
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * A rewriter that answers rewritings from a {@link MemoryRewritingCache}, and delegates to another rewriter on a
+ * miss. Only complete rewritings are stored. The single rewriting steps are delegated without caching.
+ * The returned sets of queries are unmodifiable, since they are shared with the cache.
+ */
+public class CachingRewriter implements Rewriter {
+
+    /**
+     * The rewriter that computes the rewritings that are not cached.
+     */
+    private final Rewriter rewriter;
+    /**
+     * The cache.
+     */
+    private final MemoryRewritingCache cache;
+
+    /**
+     * Initialize a new caching rewriter.
+     *
+     * @param rewriter The rewriter that computes the rewritings that are not cached.
+     * @param cache The cache, which may be shared with rewriters of other modes.
+     */
+    public CachingRewriter(Rewriter rewriter, MemoryRewritingCache cache) {
+        this.rewriter = rewriter;
+        this.cache = cache;
+    }
+
+    /**
+     * Get the cache of this rewriter.
+     *
+     * @return The cache.
+     */
+    public MemoryRewritingCache getCache() {
+        return cache;
+    }
+
+    @Override
+    public Set<RewritableQuery> rewrite(InputQuery q, Ontology o) {
+        Set<RewritableQuery> Q = cache.get(o, q, rewriter.getMode());
+        if (Q == null) {
+            Q = cache.put(o, q, rewriter.getMode(), rewriter.rewrite(q, o));
+        }
+        return Q;
+    }
+
+    @Override
+    public RewritingResult rewrite(InputQuery q, Ontology o, RewritingBudget budget, CancellationToken token) {
+        Set<RewritableQuery> Q = cache.get(o, q, rewriter.getMode());
+        if (Q != null) {
+            return new RewritingResult(Q, RewritingResult.Status.COMPLETE);
+        }
+        RewritingResult result = rewriter.rewrite(q, o, budget, token);
+        if (result.isComplete()) {
+            return new RewritingResult(cache.put(o, q, rewriter.getMode(), result.getQueries()), result.getStatus());
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<RewritableQuery> rewriteStream(InputQuery q, Ontology o) {
+        Set<RewritableQuery> Q = cache.get(o, q, rewriter.getMode());
+        return Q != null ? Q.stream() : rewriter.rewriteStream(q, o);
+    }
+
+    @Override
+    public RewritableQuery saturatePaths(InputQuery q, Ontology o) {
+        return rewriter.saturatePaths(q, o);
+    }
+
+    @Override
+    public RewritableQuery tau(RewritableQuery q) {
+        return rewriter.tau(q);
+    }
+
+    @Override
+    public RewritableQuery concatenate(RewritableQuery q, Binary a1, ArbitraryLengthAtom a2) {
+        return rewriter.concatenate(q, a1, a2);
+    }
+
+    @Override
+    public Set<RewritableQuery> merge(RewritableQuery q, Binary a1, Binary a2) {
+        return rewriter.merge(q, a1, a2);
+    }
+
+    @Override
+    public RewritableQuery drop(RewritableQuery q, ArbitraryLengthAtom a) {
+        return rewriter.drop(q, a);
+    }
+
+    @Override
+    public RewritableQuery reduce(RewritableQuery q, RewritableAtom a1, RewritableAtom a2) {
+        return rewriter.reduce(q, a1, a2);
+    }
+
+    @Override
+    public RewritableQuery replace(RewritableQuery q, RewritableAtom a, Ontology o, OWLAxiom I) {
+        return rewriter.replace(q, a, o, I);
+    }
+
+    @Override
+    public String getFreshVariableName() {
+        return rewriter.getFreshVariableName();
+    }
+
+    @Override
+    public String getMode() {
+        return rewriter.getMode();
+    }
+}
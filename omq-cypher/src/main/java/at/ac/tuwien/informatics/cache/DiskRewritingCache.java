@@ -0,0 +1,234 @@
+package at.ac.tuwien.informatics.cache;
+
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.query.InputQuery;
+import org.semanticweb.owlapi.model.IRI;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A persistent cache of rewritings, keyed by the content of the ontology, the mode of the rewriter (see
+ * {@link at.ac.tuwien.informatics.reformulation.Rewriter#getMode()}) and the normal form of the input query.
+ * The cache directory holds one subdirectory per fingerprint of an ontology (see {@link Ontology#getFingerprint()}),
+ * which holds one compressed file per input query and mode. The entries of other versions of an ontology, i.e.,
+ * with the same IRI but another fingerprint, are kept, since several versions may be in use at the same time, e.g.,
+ * by different processes; they are only deleted by {@link #evictOtherVersions(Collection)}.
+ */
+public class DiskRewritingCache {
+
+    /**
+     * The name of the file that holds the IRI of the ontology in each subdirectory.
+     */
+    private static final String ONTOLOGY_FILE = "ontology";
+    /**
+     * The suffix of the files that hold the cached rewritings.
+     */
+    private static final String ENTRY_SUFFIX = ".gz";
+
+    /**
+     * The cache directory.
+     */
+    private final Path directory;
+    /**
+     * The fingerprints whose subdirectory has been prepared by this cache.
+     */
+    private final Set<String> prepared = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Initialize a new cache, and create the cache directory if it does not exist.
+     *
+     * @param directory The cache directory.
+     * @throws IOException If the directory cannot be created.
+     */
+    public DiskRewritingCache(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /**
+     * Get the cached rewriting of a query.
+     * Entries that cannot be read are treated as missing, and deleted.
+     *
+     * @param o The ontology.
+     * @param q The input query.
+     * @param mode The mode of the rewriter.
+     * @return The cached rewriting, or null if there is none.
+     */
+    public CachedRewriting get(Ontology o, InputQuery q, String mode) {
+        Path file;
+        try {
+            file = entry(o, q, mode);
+        } catch (IOException e) {
+            return null;
+        }
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            CachedRewriting rewriting = RewritingCodec.read(key(q, mode), o, in);
+            if (rewriting != null) {
+                return rewriting;
+            }
+        } catch (IOException | RuntimeException e) {
+            // damaged entry, e.g., from an interrupted write, or with names that are not valid IRIs
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // the entry is overwritten with the next put
+        }
+        return null;
+    }
+
+    /**
+     * Store the rewriting of a query.
+     * The entry is written to a temporary file first, and then moved into place, so concurrent readers never see
+     * a partial entry.
+     *
+     * @param o The ontology.
+     * @param q The input query.
+     * @param mode The mode of the rewriter.
+     * @param rewriting The rewriting of q with o.
+     * @throws IOException If the entry cannot be written.
+     */
+    public void put(Ontology o, InputQuery q, String mode, CachedRewriting rewriting) throws IOException {
+        Path file = entry(o, q, mode);
+        Path tmp;
+        try {
+            tmp = Files.createTempFile(file.getParent(), "entry", ".tmp");
+        } catch (NoSuchFileException e) {
+            // the subdirectory has been evicted in the meantime, e.g., by another process
+            prepared.remove(o.getFingerprint());
+            file = entry(o, q, mode);
+            tmp = Files.createTempFile(file.getParent(), "entry", ".tmp");
+        }
+        try {
+            try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                RewritingCodec.write(key(q, mode), rewriting, out);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Get the key of the entry for a query, which is stored in the entry and checked when it is read.
+     *
+     * @param q The input query.
+     * @param mode The mode of the rewriter.
+     * @return The key.
+     */
+    private static String key(InputQuery q, String mode) {
+        return mode + "|" + q.getNormalForm();
+    }
+
+    /**
+     * Delete the entries of the other versions of some ontologies, i.e., of the ontologies with the same IRI as one of
+     * the given ontologies, but with a fingerprint of none of them. Anonymous ontologies cannot be recognized, so
+     * their versions are kept.
+     * Only call this if the other versions are no longer in use, also by other processes that share the directory.
+     *
+     * @param ontologies The current versions of the ontologies.
+     * @return The number of versions whose entries have been deleted.
+     * @throws IOException If the entries cannot be deleted.
+     */
+    public int evictOtherVersions(Collection<Ontology> ontologies) throws IOException {
+        Set<String> iris = new HashSet<>();
+        Set<String> fingerprints = new HashSet<>();
+        for (Ontology o : ontologies) {
+            String iri = iri(o);
+            if (!iri.isEmpty()) {
+                iris.add(iri);
+            }
+            fingerprints.add(o.getFingerprint());
+        }
+        int evicted = 0;
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(directory, Files::isDirectory)) {
+            for (Path other : dirs) {
+                String fingerprint = other.getFileName().toString();
+                Path ontologyFile = other.resolve(ONTOLOGY_FILE);
+                if (!fingerprints.contains(fingerprint) && Files.exists(ontologyFile) &&
+                        iris.contains(new String(Files.readAllBytes(ontologyFile), StandardCharsets.UTF_8))) {
+                    prepared.remove(fingerprint);
+                    delete(other);
+                    evicted++;
+                }
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Get the file of the entry for a query, and prepare the subdirectory of the ontology on first use, or again if
+     * it has been deleted in the meantime, e.g., because another process has evicted it.
+     *
+     * @param o The ontology.
+     * @param q The input query.
+     * @param mode The mode of the rewriter.
+     * @return The path to the entry.
+     * @throws IOException If the subdirectory cannot be prepared.
+     */
+    private Path entry(Ontology o, InputQuery q, String mode) throws IOException {
+        String fingerprint = o.getFingerprint();
+        Path dir = directory.resolve(fingerprint);
+        if (!prepared.contains(fingerprint) || !Files.isDirectory(dir)) {
+            Files.createDirectories(dir);
+            Files.write(dir.resolve(ONTOLOGY_FILE), iri(o).getBytes(StandardCharsets.UTF_8));
+            prepared.add(fingerprint);
+        }
+        return dir.resolve(hash(key(q, mode)) + ENTRY_SUFFIX);
+    }
+
+    /**
+     * Get the IRI of an ontology, which tells its versions apart from other ontologies.
+     *
+     * @param o The ontology.
+     * @return The IRI, or the empty String if the ontology is anonymous.
+     */
+    private static String iri(Ontology o) {
+        return o.getOntology().getOntologyID().getOntologyIRI().map(IRI::toString).orElse("");
+    }
+
+    /**
+     * Delete a directory and its contents.
+     *
+     * @param dir The directory.
+     * @throws IOException If a file cannot be deleted.
+     */
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    /**
+     * Compute the SHA-256 hash of a String.
+     *
+     * @param s The String.
+     * @return The hash as a hexadecimal String.
+     */
+    private static String hash(String s) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8));
+            return String.format("%064x", new BigInteger(1, digest));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package at.ac.tuwien.informatics.cache;
+
+import at.ac.tuwien.informatics.reformulation.Rewriter;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.query.InputQuery;
+import at.ac.tuwien.informatics.structure.query.RewritableQuery;
+
+import java.util.*;
+
+/**
+ * A bounded in-memory cache of rewritings, keyed by the identity of the ontology, the mode of the rewriting, and the
+ * normal form of the input query (see {@link InputQuery#getNormalForm()}). The mode tells apart rewritings that differ
+ * for the same query, e.g., those of rewriters with different modes (see {@link Rewriter#getMode()}), or pruned and
+ * unpruned rewritings, so a cache may be shared by all of them. A rewriting may be cached together with its
+ * translation, so a hit does not pay for translating the rewriting again.
+ * The cache is bounded by the estimated heap usage of the cached queries (see
+ * {@link RewritableQuery#getEstimatedSize()}) rather than by the number of entries, since the sizes of rewritings
+ * differ by orders of magnitude. When the bound is exceeded, the least recently used entries are evicted.
+ * All methods are thread-safe.
+ */
+public class MemoryRewritingCache {
+
+    /**
+     * Rough number of bytes on the heap of an entry, its key and its set, without the queries and the translation.
+     */
+    private static final long ENTRY_BYTES = 200;
+
+    /**
+     * The maximal estimated number of bytes on the heap used by the entries.
+     */
+    private final long maxBytes;
+    /**
+     * The entries, from the least to the most recently used.
+     */
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * The estimated number of bytes on the heap used by the entries.
+     */
+    private long bytes;
+    /**
+     * The number of lookups that found an entry.
+     */
+    private long hits;
+    /**
+     * The number of lookups that did not find an entry.
+     */
+    private long misses;
+    /**
+     * The number of entries that were evicted.
+     */
+    private long evictions;
+
+    /**
+     * Initialize a new cache.
+     *
+     * @param maxBytes The maximal estimated number of bytes on the heap used by the entries.
+     */
+    public MemoryRewritingCache(long maxBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("The size of a cache must be positive");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Get the cached rewriting of a query.
+     * An entry is only returned if the ontology has not changed since the entry was stored.
+     *
+     * @param o The ontology.
+     * @param q The input query.
+     * @param mode The mode of the rewriting.
+     * @return The unmodifiable set of rewritten queries, or null if there is none.
+     */
+    public Set<RewritableQuery> get(Ontology o, InputQuery q, String mode) {
+        CachedRewriting rewriting = getRewriting(o, q, mode);
+        return rewriting == null ? null : rewriting.getQueries();
+    }
+
+    /**
+     * Get the cached rewriting of a query, together with its translation if it has been stored.
+     * An entry is only returned if the ontology has not changed since the entry was stored.
+     *
+     * @param o The ontology.
+     * @param q The input query.
+     * @param mode The mode of the rewriting.
+     * @return The rewriting with an unmodifiable set of rewritten queries, or null if there is none.
+     */
+    public CachedRewriting getRewriting(Ontology o, InputQuery q, String mode) {
+        // the fingerprint may hash the whole ontology, so it is not computed while holding the lock
+        String fingerprint = o.getFingerprint();
+        Key key = new Key(o, mode, q.getNormalForm());
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && !entry.fingerprint.equals(fingerprint)) {
+                // the ontology has been modified
+                remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+            return entry.rewriting;
+        }
+    }
+
+    /**
+     * Store the rewriting of a query, and evict the least recently used entries if the cache is full.
+     * Rewritings that are larger than the whole cache are not stored.
+     *
+     * @param o The ontology.
+     * @param q The input query.
+     * @param mode The mode of the rewriting.
+     * @param queries The rewriting of q with o.
+     * @return The unmodifiable copy of the queries that is returned by later lookups.
+     */
+    public Set<RewritableQuery> put(Ontology o, InputQuery q, String mode, Set<RewritableQuery> queries) {
+        return put(o, q, mode, new CachedRewriting(queries, null)).getQueries();
+    }
+
+    /**
+     * Store the rewriting of a query together with its translation, and evict the least recently used entries if the
+     * cache is full. Rewritings that are larger than the whole cache are not stored.
+     *
+     * @param o The ontology.
+     * @param q The input query.
+     * @param mode The mode of the rewriting.
+     * @param rewriting The rewriting of q with o, and its translation or null.
+     * @return The rewriting with an unmodifiable copy of the queries that is returned by later lookups.
+     */
+    public CachedRewriting put(Ontology o, InputQuery q, String mode, CachedRewriting rewriting) {
+        Set<RewritableQuery> queries = rewriting.getQueries();
+        String translation = rewriting.getTranslation();
+        Entry entry = new Entry(o.getFingerprint(),
+                new CachedRewriting(Collections.unmodifiableSet(new HashSet<>(queries)), translation),
+                ENTRY_BYTES + queries.stream().mapToLong(RewritableQuery::getEstimatedSize).sum() +
+                        (translation == null ? 0 : 2L * translation.length()));
+        Key key = new Key(o, mode, q.getNormalForm());
+        synchronized (this) {
+            remove(key);
+            if (entry.bytes > maxBytes) {
+                return entry.rewriting;
+            }
+            entries.put(key, entry);
+            bytes += entry.bytes;
+            Iterator<Entry> it = entries.values().iterator();
+            while (bytes > maxBytes) {
+                bytes -= it.next().bytes;
+                it.remove();
+                evictions++;
+            }
+            return entry.rewriting;
+        }
+    }
+
+    /**
+     * Remove all entries of an ontology.
+     *
+     * @param o The ontology.
+     */
+    public synchronized void invalidate(Ontology o) {
+        Iterator<Map.Entry<Key, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Entry> e = it.next();
+            if (e.getKey().ontology == o) {
+                bytes -= e.getValue().bytes;
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Get a snapshot of the statistics of this cache.
+     *
+     * @return The statistics.
+     */
+    public synchronized CacheStatistics getStatistics() {
+        return new CacheStatistics(hits, misses, evictions, entries.size(), bytes);
+    }
+
+    /**
+     * Remove an entry, if present.
+     *
+     * @param key The key of the entry.
+     */
+    private void remove(Key key) {
+        Entry old = entries.remove(key);
+        if (old != null) {
+            bytes -= old.bytes;
+        }
+    }
+
+    /**
+     * The key of an entry: an ontology, compared by identity, the mode of the rewriting, and the normal form of a
+     * query.
+     */
+    private static final class Key {
+
+        /**
+         * The ontology.
+         */
+        private final Ontology ontology;
+        /**
+         * The mode of the rewriting.
+         */
+        private final String mode;
+        /**
+         * The normal form of the input query.
+         */
+        private final String query;
+
+        /**
+         * Initialize a new key.
+         *
+         * @param ontology The ontology.
+         * @param mode The mode of the rewriting.
+         * @param query The normal form of the input query.
+         */
+        Key(Ontology ontology, String mode, String query) {
+            this.ontology = ontology;
+            this.mode = mode;
+            this.query = query;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * System.identityHashCode(ontology) + mode.hashCode()) + query.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key k = (Key) obj;
+
+            return this.ontology == k.ontology && this.mode.equals(k.mode) && this.query.equals(k.query);
+        }
+    }
+
+    /**
+     * A cached rewriting, together with the fingerprint of the ontology it was computed with and its size.
+     */
+    private static final class Entry {
+
+        /**
+         * The fingerprint of the ontology.
+         */
+        private final String fingerprint;
+        /**
+         * The rewritten queries, and their translation or null.
+         */
+        private final CachedRewriting rewriting;
+        /**
+         * The estimated number of bytes on the heap used by this entry.
+         */
+        private final long bytes;
+
+        /**
+         * Initialize a new entry.
+         *
+         * @param fingerprint The fingerprint of the ontology.
+         * @param rewriting The rewritten queries, and their translation or null.
+         * @param bytes The estimated number of bytes on the heap used by this entry.
+         */
+        Entry(String fingerprint, CachedRewriting rewriting, long bytes) {
+            this.fingerprint = fingerprint;
+            this.rewriting = rewriting;
+            this.bytes = bytes;
+        }
+    }
+}
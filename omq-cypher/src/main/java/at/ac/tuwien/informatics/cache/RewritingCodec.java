@@ -0,0 +1,318 @@
+package at.ac.tuwien.informatics.cache;
+
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.query.*;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Binary encoding of cached rewritings.
+ * All Strings (IRIs and variable names) are written once into a table at the start, and referenced by their index
+ * afterwards. Integers are written as variable-length quantities. The encoding is meant to be compressed.
+ */
+final class RewritingCodec {
+
+    /**
+     * Marks the start of an encoded rewriting.
+     */
+    private static final int MAGIC = 0x4f4d5143;
+    /**
+     * The version of the encoding. Entries with another version are not read.
+     */
+    private static final int VERSION = 3;
+
+    /**
+     * Kind of atom: concept name.
+     */
+    private static final int CONCEPTNAME = 0;
+    /**
+     * Kind of atom: single length roles atom.
+     */
+    private static final int ROLES = 1;
+    /**
+     * Kind of atom: arbitrary length atom.
+     */
+    private static final int ARBITRARY_LENGTH = 2;
+    /**
+     * Kind of atom: disjunction of concept names.
+     */
+    private static final int CONCEPTS = 3;
+
+    private RewritingCodec() {
+    }
+
+    /**
+     * Write a rewriting.
+     *
+     * @param key The key of the rewriting, which is checked when the rewriting is read.
+     * @param rewriting The rewriting.
+     * @param out The output the rewriting is written to.
+     * @throws IOException If writing to the output fails.
+     */
+    static void write(String key, CachedRewriting rewriting, OutputStream out) throws IOException {
+        Map<String, Integer> strings = new LinkedHashMap<>();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream body = new DataOutputStream(buffer);
+
+        writeInt(body, rewriting.getQueries().size());
+        for (RewritableQuery q : rewriting.getQueries()) {
+            writeInt(body, q.getHead().size());
+            for (Variable v : q.getHead()) {
+                writeInt(body, index(strings, v.getName()));
+            }
+            writeInt(body, q.getBody().size());
+            for (RewritableAtom a : q.getBody()) {
+                if (a instanceof Conceptname) {
+                    Conceptname c = (Conceptname) a;
+                    body.writeByte(CONCEPTNAME);
+                    writeInt(body, index(strings, c.getName().getIRI().toString()));
+                    writeTerm(body, strings, c.getTerm());
+                } else if (a instanceof Concepts) {
+                    Concepts c = (Concepts) a;
+                    body.writeByte(CONCEPTS);
+                    writeInt(body, c.getNames().size());
+                    for (OWLClass n : c.getNames()) {
+                        writeInt(body, index(strings, n.getIRI().toString()));
+                    }
+                    writeTerm(body, strings, c.getTerm());
+                } else {
+                    Binary b = (Binary) a;
+                    body.writeByte(b instanceof Roles ? ROLES : ARBITRARY_LENGTH);
+                    writeInt(body, b.getRoles().size());
+                    for (OWLObjectPropertyExpression p : b.getRoles()) {
+                        int i = index(strings, p.getNamedProperty().getIRI().toString());
+                        writeInt(body, i << 1 | (p instanceof OWLObjectInverseOf ? 1 : 0));
+                    }
+                    writeTerm(body, strings, b.getLeft());
+                    writeTerm(body, strings, b.getRight());
+                }
+            }
+        }
+        body.writeBoolean(rewriting.getTranslation() != null);
+        if (rewriting.getTranslation() != null) {
+            writeString(body, rewriting.getTranslation());
+        }
+        body.flush();
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        writeString(data, key);
+        writeInt(data, strings.size());
+        for (String s : strings.keySet()) {
+            writeString(data, s);
+        }
+        buffer.writeTo(data);
+        data.flush();
+    }
+
+    /**
+     * Read a rewriting.
+     *
+     * @param key The expected key of the rewriting.
+     * @param o The ontology the names of the rewriting are taken from.
+     * @param in The input the rewriting is read from.
+     * @return The rewriting, or null if the input holds a rewriting with another key or another version.
+     * @throws IOException If reading from the input fails, or the input is not a rewriting, e.g., a count is negative
+     * or an index is out of the table of Strings.
+     */
+    static CachedRewriting read(String key, Ontology o, InputStream in) throws IOException {
+        OWLDataFactory factory = o.getOntology().getOWLOntologyManager().getOWLDataFactory();
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a cached rewriting");
+        }
+        if (data.readInt() != VERSION || !readString(data).equals(key)) {
+            return null;
+        }
+        // the table is not allocated up front, so a damaged count runs into the end of the input instead
+        int stringCount = readCount(data);
+        List<String> table = new ArrayList<>();
+        for (int i = 0; i < stringCount; i++) {
+            table.add(readString(data));
+        }
+        String[] strings = table.toArray(new String[0]);
+
+        int size = readCount(data);
+        Set<RewritableQuery> queries = new HashSet<>();
+        for (int i = 0; i < size; i++) {
+            int headSize = readCount(data);
+            List<Variable> head = new LinkedList<>();
+            for (int j = 0; j < headSize; j++) {
+                head.add(new Variable(string(strings, readInt(data))));
+            }
+            int bodySize = readCount(data);
+            Set<RewritableAtom> body = new HashSet<>();
+            for (int j = 0; j < bodySize; j++) {
+                int kind = data.readByte();
+                if (kind == CONCEPTNAME) {
+                    OWLClass c = factory.getOWLClass(IRI.create(string(strings, readInt(data))));
+                    body.add(new Conceptname(c, readTerm(data, strings)));
+                } else if (kind == CONCEPTS) {
+                    int nameCount = readCount(data);
+                    Set<OWLClass> names = new HashSet<>();
+                    for (int k = 0; k < nameCount; k++) {
+                        names.add(factory.getOWLClass(IRI.create(string(strings, readInt(data)))));
+                    }
+                    body.add(new Concepts(names, readTerm(data, strings)));
+                } else if (kind == ROLES || kind == ARBITRARY_LENGTH) {
+                    int roleCount = readCount(data);
+                    Set<OWLObjectPropertyExpression> roles = new HashSet<>();
+                    for (int k = 0; k < roleCount; k++) {
+                        int r = readInt(data);
+                        OWLObjectProperty p = factory.getOWLObjectProperty(IRI.create(string(strings, r >>> 1)));
+                        roles.add((r & 1) == 1 ? p.getInverseProperty() : p);
+                    }
+                    Term left = readTerm(data, strings);
+                    Term right = readTerm(data, strings);
+                    body.add(kind == ROLES ? new Roles(roles, left, right) :
+                            new ArbitraryLengthAtom(roles, left, right));
+                } else {
+                    throw new IOException("Unknown kind of atom " + kind);
+                }
+            }
+            queries.add(new RewritableQuery(head, body));
+        }
+        String translation = data.readBoolean() ? readString(data) : null;
+        return new CachedRewriting(queries, translation);
+    }
+
+    /**
+     * Get the index of a String in the table, and add it to the table if it is not in there yet.
+     *
+     * @param strings The table of Strings.
+     * @param s The String.
+     * @return The index of s.
+     */
+    private static int index(Map<String, Integer> strings, String s) {
+        return strings.computeIfAbsent(s, k -> strings.size());
+    }
+
+    /**
+     * Look up a String in the table.
+     *
+     * @param strings The table of Strings.
+     * @param i The index of the String.
+     * @return The String.
+     * @throws IOException If the index is out of the table.
+     */
+    private static String string(String[] strings, int i) throws IOException {
+        if (i < 0 || i >= strings.length) {
+            throw new IOException("Index " + i + " out of the table of " + strings.length + " Strings");
+        }
+        return strings[i];
+    }
+
+    /**
+     * Write a term as the index of its name, where the lowest bit marks unbound variables.
+     *
+     * @param out The output.
+     * @param strings The table of Strings.
+     * @param t The term.
+     * @throws IOException If writing to the output fails.
+     */
+    private static void writeTerm(DataOutput out, Map<String, Integer> strings, Term t) throws IOException {
+        writeInt(out, index(strings, t.getName()) << 1 | (t instanceof UnboundVariable ? 1 : 0));
+    }
+
+    /**
+     * Read a term.
+     *
+     * @param in The input.
+     * @param strings The table of Strings.
+     * @return The term.
+     * @throws IOException If reading from the input fails.
+     */
+    private static Term readTerm(DataInput in, String[] strings) throws IOException {
+        int t = readInt(in);
+        String name = string(strings, t >>> 1);
+        return (t & 1) == 1 ? new UnboundVariable(name) : new Variable(name);
+    }
+
+    /**
+     * Write a non-negative integer as a variable-length quantity: seven bits per byte, where the highest bit marks
+     * that more bytes follow.
+     *
+     * @param out The output.
+     * @param value The integer.
+     * @throws IOException If writing to the output fails.
+     */
+    private static void writeInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Read a non-negative integer written by {@link #writeInt(DataOutput, int)}.
+     *
+     * @param in The input.
+     * @return The integer.
+     * @throws IOException If reading from the input fails.
+     */
+    private static int readInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed integer");
+    }
+
+    /**
+     * Read a count written by {@link #writeInt(DataOutput, int)}.
+     *
+     * @param in The input.
+     * @return The count.
+     * @throws IOException If reading from the input fails, or the count is negative.
+     */
+    private static int readCount(DataInput in) throws IOException {
+        int count = readInt(in);
+        if (count < 0) {
+            throw new IOException("Negative count " + count);
+        }
+        return count;
+    }
+
+    /**
+     * Write a String of any length as its length and its UTF-8 bytes.
+     *
+     * @param out The output.
+     * @param s The String.
+     * @throws IOException If writing to the output fails.
+     */
+    private static void writeString(DataOutput out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read a String written by {@link #writeString(DataOutput, String)}.
+     *
+     * @param in The input.
+     * @return The String.
+     * @throws IOException If reading from the input fails.
+     */
+    private static String readString(DataInput in) throws IOException {
+        int length = readCount(in);
+        // read in chunks, so a damaged length runs into the end of the input before it allocates much memory
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.min(length, 8192));
+        byte[] chunk = new byte[8192];
+        while (length > 0) {
+            int n = Math.min(length, chunk.length);
+            in.readFully(chunk, 0, n);
+            bytes.write(chunk, 0, n);
+            length -= n;
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
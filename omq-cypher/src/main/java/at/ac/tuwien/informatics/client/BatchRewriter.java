@@ -0,0 +1,342 @@
+package at.ac.tuwien.informatics.client;
+
+import at.ac.tuwien.informatics.cache.DiskRewritingCache;
+import at.ac.tuwien.informatics.reformulation.CancellationToken;
+import at.ac.tuwien.informatics.reformulation.Rewriter;
+import at.ac.tuwien.informatics.reformulation.RewritingBudget;
+import at.ac.tuwien.informatics.reformulation.RewritingResult;
+import at.ac.tuwien.informatics.structure.InputQueryBuilder;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.InvalidQueryException;
+import at.ac.tuwien.informatics.structure.query.InputQuery;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.*;
+
+/**
+ * Rewrites a batch of queries over a single ontology without any interaction, e.g., on a headless server.
+ * The ontology is loaded once, and the queries are rewritten in parallel by a fixed number of threads. For each query,
+ * the Cypher query is written to its own file in the output directory, named after the position of the query in the
+ * batch (q1.cypher, q2.cypher, ...), and the timings of all queries are written to timings.csv in the same directory.
+ * A query that cannot be parsed or rewritten does not stop the batch; its error is reported in the timings instead.
+ * Neither does a query whose rewriting exceeds its time budget; it is marked as timed out in the timings.
+ */
+public class BatchRewriter {
+
+    /**
+     * The name of the file with the timings of the queries.
+     */
+    public static final String TIMINGS = "timings.csv";
+
+    /**
+     * The ontology.
+     */
+    private final Ontology ontology;
+    /**
+     * The steps from a query to its Cypher query, shared by all threads.
+     */
+    private final RewritingPipeline pipeline;
+    /**
+     * The number of threads.
+     */
+    private final int threads;
+    /**
+     * The time budget of the rewriting of a single query.
+     */
+    private final RewritingBudget budget;
+
+    /**
+     * Initialize a new batch rewriter.
+     *
+     * @param ontology The ontology.
+     * @param rewriter The rewriter, which must support concurrent rewritings.
+     * @param cache The persistent cache of rewritings, or null.
+     * @param threads The number of queries that are rewritten at the same time.
+     * @param timeout The time budget of the rewriting of a single query.
+     */
+    public BatchRewriter(Ontology ontology, Rewriter rewriter, DiskRewritingCache cache, int threads,
+                         Duration timeout) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.ontology = ontology;
+        this.pipeline = new RewritingPipeline(rewriter, null, cache);
+        this.threads = threads;
+        this.budget = RewritingBudget.unlimited().withMaxTime(timeout);
+    }
+
+    /**
+     * Read the queries of a batch from a file, one query per line. Empty lines and lines starting with # are skipped.
+     *
+     * @param file The file.
+     * @return The queries, in the order of the file.
+     * @throws IOException If the file cannot be read.
+     */
+    public static List<String> readQueries(Path file) throws IOException {
+        List<String> queries = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String query = line.trim();
+            if (!query.isEmpty() && !query.startsWith("#")) {
+                queries.add(query);
+            }
+        }
+        return queries;
+    }
+
+    /**
+     * Rewrite the queries, and write the Cypher queries and the timings to the output directory.
+     *
+     * @param queries The queries.
+     * @param output The output directory, which is created if it does not exist.
+     * @return The results of the queries, in the order of the queries.
+     * @throws IOException If the output cannot be written.
+     * @throws InterruptedException If the thread is interrupted while waiting for the queries.
+     */
+    public List<Result> run(List<String> queries, Path output) throws IOException, InterruptedException {
+        Files.createDirectories(output);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (int i = 0; i < queries.size(); i++) {
+                String name = "q" + (i + 1);
+                String query = queries.get(i);
+                futures.add(executor.submit(() -> rewrite(name, query, output)));
+            }
+            List<Result> results = new ArrayList<>();
+            for (Future<Result> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+            writeTimings(results, output.resolve(TIMINGS));
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Rewrite a single query, and write its Cypher query to the output directory.
+     *
+     * @param name The name of the query.
+     * @param query The query.
+     * @param output The output directory.
+     * @return The result of the query.
+     */
+    private Result rewrite(String name, String query, Path output) {
+        long start = System.nanoTime();
+        try {
+            InputQuery q = InputQueryBuilder.parse(query, ontology);
+            long parsed = System.nanoTime();
+
+            RewritingPipeline.Outcome outcome = pipeline.rewrite(ontology, q, budget, new CancellationToken());
+            if (!outcome.isComplete()) {
+                return new Result(name, query, outcome.getQueries().size(), parsed - start, outcome.getRewriteNanos(),
+                        0, "the rewriting did not complete: " + outcome.getStatus(),
+                        outcome.getStatus() == RewritingResult.Status.TIME_LIMIT);
+            }
+            Files.write(output.resolve(name + ".cypher"), outcome.getTranslation().getBytes(StandardCharsets.UTF_8));
+            // a rewriting that cannot be stored in the cache is still a result
+            return new Result(name, query, outcome.getQueries().size(), parsed - start, outcome.getRewriteNanos(),
+                    outcome.getTranslateNanos(), null, false);
+        } catch (InvalidQueryException e) {
+            return new Result(name, query, 0, System.nanoTime() - start, 0, 0, "invalid query: " + e.getMessage(),
+                    false);
+        } catch (IOException | RuntimeException e) {
+            return new Result(name, query, 0, System.nanoTime() - start, 0, 0, e.toString(), false);
+        }
+    }
+
+    /**
+     * Write the timings of the queries as CSV.
+     *
+     * @param results The results of the queries.
+     * @param file The CSV file.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void writeTimings(List<Result> results, Path file) throws IOException {
+        try (PrintWriter pw = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            pw.println("name,query,queries,parseMillis,rewriteMillis,translateMillis,timedOut,error");
+            for (Result r : results) {
+                pw.println(String.join(",", r.getName(), quote(r.getQuery()), Integer.toString(r.getQueries()),
+                        millis(r.getParseNanos()), millis(r.getRewriteNanos()), millis(r.getTranslateNanos()),
+                        Boolean.toString(r.isTimedOut()),
+                        r.getError() == null ? "" : quote(r.getError())));
+            }
+        }
+    }
+
+    /**
+     * Format a duration in milliseconds.
+     *
+     * @param nanos The duration in nanoseconds.
+     * @return The duration in milliseconds, with three decimals.
+     */
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    /**
+     * Quote a CSV field.
+     *
+     * @param field The field.
+     * @return The quoted field.
+     */
+    private static String quote(String field) {
+        return "\"" + field.replaceAll("\\R", " ").replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * The result of rewriting a single query of a batch.
+     */
+    public static class Result {
+
+        /**
+         * The name of the query, which is also the name of its Cypher file.
+         */
+        private final String name;
+        /**
+         * The query.
+         */
+        private final String query;
+        /**
+         * The number of queries in the rewriting, or of the queries derived before the rewriting has been stopped.
+         */
+        private final int queries;
+        /**
+         * The time of parsing the query.
+         */
+        private final long parseNanos;
+        /**
+         * The time of rewriting and pruning the query, or of looking it up in the cache.
+         */
+        private final long rewriteNanos;
+        /**
+         * The time of translating the rewriting to Cypher.
+         */
+        private final long translateNanos;
+        /**
+         * The error, or null if the query has been rewritten.
+         */
+        private final String error;
+        /**
+         * Whether the rewriting has exceeded its time budget.
+         */
+        private final boolean timedOut;
+
+        /**
+         * Initialize a new result.
+         *
+         * @param name The name of the query.
+         * @param query The query.
+         * @param queries The number of queries in the rewriting.
+         * @param parseNanos The time of parsing the query.
+         * @param rewriteNanos The time of rewriting and pruning the query.
+         * @param translateNanos The time of translating the rewriting to Cypher.
+         * @param error The error, or null if the query has been rewritten.
+         * @param timedOut Whether the rewriting has exceeded its time budget.
+         */
+        Result(String name, String query, int queries, long parseNanos, long rewriteNanos, long translateNanos,
+               String error, boolean timedOut) {
+            this.name = name;
+            this.query = query;
+            this.queries = queries;
+            this.parseNanos = parseNanos;
+            this.rewriteNanos = rewriteNanos;
+            this.translateNanos = translateNanos;
+            this.error = error;
+            this.timedOut = timedOut;
+        }
+
+        /**
+         * Get the name of the query, which is also the name of its Cypher file.
+         *
+         * @return The name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get the query.
+         *
+         * @return The query.
+         */
+        public String getQuery() {
+            return query;
+        }
+
+        /**
+         * Get the number of queries in the rewriting.
+         *
+         * @return The number of queries.
+         */
+        public int getQueries() {
+            return queries;
+        }
+
+        /**
+         * Get the time of parsing the query.
+         *
+         * @return The time in nanoseconds.
+         */
+        public long getParseNanos() {
+            return parseNanos;
+        }
+
+        /**
+         * Get the time of rewriting and pruning the query, or of looking it up in the cache.
+         *
+         * @return The time in nanoseconds.
+         */
+        public long getRewriteNanos() {
+            return rewriteNanos;
+        }
+
+        /**
+         * Get the time of translating the rewriting to Cypher.
+         *
+         * @return The time in nanoseconds.
+         */
+        public long getTranslateNanos() {
+            return translateNanos;
+        }
+
+        /**
+         * Get the error of the query.
+         *
+         * @return The error, or null if the query has been rewritten.
+         */
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * Check whether the rewriting has exceeded its time budget.
+         *
+         * @return True if the query has not been rewritten in time.
+         */
+        public boolean isTimedOut() {
+            return timedOut;
+        }
+
+        /**
+         * Check whether the query has been rewritten.
+         *
+         * @return True if there was no error.
+         */
+        public boolean isSuccessful() {
+            return error == null;
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package at.ac.tuwien.informatics.client;
+
+import at.ac.tuwien.informatics.cache.DiskRewritingCache;
+import at.ac.tuwien.informatics.reformulation.CancellationToken;
+import at.ac.tuwien.informatics.reformulation.Rewriter;
+import at.ac.tuwien.informatics.reformulation.RewriterImpl;
+import at.ac.tuwien.informatics.reformulation.RewritingBudget;
+import at.ac.tuwien.informatics.structure.InputQueryBuilder;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.InvalidQueryException;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import at.ac.tuwien.informatics.structure.query.InputQuery;
+import at.ac.tuwien.informatics.structure.query.RewritableQuery;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import javax.management.JMException;
+import java.awt.*;
+import java.awt.datatransfer.Clipboard;
+import java.awt.datatransfer.StringSelection;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class Cli {
+
+    /**
+     * The usage of the options.
+     */
+    private static final String USAGE = "usage: [--cache <directory> [--evict]] " +
+            "[--batch <ontology> <queries> <output directory> [--threads <n>] [--timeout <seconds>]] " +
+            "[--serve <port> --ontology <ontology> ... [--threads <n>] [--queue <n>] [--timeout <seconds>]] " +
+            "[--repl [--ontology <ontology> ...] [--timeout <seconds>]]";
+
+    /**
+     * Run the rewriting, either interactively for a single query, or for a batch of queries.
+     * Options:
+     * <ul>
+     *     <li>{@code --cache <directory>} use a persistent cache of rewritings</li>
+     *     <li>{@code --evict} delete the cached rewritings of the other versions of the ontologies once they are
+     *     loaded; only use it if no other process uses those versions</li>
+     *     <li>{@code --batch <ontology> <queries> <output directory>} rewrite the queries in the file (one per line)
+     *     without any interaction, see {@link BatchRewriter}</li>
+     *     <li>{@code --threads <n>} the number of queries of a batch that are rewritten at the same time (default: the
+     *     number of processors)</li>
+     *     <li>{@code --serve <port> --ontology <ontology> [--ontology <ontology> ...]} keep the ontologies loaded and
+     *     answer rewriting requests on localhost, see {@link RewritingServer}; each ontology is named after its file
+     *     without the extension</li>
+     *     <li>{@code --repl [--ontology <ontology> ...]} rewrite any number of queries in an interactive session that
+     *     keeps the ontologies loaded, see {@link Repl}</li>
+     *     <li>{@code --queue <n>} the number of requests to the server that may wait for a thread (default: 64)</li>
+     *     <li>{@code --timeout <seconds>} the time budget of a rewriting of a batch, the server or the session
+     *     (default: 60)</li>
+     * </ul>
+     *
+     * @param args The options.
+     * @throws IOException If the input cannot be read or the output cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        Ontology ontology;
+        Rewriter rewriter = new RewriterImpl();
+        BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
+
+        DiskRewritingCache cache = null;
+        String[] batch = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int port = -1;
+        List<String> ontologies = new ArrayList<>();
+        int queue = 64;
+        long timeout = 60;
+        boolean repl = false;
+        boolean evict = false;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                switch (option) {
+                    case "--cache":
+                        // optional persistent cache of rewritings: --cache <directory>
+                        cache = new DiskRewritingCache(Paths.get(value(args, i++)));
+                        break;
+                    case "--batch":
+                        if (i + 3 >= args.length) {
+                            throw new IllegalArgumentException("option --batch needs an ontology, a file of queries " +
+                                    "and an output directory");
+                        }
+                        batch = new String[]{args[i + 1], args[i + 2], args[i + 3]};
+                        i += 3;
+                        break;
+                    case "--threads":
+                        threads = number(args, i++, 1, Integer.MAX_VALUE);
+                        break;
+                    case "--serve":
+                        port = number(args, i++, 0, 65535);
+                        break;
+                    case "--repl":
+                        repl = true;
+                        break;
+                    case "--evict":
+                        evict = true;
+                        break;
+                    case "--ontology":
+                        ontologies.add(value(args, i++));
+                        break;
+                    case "--queue":
+                        queue = number(args, i++, 0, Integer.MAX_VALUE);
+                        break;
+                    case "--timeout":
+                        timeout = number(args, i++, 1, Integer.MAX_VALUE);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("unknown option " + option);
+                }
+            }
+            List<String> modes = new ArrayList<>();
+            if (batch != null) {
+                modes.add("--batch");
+            }
+            if (port >= 0) {
+                modes.add("--serve");
+            }
+            if (repl) {
+                modes.add("--repl");
+            }
+            if (modes.size() > 1) {
+                throw new IllegalArgumentException("options " + String.join(" and ", modes) + " cannot be combined");
+            }
+            if (evict && cache == null) {
+                throw new IllegalArgumentException("option --evict needs --cache");
+            }
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            System.out.println(USAGE);
+            System.exit(2);
+        }
+        if (batch != null) {
+            System.exit(batch(batch[0], Paths.get(batch[1]), Paths.get(batch[2]), rewriter, cache, evict, threads,
+                    Duration.ofSeconds(timeout)) ? 0 : 1);
+        }
+        if (port >= 0) {
+            if (!serve(port, ontologies, threads, queue, cache, evict, Duration.ofSeconds(timeout))) {
+                System.exit(1);
+            }
+            return;
+        }
+        if (repl) {
+            Repl session = new Repl(br, System.out, cache, Duration.ofSeconds(timeout));
+            for (String path : ontologies) {
+                session.load(path);
+            }
+            if (evict) {
+                session.evaluate(":evict");
+            }
+            session.run();
+            return;
+        }
+
+        // read in ontology
+        System.out.println("please enter the path to the ontology file you want to work with");
+        String ontology_path = br.readLine();
+        try {
+            ontology = new Ontology(ontology_path);
+        } catch (OWLOntologyCreationException e) {
+            System.out.println("Something went wrong loading the ontology");
+            System.out.println(e.getMessage());
+            return;
+        } catch (NotOWL2QLException e) {
+            System.out.println("The given ontology was not in OWL2 QL");
+            return;
+        }
+        if (evict) {
+            evict(cache, Collections.singleton(ontology));
+        }
+
+        // read query
+        System.out.println("Please enter the query you want to rewrite with the ontology");
+        String queryString = br.readLine();
+
+        // parse query
+        InputQuery q;
+        try {
+            q = InputQueryBuilder.parse(queryString, ontology);
+        } catch (InvalidQueryException e) {
+            System.out.println("Your input query was invalid (Probably an extra whitespace).");
+            System.out.println(e.getMessage());
+            return;
+        }
+
+        // rewrite query, drop queries that are contained in other queries of the union, and translate to query over
+        // the sources
+        RewritingPipeline.Outcome outcome = new RewritingPipeline(rewriter, null, cache)
+                .rewrite(ontology, q, RewritingBudget.unlimited(), new CancellationToken());
+        if (outcome.getStoreError() != null) {
+            System.out.println("The rewriting could not be stored in the cache: " +
+                    outcome.getStoreError().getMessage());
+        }
+        Set<RewritableQuery> rewritten_queries = outcome.getQueries();
+        String translatedQuery = outcome.getTranslation();
+
+        // print rewritten queries
+        rewritten_queries.forEach(System.out::println);
+
+        // without a display there is no clipboard, so print the query instead
+        if (GraphicsEnvironment.isHeadless()) {
+            System.out.println(translatedQuery);
+            System.out.println("Your query has been rewritten.");
+            return;
+        }
+
+        // copy query to clipboard
+        Toolkit toolkit = Toolkit.getDefaultToolkit();
+        Clipboard clipboard = toolkit.getSystemClipboard();
+        StringSelection strSel = new StringSelection(translatedQuery);
+        clipboard.setContents(strSel, null);
+
+        // "done" message
+        System.out.println("Your query has been rewritten. It has been copied to your system clipboard.");
+    }
+
+    /**
+     * Get the value of an option.
+     *
+     * @param args The options.
+     * @param i The position of the option.
+     * @return The value, i.e., the next argument.
+     * @throws IllegalArgumentException If the option is the last argument.
+     */
+    private static String value(String[] args, int i) {
+        if (i + 1 >= args.length) {
+            throw new IllegalArgumentException("missing value of option " + args[i]);
+        }
+        return args[i + 1];
+    }
+
+    /**
+     * Get the value of an option that is a number.
+     *
+     * @param args The options.
+     * @param i The position of the option.
+     * @param min The smallest valid value.
+     * @param max The largest valid value.
+     * @return The value.
+     * @throws IllegalArgumentException If the value is missing, not a number, or out of range.
+     */
+    private static int number(String[] args, int i, int min, int max) {
+        String value = value(args, i);
+        int n;
+        try {
+            n = Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid value " + value + " of option " + args[i] +
+                    ", expected a number");
+        }
+        if (n < min || n > max) {
+            throw new IllegalArgumentException("invalid value " + value + " of option " + args[i] + ", expected a " +
+                    "number from " + min + (max == Integer.MAX_VALUE ? " on" : " to " + max));
+        }
+        return n;
+    }
+
+    /**
+     * Start a rewriting server, which runs until the process is stopped.
+     *
+     * @param port The port on localhost, or 0 for any free port.
+     * @param ontologyPaths The paths to the ontology files.
+     * @param threads The number of requests that are rewritten at the same time.
+     * @param queue The number of requests that may wait for a thread.
+     * @param cache The persistent cache of rewritings, or null.
+     * @param evict True to delete the cached rewritings of the other versions of the ontologies.
+     * @param timeout The time budget of a rewriting.
+     * @return True if the server has been started.
+     * @throws IOException If the port cannot be bound.
+     */
+    private static boolean serve(int port, List<String> ontologyPaths, int threads, int queue,
+                                 DiskRewritingCache cache, boolean evict, Duration timeout) throws IOException {
+        if (ontologyPaths.isEmpty()) {
+            System.out.println("The server needs at least one ontology (--ontology <ontology>)");
+            return false;
+        }
+        Map<String, Ontology> ontologies = new LinkedHashMap<>();
+        for (String path : ontologyPaths) {
+            String name = Paths.get(path).getFileName().toString().replaceFirst("\\.[^.]*$", "");
+            try {
+                ontologies.put(name, new Ontology(path));
+            } catch (OWLOntologyCreationException e) {
+                System.out.println("Something went wrong loading the ontology " + path);
+                System.out.println(e.getMessage());
+                return false;
+            } catch (NotOWL2QLException e) {
+                System.out.println("The ontology " + path + " was not in OWL2 QL");
+                return false;
+            }
+        }
+        if (evict) {
+            evict(cache, ontologies.values());
+        }
+        RewritingServer server = new RewritingServer(port, ontologies, threads, queue, 256L << 20, cache, timeout);
+        try {
+            server.getMetrics().register("server");
+        } catch (JMException e) {
+            System.out.println("The metrics of the server are not available over JMX: " + e.getMessage());
+        }
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+        System.out.println("Serving " + ontologies.keySet() + " on http://localhost:" + server.getAddress().getPort());
+        return true;
+    }
+
+    /**
+     * Rewrite a batch of queries, and print a summary.
+     *
+     * @param ontologyPath The path to the ontology file.
+     * @param queries The file with the queries, one per line.
+     * @param output The output directory.
+     * @param rewriter The rewriter.
+     * @param cache The persistent cache of rewritings, or null.
+     * @param evict True to delete the cached rewritings of the other versions of the ontology.
+     * @param threads The number of queries that are rewritten at the same time.
+     * @param timeout The time budget of the rewriting of a single query.
+     * @return True if all queries have been rewritten.
+     * @throws IOException If the queries cannot be read or the output cannot be written.
+     */
+    private static boolean batch(String ontologyPath, Path queries, Path output, Rewriter rewriter,
+                                 DiskRewritingCache cache, boolean evict, int threads, Duration timeout)
+            throws IOException {
+        Ontology ontology;
+        try {
+            ontology = new Ontology(ontologyPath);
+        } catch (OWLOntologyCreationException e) {
+            System.out.println("Something went wrong loading the ontology");
+            System.out.println(e.getMessage());
+            return false;
+        } catch (NotOWL2QLException e) {
+            System.out.println("The given ontology was not in OWL2 QL");
+            return false;
+        }
+        if (evict) {
+            evict(cache, Collections.singleton(ontology));
+        }
+        List<BatchRewriter.Result> results;
+        try {
+            results = new BatchRewriter(ontology, rewriter, cache, threads, timeout)
+                    .run(BatchRewriter.readQueries(queries), output);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        long failed = 0;
+        for (BatchRewriter.Result r : results) {
+            if (!r.isSuccessful()) {
+                failed++;
+                System.out.println(r.getName() + ": " + r.getError());
+            }
+        }
+        System.out.println((results.size() - failed) + " of " + results.size() + " queries have been rewritten to " +
+                output.toAbsolutePath() + ", timings in " + BatchRewriter.TIMINGS);
+        return failed == 0;
+    }
+
+    /**
+     * Delete the cached rewritings of the other versions of some ontologies, and print how many have been deleted.
+     *
+     * @param cache The persistent cache of rewritings.
+     * @param ontologies The current versions of the ontologies.
+     */
+    private static void evict(DiskRewritingCache cache, Collection<Ontology> ontologies) {
+        try {
+            System.out.println("Deleted the cached rewritings of " + cache.evictOtherVersions(ontologies) +
+                    " other versions of the ontologies");
+        } catch (IOException e) {
+            System.out.println("The cached rewritings of other versions could not be deleted: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,488 @@
+package at.ac.tuwien.informatics.client;
+
+import at.ac.tuwien.informatics.cache.DiskRewritingCache;
+import at.ac.tuwien.informatics.cache.MemoryRewritingCache;
+import at.ac.tuwien.informatics.reformulation.CancellationToken;
+import at.ac.tuwien.informatics.reformulation.RewriterImpl;
+import at.ac.tuwien.informatics.reformulation.RewritingBudget;
+import at.ac.tuwien.informatics.reformulation.RewritingMetrics;
+import at.ac.tuwien.informatics.structure.InputQueryBuilder;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.InvalidQueryException;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import at.ac.tuwien.informatics.structure.query.InputQuery;
+import at.ac.tuwien.informatics.structure.query.RewritableQuery;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * An interactive session that keeps its ontologies loaded and rewrites any number of queries over them.
+ * The rewriter, its metrics and the caches are shared by all queries of the session, so iterating on a query does not
+ * pay for loading and checking the ontology again, and a query that has been rewritten before is answered from the
+ * cache.
+ * <p>
+ * Each line is either a query, which is rewritten over the current ontology, or one of the commands
+ * <ul>
+ *     <li>{@code :load <ontology>} load an ontology and make it the current one; it is named after its file without
+ *     the extension</li>
+ *     <li>{@code :use <name>} make a loaded ontology the current one</li>
+ *     <li>{@code :ontologies} list the loaded ontologies</li>
+ *     <li>{@code :queries} print the rewritten queries of the last query</li>
+ *     <li>{@code :cypher} print the Cypher query of the last query</li>
+ *     <li>{@code :write <file>} write the Cypher query of the last query to a file</li>
+ *     <li>{@code :stats} print the timings and the size of the union of the last query, and the statistics of the
+ *     cache and the rewriter</li>
+ *     <li>{@code :timeout [<seconds>]} print or change the time budget of a rewriting</li>
+ *     <li>{@code :clear} empty the memory cache and reset the statistics</li>
+ *     <li>{@code :evict} delete the rewritings in the disk cache of the other versions of the loaded ontologies</li>
+ *     <li>{@code :help} list the commands</li>
+ *     <li>{@code :quit} end the session</li>
+ * </ul>
+ * A rewriting that exceeds its time budget is reported and not cached, and a line that fails does not end the session.
+ */
+public class Repl {
+
+    /**
+     * The size of the memory cache.
+     */
+    private static final long CACHE_BYTES = 256L << 20;
+
+    /**
+     * The input of the session.
+     */
+    private final BufferedReader in;
+    /**
+     * The output of the session.
+     */
+    private final PrintStream out;
+    /**
+     * The rewriter, shared by all queries.
+     */
+    private final RewriterImpl rewriter = new RewriterImpl();
+    /**
+     * The cache of the pruned rewritings of all ontologies.
+     */
+    private MemoryRewritingCache cache = new MemoryRewritingCache(CACHE_BYTES);
+    /**
+     * The persistent cache of rewritings, or null.
+     */
+    private final DiskRewritingCache diskCache;
+    /**
+     * The steps from a query to its rewriting and Cypher query, with both caches.
+     */
+    private RewritingPipeline pipeline;
+    /**
+     * The time budget of a rewriting.
+     */
+    private RewritingBudget budget;
+    /**
+     * The loaded ontologies, by their names.
+     */
+    private final Map<String, Ontology> ontologies = new LinkedHashMap<>();
+    /**
+     * The name of the current ontology, or null if no ontology has been loaded.
+     */
+    private String current;
+    /**
+     * The result of the last query that has been rewritten, or null.
+     */
+    private Result last;
+
+    /**
+     * Initialize a new session without any ontologies.
+     *
+     * @param in The input of the session.
+     * @param out The output of the session.
+     * @param diskCache The persistent cache of rewritings, or null.
+     * @param timeout The time budget of a rewriting.
+     */
+    public Repl(BufferedReader in, PrintStream out, DiskRewritingCache diskCache, Duration timeout) {
+        this.in = in;
+        this.out = out;
+        this.diskCache = diskCache;
+        this.budget = RewritingBudget.unlimited().withMaxTime(timeout);
+        this.rewriter.setMetrics(new RewritingMetrics());
+        this.pipeline = new RewritingPipeline(rewriter, cache, diskCache);
+    }
+
+    /**
+     * Read and evaluate lines until the input ends or the session is quit.
+     *
+     * @throws IOException If the input cannot be read.
+     */
+    public void run() throws IOException {
+        out.println("Enter a query, or :help for the commands");
+        prompt();
+        String line;
+        while ((line = in.readLine()) != null) {
+            if (!evaluate(line.trim())) {
+                return;
+            }
+            prompt();
+        }
+    }
+
+    /**
+     * Evaluate a single line, which is either a query or a command. If the line fails, the error is printed and the
+     * session goes on.
+     *
+     * @param line The line.
+     * @return False if the session has been quit.
+     */
+    public boolean evaluate(String line) {
+        try {
+            return dispatch(line);
+        } catch (RuntimeException e) {
+            out.println("the line could not be evaluated: " + e);
+            return true;
+        }
+    }
+
+    /**
+     * Evaluate a single line, which is either a query or a command.
+     *
+     * @param line The line.
+     * @return False if the session has been quit.
+     */
+    private boolean dispatch(String line) {
+        if (line.isEmpty() || line.startsWith("#")) {
+            return true;
+        }
+        if (!line.startsWith(":")) {
+            query(line);
+            return true;
+        }
+        String[] command = line.split("\\s+", 2);
+        String argument = command.length > 1 ? command[1] : null;
+        switch (command[0]) {
+            case ":load":
+                if (argument == null) {
+                    out.println("usage: :load <ontology>");
+                } else {
+                    load(argument);
+                }
+                break;
+            case ":use":
+                if (argument == null || !ontologies.containsKey(argument)) {
+                    out.println("unknown ontology " + argument + ", expected one of " + ontologies.keySet());
+                } else {
+                    current = argument;
+                }
+                break;
+            case ":ontologies":
+                ontologies.keySet().forEach(name -> out.println((name.equals(current) ? "* " : "  ") + name));
+                break;
+            case ":queries":
+                if (last != null) {
+                    last.queries.forEach(out::println);
+                } else {
+                    out.println("no query has been rewritten yet");
+                }
+                break;
+            case ":cypher":
+                if (last != null) {
+                    out.println(last.translation);
+                } else {
+                    out.println("no query has been rewritten yet");
+                }
+                break;
+            case ":write":
+                write(argument);
+                break;
+            case ":stats":
+                stats();
+                break;
+            case ":timeout":
+                timeout(argument);
+                break;
+            case ":clear":
+                cache = new MemoryRewritingCache(CACHE_BYTES);
+                pipeline = new RewritingPipeline(rewriter, cache, diskCache);
+                rewriter.getMetrics().reset();
+                out.println("the cache has been emptied");
+                break;
+            case ":evict":
+                if (diskCache == null) {
+                    out.println("there is no disk cache");
+                    break;
+                }
+                try {
+                    out.println("deleted the cached rewritings of " +
+                            diskCache.evictOtherVersions(ontologies.values()) + " other versions");
+                } catch (IOException e) {
+                    out.println("the cached rewritings could not be deleted: " + e.getMessage());
+                }
+                break;
+            case ":help":
+                out.println(":load <ontology>, :use <name>, :ontologies, :queries, :cypher, :write <file>, :stats, " +
+                        ":timeout [<seconds>], :clear, :evict, :help, :quit; any other line is rewritten as a query");
+                break;
+            case ":quit":
+            case ":exit":
+                return false;
+            default:
+                out.println("unknown command " + command[0] + ", enter :help for the commands");
+        }
+        return true;
+    }
+
+    /**
+     * Load an ontology, and make it the current one.
+     *
+     * @param path The path to the ontology file.
+     * @return True if the ontology has been loaded.
+     */
+    public boolean load(String path) {
+        String name = Paths.get(path).getFileName().toString().replaceFirst("\\.[^.]*$", "");
+        long start = System.nanoTime();
+        try {
+            ontologies.put(name, new Ontology(path));
+        } catch (OWLOntologyCreationException e) {
+            out.println("Something went wrong loading the ontology");
+            out.println(e.getMessage());
+            return false;
+        } catch (NotOWL2QLException e) {
+            out.println("The given ontology was not in OWL2 QL");
+            return false;
+        }
+        current = name;
+        out.println("loaded " + name + " in " + millis(System.nanoTime() - start));
+        return true;
+    }
+
+    /**
+     * Get the result of the last query that has been rewritten.
+     *
+     * @return The result, or null.
+     */
+    public Result getLast() {
+        return last;
+    }
+
+    /**
+     * Rewrite a query over the current ontology, and print a summary.
+     *
+     * @param query The query.
+     */
+    private void query(String query) {
+        if (current == null) {
+            out.println("load an ontology first (:load <ontology>)");
+            return;
+        }
+        Ontology o = ontologies.get(current);
+        long start = System.nanoTime();
+        InputQuery q;
+        try {
+            q = InputQueryBuilder.parse(query, o);
+        } catch (InvalidQueryException e) {
+            out.println("Your input query was invalid: " + e.getMessage());
+            return;
+        }
+        long parsed = System.nanoTime();
+
+        RewritingPipeline.Outcome outcome = pipeline.rewrite(o, q, budget, new CancellationToken());
+        if (!outcome.isComplete()) {
+            out.println("the rewriting did not complete (" + outcome.getStatus() + ") after " +
+                    millis(System.nanoTime() - start) + " with " + outcome.getQueries().size() + " queries; " +
+                    ":timeout <seconds> changes the time budget of " + budget.getMaxTime().getSeconds() + " s");
+            return;
+        }
+        if (outcome.getStoreError() != null) {
+            out.println("the rewriting could not be stored in the disk cache: " +
+                    outcome.getStoreError().getMessage());
+        }
+        String source = outcome.getSource() == RewritingPipeline.Source.MEMORY_CACHE ? "memory cache"
+                : outcome.getSource() == RewritingPipeline.Source.DISK_CACHE ? "disk cache" : null;
+        Set<RewritableQuery> queries = outcome.getQueries();
+
+        last = new Result(current, query, queries, outcome.getTranslation(), outcome.getUnion(), source,
+                parsed - start, outcome.getRewriteNanos(), outcome.getTranslateNanos());
+        out.println(queries.size() + " queries in " + millis(System.nanoTime() - start) +
+                (source == null ? "" : " (from the " + source + ")") +
+                "; :cypher prints the Cypher query, :write <file> writes it to a file");
+    }
+
+    /**
+     * Print or change the time budget of a rewriting.
+     *
+     * @param seconds The new time budget in seconds, or null to print the current one.
+     */
+    private void timeout(String seconds) {
+        if (seconds != null) {
+            long timeout;
+            try {
+                timeout = Long.parseLong(seconds);
+            } catch (NumberFormatException e) {
+                timeout = 0;
+            }
+            if (timeout < 1) {
+                out.println("usage: :timeout <seconds>, where the seconds are a positive number");
+                return;
+            }
+            budget = budget.withMaxTime(Duration.ofSeconds(timeout));
+        }
+        out.println("the time budget of a rewriting is " + budget.getMaxTime().getSeconds() + " s");
+    }
+
+    /**
+     * Write the Cypher query of the last query to a file.
+     *
+     * @param file The file, or null.
+     */
+    private void write(String file) {
+        if (file == null) {
+            out.println("usage: :write <file>");
+            return;
+        }
+        if (last == null) {
+            out.println("no query has been rewritten yet");
+            return;
+        }
+        Path path = Paths.get(file);
+        try {
+            Files.write(path, last.translation.getBytes(StandardCharsets.UTF_8));
+            out.println("the Cypher query has been written to " + path.toAbsolutePath());
+        } catch (IOException e) {
+            out.println("the Cypher query could not be written: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Print the timings and the size of the union of the last query, and the statistics of the cache and the
+     * rewriter.
+     */
+    private void stats() {
+        if (last != null) {
+            out.println("query: " + last.query + " over " + last.ontology);
+            out.println("union: " + last.queries.size() + " queries" +
+                    (last.union < 0 ? " (from the " + last.source + ")" : ", " + last.union + " before pruning"));
+            out.println("time: parse " + millis(last.parseNanos) + ", rewrite " + millis(last.rewriteNanos) +
+                    ", translate " + millis(last.translateNanos));
+        }
+        out.println("cache: " + cache.getStatistics());
+        out.println("rewriter: " + rewriter.getMetrics());
+    }
+
+    /**
+     * Print the prompt, which shows the current ontology.
+     */
+    private void prompt() {
+        out.print((current == null ? "" : current) + "> ");
+        out.flush();
+    }
+
+    /**
+     * Format a duration in milliseconds.
+     *
+     * @param nanos The duration in nanoseconds.
+     * @return The duration in milliseconds.
+     */
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f ms", nanos / 1e6);
+    }
+
+    /**
+     * The result of rewriting a single query of a session.
+     */
+    public static class Result {
+
+        /**
+         * The name of the ontology.
+         */
+        private final String ontology;
+        /**
+         * The query.
+         */
+        private final String query;
+        /**
+         * The pruned rewriting.
+         */
+        private final Set<RewritableQuery> queries;
+        /**
+         * The Cypher query.
+         */
+        private final String translation;
+        /**
+         * The number of queries before pruning, or -1 if the rewriting has been found in a cache.
+         */
+        private final int union;
+        /**
+         * The cache the rewriting has been found in, or null.
+         */
+        private final String source;
+        /**
+         * The time of parsing the query.
+         */
+        private final long parseNanos;
+        /**
+         * The time of rewriting and pruning the query, or of looking it up in a cache.
+         */
+        private final long rewriteNanos;
+        /**
+         * The time of translating the rewriting to Cypher.
+         */
+        private final long translateNanos;
+
+        /**
+         * Initialize a new result.
+         *
+         * @param ontology The name of the ontology.
+         * @param query The query.
+         * @param queries The pruned rewriting.
+         * @param translation The Cypher query.
+         * @param union The number of queries before pruning, or -1 if the rewriting has been found in a cache.
+         * @param source The cache the rewriting has been found in, or null.
+         * @param parseNanos The time of parsing the query.
+         * @param rewriteNanos The time of rewriting and pruning the query, or of looking it up in a cache.
+         * @param translateNanos The time of translating the rewriting to Cypher.
+         */
+        Result(String ontology, String query, Set<RewritableQuery> queries, String translation, int union,
+               String source, long parseNanos, long rewriteNanos, long translateNanos) {
+            this.ontology = ontology;
+            this.query = query;
+            this.queries = queries;
+            this.translation = translation;
+            this.union = union;
+            this.source = source;
+            this.parseNanos = parseNanos;
+            this.rewriteNanos = rewriteNanos;
+            this.translateNanos = translateNanos;
+        }
+
+        /**
+         * Get the pruned rewriting.
+         *
+         * @return The set of rewritten queries.
+         */
+        public Set<RewritableQuery> getQueries() {
+            return queries;
+        }
+
+        /**
+         * Get the Cypher query.
+         *
+         * @return The Cypher query.
+         */
+        public String getTranslation() {
+            return translation;
+        }
+
+        /**
+         * Check whether the rewriting has been found in a cache.
+         *
+         * @return True if the query has not been rewritten again.
+         */
+        public boolean isCached() {
+            return source != null;
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package at.ac.tuwien.informatics.client;
+
+import at.ac.tuwien.informatics.cache.CachedRewriting;
+import at.ac.tuwien.informatics.cache.DiskRewritingCache;
+import at.ac.tuwien.informatics.cache.MemoryRewritingCache;
+import at.ac.tuwien.informatics.reformulation.CancellationToken;
+import at.ac.tuwien.informatics.reformulation.ContainmentPruner;
+import at.ac.tuwien.informatics.reformulation.Rewriter;
+import at.ac.tuwien.informatics.reformulation.RewritingBudget;
+import at.ac.tuwien.informatics.reformulation.RewritingResult;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.query.InputQuery;
+import at.ac.tuwien.informatics.structure.query.RewritableQuery;
+import at.ac.tuwien.informatics.translation.CypherTranslator;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * The steps from a parsed query to its Cypher query, shared by the clients: look the rewriting up in the memory cache,
+ * then in the disk cache, otherwise rewrite the query within its budget and drop the queries that are contained in
+ * other queries of the union, translate the rewriting, and store it with its translation in the caches.
+ * <p>
+ * A rewriting that exceeds its budget or is cancelled is neither translated nor cached. A rewriting that cannot be
+ * stored in the disk cache is still returned; the error is reported with the outcome.
+ * The pipeline is safe for concurrent use if its rewriter is.
+ */
+public class RewritingPipeline {
+
+    /**
+     * The suffix of the mode of the rewriter under which the pruned rewritings are stored in the memory cache, which
+     * keeps them apart from the unpruned rewritings of a {@link at.ac.tuwien.informatics.cache.CachingRewriter}.
+     */
+    public static final String PRUNED = "+pruned";
+
+    /**
+     * The rewriter.
+     */
+    private final Rewriter rewriter;
+    /**
+     * The cache of the pruned rewritings, or null.
+     */
+    private final MemoryRewritingCache memoryCache;
+    /**
+     * The persistent cache of rewritings, or null.
+     */
+    private final DiskRewritingCache diskCache;
+
+    /**
+     * Initialize a new pipeline.
+     *
+     * @param rewriter The rewriter.
+     * @param memoryCache The cache of the pruned rewritings, or null.
+     * @param diskCache The persistent cache of rewritings, or null.
+     */
+    public RewritingPipeline(Rewriter rewriter, MemoryRewritingCache memoryCache, DiskRewritingCache diskCache) {
+        this.rewriter = rewriter;
+        this.memoryCache = memoryCache;
+        this.diskCache = diskCache;
+    }
+
+    /**
+     * Rewrite a query and translate it to Cypher, unless the rewriting is found in a cache.
+     *
+     * @param o The ontology.
+     * @param q The query.
+     * @param budget The limits on the resources of the rewriting.
+     * @param token The token that cancels the rewriting.
+     * @return The pruned rewriting and its translation, or the incomplete rewriting.
+     */
+    public Outcome rewrite(Ontology o, InputQuery q, RewritingBudget budget, CancellationToken token) {
+        long start = System.nanoTime();
+        String mode = rewriter.getMode();
+        CachedRewriting cached = memoryCache == null ? null : memoryCache.getRewriting(o, q, mode + PRUNED);
+        Source source = Source.MEMORY_CACHE;
+        int union = -1;
+        if (cached == null) {
+            cached = diskCache == null ? null : diskCache.get(o, q, mode);
+            source = Source.DISK_CACHE;
+        }
+        if (cached == null) {
+            RewritingResult result = rewriter.rewrite(q, o, budget, token);
+            if (!result.isComplete()) {
+                return new Outcome(result.getQueries(), null, Source.REWRITER, result.getQueries().size(),
+                        result.getStatus(), System.nanoTime() - start, 0, null);
+            }
+            union = result.getQueries().size();
+            // drop queries that are contained in other queries of the union
+            cached = new CachedRewriting(new ContainmentPruner().prune(result.getQueries()), null);
+            source = Source.REWRITER;
+        }
+        long rewritten = System.nanoTime();
+        if (source == Source.MEMORY_CACHE && cached.getTranslation() != null) {
+            return new Outcome(cached.getQueries(), cached.getTranslation(), source, union,
+                    RewritingResult.Status.COMPLETE, rewritten - start, 0, null);
+        }
+
+        IOException storeError = null;
+        if (cached.getTranslation() == null) {
+            cached = new CachedRewriting(cached.getQueries(),
+                    new CypherTranslator().translate(q.getHead(), cached.getQueries()));
+            // a rewriting from the memory cache has been stored on disk when it was rewritten
+            if (diskCache != null && source != Source.MEMORY_CACHE) {
+                try {
+                    diskCache.put(o, q, mode, cached);
+                } catch (IOException e) {
+                    storeError = e;
+                }
+            }
+        }
+        if (memoryCache != null) {
+            // the translation is cached with the queries, so a hit does not translate the rewriting again
+            cached = memoryCache.put(o, q, mode + PRUNED, cached);
+        }
+        return new Outcome(cached.getQueries(), cached.getTranslation(), source, union,
+                RewritingResult.Status.COMPLETE, rewritten - start, System.nanoTime() - rewritten, storeError);
+    }
+
+    /**
+     * Where a rewriting comes from.
+     */
+    public enum Source {
+        /**
+         * The rewriting has been found in the memory cache.
+         */
+        MEMORY_CACHE,
+        /**
+         * The rewriting has been found in the disk cache.
+         */
+        DISK_CACHE,
+        /**
+         * The query has been rewritten.
+         */
+        REWRITER
+    }
+
+    /**
+     * The outcome of rewriting and translating a single query.
+     */
+    public static class Outcome {
+
+        /**
+         * The pruned rewriting, or the queries derived so far if the rewriting is incomplete.
+         */
+        private final Set<RewritableQuery> queries;
+        /**
+         * The Cypher query, or null if the rewriting is incomplete.
+         */
+        private final String translation;
+        /**
+         * Where the rewriting comes from.
+         */
+        private final Source source;
+        /**
+         * The number of queries before pruning, or -1 if the rewriting has been found in a cache.
+         */
+        private final int union;
+        /**
+         * The reason the rewriting stopped.
+         */
+        private final RewritingResult.Status status;
+        /**
+         * The time of rewriting and pruning the query, or of looking it up in a cache.
+         */
+        private final long rewriteNanos;
+        /**
+         * The time of translating the rewriting to Cypher.
+         */
+        private final long translateNanos;
+        /**
+         * The error of storing the rewriting in the disk cache, or null.
+         */
+        private final IOException storeError;
+
+        /**
+         * Initialize a new outcome.
+         *
+         * @param queries The pruned rewriting, or the queries derived so far if the rewriting is incomplete.
+         * @param translation The Cypher query, or null if the rewriting is incomplete.
+         * @param source Where the rewriting comes from.
+         * @param union The number of queries before pruning, or -1 if the rewriting has been found in a cache.
+         * @param status The reason the rewriting stopped.
+         * @param rewriteNanos The time of rewriting and pruning the query, or of looking it up in a cache.
+         * @param translateNanos The time of translating the rewriting to Cypher.
+         * @param storeError The error of storing the rewriting in the disk cache, or null.
+         */
+        Outcome(Set<RewritableQuery> queries, String translation, Source source, int union,
+                RewritingResult.Status status, long rewriteNanos, long translateNanos, IOException storeError) {
+            this.queries = queries;
+            this.translation = translation;
+            this.source = source;
+            this.union = union;
+            this.status = status;
+            this.rewriteNanos = rewriteNanos;
+            this.translateNanos = translateNanos;
+            this.storeError = storeError;
+        }
+
+        /**
+         * Get the pruned rewriting.
+         *
+         * @return The set of rewritten queries, or the queries derived so far if the rewriting is incomplete.
+         */
+        public Set<RewritableQuery> getQueries() {
+            return queries;
+        }
+
+        /**
+         * Get the Cypher query.
+         *
+         * @return The Cypher query, or null if the rewriting is incomplete.
+         */
+        public String getTranslation() {
+            return translation;
+        }
+
+        /**
+         * Get where the rewriting comes from.
+         *
+         * @return The source.
+         */
+        public Source getSource() {
+            return source;
+        }
+
+        /**
+         * Get the number of queries before pruning.
+         *
+         * @return The number of queries, or -1 if the rewriting has been found in a cache.
+         */
+        public int getUnion() {
+            return union;
+        }
+
+        /**
+         * Get the reason the rewriting stopped.
+         *
+         * @return The status, {@link RewritingResult.Status#COMPLETE} if the rewriting has been found in a cache.
+         */
+        public RewritingResult.Status getStatus() {
+            return status;
+        }
+
+        /**
+         * Check whether the rewriting is complete, i.e., it has been translated.
+         *
+         * @return True if the rewriting reached its fixpoint or has been found in a cache.
+         */
+        public boolean isComplete() {
+            return status == RewritingResult.Status.COMPLETE;
+        }
+
+        /**
+         * Get the time of rewriting and pruning the query, or of looking it up in a cache.
+         *
+         * @return The time in nanoseconds.
+         */
+        public long getRewriteNanos() {
+            return rewriteNanos;
+        }
+
+        /**
+         * Get the time of translating the rewriting to Cypher.
+         *
+         * @return The time in nanoseconds.
+         */
+        public long getTranslateNanos() {
+            return translateNanos;
+        }
+
+        /**
+         * Get the error of storing the rewriting in the disk cache.
+         *
+         * @return The error, or null if the rewriting has been stored or there is no disk cache.
+         */
+        public IOException getStoreError() {
+            return storeError;
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package at.ac.tuwien.informatics.client;
+
+import at.ac.tuwien.informatics.cache.DiskRewritingCache;
+import at.ac.tuwien.informatics.cache.MemoryRewritingCache;
+import at.ac.tuwien.informatics.reformulation.CancellationToken;
+import at.ac.tuwien.informatics.reformulation.RewriterImpl;
+import at.ac.tuwien.informatics.reformulation.RewritingBudget;
+import at.ac.tuwien.informatics.reformulation.RewritingMetrics;
+import at.ac.tuwien.informatics.structure.InputQueryBuilder;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.InvalidQueryException;
+import at.ac.tuwien.informatics.structure.query.InputQuery;
+import at.ac.tuwien.informatics.structure.query.RewritableQuery;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A long-running rewriting server on localhost, which keeps its ontologies loaded and its caches warm, so a rewriting
+ * does not pay for loading and checking the ontology, and a repeated query is answered from the cache.
+ * The server uses the HTTP server of the JDK and accepts the requests
+ * <ul>
+ *     <li>{@code POST /rewrite?ontology=<name>} with a query as the body, answered with the rewritten queries, one
+ *     per line</li>
+ *     <li>{@code POST /translate?ontology=<name>} with a query as the body, answered with the Cypher query</li>
+ *     <li>{@code GET /ontologies}, answered with the names of the ontologies, one per line</li>
+ *     <li>{@code GET /stats}, answered with the statistics of the cache and the metrics of the rewriter</li>
+ * </ul>
+ * The parameter ontology may be omitted if the server has a single ontology. The responses of rewritings have the
+ * headers {@value #QUERIES_HEADER}, {@value #CACHE_HEADER} (hit or miss) and {@value #MILLIS_HEADER}. A query of
+ * more than {@value #MAX_BODY_BYTES} bytes is answered with 413.
+ * <p>
+ * Requests are rewritten by a fixed number of worker threads. Requests that arrive while all workers are busy wait in
+ * a bounded queue; if the queue is full, the request is answered with 503 right away instead of piling up.
+ * A rewriting that exceeds its time budget is also answered with 503, and is not cached. Stopping the server cancels
+ * the rewritings that are still running once its delay has passed.
+ */
+public class RewritingServer {
+
+    /**
+     * The header with the number of rewritten queries.
+     */
+    public static final String QUERIES_HEADER = "X-Rewriting-Queries";
+    /**
+     * The header that tells whether the rewriting has been found in the cache.
+     */
+    public static final String CACHE_HEADER = "X-Rewriting-Cache";
+    /**
+     * The header with the time of rewriting and translating the query in milliseconds.
+     */
+    public static final String MILLIS_HEADER = "X-Rewriting-Millis";
+    /**
+     * The maximal number of bytes of the body of a request; larger requests are answered with 413.
+     */
+    public static final int MAX_BODY_BYTES = 1 << 16;
+
+    /**
+     * The ontologies, by their names.
+     */
+    private final Map<String, Ontology> ontologies;
+    /**
+     * The rewriter, shared by all workers.
+     */
+    private final RewriterImpl rewriter = new RewriterImpl();
+    /**
+     * The cache of the pruned rewritings of all ontologies.
+     */
+    private final MemoryRewritingCache cache;
+    /**
+     * The steps from a query to its rewriting and Cypher query, with both caches.
+     */
+    private final RewritingPipeline pipeline;
+    /**
+     * The tokens of the rewritings that are running.
+     */
+    private final Set<CancellationToken> running = ConcurrentHashMap.newKeySet();
+    /**
+     * Whether the server has been stopped.
+     */
+    private volatile boolean stopped;
+    /**
+     * The time budget of a rewriting.
+     */
+    private final RewritingBudget budget;
+    /**
+     * The workers, with their bounded queue of requests.
+     */
+    private final ThreadPoolExecutor workers;
+    /**
+     * The HTTP server.
+     */
+    private final HttpServer server;
+
+    /**
+     * Initialize a new server on localhost. The server does not accept requests before it is started.
+     *
+     * @param port The port, or 0 for any free port.
+     * @param ontologies The ontologies, by their names.
+     * @param threads The number of requests that are rewritten at the same time.
+     * @param queueCapacity The number of requests that may wait for a worker.
+     * @param cacheBytes The maximal estimated number of bytes on the heap used by the memory cache.
+     * @param diskCache The persistent cache of rewritings, or null.
+     * @param timeout The time budget of a rewriting.
+     * @throws IOException If the port cannot be bound.
+     */
+    public RewritingServer(int port, Map<String, Ontology> ontologies, int threads, int queueCapacity,
+                           long cacheBytes, DiskRewritingCache diskCache, Duration timeout) throws IOException {
+        if (ontologies.isEmpty()) {
+            throw new IllegalArgumentException("a server needs at least one ontology");
+        }
+        if (threads < 1 || queueCapacity < 0) {
+            throw new IllegalArgumentException("threads must be positive and the queue capacity not negative");
+        }
+        this.ontologies = new LinkedHashMap<>(ontologies);
+        this.cache = new MemoryRewritingCache(cacheBytes);
+        this.pipeline = new RewritingPipeline(rewriter, cache, diskCache);
+        this.budget = RewritingBudget.unlimited().withMaxTime(timeout);
+        this.rewriter.setMetrics(new RewritingMetrics());
+        this.workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                queueCapacity == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueCapacity),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        // the dispatcher thread of the server only hands the requests to the workers
+        this.server.setExecutor(null);
+        this.server.createContext("/rewrite", exchange -> submit(exchange, () -> rewrite(exchange, false)));
+        this.server.createContext("/translate", exchange -> submit(exchange, () -> rewrite(exchange, true)));
+        this.server.createContext("/ontologies", exchange -> submit(exchange, () -> ontologies(exchange)));
+        this.server.createContext("/stats", exchange -> submit(exchange, () -> stats(exchange)));
+    }
+
+    /**
+     * Start accepting requests.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Stop accepting requests, and wait for the requests that are being answered. The rewritings that are still
+     * running after the delay are cancelled, and their requests are answered with 503.
+     *
+     * @param delay The maximal time in seconds to wait for the requests.
+     */
+    public void stop(int delay) {
+        server.stop(delay);
+        stopped = true;
+        running.forEach(CancellationToken::cancel);
+        workers.shutdownNow();
+    }
+
+    /**
+     * Get the address the server is bound to.
+     *
+     * @return The address on localhost.
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Get the cache of the pruned rewritings.
+     *
+     * @return The cache.
+     */
+    public MemoryRewritingCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Get the metrics of the rewriter.
+     *
+     * @return The metrics.
+     */
+    public RewritingMetrics getMetrics() {
+        return rewriter.getMetrics();
+    }
+
+    /**
+     * Hand a request to the workers, or answer it with 503 if their queue is full.
+     *
+     * @param exchange The request.
+     * @param handler Answers the request.
+     * @throws IOException If the request cannot be answered.
+     */
+    private void submit(HttpExchange exchange, Handler handler) throws IOException {
+        try {
+            workers.execute(() -> {
+                try {
+                    try {
+                        handler.handle();
+                    } catch (RuntimeException e) {
+                        respond(exchange, 500, e.toString());
+                    }
+                } catch (IOException e) {
+                    // the client has gone away
+                } finally {
+                    exchange.close();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            respond(exchange, 503, "the server is busy, try again later");
+            exchange.close();
+        }
+    }
+
+    /**
+     * Answer a request to rewrite or translate a query.
+     *
+     * @param exchange The request.
+     * @param translate True to answer with the Cypher query, false to answer with the rewritten queries.
+     * @throws IOException If the request cannot be answered.
+     */
+    private void rewrite(HttpExchange exchange, boolean translate) throws IOException {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            respond(exchange, 405, "use POST with the query as the body");
+            return;
+        }
+        String name = parameters(exchange).get("ontology");
+        if (name == null && ontologies.size() == 1) {
+            name = ontologies.keySet().iterator().next();
+        }
+        Ontology o = name == null ? null : ontologies.get(name);
+        if (o == null) {
+            respond(exchange, 404, "unknown ontology " + name + ", expected one of " + ontologies.keySet());
+            return;
+        }
+
+        long start = System.nanoTime();
+        String body = body(exchange);
+        if (body == null) {
+            respond(exchange, 413, "the query is longer than " + MAX_BODY_BYTES + " bytes");
+            return;
+        }
+        InputQuery q;
+        try {
+            q = InputQueryBuilder.parse(body.trim(), o);
+        } catch (InvalidQueryException e) {
+            respond(exchange, 400, "invalid query: " + e.getMessage());
+            return;
+        }
+        CancellationToken token = new CancellationToken();
+        running.add(token);
+        RewritingPipeline.Outcome outcome;
+        try {
+            if (stopped) {
+                token.cancel();
+            }
+            outcome = pipeline.rewrite(o, q, budget, token);
+        } finally {
+            running.remove(token);
+        }
+        if (!outcome.isComplete()) {
+            respond(exchange, 503, "the rewriting did not complete: " + outcome.getStatus());
+            return;
+        }
+        Set<RewritableQuery> Q = outcome.getQueries();
+
+        String response;
+        if (translate) {
+            response = outcome.getTranslation();
+        } else {
+            StringBuilder sb = new StringBuilder();
+            Q.forEach(qp -> sb.append(qp).append('\n'));
+            response = sb.toString();
+        }
+        exchange.getResponseHeaders().set(QUERIES_HEADER, Integer.toString(Q.size()));
+        exchange.getResponseHeaders().set(CACHE_HEADER,
+                outcome.getSource() == RewritingPipeline.Source.REWRITER ? "miss" : "hit");
+        exchange.getResponseHeaders().set(MILLIS_HEADER,
+                String.format(Locale.ROOT, "%.3f", (System.nanoTime() - start) / 1e6));
+        respond(exchange, 200, response);
+    }
+
+    /**
+     * Answer a request for the names of the ontologies.
+     *
+     * @param exchange The request.
+     * @throws IOException If the request cannot be answered.
+     */
+    private void ontologies(HttpExchange exchange) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        ontologies.keySet().forEach(name -> sb.append(name).append('\n'));
+        respond(exchange, 200, sb.toString());
+    }
+
+    /**
+     * Answer a request for the statistics of the cache and the metrics of the rewriter.
+     *
+     * @param exchange The request.
+     * @throws IOException If the request cannot be answered.
+     */
+    private void stats(HttpExchange exchange) throws IOException {
+        respond(exchange, 200, "cache: " + cache.getStatistics() + "\n" +
+                "queue: " + workers.getActiveCount() + " active, " + workers.getQueue().size() + " waiting, " +
+                workers.getCompletedTaskCount() + " completed\n" +
+                "rewriter: " + rewriter.getMetrics() + "\n");
+    }
+
+    /**
+     * Send a plain text response.
+     *
+     * @param exchange The request.
+     * @param status The status code.
+     * @param text The text.
+     * @throws IOException If the response cannot be sent.
+     */
+    private static void respond(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Read the body of a request, unless it is longer than {@value #MAX_BODY_BYTES} bytes.
+     *
+     * @param exchange The request.
+     * @return The body, decoded as UTF-8, or null if it is too long.
+     * @throws IOException If the body cannot be read.
+     */
+    private static String body(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                if (bytes.size() + n > MAX_BODY_BYTES) {
+                    return null;
+                }
+                bytes.write(buffer, 0, n);
+            }
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get the parameters of the query string of a request.
+     *
+     * @param exchange The request.
+     * @return The parameters, by their names.
+     * @throws IOException If a parameter cannot be decoded.
+     */
+    private static Map<String, String> parameters(HttpExchange exchange) throws IOException {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            int i = parameter.indexOf('=');
+            if (i > 0) {
+                parameters.put(URLDecoder.decode(parameter.substring(0, i), "UTF-8"),
+                        URLDecoder.decode(parameter.substring(i + 1), "UTF-8"));
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Answers a request on a worker thread.
+     */
+    private interface Handler {
+
+        /**
+         * Answer the request.
+         *
+         * @throws IOException If the request cannot be answered.
+         */
+        void handle() throws IOException;
+    }
+}
@@ -0,0 +1,106 @@
+package at.ac.tuwien.informatics.reformulation;
+
+import at.ac.tuwien.informatics.structure.query.RewritableQuery;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of the resources used by a single rewriting, and decides whether the rewriting may go on.
+ * The monitor is thread-safe, so the tasks of a parallel rewriting can share it. Once a limit has been exceeded, the
+ * first reason is kept and the monitor stays stopped.
+ */
+class BudgetMonitor {
+
+    /**
+     * The budget of the rewriting.
+     */
+    private final RewritingBudget budget;
+    /**
+     * The token that cancels the rewriting.
+     */
+    private final CancellationToken token;
+    /**
+     * The value of {@link System#nanoTime()} at which the time limit is exceeded.
+     */
+    private final long deadline;
+    /**
+     * The number of derived queries.
+     */
+    private final AtomicLong queries = new AtomicLong();
+    /**
+     * The estimated number of bytes on the heap used by the derived queries.
+     */
+    private final AtomicLong heapBytes = new AtomicLong();
+    /**
+     * The reason the rewriting stopped, or null if it may go on.
+     */
+    private volatile RewritingResult.Status stopped;
+
+    /**
+     * Initialize a new monitor and start the clock.
+     *
+     * @param budget The budget of the rewriting.
+     * @param token The token that cancels the rewriting.
+     */
+    BudgetMonitor(RewritingBudget budget, CancellationToken token) {
+        this.budget = budget;
+        this.token = token;
+        this.deadline = budget.getMaxTime() == null ? Long.MAX_VALUE :
+                System.nanoTime() + budget.getMaxTime().toNanos();
+    }
+
+    /**
+     * Check the cancellation token and the time limit.
+     *
+     * @return True if the rewriting may go on, false otherwise.
+     */
+    boolean proceed() {
+        if (stopped != null) {
+            return false;
+        }
+        if (token.isCancelled()) {
+            stop(RewritingResult.Status.CANCELLED);
+        } else if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) {
+            stop(RewritingResult.Status.TIME_LIMIT);
+        }
+        return stopped == null;
+    }
+
+    /**
+     * Account for a newly derived query, unless that would exceed the limits on the number of queries or on the heap.
+     *
+     * @param q The newly derived query.
+     * @return True if the query fits into the budget, false otherwise.
+     */
+    boolean admit(RewritableQuery q) {
+        if (queries.incrementAndGet() > budget.getMaxQueries()) {
+            stop(RewritingResult.Status.QUERY_LIMIT);
+            return false;
+        }
+        if (heapBytes.addAndGet(q.getEstimatedSize()) > budget.getMaxHeapBytes()) {
+            stop(RewritingResult.Status.MEMORY_LIMIT);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Stop the rewriting, unless it has been stopped for another reason before.
+     *
+     * @param reason The reason the rewriting stopped.
+     */
+    private synchronized void stop(RewritingResult.Status reason) {
+        if (stopped == null) {
+            stopped = reason;
+        }
+    }
+
+    /**
+     * Get the status of the rewriting.
+     *
+     * @return The reason the rewriting stopped, or {@link RewritingResult.Status#COMPLETE} if it has not.
+     */
+    RewritingResult.Status getStatus() {
+        return stopped == null ? RewritingResult.Status.COMPLETE : stopped;
+    }
+}
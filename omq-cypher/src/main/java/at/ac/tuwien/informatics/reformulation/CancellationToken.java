@@ -0,0 +1,30 @@
+package at.ac.tuwien.informatics.reformulation;
+
+/**
+ * A token that allows to cancel a running rewriting from another thread.
+ * Cancellation is cooperative: the rewriting checks the token before expanding a query, and stops with the queries it
+ * has derived so far once the token has been cancelled.
+ */
+public class CancellationToken {
+
+    /**
+     * Whether the token has been cancelled.
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * Cancel all rewritings that use this token.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * Check whether the token has been cancelled.
+     *
+     * @return True if the token has been cancelled, false otherwise.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
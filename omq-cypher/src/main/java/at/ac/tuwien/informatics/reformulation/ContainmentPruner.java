@@ -0,0 +1,225 @@
+package at.ac.tuwien.informatics.reformulation;
+
+import at.ac.tuwien.informatics.structure.Symbols;
+import at.ac.tuwien.informatics.structure.query.*;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLObjectInverseOf;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * A class that removes queries from a union of queries that are contained in another query of the union.
+ * A query q' is contained in a query q if there is a homomorphism from q to q' that maps the head of q onto the head
+ * of q' position by position. Dropping q' from the union does not change the answers of the union.
+ */
+public class ContainmentPruner {
+
+    /**
+     * Given a set of queries, return a subset of the queries with the same answers, in which no query is contained in
+     * another query.
+     * Of two equivalent queries, the one with fewer atoms is kept.
+     *
+     * @param queries Set of queries.
+     * @return Set of queries, where each contained query has been dropped.
+     */
+    public Set<RewritableQuery> prune(Set<RewritableQuery> queries) {
+        // visit smaller queries first, they are more likely to contain others
+        List<RewritableQuery> sorted = queries.stream()
+                .sorted(Comparator.comparingInt((RewritableQuery q) -> q.getBody().size())
+                        .thenComparing(RewritableQuery::compareCanonicalKeys))
+                .collect(Collectors.toList());
+        List<RewritableQuery> kept = new LinkedList<>();
+        for (RewritableQuery q : sorted) {
+            if (kept.stream().anyMatch(k -> contains(k, q))) {
+                continue;
+            }
+            kept.removeIf(k -> contains(q, k));
+            kept.add(q);
+        }
+        return new HashSet<>(kept);
+    }
+
+    /**
+     * Return true if the specific query is contained in the general query, i.e. every answer of the specific query
+     * is an answer of the general query.
+     * The test is sound, but it does not detect containment that needs a path atom to be mapped onto several atoms.
+     *
+     * @param general A query.
+     * @param specific A query.
+     * @return True if there is a homomorphism from general to specific, false otherwise.
+     */
+    public boolean contains(RewritableQuery general, RewritableQuery specific) {
+        if (general.getHead().size() != specific.getHead().size()) {
+            return false;
+        }
+        // quick check: each concept name of the general query must occur in the specific query, either as a concept
+        // name atom or as a disjunction of this name alone
+        Set<Object> names = specific.getBody().stream()
+                .filter(a -> a instanceof Conceptname ||
+                        (a instanceof Concepts && ((Concepts) a).getNames().size() == 1))
+                .map(a -> a instanceof Conceptname ? ((Conceptname) a).getName() :
+                        ((Concepts) a).getNames().iterator().next())
+                .collect(Collectors.toSet());
+        if (!general.getBody().stream()
+                .filter(a -> a instanceof Conceptname)
+                .allMatch(a -> names.contains(((Conceptname) a).getName()))) {
+            return false;
+        }
+        // the head is mapped position by position
+        Map<Term, Term> mapping = new HashMap<>();
+        for (int i = 0; i < general.getHead().size(); i++) {
+            Term t = mapping.putIfAbsent(general.getHead().get(i), specific.getHead().get(i));
+            if (t != null && !t.equals(specific.getHead().get(i))) {
+                return false;
+            }
+        }
+        // map the atoms that must be mapped onto atoms first, arbitrary length atoms last
+        List<RewritableAtom> atoms = general.getBody().stream()
+                .sorted(Comparator.comparingInt(a -> a instanceof Conceptname || a instanceof Concepts ? 0 :
+                        (a instanceof Roles ? 1 : 2)))
+                .collect(Collectors.toList());
+        List<Term> terms = specific.getBody().stream()
+                .flatMap(a -> a.getTerms().stream())
+                .distinct()
+                .collect(Collectors.toList());
+        return homomorphism(atoms, 0, mapping, specific.getBody(), terms);
+    }
+
+    /**
+     * Try to extend a partial mapping of terms such that the atoms from the given index on are mapped.
+     *
+     * @param atoms The atoms of the general query.
+     * @param index The index of the next atom to be mapped.
+     * @param mapping The partial mapping from the terms of the general query to the terms of the specific query.
+     * @param body The atoms of the specific query.
+     * @param terms The terms of the specific query.
+     * @return True if the mapping can be extended to all atoms, false otherwise.
+     */
+    private boolean homomorphism(List<RewritableAtom> atoms, int index, Map<Term, Term> mapping,
+                                 Set<RewritableAtom> body, List<Term> terms) {
+        if (index == atoms.size()) {
+            return true;
+        }
+        RewritableAtom a = atoms.get(index);
+        if (a instanceof ArbitraryLengthAtom) {
+            // a path of length zero: both terms are mapped onto the same term
+            Term l = image(a.getTerms().get(0), mapping);
+            Term r = image(a.getTerms().get(1), mapping);
+            if (l != null && r != null) {
+                if (l.equals(r) && homomorphism(atoms, index + 1, mapping, body, terms)) {
+                    return true;
+                }
+            } else {
+                for (Term t : (l != null ? Collections.singletonList(l) :
+                        (r != null ? Collections.singletonList(r) : terms))) {
+                    Map<Term, Term> extended = extend(mapping, a.getTerms(), Arrays.asList(t, t));
+                    if (extended != null && homomorphism(atoms, index + 1, extended, body, terms)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        for (RewritableAtom b : body) {
+            for (List<Term> target : targets(a, b)) {
+                Map<Term, Term> extended = extend(mapping, a.getTerms(), target);
+                if (extended != null && homomorphism(atoms, index + 1, extended, body, terms)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get the image of a term under a partial mapping.
+     * Unbound variables occur only once, so they are never mapped.
+     *
+     * @param t The term.
+     * @param mapping The partial mapping.
+     * @return The image of the term, or null if it is not mapped.
+     */
+    private Term image(Term t, Map<Term, Term> mapping) {
+        return t instanceof UnboundVariable ? null : mapping.get(t);
+    }
+
+    /**
+     * Extend a partial mapping such that the given terms are mapped onto the target terms.
+     *
+     * @param mapping The partial mapping.
+     * @param from The terms of an atom in the general query.
+     * @param to The terms of an atom in the specific query.
+     * @return The extended mapping, or null if the terms cannot be mapped consistently.
+     */
+    private Map<Term, Term> extend(Map<Term, Term> mapping, List<Term> from, List<Term> to) {
+        Map<Term, Term> extended = new HashMap<>(mapping);
+        for (int i = 0; i < from.size(); i++) {
+            if (from.get(i) instanceof UnboundVariable) {
+                continue;
+            }
+            Term t = extended.putIfAbsent(from.get(i), to.get(i));
+            if (t != null && !t.equals(to.get(i))) {
+                return null;
+            }
+        }
+        return extended;
+    }
+
+    /**
+     * Return the ways in which an atom of the general query can be mapped onto an atom of the specific query, as the
+     * lists of terms its own terms have to be mapped onto.
+     *
+     * @param a An atom of the general query.
+     * @param b An atom of the specific query.
+     * @return List of the possible images of the terms of a, empty if b does not imply a.
+     */
+    private List<List<Term>> targets(RewritableAtom a, RewritableAtom b) {
+        List<List<Term>> targets = new LinkedList<>();
+        if (a instanceof Conceptname) {
+            if (b instanceof Conceptname && ((Conceptname) a).getName().equals(((Conceptname) b).getName())) {
+                targets.add(b.getTerms());
+            } else if (b instanceof Concepts && Collections.singleton(((Conceptname) a).getName())
+                    .containsAll(((Concepts) b).getNames())) {
+                targets.add(b.getTerms());
+            }
+        } else if (a instanceof Concepts) {
+            // a disjunction of concept names, implied by each of its names
+            Set<OWLClass> names = ((Concepts) a).getNames();
+            if (b instanceof Concepts && names.containsAll(((Concepts) b).getNames())) {
+                targets.add(b.getTerms());
+            } else if (b instanceof Conceptname && names.contains(((Conceptname) b).getName())) {
+                targets.add(b.getTerms());
+            }
+        } else if (a instanceof Roles) {
+            if (b instanceof Roles) {
+                long[] roles = ((Roles) a).getRoleMask();
+                if (Symbols.containsAll(roles, ((Roles) b).getRoleMask())) {
+                    targets.add(b.getTerms());
+                }
+                if (Symbols.containsAll(roles, ((Roles) b).getInverseRoleMask())) {
+                    Roles inverse = ((Roles) b).getInverse();
+                    targets.add(inverse.getTerms());
+                }
+            }
+        } else if (a instanceof ArbitraryLengthAtom) {
+            // a path of length at least one, with roles from a
+            long[] roles = ((ArbitraryLengthAtom) a).getRoleMask();
+            if (b instanceof ArbitraryLengthAtom &&
+                    Symbols.containsAll(roles, ((ArbitraryLengthAtom) b).getRoleMask())) {
+                targets.add(b.getTerms());
+            } else if (b instanceof Roles) {
+                if (Symbols.containsAll(roles, ((Roles) b).getRoleMask()) &&
+                        ((Roles) b).getRoles().stream().noneMatch(p -> p instanceof OWLObjectInverseOf)) {
+                    targets.add(b.getTerms());
+                }
+                if (Symbols.containsAll(roles, ((Roles) b).getInverseRoleMask())) {
+                    Roles inverse = ((Roles) b).getInverse();
+                    if (inverse.getRoles().stream().noneMatch(p -> p instanceof OWLObjectInverseOf)) {
+                        targets.add(inverse.getTerms());
+                    }
+                }
+            }
+        }
+        return targets;
+    }
+}
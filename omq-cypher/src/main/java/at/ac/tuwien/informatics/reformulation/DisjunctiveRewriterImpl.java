@@ -0,0 +1,107 @@
+package at.ac.tuwien.informatics.reformulation;
+
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.query.*;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLSubClassOfAxiom;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.Set;
+
+/**
+ * A rewriter for XI-restricted queries that represents concept atoms as disjunctions of concept names.
+ * Each concept name atom is replaced by a {@link Concepts} atom that is saturated under the subclass axioms between
+ * concept names, the same way as role atoms are saturated under the role inclusion axioms.
+ * A query with m concept atoms over concepts with k subclasses each is therefore rewritten into a single query
+ * instead of up to k^m queries, at the cost of a disjunction of labels in the translation.
+ */
+public class DisjunctiveRewriterImpl extends RewriterImpl {
+
+    /**
+     * Create a new session, i.e., the rewriter that carries out a single rewriting.
+     *
+     * @return A new rewriter with disjunctive concept atoms.
+     */
+    @Override
+    protected RewriterImpl newSession() {
+        return new DisjunctiveRewriterImpl();
+    }
+
+    /**
+     * Get the mode of this rewriter, which differs from the standard mode since concept atoms are disjunctions.
+     *
+     * @return "disjunctive".
+     */
+    @Override
+    public String getMode() {
+        return "disjunctive";
+    }
+
+    /**
+     * Check whether the atoms of the queries of a session are saturated under an axiom.
+     *
+     * @param I The axiom.
+     * @return True if I is a role inclusion, inverse role, or subclass axiom between concept names.
+     */
+    @Override
+    protected boolean isSaturatedUnder(OWLAxiom I) {
+        return super.isSaturatedUnder(I) || (I.isOfType(AxiomType.SUBCLASS_OF) &&
+                ((OWLSubClassOfAxiom) I).getSubClass() instanceof OWLClass &&
+                ((OWLSubClassOfAxiom) I).getSuperClass() instanceof OWLClass);
+    }
+
+    /**
+     * Given a Xi-restricted query q, apply disjunction to the path atoms and the concept name atoms occurring in the
+     * query. Then, split multi-element path atoms into single path atoms.
+     *
+     * @param q The input query.
+     * @param o The Xi-compliant ontology.
+     * @return A Xi-restricted query q.
+     */
+    @Override
+    public RewritableQuery saturatePaths(InputQuery q, Ontology o) {
+        return disjunctive(super.saturatePaths(q, o), o);
+    }
+
+    /**
+     * Replace atom in query.
+     * A concept name atom introduced by the axiom is saturated into a disjunction of concept names.
+     *
+     * @param q Xi-restricted query.
+     * @param a A rewritable atom in the query.
+     * @param o The ontology wrapper object.
+     * @param I An OWL QL (DL-Lite) Axiom.
+     * @return A Xi-restricted query q'.
+     */
+    @Override
+    public RewritableQuery replace(RewritableQuery q, RewritableAtom a, Ontology o, OWLAxiom I) {
+        return disjunctive(super.replace(q, a, o, I), o);
+    }
+
+    /**
+     * Replace every concept name atom of a query by the saturated disjunction of its concept name.
+     *
+     * @param q A query.
+     * @param o The Xi-compliant ontology.
+     * @return A query without concept name atoms.
+     */
+    private RewritableQuery disjunctive(RewritableQuery q, Ontology o) {
+        if (q.getBody().stream().noneMatch(a -> a instanceof Conceptname)) {
+            return q;
+        }
+        Set<RewritableAtom> body = new HashSet<>();
+        for (RewritableAtom a : q.getBody()) {
+            if (a instanceof Conceptname) {
+                Conceptname c = (Conceptname) a;
+                body.add(new Concepts(Collections.singleton(c.getName()), c.getTerm()).saturate(o));
+            } else {
+                body.add(a);
+            }
+        }
+        return new RewritableQuery(new LinkedList<>(q.getHead()), body);
+    }
+}
@@ -0,0 +1,202 @@
+package at.ac.tuwien.informatics.reformulation;
+
+import at.ac.tuwien.informatics.structure.Substitution;
+import at.ac.tuwien.informatics.structure.query.*;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * A class that turns a union of queries into a {@link FactorizedQuery}, in which the atoms that several queries have
+ * in common are shared.
+ * The factorization is greedy: the atom that occurs in most queries is chosen, the queries that contain it are grouped
+ * below a node that holds all atoms they have in common, and the groups are factorized recursively.
+ * Atoms are shared if they are equal, so queries whose variables have the same names share more atoms. The queries of
+ * a rewriting mostly keep the names of the variables of the input query, and the fresh variables of a rewriting are
+ * unique, so equal names stand for the same variable in most cases.
+ */
+public class Factorizer {
+
+    /**
+     * Given a list of answer variables and a set of queries, return the factorized union of the queries.
+     * The variables of the queries are renamed first: the answer variables of each query get the names of the given
+     * answer variables, and each unbound variable gets a name of its own, so that atoms of different queries can be
+     * shared without joining their unbound variables.
+     *
+     * @param answerVars The answer variables for the query.
+     * @param queries The set of queries.
+     * @return The root of the factorized union.
+     */
+    public FactorizedQuery factorize(List<Variable> answerVars, Set<RewritableQuery> queries) {
+        Set<String> names = queries.stream()
+                .flatMap(q -> q.getBody().stream())
+                .flatMap(a -> a.getTerms().stream())
+                .map(Term::getName)
+                .collect(Collectors.toSet());
+        names.addAll(answerVars.stream().map(Variable::getName).collect(Collectors.toSet()));
+        Renaming renaming = new Renaming(names);
+        List<RewritableQuery> normalized = queries.stream()
+                .sorted(RewritableQuery::compareCanonicalKeys)
+                .map(q -> renaming.normalize(answerVars, q))
+                .collect(Collectors.toList());
+        List<FactorizedQuery> branches = factorize(normalized);
+        if (branches.size() == 1) {
+            return branches.get(0);
+        }
+        return new FactorizedQuery(new HashSet<>(), branches);
+    }
+
+    /**
+     * Factorize a list of queries, whose atoms are the atoms that remain below the current node.
+     *
+     * @param queries The queries.
+     * @return The branches below the current node.
+     */
+    private List<FactorizedQuery> factorize(List<RewritableQuery> queries) {
+        List<FactorizedQuery> branches = new LinkedList<>();
+        // queries with the same head and atoms below the current node end in the same leaf
+        // the names of the variables matter here, since they may occur in the atoms above the current node
+        Map<List<Object>, RewritableQuery> distinct = new LinkedHashMap<>();
+        for (RewritableQuery q : queries) {
+            distinct.putIfAbsent(Arrays.asList(q.getHead(), q.getBody()), q);
+        }
+        List<RewritableQuery> rest = new LinkedList<>(distinct.values());
+        while (!rest.isEmpty()) {
+            // the atom that occurs in most queries, ties are broken by the string representation
+            Map<RewritableAtom, Integer> counts = new HashMap<>();
+            for (RewritableQuery q : rest) {
+                for (RewritableAtom a : q.getBody()) {
+                    counts.merge(a, 1, Integer::sum);
+                }
+            }
+            Optional<RewritableAtom> shared = counts.entrySet().stream()
+                    .filter(e -> e.getValue() > 1)
+                    .max(Comparator.comparingInt((Map.Entry<RewritableAtom, Integer> e) -> e.getValue())
+                            .thenComparing(e -> e.getKey().toString(), Comparator.reverseOrder()))
+                    .map(Map.Entry::getKey);
+            if (!shared.isPresent()) {
+                // nothing left to share, each query ends in a leaf of its own
+                for (RewritableQuery q : rest) {
+                    branches.add(new FactorizedQuery(q.getHead(), q.getBody()));
+                }
+                break;
+            }
+            // group the queries with the atom, and take out the atoms all of them have in common
+            List<RewritableQuery> group = rest.stream()
+                    .filter(q -> q.getBody().contains(shared.get()))
+                    .collect(Collectors.toList());
+            rest.removeIf(q -> q.getBody().contains(shared.get()));
+            Set<RewritableAtom> common = new HashSet<>(group.get(0).getBody());
+            for (RewritableQuery q : group) {
+                common.retainAll(q.getBody());
+            }
+            List<FactorizedQuery> children = factorize(group.stream()
+                    .map(q -> {
+                        Set<RewritableAtom> body = new HashSet<>(q.getBody());
+                        body.removeAll(common);
+                        return new RewritableQuery(q.getHead(), body);
+                    })
+                    .collect(Collectors.toList()));
+            branches.add(children.size() == 1 ? merge(common, children.get(0)) :
+                    new FactorizedQuery(common, children));
+        }
+        return branches;
+    }
+
+    /**
+     * Add atoms to a node.
+     *
+     * @param atoms The atoms.
+     * @param node The node.
+     * @return A new node with the atoms of both, and the branches or head of the given node.
+     */
+    private static FactorizedQuery merge(Set<RewritableAtom> atoms, FactorizedQuery node) {
+        Set<RewritableAtom> union = new HashSet<>(atoms);
+        union.addAll(node.getAtoms());
+        return node.isLeaf() ? new FactorizedQuery(node.getHead(), union) :
+                new FactorizedQuery(union, node.getBranches());
+    }
+
+    /**
+     * The renaming of the variables of the queries of a union.
+     */
+    private static final class Renaming {
+
+        /**
+         * The names that are taken.
+         */
+        private final Set<String> names;
+        /**
+         * Counter for fresh names.
+         */
+        private int counter = 0;
+
+        /**
+         * Initialize a new renaming.
+         *
+         * @param names The names of the variables of all queries, which are not used as fresh names.
+         */
+        Renaming(Set<String> names) {
+            this.names = names;
+        }
+
+        /**
+         * Rename the variables of a query.
+         * The i-th answer variable is renamed to the i-th given answer variable, unless it already occurs at an
+         * earlier position of the head. Other variables keep their names, unless the name is one of the given answer
+         * variables. Each unbound variable gets a fresh name.
+         *
+         * @param answerVars The answer variables for the query.
+         * @param q The query.
+         * @return The renamed query.
+         */
+        RewritableQuery normalize(List<Variable> answerVars, RewritableQuery q) {
+            Map<Term, Term> renaming = new LinkedHashMap<>();
+            for (int i = 0; i < Math.min(answerVars.size(), q.getHead().size()); i++) {
+                renaming.putIfAbsent(q.getHead().get(i), answerVars.get(i).getFresh());
+            }
+            Set<String> answerNames = answerVars.stream().map(Variable::getName).collect(Collectors.toSet());
+            for (RewritableAtom a : q.getBody()) {
+                for (Term t : a.getTerms()) {
+                    if (t instanceof UnboundVariable) {
+                        renaming.put(t, new UnboundVariable(fresh()));
+                    } else if (!renaming.containsKey(t) && answerNames.contains(t.getName())) {
+                        renaming.put(t, new Variable(fresh()));
+                    }
+                }
+            }
+            // rename in two steps, such that a new name is never renamed again
+            List<Substitution> toTemporary = new LinkedList<>();
+            List<Substitution> fromTemporary = new LinkedList<>();
+            int i = 0;
+            for (Map.Entry<Term, Term> e : renaming.entrySet()) {
+                Term temporary = e.getKey() instanceof UnboundVariable ? new UnboundVariable("#" + i) :
+                        new Variable("#" + i);
+                toTemporary.add(new Substitution(e.getKey(), temporary));
+                fromTemporary.add(new Substitution(temporary, e.getValue()));
+                i++;
+            }
+            List<Variable> head = q.getHead().stream()
+                    .map(v -> (Variable) renaming.getOrDefault(v, v).getFresh())
+                    .collect(Collectors.toCollection(LinkedList::new));
+            Set<RewritableAtom> body = new HashSet<>();
+            for (RewritableAtom a : q.getBody()) {
+                body.add(a.applySubstitution(toTemporary).applySubstitution(fromTemporary));
+            }
+            return new RewritableQuery(head, body);
+        }
+
+        /**
+         * Get a fresh name that is not taken.
+         *
+         * @return The name.
+         */
+        private String fresh() {
+            String name;
+            do {
+                name = "u" + ++counter;
+            } while (names.contains(name));
+            return name;
+        }
+    }
+}
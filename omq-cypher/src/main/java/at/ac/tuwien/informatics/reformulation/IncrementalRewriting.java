@@ -0,0 +1,245 @@
+package at.ac.tuwien.informatics.reformulation;
+
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.query.InputQuery;
+import at.ac.tuwien.informatics.structure.query.RewritableQuery;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+import java.util.*;
+
+/**
+ * The rewriting of a single query that is kept up to date while axioms are added to or removed from the ontology.
+ * Besides the set of queries, the rewriting keeps the derivation graph: for each query, the queries derived from it
+ * in one step, labelled with the axiom that was applied, if any.
+ * <ul>
+ *     <li>When an axiom is removed, the rewriting keeps exactly the queries that are still reachable from the input
+ *     query without applying the axiom.</li>
+ *     <li>When an axiom is added, the axiom is applied to all queries, and the fixpoint computation resumes from the
+ *     new queries.</li>
+ *     <li>Role inclusion and inverse role axioms change the saturation of every role atom, so adding or removing them
+ *     recomputes the rewriting from scratch. The same holds for every other axiom the session saturates atoms
+ *     under, see {@link RewriterImpl#isSaturatedUnder(OWLAxiom)}.</li>
+ *     <li>All other axioms are not used for rewriting, and changing them does not change the rewriting.</li>
+ * </ul>
+ * The rewriting is not thread-safe.
+ */
+public class IncrementalRewriting {
+
+    /**
+     * The session that carries out the rewriting steps.
+     */
+    private final RewriterImpl session;
+    /**
+     * The input query.
+     */
+    private final InputQuery q;
+    /**
+     * The ontology.
+     */
+    private final Ontology o;
+    /**
+     * The query the rewriting starts from, i.e., the saturated input query.
+     */
+    private RewritableQuery q0;
+    /**
+     * For each query, the queries derived from it in one step. Contains exactly the queries of the rewriting.
+     */
+    private final Map<RewritableQuery, Set<Derivation>> derivations = new HashMap<>();
+
+    /**
+     * Rewrite a query, and keep the derivation graph for incremental updates.
+     *
+     * @param rewriter The rewriter, whose sessions carry out the rewriting steps.
+     * @param q The input query.
+     * @param o The Xi-compliant ontology.
+     */
+    public IncrementalRewriting(RewriterImpl rewriter, InputQuery q, Ontology o) {
+        this.session = rewriter.session();
+        this.q = q;
+        this.o = o;
+        rewrite();
+    }
+
+    /**
+     * Get the queries of the rewriting.
+     *
+     * @return Unmodifiable set of queries.
+     */
+    public Set<RewritableQuery> getQueries() {
+        return Collections.unmodifiableSet(derivations.keySet());
+    }
+
+    /**
+     * Get the axioms that were applied in the last step of a derivation of a query.
+     *
+     * @param qp A query of the rewriting.
+     * @return Set of axioms, empty if the query is not the result of applying an axiom.
+     */
+    public Set<OWLAxiom> getProducingAxioms(RewritableQuery qp) {
+        Set<OWLAxiom> axioms = new HashSet<>();
+        for (Set<Derivation> children : derivations.values()) {
+            for (Derivation d : children) {
+                if (d.axiom != null && d.query.equals(qp)) {
+                    axioms.add(d.axiom);
+                }
+            }
+        }
+        return axioms;
+    }
+
+    /**
+     * Update the rewriting after an axiom has been added to the ontology.
+     * Must be called after the ontology has been updated, e.g., by {@link Ontology#addAxiom(OWLAxiom)}.
+     *
+     * @param I The added axiom.
+     */
+    public void axiomAdded(OWLAxiom I) {
+        if (changesSaturation(I)) {
+            rewrite();
+        } else if (isApplicable(I)) {
+            Deque<RewritableQuery> worklist = new ArrayDeque<>();
+            for (RewritableQuery qp : new ArrayList<>(derivations.keySet())) {
+                for (RewritableQuery qpp : session.applyAxiom(qp, o, I)) {
+                    derive(qp, I, qpp, worklist);
+                }
+            }
+            saturate(worklist);
+        }
+    }
+
+    /**
+     * Update the rewriting after an axiom has been removed from the ontology.
+     * Must be called after the ontology has been updated, e.g., by {@link Ontology#removeAxiom(OWLAxiom)}.
+     *
+     * @param I The removed axiom.
+     */
+    public void axiomRemoved(OWLAxiom I) {
+        if (changesSaturation(I)) {
+            rewrite();
+        } else if (isApplicable(I)) {
+            // drop the derivations that apply I, and keep the queries that are still reachable
+            derivations.values().forEach(children -> children.removeIf(d -> I.equals(d.axiom)));
+            Set<RewritableQuery> reachable = new HashSet<>();
+            Deque<RewritableQuery> worklist = new ArrayDeque<>(Collections.singleton(q0));
+            reachable.add(q0);
+            while (!worklist.isEmpty()) {
+                for (Derivation d : derivations.get(worklist.poll())) {
+                    if (reachable.add(d.query)) {
+                        worklist.add(d.query);
+                    }
+                }
+            }
+            derivations.keySet().retainAll(reachable);
+        }
+    }
+
+    /**
+     * Rewrite the input query from scratch.
+     */
+    private void rewrite() {
+        derivations.clear();
+        q0 = session.tau(session.saturatePaths(q, o));
+        derivations.put(q0, new HashSet<>());
+        saturate(new ArrayDeque<>(Collections.singleton(q0)));
+    }
+
+    /**
+     * Expand the queries in the worklist, and all queries derived from them, until the fixpoint is reached.
+     *
+     * @param worklist The queries that have not been expanded yet.
+     */
+    private void saturate(Deque<RewritableQuery> worklist) {
+        while (!worklist.isEmpty()) {
+            session.getMetrics().recordExpansion(worklist.size());
+            RewritableQuery qp = worklist.poll();
+            session.expand(qp, o, (I, qpp) -> derive(qp, I, qpp, worklist));
+        }
+    }
+
+    /**
+     * Record a derivation, and add the derived query to the worklist if it is new.
+     *
+     * @param qp The query the new query is derived from.
+     * @param I The axiom that was applied, or null.
+     * @param qpp The derived query.
+     * @param worklist The queries that have not been expanded yet.
+     */
+    private void derive(RewritableQuery qp, OWLAxiom I, RewritableQuery qpp, Deque<RewritableQuery> worklist) {
+        session.getMetrics().recordDerived(derivations.containsKey(qpp));
+        if (qpp.equals(qp)) {
+            return;
+        }
+        derivations.get(qp).add(new Derivation(qpp, I));
+        if (!derivations.containsKey(qpp)) {
+            derivations.put(qpp, new HashSet<>());
+            worklist.add(qpp);
+        }
+    }
+
+    /**
+     * Check whether an axiom changes the saturation of the atoms.
+     *
+     * @param I The axiom.
+     * @return True if the atoms of the session are saturated under I, e.g., if I is a role inclusion axiom.
+     */
+    private boolean changesSaturation(OWLAxiom I) {
+        return session.isSaturatedUnder(I);
+    }
+
+    /**
+     * Check whether an axiom can be applied to an atom in step (a).
+     *
+     * @param I The axiom.
+     * @return True if I is a subclass, domain or range axiom.
+     */
+    private static boolean isApplicable(OWLAxiom I) {
+        return I.isOfType(AxiomType.SUBCLASS_OF, AxiomType.OBJECT_PROPERTY_DOMAIN, AxiomType.OBJECT_PROPERTY_RANGE);
+    }
+
+    /**
+     * An edge of the derivation graph: a derived query, and the axiom that was applied to derive it.
+     */
+    private static final class Derivation {
+
+        /**
+         * The derived query.
+         */
+        private final RewritableQuery query;
+        /**
+         * The axiom that was applied, or null if the query was derived by steps (b)-(e).
+         */
+        private final OWLAxiom axiom;
+
+        /**
+         * Initialize a new derivation.
+         *
+         * @param query The derived query.
+         * @param axiom The axiom that was applied, or null.
+         */
+        Derivation(RewritableQuery query, OWLAxiom axiom) {
+            this.query = query;
+            this.axiom = axiom;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * query.hashCode() + Objects.hashCode(axiom);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+
+            if (!(obj instanceof Derivation)) {
+                return false;
+            }
+
+            Derivation d = (Derivation) obj;
+
+            return this.query.equals(d.query) && Objects.equals(this.axiom, d.axiom);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package at.ac.tuwien.informatics.reformulation;
+
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.query.InputQuery;
+import at.ac.tuwien.informatics.structure.query.RewritableQuery;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A rewriter for XI-restricted queries that expands the queries on a {@link ForkJoinPool}.
+ * Expanding a query is independent of expanding any other query, so each newly derived query is expanded in its own
+ * task. The rewriting steps are the same as in {@link RewriterImpl}, and so is the resulting set of queries.
+ */
+public class ParallelRewriterImpl extends RewriterImpl {
+
+    /**
+     * The pool the expansion tasks are executed on.
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Initialize a new parallel rewriter that uses the common fork/join pool.
+     */
+    public ParallelRewriterImpl() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Initialize a new parallel rewriter.
+     *
+     * @param pool The pool the expansion tasks are executed on.
+     */
+    public ParallelRewriterImpl(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Given a Xi-restricted query q, rewrite q into a set of queries such that the evaluation over the data returns
+     * all the certain answers in the KB.
+     *
+     * @param q The input query.
+     * @param o The Xi-compliant ontology.
+     * @return Set of queries.
+     */
+    @Override
+    public Set<RewritableQuery> rewrite(InputQuery q, Ontology o) {
+        return rewrite(q, o, RewritingBudget.unlimited(), new CancellationToken()).getQueries();
+    }
+
+    /**
+     * Given a Xi-restricted query q, rewrite q into a set of queries such that the evaluation over the data returns
+     * all the certain answers in the KB, unless the rewriting exceeds its budget or is cancelled before.
+     * All tasks share the budget, and each task checks it before expanding its query.
+     *
+     * @param q The input query.
+     * @param o The Xi-compliant ontology.
+     * @param budget The limits on the resources of the rewriting.
+     * @param token The token that cancels the rewriting.
+     * @return The queries derived so far, and whether they are complete.
+     */
+    @Override
+    public RewritingResult rewrite(InputQuery q, Ontology o, RewritingBudget budget, CancellationToken token) {
+        BudgetMonitor monitor = new BudgetMonitor(budget, token);
+        // all tasks share the session, i.e., the counter for fresh variable names of this rewriting
+        RewriterImpl session = session();
+        // Q is the closed set of all queries derived so far, shared by all tasks
+        Set<RewritableQuery> Q = ConcurrentHashMap.newKeySet();
+        RewritableQuery q0 = session.tau(session.saturatePaths(q, o));
+        monitor.admit(q0);
+        Q.add(q0);
+        pool.invoke(new Expansion(null, q0, o, Q, session, monitor));
+        return new RewritingResult(new HashSet<>(Q), monitor.getStatus());
+    }
+
+    /**
+     * A task that expands a single query, and forks a new task for each query that has not been derived before.
+     * The task completes once all the tasks it forked have completed.
+     */
+    private class Expansion extends CountedCompleter<Void> {
+
+        /**
+         * The query to be expanded.
+         */
+        private final RewritableQuery query;
+        /**
+         * The ontology.
+         */
+        private final Ontology o;
+        /**
+         * The closed set of derived queries.
+         */
+        private final Set<RewritableQuery> Q;
+        /**
+         * The session of the rewriting.
+         */
+        private final RewriterImpl session;
+        /**
+         * The monitor of the resources used by the rewriting.
+         */
+        private final BudgetMonitor monitor;
+
+        /**
+         * Initialize a new expansion task.
+         *
+         * @param parent The task that forked this task, or null for the root task.
+         * @param query The query to be expanded.
+         * @param o The ontology.
+         * @param Q The closed set of derived queries.
+         * @param session The session of the rewriting.
+         * @param monitor The monitor of the resources used by the rewriting.
+         */
+        Expansion(CountedCompleter<?> parent, RewritableQuery query, Ontology o, Set<RewritableQuery> Q,
+                  RewriterImpl session, BudgetMonitor monitor) {
+            super(parent);
+            this.query = query;
+            this.o = o;
+            this.Q = Q;
+            this.session = session;
+            this.monitor = monitor;
+        }
+
+        @Override
+        public void compute() {
+            if (monitor.proceed()) {
+                // the frontier of a parallel rewriting are the tasks that wait in the queues of the pool
+                session.getMetrics().recordExpansion(pool.getQueuedTaskCount() + 1);
+                for (RewritableQuery qpp : session.expand(query, o)) {
+                    boolean added = Q.add(qpp);
+                    session.getMetrics().recordDerived(!added);
+                    if (added) {
+                        if (!monitor.admit(qpp)) {
+                            Q.remove(qpp);
+                            break;
+                        }
+                        addToPendingCount(1);
+                        new Expansion(this, qpp, o, Q, session, monitor).fork();
+                    }
+                }
+            }
+            tryComplete();
+        }
+    }
+}
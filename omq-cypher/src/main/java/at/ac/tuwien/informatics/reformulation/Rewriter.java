@@ -5,6 +5,7 @@ import at.ac.tuwien.informatics.structure.query.*;
 import org.semanticweb.owlapi.model.OWLAxiom;
 
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * An interface describing the functions a rewriter must implement.
@@ -21,6 +22,30 @@ public interface Rewriter {
      */
     Set<RewritableQuery> rewrite(InputQuery q, Ontology o);
 
+    /**
+     * Given a Xi-restricted query q, rewrite q into a set of queries such that the evaluation over the data returns
+     * all the certain answers in the KB, unless the rewriting exceeds its budget or is cancelled before.
+     * In that case, the result contains the queries derived so far, and is marked as incomplete.
+     *
+     * @param q The input query.
+     * @param o The ontology.
+     * @param budget The limits on the resources of the rewriting.
+     * @param token The token that cancels the rewriting.
+     * @return The queries derived so far, and whether they are complete.
+     */
+    RewritingResult rewrite(InputQuery q, Ontology o, RewritingBudget budget, CancellationToken token);
+
+    /**
+     * Given a Xi-restricted query q, rewrite q into a stream of queries such that the evaluation over the data returns
+     * all the certain answers in the KB.
+     * Each query is emitted as soon as it has been derived, so consumers can start before the rewriting is complete.
+     *
+     * @param q The input query.
+     * @param o The ontology.
+     * @return Stream of distinct queries.
+     */
+    Stream<RewritableQuery> rewriteStream(InputQuery q, Ontology o);
+
     /**
      * Given a Xi-restricted query q, apply disjunction to the path atoms occurring in the query.
      * Then, split multi-element path atoms into single path atoms.
@@ -104,4 +129,14 @@ public interface Rewriter {
      * @return new Variable name as a String.
      */
     String getFreshVariableName();
+
+    /**
+     * Get the mode of this rewriter. Rewriters with the same mode rewrite a query into the same set of queries, so
+     * they may share cached rewritings, while rewriters with different modes must not.
+     *
+     * @return The mode, "standard" unless the rewriter represents the rewriting differently.
+     */
+    default String getMode() {
+        return "standard";
+    }
 }
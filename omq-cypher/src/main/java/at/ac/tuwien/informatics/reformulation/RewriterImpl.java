@@ -1,21 +1,44 @@
 package at.ac.tuwien.informatics.reformulation;
 
 import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.Symbols;
 import at.ac.tuwien.informatics.structure.Unifier;
 import at.ac.tuwien.informatics.structure.query.*;
+import org.semanticweb.owlapi.model.AxiomType;
 import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * An implementation of a rewriter for XI-restricted queries.
  * The assumption for all methods is that the query is Xi-restricted, and the TBox is Xi-compliant.
+ * A single instance can serve concurrent rewritings: each rewriting runs in its own session (see
+ * {@link #newSession()}), and atoms and queries are not modified once they have been created.
  */
 public class RewriterImpl implements Rewriter {
 
-    private int variable_counter = 0;
+    /**
+     * Counter for fresh variable names. Atomic, since atoms may request fresh names from several threads.
+     * Each session has its own counter, so the names in a rewriting do not depend on concurrent rewritings.
+     */
+    private final AtomicInteger variable_counter = new AtomicInteger();
+
+    /**
+     * The shared atoms of the queries of a session, see {@link AtomFactory}.
+     * Each session has its own table, so the atoms of a rewriting are released together with its queries.
+     */
+    private final AtomFactory atoms = new AtomFactory();
+
+    /**
+     * The counters and timers of the rewriting steps, shared by all sessions of a rewriter.
+     */
+    private RewritingMetrics metrics = RewritingMetrics.disabled();
 
     /**
      * Given a Xi-restricted query q, rewrite q into a set of queries such that the evaluation over the data returns
@@ -27,60 +50,193 @@ public class RewriterImpl implements Rewriter {
      */
     @Override
     public Set<RewritableQuery> rewrite(InputQuery q, Ontology o) {
+        return rewrite(q, o, RewritingBudget.unlimited(), new CancellationToken()).getQueries();
+    }
+
+    /**
+     * Given a Xi-restricted query q, rewrite q into a set of queries such that the evaluation over the data returns
+     * all the certain answers in the KB, unless the rewriting exceeds its budget or is cancelled before.
+     * The budget and the token are checked before each query is expanded.
+     *
+     * @param q The input query.
+     * @param o The Xi-compliant ontology.
+     * @param budget The limits on the resources of the rewriting.
+     * @param token The token that cancels the rewriting.
+     * @return The queries derived so far, and whether they are complete.
+     */
+    @Override
+    public RewritingResult rewrite(InputQuery q, Ontology o, RewritingBudget budget, CancellationToken token) {
         Set<RewritableQuery> Q = new HashSet<>();
-        Q.add(tau(saturatePaths(q, o)));
-        Set<RewritableQuery> Qp = null;
-
-
-        while(!Q.equals(Qp)) {
-            Qp = new HashSet<>(Q);
-            for (RewritableQuery qp: Qp) {
-                // (a) apply axioms, if possible
-                for (RewritableAtom a: qp.getBody()) {
-                    for (OWLAxiom I: o.getOntology().getAxioms()) {
-                        if(a.applicable(I)) {
-                            Q.add(tau(replace(qp, a, o, I)));
-                        }
-                    }
-                }
+        Rewriting rewriting = session().new Rewriting(q, o, new BudgetMonitor(budget, token));
+        rewriting.forEachRemaining(Q::add);
+        return new RewritingResult(Q, rewriting.monitor.getStatus());
+    }
 
-                // (b) unify atoms, if possible
-                for (RewritableAtom a1: qp.getBody()) {
-                    for (RewritableAtom a2 : qp.getBody()) {
-                        Q.add(tau(reduce(qp, a1, a2)));
-                    }
-                }
+    /**
+     * Given a Xi-restricted query q, rewrite q into a stream of queries such that the evaluation over the data returns
+     * all the certain answers in the KB.
+     * The stream is lazy: each query is emitted as soon as it has been derived, and queries are only expanded when
+     * the consumer asks for more queries than have been derived so far.
+     *
+     * @param q The input query.
+     * @param o The Xi-compliant ontology.
+     * @return Stream of distinct queries.
+     */
+    @Override
+    public Stream<RewritableQuery> rewriteStream(InputQuery q, Ontology o) {
+        BudgetMonitor monitor = new BudgetMonitor(RewritingBudget.unlimited(), new CancellationToken());
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(session().new Rewriting(q, o, monitor),
+                Spliterator.DISTINCT | Spliterator.NONNULL), false);
+    }
 
-                // (c) concatenate, if possible
-                for (RewritableAtom a1: qp.getBody()) {
-                    for (RewritableAtom a2: qp.getBody()) {
-                        if(a1 instanceof Binary && a2 instanceof ArbitraryLengthAtom && !a1.equals(a2)) {
-                            Q.add(tau(concatenate(qp, (Binary) a1, (ArbitraryLengthAtom) a2)));
-                        }
-                    }
-                }
+    /**
+     * Create a new session, i.e., the rewriter that carries out a single rewriting.
+     * The session has its own counter for fresh variable names, and is not shared with any other rewriting.
+     * Subclasses that override any of the rewriting steps must return an instance of their own class.
+     *
+     * @return A new rewriter.
+     */
+    protected RewriterImpl newSession() {
+        return new RewriterImpl();
+    }
 
-                // (d) merge atoms, if possible
-                for (RewritableAtom a1: qp.getBody()) {
-                    for (RewritableAtom a2: qp.getBody()) {
-                        if(a1 instanceof Binary && a2 instanceof Binary) {
-                            Q.addAll(merge(qp, (Binary) a1, (Binary) a2).stream()
-                                    .map(this::tau)
-                                    .collect(Collectors.toSet()));
-                        }
-                    }
-                }
+    /**
+     * Create a new session (see {@link #newSession()}), which records its rewriting steps in the metrics of this
+     * rewriter.
+     *
+     * @return A new rewriter.
+     */
+    final RewriterImpl session() {
+        RewriterImpl session = newSession();
+        session.metrics = this.metrics;
+        return session;
+    }
 
-                // (e) drop atoms, if possible
-                for (RewritableAtom a1: qp.getBody()) {
-                    if (a1 instanceof ArbitraryLengthAtom) {
-                        Q.add(tau(drop(qp, (ArbitraryLengthAtom) a1)));
-                    }
-                }
+    /**
+     * Record the rewriting steps of all sessions that are created from now on in the given metrics.
+     * The metrics may be shared by several rewriters.
+     *
+     * @param metrics The metrics.
+     */
+    public void setMetrics(RewritingMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Get the metrics the rewriting steps of the sessions of this rewriter are recorded in.
+     *
+     * @return The metrics, which do not record anything unless they have been set.
+     */
+    public RewritingMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Check whether the atoms of the queries of a session are saturated under an axiom, i.e., whether adding or
+     * removing the axiom changes the saturation of the input query, rather than the applicable axioms.
+     *
+     * @param I The axiom.
+     * @return True if I is a role inclusion or inverse role axiom.
+     */
+    protected boolean isSaturatedUnder(OWLAxiom I) {
+        return I.isOfType(AxiomType.SUB_OBJECT_PROPERTY, AxiomType.INVERSE_OBJECT_PROPERTIES);
+    }
+
+    /**
+     * Apply the rewriting steps (a)-(e) once to a Xi-restricted query and return all queries derived from it.
+     * The result may contain the query itself, or queries that have been derived before.
+     *
+     * @param qp The Xi-restricted query to be expanded.
+     * @param o The Xi-compliant ontology.
+     * @return Set of queries derived from qp in one step.
+     */
+    protected Set<RewritableQuery> expand(RewritableQuery qp, Ontology o) {
+        Set<RewritableQuery> Q = new HashSet<>();
+        expand(qp, o, (I, qpp) -> Q.add(qpp));
+        return Q;
+    }
+
+    /**
+     * Apply the rewriting steps (a)-(e) once to a Xi-restricted query, and pass each derived query to a consumer,
+     * together with the axiom that was applied in step (a), or null if the query was derived by steps (b)-(e).
+     * A query may be passed more than once.
+     *
+     * @param qp The Xi-restricted query to be expanded.
+     * @param o The Xi-compliant ontology.
+     * @param derived The consumer of the axioms and the derived queries.
+     */
+    protected void expand(RewritableQuery qp, Ontology o, BiConsumer<OWLAxiom, RewritableQuery> derived) {
+        // (a) apply axioms, if possible
+        for (RewritableAtom a: qp.getBody()) {
+            for (OWLAxiom I: a.getApplicableAxioms(o)) {
+                long start = metrics.start();
+                RewritableQuery qpp = replace(qp, a, o, I);
+                metrics.record(RewritingMetrics.Step.REPLACE, start, true);
+                metrics.recordAxiom(I);
+                derived.accept(I, tau(qpp));
             }
         }
 
-        return Qp;
+        // only the pairs of atoms that the steps (b)-(d) can possibly be applied to are tried
+        AtomIndex index = new AtomIndex(qp.getBody());
+
+        // (b) unify atoms, if possible
+        index.forEachReducible((a1, a2) -> {
+            long start = metrics.start();
+            RewritableQuery qpp = reduce(qp, a1, a2);
+            metrics.record(RewritingMetrics.Step.REDUCE, start, qpp != qp);
+            derived.accept(null, tau(qpp));
+        });
+
+        // (c) concatenate, if possible
+        index.forEachConcatenable((a1, a2) -> {
+            long start = metrics.start();
+            RewritableQuery qpp = concatenate(qp, a1, a2);
+            metrics.record(RewritingMetrics.Step.CONCATENATE, start, qpp != qp);
+            derived.accept(null, tau(qpp));
+        });
+
+        // (d) merge atoms, if possible
+        index.forEachMergeable((a1, a2) -> {
+            long start = metrics.start();
+            Set<RewritableQuery> merges = merge(qp, a1, a2);
+            metrics.record(RewritingMetrics.Step.MERGE, start, !merges.isEmpty());
+            for (RewritableQuery qpp : merges) {
+                derived.accept(null, tau(qpp));
+            }
+        });
+
+        // (e) drop atoms, if possible
+        for (RewritableAtom a1: qp.getBody()) {
+            if (a1 instanceof ArbitraryLengthAtom) {
+                long start = metrics.start();
+                RewritableQuery qpp = drop(qp, (ArbitraryLengthAtom) a1);
+                metrics.record(RewritingMetrics.Step.DROP, start, qpp != qp);
+                derived.accept(null, tau(qpp));
+            }
+        }
+    }
+
+    /**
+     * Apply step (a) with a single axiom to each atom of a Xi-restricted query it is applicable to.
+     *
+     * @param qp The Xi-restricted query.
+     * @param o The Xi-compliant ontology.
+     * @param I The axiom.
+     * @return Set of queries derived from qp by applying I.
+     */
+    protected Set<RewritableQuery> applyAxiom(RewritableQuery qp, Ontology o, OWLAxiom I) {
+        Set<RewritableQuery> Q = new HashSet<>();
+        for (RewritableAtom a: qp.getBody()) {
+            if (a.applicable(I)) {
+                long start = metrics.start();
+                RewritableQuery qpp = replace(qp, a, o, I);
+                metrics.record(RewritingMetrics.Step.REPLACE, start, true);
+                metrics.recordAxiom(I);
+                Q.add(tau(qpp));
+            }
+        }
+        return Q;
     }
 
     /**
@@ -96,48 +252,51 @@ public class RewriterImpl implements Rewriter {
         // iterate over atoms, apply role inclusion if it's a path atom and split
         // transform roles into single length single path atoms
         // otherwise, just add to query
+        long start = metrics.start();
         Set<RewritableAtom> body = new HashSet<>();
         for (Atom a : q.getBody()) {
             if (a instanceof Conceptname) { // Concept name
                 body.add((Conceptname) a);
             }
             else if (a instanceof Roles) { // Role atom
-                Roles b = (Roles) a;
-                b.saturate(o); // exhaustively apply subrole/inverse axioms
-                body.add(b);
+                // exhaustively apply subrole/inverse axioms
+                body.add(((Roles) a).saturate(o));
             }
             else { // Path
-                Path b = (Path) a;
                 // saturate each element of the path
-                b.saturate(o);
+                Path b = ((Path) a).saturate(o);
                 // get elements and split into single path atoms, add each to the query
                 List<PathElement> elements = b.getElements();
                 Iterator<PathElement> it = elements.listIterator();
                 Term left = b.getLeft().getFresh();
                 PathElement element = it.next();
                 while(it.hasNext()) {
-                    Variable right = new Variable("v" + ++variable_counter);
-                    body.add(element.toBinary(left, right));
+                    String name = getFreshVariableName();
+                    body.add(element.toBinary(left, new Variable(name)));
                     element = it.next();
-                    left = new Variable("v" + variable_counter);
+                    left = new Variable(name);
                 }
                 body.add(element.toBinary(left, b.getRight().getFresh()));
             }
         }
 
         List<Variable> head = new LinkedList<>(q.getHead());
+        metrics.record(RewritingMetrics.Step.SATURATE_PATHS, start, true);
         return new RewritableQuery(head, body);
     }
 
     /**
      * Given a Xi-restricted query q, mark all unbound variables as such.
      * Unbound variables are denoted by {@link UnboundVariable} objects.
+     * Every derived query passes through this step, so the atoms of the new query are replaced by the identical atoms
+     * of earlier queries of the session here.
      *
      * @param q The input query
      * @return A Xi-restricted query q.
      */
     @Override
     public RewritableQuery tau(RewritableQuery q) {
+        long start = metrics.start();
         // map of variables and the number of atoms they occur in
         Map<Variable, Integer> variableCount = new HashMap<>();
         // first pass: get number of terms each variable occurs in
@@ -149,6 +308,13 @@ public class RewriterImpl implements Rewriter {
                     variableCount.put((Variable) b.getTerm(), count + 1);
                 }
             }
+            if (a instanceof Concepts) { // disjunction of concept names
+                Concepts b = (Concepts) a;
+                if (b.getTerm() instanceof Variable) {
+                    Integer count = variableCount.getOrDefault((Variable) b.getTerm(), 0);
+                    variableCount.put((Variable) b.getTerm(), count + 1);
+                }
+            }
             if (a instanceof Binary) { // single path atom - includes roles
                 Binary b = (Binary) a;
                 if (b.getLeft() instanceof Variable) {
@@ -173,7 +339,18 @@ public class RewriterImpl implements Rewriter {
                         t = new UnboundVariable(b.getTerm().getName());  // replace term
                     }
                 }
-                body.add(new Conceptname(b.getName(), t)); // add to new query
+                body.add(this.atoms.intern(b.replaceTerm(t))); // add to new query
+            }
+            if (a instanceof Concepts) { // disjunction of concept names
+                Concepts b = (Concepts) a;
+                Term t = b.getTerm().getFresh();
+                if (b.getTerm() instanceof Variable) {  // contains variable
+                    if ((variableCount.get((Variable) b.getTerm()) == 1) &&
+                            !q.getHead().contains((Variable) b.getTerm())) { // unbound variable
+                        t = new UnboundVariable(b.getTerm().getName());  // replace term
+                    }
+                }
+                body.add(this.atoms.intern(b.replaceTerm(t))); // add to new query
             }
             if (a instanceof Binary) { // roles, arb.length atoms
                 Binary b = (Binary) a;
@@ -191,9 +368,10 @@ public class RewriterImpl implements Rewriter {
                         right = new UnboundVariable(b.getRight().getName()); // replace term
                     }
                 }
-                body.add(b.replaceTerms(left, right));
+                body.add(this.atoms.intern(b.replaceTerms(left, right)));
             }
         }
+        metrics.record(RewritingMetrics.Step.TAU, start, true);
         // return query with unbound variables marked as such
         return new RewritableQuery(new LinkedList<>(q.getHead()), body);
     }
@@ -217,7 +395,7 @@ public class RewriterImpl implements Rewriter {
         Binary r1;
         Binary r2;
         if (a1 instanceof Roles) {
-            if (a2.getRoles().containsAll(a1.getRoles())) {  // roles of a1 subset of roles of a2
+            if (Symbols.containsAll(a2.getRoleMask(), a1.getRoleMask())) {  // roles of a1 subset of roles of a2
                 // check vars
                 if (a1.getLeft().equals(a2.getLeft())) {  // append to front
                     // create a copy of the query
@@ -253,8 +431,8 @@ public class RewriterImpl implements Rewriter {
                     return qp;
                 }
             } else {
-                a1 = ((Roles) a1).getInverse();  // check the inverse
-                if (a2.getRoles().containsAll(a1.getRoles())) {
+                if (Symbols.containsAll(a2.getRoleMask(), ((Roles) a1).getInverseRoleMask())) {  // check the inverse
+                    a1 = ((Roles) a1).getInverse();
                     // check vars
                     if (a1.getLeft().equals(a2.getLeft())) {  // append to front
                         // create a copy of the query
@@ -292,7 +470,7 @@ public class RewriterImpl implements Rewriter {
                 }
             }
         } else { // a1 is also an arbitrary length atom
-            if (a2.getRoles().containsAll(a1.getRoles())) { // roles of a1 subset of roles of a2
+            if (Symbols.containsAll(a2.getRoleMask(), a1.getRoleMask())) { // roles of a1 subset of roles of a2
                 // check vars
                 if (a1.getLeft().equals(a2.getLeft())) {  // append to front
                     // create a copy of the query
@@ -348,16 +526,15 @@ public class RewriterImpl implements Rewriter {
     public Set<RewritableQuery> merge(RewritableQuery q, Binary a1, Binary a2) {
         Set<OWLObjectPropertyExpression> intersection;
         Set<RewritableQuery> merges = new HashSet<>();
+        // the role sets are compared as masks, so pairs without common roles are rejected before anything is copied
         Binary r1;
         Binary r2;
         Unifier unifier;
         if (a1 instanceof Roles) {
             // compute first intersection
-            intersection = new HashSet<>(a1.getRoles());
-            intersection.retainAll(a2.getRoles());
-            if (intersection.size() > 0) {
+            if (Symbols.intersects(a1.getRoleMask(), a2.getRoleMask())) {
                 // do the terms of a1 and a2 unify?
-                unifier = new Unifier(Arrays.asList(a1.getLeft(), a1.getRight()),
+                unifier = unify(Arrays.asList(a1.getLeft(), a1.getRight()),
                         Arrays.asList(a2.getLeft(), a2.getRight()));
                 if (unifier.getSubstitutions().size() > 0) {
                     // create a copy of the query
@@ -366,6 +543,7 @@ public class RewriterImpl implements Rewriter {
                     qp.getBody().remove(a1);
                     qp.getBody().remove(a2);
                     // generate new atoms
+                    intersection = Symbols.roles(Symbols.and(a1.getRoleMask(), a2.getRoleMask()));
                     r1 = new Roles(intersection, a1.getLeft(), a1.getRight());
                     r2 = new Roles(intersection, a2.getLeft(), a2.getRight());
                     // add atoms to query body
@@ -376,12 +554,10 @@ public class RewriterImpl implements Rewriter {
                 }
             }
             // compute second intersection on the inverse of a1
-            a1 = ((Roles) a1).getInverse();
-            intersection = new HashSet<>(a1.getRoles());
-            intersection.retainAll(a2.getRoles());
-            if (intersection.size() > 0) {
+            if (Symbols.intersects(((Roles) a1).getInverseRoleMask(), a2.getRoleMask())) {
+                a1 = ((Roles) a1).getInverse();
                 // do the terms of a1 and a2 unify?
-                unifier = new Unifier(Arrays.asList(a1.getLeft(), a1.getRight()),
+                unifier = unify(Arrays.asList(a1.getLeft(), a1.getRight()),
                         Arrays.asList(a2.getLeft(), a2.getRight()));
                 if (unifier.getSubstitutions().size() > 0) {
                     // create a copy of the query
@@ -390,6 +566,7 @@ public class RewriterImpl implements Rewriter {
                     qp.getBody().remove(a1);
                     qp.getBody().remove(a2);
                     // generate new atoms
+                    intersection = Symbols.roles(Symbols.and(a1.getRoleMask(), a2.getRoleMask()));
                     r1 = new Roles(intersection, a1.getLeft(), a1.getRight());
                     r2 = new Roles(intersection, a2.getLeft(), a2.getRight());
                     // add atoms to query body
@@ -400,11 +577,9 @@ public class RewriterImpl implements Rewriter {
                 }
             }
         } else {  // arbitary length atom - only directed roles
-            intersection = new HashSet<>(a1.getRoles());
-            intersection.retainAll(a2.getRoles());
-            if (intersection.size() > 0) {
+            if (Symbols.intersects(a1.getRoleMask(), a2.getRoleMask())) {
                 // do the terms of a1 and a2 unify?
-                unifier = new Unifier(Arrays.asList(a1.getLeft(), a1.getRight()),
+                unifier = unify(Arrays.asList(a1.getLeft(), a1.getRight()),
                         Arrays.asList(a2.getLeft(), a2.getRight()));
                 if (unifier.getSubstitutions().size() > 0) {
                     // create a copy of the query
@@ -413,6 +588,7 @@ public class RewriterImpl implements Rewriter {
                     qp.getBody().remove(a1);
                     qp.getBody().remove(a2);
                     // generate new atoms
+                    intersection = Symbols.roles(Symbols.and(a1.getRoleMask(), a2.getRoleMask()));
                     if (a2 instanceof ArbitraryLengthAtom) {
                         r1 = new ArbitraryLengthAtom(intersection, a1.getLeft(), a1.getRight());
                         r2 = new ArbitraryLengthAtom(intersection, a2.getLeft(), a2.getRight());
@@ -472,43 +648,59 @@ public class RewriterImpl implements Rewriter {
             Conceptname b2 = (Conceptname) a2;
             if (b1.getName().equals(b2.getName())) {
                 // compute unifier, return result of applying the unifier to q
-                Unifier unifier = new Unifier(Collections.singletonList(b1.getTerm()),
+                Unifier unifier = unify(Collections.singletonList(b1.getTerm()),
                         Collections.singletonList(b2.getTerm()));
                 return unifier.apply(q);
             }
+        } else if (a1 instanceof Concepts && a2 instanceof Concepts) {
+            Concepts b1 = (Concepts) a1;
+            Concepts b2 = (Concepts) a2;
+            // both atoms hold for a concept name in the intersection
+            Set<OWLClass> intersection = new HashSet<>(b1.getNames());
+            intersection.retainAll(b2.getNames());
+            if (intersection.size() > 0) {
+                // create a copy of the query
+                RewritableQuery qp = new RewritableQuery(new LinkedList<>(q.getHead()), new HashSet<>(q.getBody()));
+                // replace both atoms by the intersection
+                qp.getBody().remove(b1);
+                qp.getBody().remove(b2);
+                qp.getBody().add(new Concepts(intersection, b1.getTerm()));
+                // compute unifier, return result of applying the unifier to q'
+                Unifier unifier = unify(Collections.singletonList(b1.getTerm()),
+                        Collections.singletonList(b2.getTerm()));
+                return unifier.apply(qp);
+            }
         } else if (a1 instanceof Roles && a2 instanceof Roles) {
             Roles b1 = (Roles) a1;
             Roles b2 = (Roles) a2;
-            if (b1.getRoles().equals(b2.getRoles())) {
+            if (Arrays.equals(b1.getRoleMask(), b2.getRoleMask())) {
                 // compute unifier, return result of applying the unifier to q
-                Unifier unifier = new Unifier(Arrays.asList(b1.getLeft(), b1.getRight()),
+                Unifier unifier = unify(Arrays.asList(b1.getLeft(), b1.getRight()),
                         Arrays.asList(b2.getLeft(), b2.getRight()));
                 return unifier.apply(q);
-            } else {
+            } else if (Arrays.equals(b1.getInverseRoleMask(), b2.getRoleMask())) {
                 // it could be that we can unify once we "invert" one of the role atoms
                 // in this case, inverting means that we switch the left and right variable
                 // and invert all the roles in the set of roles.
                 Roles b3 = b1.getInverse();
-                if (b3.getRoles().equals(b2.getRoles())) {
-                    // no need to create a copy of the query, an inverse is the same as the original atom
-                    // create a copy of the query
-                    // RewritableQuery qp = new RewritableQuery(new LinkedList<>(q.getHead()), new HashSet<>(q.getBody()));
-                    // remove b1
-                    // qp.getBody().remove(b1);
-                    // add b3
-                    // qp.getBody().add(b3);
-                    // compute unifier, return result of applying the unifier to q
-                    Unifier unifier = new Unifier(Arrays.asList(b3.getLeft(), b3.getRight()),
-                            Arrays.asList(b2.getLeft(), b2.getRight()));
-                    return unifier.apply(q);
-                }
+                // no need to create a copy of the query, an inverse is the same as the original atom
+                // create a copy of the query
+                // RewritableQuery qp = new RewritableQuery(new LinkedList<>(q.getHead()), new HashSet<>(q.getBody()));
+                // remove b1
+                // qp.getBody().remove(b1);
+                // add b3
+                // qp.getBody().add(b3);
+                // compute unifier, return result of applying the unifier to q
+                Unifier unifier = unify(Arrays.asList(b3.getLeft(), b3.getRight()),
+                        Arrays.asList(b2.getLeft(), b2.getRight()));
+                return unifier.apply(q);
             }
         } else if (a1 instanceof ArbitraryLengthAtom && a2 instanceof ArbitraryLengthAtom) {
             ArbitraryLengthAtom b1 = (ArbitraryLengthAtom) a1;
             ArbitraryLengthAtom b2 = (ArbitraryLengthAtom) a2;
-            if (b1.getRoles().equals(b2.getRoles())) {
+            if (Arrays.equals(b1.getRoleMask(), b2.getRoleMask())) {
                 // compute unifier, return result of applying the unifier to q
-                Unifier unifier = new Unifier(Arrays.asList(b1.getLeft(), b1.getRight()),
+                Unifier unifier = unify(Arrays.asList(b1.getLeft(), b1.getRight()),
                         Arrays.asList(b2.getLeft(), b2.getRight()));
                 return unifier.apply(q);
             }
@@ -535,8 +727,98 @@ public class RewriterImpl implements Rewriter {
         return new RewritableQuery(head, body);
     }
 
+    /**
+     * Compute the most general unifier of two lists of terms, see {@link Unifier}.
+     *
+     * @param t1 List of terms to be unified.
+     * @param t2 List of terms to be unified.
+     * @return The unifier.
+     */
+    private Unifier unify(List<Term> t1, List<Term> t2) {
+        long start = metrics.start();
+        Unifier unifier = new Unifier(t1, t2);
+        metrics.record(RewritingMetrics.Step.UNIFY, start, !unifier.getSubstitutions().isEmpty());
+        return unifier;
+    }
+
     @Override
     public String getFreshVariableName() {
-        return "v" + ++this.variable_counter;
+        return "v" + this.variable_counter.incrementAndGet();
+    }
+
+    /**
+     * An iterator over the rewritings of a query, which computes the fixpoint lazily.
+     * Semi-naive evaluation: Q is the closed set of all queries derived so far, the frontier holds the queries that
+     * have been emitted but not expanded yet, and the queue holds the queries that have been derived but not emitted
+     * yet. Each query is expanded exactly once.
+     * The iteration ends early once the monitor stops the rewriting.
+     */
+    private class Rewriting implements Iterator<RewritableQuery> {
+
+        /**
+         * The ontology.
+         */
+        private final Ontology o;
+        /**
+         * The closed set of all queries derived so far.
+         */
+        private final Set<RewritableQuery> Q = new HashSet<>();
+        /**
+         * The queries that have been emitted, but not expanded yet.
+         */
+        private final Deque<RewritableQuery> frontier = new ArrayDeque<>();
+        /**
+         * The queries that have been derived, but not emitted yet.
+         */
+        private final Deque<RewritableQuery> queue = new ArrayDeque<>();
+        /**
+         * The monitor of the resources used by this rewriting.
+         */
+        private final BudgetMonitor monitor;
+
+        /**
+         * Initialize a new rewriting of a query.
+         *
+         * @param q The input query.
+         * @param o The Xi-compliant ontology.
+         * @param monitor The monitor of the resources used by this rewriting.
+         */
+        Rewriting(InputQuery q, Ontology o, BudgetMonitor monitor) {
+            this.o = o;
+            this.monitor = monitor;
+            RewritableQuery q0 = tau(saturatePaths(q, o));
+            // the query itself is always part of the result, even if it exceeds the budget on its own
+            monitor.admit(q0);
+            Q.add(q0);
+            queue.add(q0);
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (queue.isEmpty() && !frontier.isEmpty() && monitor.proceed()) {
+                metrics.recordExpansion(frontier.size());
+                for (RewritableQuery qpp : expand(frontier.poll(), o)) {
+                    metrics.recordDerived(Q.contains(qpp));
+                    if (!Q.contains(qpp)) {
+                        if (!monitor.admit(qpp)) {
+                            break;
+                        }
+                        Q.add(qpp);
+                        queue.add(qpp);
+                    }
+                }
+            }
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public RewritableQuery next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            RewritableQuery qp = queue.poll();
+            frontier.add(qp);
+            return qp;
+        }
     }
 }
@@ -0,0 +1,111 @@
+package at.ac.tuwien.informatics.reformulation;
+
+import java.time.Duration;
+
+/**
+ * Limits on the resources a single rewriting may use.
+ * A rewriting stops as soon as one of the limits is exceeded, and returns the queries it has derived so far.
+ */
+public class RewritingBudget {
+
+    /**
+     * The maximal wall-clock time of the rewriting.
+     */
+    private final Duration maxTime;
+    /**
+     * The maximal number of derived queries.
+     */
+    private final long maxQueries;
+    /**
+     * The maximal estimated number of bytes on the heap used by the derived queries.
+     */
+    private final long maxHeapBytes;
+
+    /**
+     * Initialize a new budget.
+     *
+     * @param maxTime The maximal wall-clock time of the rewriting, or null if the time is not limited.
+     * @param maxQueries The maximal number of derived queries.
+     * @param maxHeapBytes The maximal estimated number of bytes on the heap used by the derived queries.
+     */
+    public RewritingBudget(Duration maxTime, long maxQueries, long maxHeapBytes) {
+        if (maxQueries < 1 || maxHeapBytes < 1 || (maxTime != null && maxTime.isNegative())) {
+            throw new IllegalArgumentException("The limits of a budget must be positive");
+        }
+        this.maxTime = maxTime;
+        this.maxQueries = maxQueries;
+        this.maxHeapBytes = maxHeapBytes;
+    }
+
+    /**
+     * Get a budget without any limits.
+     *
+     * @return The unlimited budget.
+     */
+    public static RewritingBudget unlimited() {
+        return new RewritingBudget(null, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Get a copy of this budget with a limit on the wall-clock time.
+     *
+     * @param maxTime The maximal wall-clock time of the rewriting.
+     * @return The new budget.
+     */
+    public RewritingBudget withMaxTime(Duration maxTime) {
+        return new RewritingBudget(maxTime, this.maxQueries, this.maxHeapBytes);
+    }
+
+    /**
+     * Get a copy of this budget with a limit on the number of derived queries.
+     *
+     * @param maxQueries The maximal number of derived queries.
+     * @return The new budget.
+     */
+    public RewritingBudget withMaxQueries(long maxQueries) {
+        return new RewritingBudget(this.maxTime, maxQueries, this.maxHeapBytes);
+    }
+
+    /**
+     * Get a copy of this budget with a limit on the estimated heap usage of the derived queries.
+     *
+     * @param maxHeapBytes The maximal estimated number of bytes on the heap.
+     * @return The new budget.
+     */
+    public RewritingBudget withMaxHeapBytes(long maxHeapBytes) {
+        return new RewritingBudget(this.maxTime, this.maxQueries, maxHeapBytes);
+    }
+
+    /**
+     * Get the maximal wall-clock time of the rewriting.
+     *
+     * @return The maximal time, or null if the time is not limited.
+     */
+    public Duration getMaxTime() {
+        return maxTime;
+    }
+
+    /**
+     * Get the maximal number of derived queries.
+     *
+     * @return The maximal number of queries.
+     */
+    public long getMaxQueries() {
+        return maxQueries;
+    }
+
+    /**
+     * Get the maximal estimated number of bytes on the heap used by the derived queries.
+     *
+     * @return The maximal number of bytes.
+     */
+    public long getMaxHeapBytes() {
+        return maxHeapBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "RewritingBudget(time=" + (maxTime == null ? "unlimited" : maxTime) +
+                ",queries=" + maxQueries + ",heap=" + maxHeapBytes + ")";
+    }
+}
@@ -0,0 +1,365 @@
+package at.ac.tuwien.informatics.reformulation;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and timers of the rewriting steps of a rewriter, see {@link RewriterImpl#setMetrics(RewritingMetrics)}.
+ * All sessions of the rewriter, and all threads of a parallel rewriting, add to the same metrics, so the metrics are
+ * cumulative over all rewritings until they are reset. The counters are {@link LongAdder}s, which are cheap to update
+ * from several threads at once.
+ * The time of a step includes the time of the steps it calls, e.g., the time of merging includes the time of unifying
+ * the terms of the atoms.
+ * The metrics can be read through the getters, or through JMX once they have been registered (see
+ * {@link #register(String)}).
+ */
+public class RewritingMetrics implements RewritingMetricsMXBean {
+
+    /**
+     * The instrumented steps of a rewriting.
+     */
+    public enum Step {
+        /**
+         * Step (a), replacing an atom by applying an axiom.
+         */
+        REPLACE,
+        /**
+         * Step (b), unifying two atoms.
+         */
+        REDUCE,
+        /**
+         * Step (c), concatenating an atom with an arbitrary length atom.
+         */
+        CONCATENATE,
+        /**
+         * Step (d), merging two binary atoms.
+         */
+        MERGE,
+        /**
+         * Step (e), dropping an arbitrary length atom.
+         */
+        DROP,
+        /**
+         * Marking the unbound variables of a derived query.
+         */
+        TAU,
+        /**
+         * Saturating and splitting the paths of the input query.
+         */
+        SATURATE_PATHS,
+        /**
+         * Computing the most general unifier of two lists of terms.
+         */
+        UNIFY
+    }
+
+    /**
+     * The metrics that do not record anything, used by rewriters without metrics.
+     */
+    private static final RewritingMetrics DISABLED = new RewritingMetrics(false);
+
+    /**
+     * True if the metrics record anything.
+     */
+    private final boolean enabled;
+    /**
+     * The number of tries of each step.
+     */
+    private final LongAdder[] applications = new LongAdder[Step.values().length];
+    /**
+     * The number of applications of each step that changed the query.
+     */
+    private final LongAdder[] effective = new LongAdder[Step.values().length];
+    /**
+     * The nanoseconds spent in each step.
+     */
+    private final LongAdder[] nanos = new LongAdder[Step.values().length];
+    /**
+     * The number of applications of each axiom in step (a).
+     */
+    private final Map<OWLAxiom, LongAdder> axioms = new ConcurrentHashMap<>();
+    /**
+     * The number of derived queries.
+     */
+    private final LongAdder derived = new LongAdder();
+    /**
+     * The number of derived queries that had been derived before.
+     */
+    private final LongAdder duplicates = new LongAdder();
+    /**
+     * The number of expanded queries.
+     */
+    private final LongAdder expansions = new LongAdder();
+    /**
+     * The largest size of the frontier.
+     */
+    private final LongAccumulator maxFrontier = new LongAccumulator(Long::max, 0);
+
+    /**
+     * Initialize new metrics, with all counters and timers at zero.
+     */
+    public RewritingMetrics() {
+        this(true);
+    }
+
+    /**
+     * Initialize new metrics.
+     *
+     * @param enabled True if the metrics record anything.
+     */
+    private RewritingMetrics(boolean enabled) {
+        this.enabled = enabled;
+        for (int i = 0; i < applications.length; i++) {
+            applications[i] = new LongAdder();
+            effective[i] = new LongAdder();
+            nanos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Get the metrics that do not record anything.
+     *
+     * @return The disabled metrics.
+     */
+    static RewritingMetrics disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Start timing a step.
+     *
+     * @return The start time, to be passed to {@link #record(Step, long, boolean)}.
+     */
+    long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Record an application of a step.
+     *
+     * @param step The step.
+     * @param start The start time returned by {@link #start()}.
+     * @param changed True if the step changed the query it was applied to.
+     */
+    void record(Step step, long start, boolean changed) {
+        if (enabled) {
+            nanos[step.ordinal()].add(System.nanoTime() - start);
+            applications[step.ordinal()].increment();
+            if (changed) {
+                effective[step.ordinal()].increment();
+            }
+        }
+    }
+
+    /**
+     * Record an application of an axiom in step (a).
+     *
+     * @param I The axiom.
+     */
+    void recordAxiom(OWLAxiom I) {
+        if (enabled) {
+            axioms.computeIfAbsent(I, k -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Record a derived query.
+     *
+     * @param duplicate True if the query had been derived before.
+     */
+    void recordDerived(boolean duplicate) {
+        if (enabled) {
+            derived.increment();
+            if (duplicate) {
+                duplicates.increment();
+            }
+        }
+    }
+
+    /**
+     * Record the expansion of a query.
+     *
+     * @param frontier The number of queries that were waiting to be expanded, including the expanded query.
+     */
+    void recordExpansion(long frontier) {
+        if (enabled) {
+            expansions.increment();
+            maxFrontier.accumulate(frontier);
+        }
+    }
+
+    /**
+     * Get the number of times a step has been tried.
+     *
+     * @param step The step.
+     * @return The number of tries.
+     */
+    public long getApplications(Step step) {
+        return applications[step.ordinal()].sum();
+    }
+
+    /**
+     * Get the number of times a step has changed the query it was applied to.
+     *
+     * @param step The step.
+     * @return The number of effective applications.
+     */
+    public long getEffectiveApplications(Step step) {
+        return effective[step.ordinal()].sum();
+    }
+
+    /**
+     * Get the time spent in a step.
+     *
+     * @param step The step.
+     * @return The time in nanoseconds.
+     */
+    public long getTimeNanos(Step step) {
+        return nanos[step.ordinal()].sum();
+    }
+
+    /**
+     * Get the number of times an axiom has been applied in step (a).
+     *
+     * @param I The axiom.
+     * @return The number of applications.
+     */
+    public long getAxiomApplications(OWLAxiom I) {
+        LongAdder count = axioms.get(I);
+        return count == null ? 0 : count.sum();
+    }
+
+    @Override
+    public Map<String, Long> getApplications() {
+        return perStep(applications, 1);
+    }
+
+    @Override
+    public Map<String, Long> getEffectiveApplications() {
+        return perStep(effective, 1);
+    }
+
+    @Override
+    public Map<String, Long> getTimeMillis() {
+        return perStep(nanos, TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    @Override
+    public Map<String, Long> getAxiomApplications() {
+        Map<String, Long> counts = new TreeMap<>();
+        axioms.forEach((I, count) -> counts.put(I.toString(), count.sum()));
+        return counts;
+    }
+
+    @Override
+    public long getDerivedQueries() {
+        return derived.sum();
+    }
+
+    @Override
+    public long getDuplicateQueries() {
+        return duplicates.sum();
+    }
+
+    @Override
+    public long getExpansions() {
+        return expansions.sum();
+    }
+
+    @Override
+    public long getMaxFrontierSize() {
+        return maxFrontier.get();
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < applications.length; i++) {
+            applications[i].reset();
+            effective[i].reset();
+            nanos[i].reset();
+        }
+        axioms.clear();
+        derived.reset();
+        duplicates.reset();
+        expansions.reset();
+        maxFrontier.reset();
+    }
+
+    /**
+     * Register these metrics with the platform MBean server.
+     *
+     * @param name The name of the metrics, which tells apart the metrics of several rewriters.
+     * @return The name the metrics have been registered under.
+     * @throws JMException If the name is invalid or already taken.
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = objectName(name);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        return objectName;
+    }
+
+    /**
+     * Remove these metrics from the platform MBean server, if they have been registered.
+     *
+     * @param name The name the metrics have been registered with.
+     * @throws JMException If the name is invalid.
+     */
+    public void unregister(String name) throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = objectName(name);
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        for (Step step : Step.values()) {
+            s.append(step.name().toLowerCase()).append(": applications=").append(getApplications(step))
+                    .append(",effective=").append(getEffectiveApplications(step))
+                    .append(",ms=").append(TimeUnit.NANOSECONDS.toMillis(getTimeNanos(step))).append('\n');
+        }
+        return s.append("derived=").append(getDerivedQueries())
+                .append(",duplicates=").append(getDuplicateQueries())
+                .append(",expansions=").append(getExpansions())
+                .append(",maxFrontier=").append(getMaxFrontierSize())
+                .toString();
+    }
+
+    /**
+     * Get the JMX name of metrics.
+     *
+     * @param name The name of the metrics.
+     * @return The JMX name.
+     * @throws JMException If the name is invalid.
+     */
+    private static ObjectName objectName(String name) throws JMException {
+        return new ObjectName("at.ac.tuwien.informatics:type=RewritingMetrics,name=" + ObjectName.quote(name));
+    }
+
+    /**
+     * Get the values of counters by the names of their steps.
+     *
+     * @param counters The counters, by the ordinals of the steps.
+     * @param unit The value of a counter that is reported as 1.
+     * @return Map from the names of the steps to the values.
+     */
+    private static Map<String, Long> perStep(LongAdder[] counters, long unit) {
+        Map<String, Long> values = new TreeMap<>();
+        for (Step step : Step.values()) {
+            values.put(step.name(), counters[step.ordinal()].sum() / unit);
+        }
+        return values;
+    }
+}
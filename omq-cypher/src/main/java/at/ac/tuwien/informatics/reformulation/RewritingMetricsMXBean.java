@@ -0,0 +1,73 @@
+package at.ac.tuwien.informatics.reformulation;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link RewritingMetrics}, i.e., the attributes and operations that are visible through
+ * JMX, e.g., in jconsole or VisualVM.
+ * The attributes of the rewriting steps are maps from the names of the steps (see {@link RewritingMetrics.Step}) to
+ * their values.
+ */
+public interface RewritingMetricsMXBean {
+
+    /**
+     * Get the number of times each rewriting step has been tried.
+     *
+     * @return Map from the names of the steps to the number of tries.
+     */
+    Map<String, Long> getApplications();
+
+    /**
+     * Get the number of times each rewriting step has changed the query it was applied to.
+     *
+     * @return Map from the names of the steps to the number of effective applications.
+     */
+    Map<String, Long> getEffectiveApplications();
+
+    /**
+     * Get the time spent in each rewriting step.
+     *
+     * @return Map from the names of the steps to milliseconds.
+     */
+    Map<String, Long> getTimeMillis();
+
+    /**
+     * Get the number of times each axiom has been applied in step (a).
+     *
+     * @return Map from the axioms to the number of applications.
+     */
+    Map<String, Long> getAxiomApplications();
+
+    /**
+     * Get the number of queries derived by the rewriting steps, including queries that had been derived before.
+     *
+     * @return The number of derived queries.
+     */
+    long getDerivedQueries();
+
+    /**
+     * Get the number of derived queries that had been derived before.
+     *
+     * @return The number of duplicate queries.
+     */
+    long getDuplicateQueries();
+
+    /**
+     * Get the number of queries that have been expanded, i.e., the number of rounds of the rewriting steps.
+     *
+     * @return The number of expanded queries.
+     */
+    long getExpansions();
+
+    /**
+     * Get the largest number of queries that were waiting to be expanded in a single rewriting.
+     *
+     * @return The largest size of the frontier.
+     */
+    long getMaxFrontierSize();
+
+    /**
+     * Set all counters and timers to zero.
+     */
+    void reset();
+}
@@ -0,0 +1,91 @@
+package at.ac.tuwien.informatics.reformulation;
+
+import at.ac.tuwien.informatics.structure.query.RewritableQuery;
+
+import java.util.Set;
+
+/**
+ * The result of a rewriting that may have been stopped before the fixpoint was reached.
+ * Every query in an incomplete result is still a rewriting of the input query, so evaluating the queries returns a
+ * subset of the certain answers.
+ */
+public class RewritingResult {
+
+    /**
+     * The reason a rewriting stopped.
+     */
+    public enum Status {
+        /**
+         * The fixpoint was reached.
+         */
+        COMPLETE,
+        /**
+         * The wall-clock time limit was exceeded.
+         */
+        TIME_LIMIT,
+        /**
+         * The limit on the number of derived queries was exceeded.
+         */
+        QUERY_LIMIT,
+        /**
+         * The limit on the estimated heap usage was exceeded.
+         */
+        MEMORY_LIMIT,
+        /**
+         * The rewriting was cancelled.
+         */
+        CANCELLED
+    }
+
+    /**
+     * The queries derived by the rewriting.
+     */
+    private final Set<RewritableQuery> queries;
+    /**
+     * The reason the rewriting stopped.
+     */
+    private final Status status;
+
+    /**
+     * Initialize a new result.
+     *
+     * @param queries The queries derived by the rewriting.
+     * @param status The reason the rewriting stopped.
+     */
+    public RewritingResult(Set<RewritableQuery> queries, Status status) {
+        this.queries = queries;
+        this.status = status;
+    }
+
+    /**
+     * Get the queries derived by the rewriting.
+     *
+     * @return Set of queries.
+     */
+    public Set<RewritableQuery> getQueries() {
+        return queries;
+    }
+
+    /**
+     * Get the reason the rewriting stopped.
+     *
+     * @return The status.
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Check whether the rewriting reached the fixpoint.
+     *
+     * @return True if the set of queries is complete, false otherwise.
+     */
+    public boolean isComplete() {
+        return status == Status.COMPLETE;
+    }
+
+    @Override
+    public String toString() {
+        return status + ": " + queries.size() + " queries";
+    }
+}
@@ -1,9 +1,14 @@
 package at.ac.tuwien.informatics.structure;
 
 import at.ac.tuwien.informatics.generated.QBaseVisitor;
+import at.ac.tuwien.informatics.generated.QLexer;
 import at.ac.tuwien.informatics.generated.QParser;
+import at.ac.tuwien.informatics.structure.exception.InvalidQueryException;
 import at.ac.tuwien.informatics.structure.query.*;
+import org.antlr.v4.runtime.*;
 import org.antlr.v4.runtime.tree.ParseTree;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
 import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
 
 import java.util.*;
@@ -27,6 +32,43 @@ public class InputQueryBuilder extends QBaseVisitor<Object> {
         this.ontology = ontology;
     }
 
+    /**
+     * Parse a query in the syntax of the query grammar.
+     * Unlike the default error handling of the parser, which prints syntax errors and recovers from them, the first
+     * syntax error, or the first name that does not occur in the ontology, fails the parsing.
+     *
+     * @param query The query.
+     * @param ontology The ontology to be used with this query.
+     * @return The input query.
+     * @throws InvalidQueryException If the query is not in the syntax of the query grammar, or refers to names that do
+     * not occur in the ontology.
+     */
+    public static InputQuery parse(String query, Ontology ontology) throws InvalidQueryException {
+        List<String> errors = new ArrayList<>();
+        BaseErrorListener listener = new BaseErrorListener() {
+            @Override
+            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line,
+                                    int charPositionInLine, String msg, RecognitionException e) {
+                errors.add("position " + charPositionInLine + ": " + msg);
+            }
+        };
+        QLexer lexer = new QLexer(CharStreams.fromString(query));
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(listener);
+        QParser parser = new QParser(new CommonTokenStream(lexer));
+        parser.removeErrorListeners();
+        parser.addErrorListener(listener);
+        ParseTree tree = parser.query();
+        if (!errors.isEmpty()) {
+            throw new InvalidQueryException(errors.get(0));
+        }
+        try {
+            return (InputQuery) new InputQueryBuilder(ontology).visit(tree);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidQueryException(e.getMessage());
+        }
+    }
+
     /**
      * Visit the query. This is the entry point to our parser.
      * Returns a query with head and body.
@@ -106,8 +148,12 @@ public class InputQueryBuilder extends QBaseVisitor<Object> {
 
     @Override
     public Object visitConceptname(QParser.ConceptnameContext ctx) {
-        return new Conceptname(ontology.getClassMap().get((String) this.visit(ctx.words())),
-                (Variable) this.visit(ctx.variable()));
+        String name = (String) this.visit(ctx.words());
+        OWLClass c = ontology.getClassMap().get(name);
+        if (c == null) {
+            throw new IllegalArgumentException("unknown concept name " + name);
+        }
+        return new Conceptname(c, (Variable) this.visit(ctx.variable()));
     }
 
     /**
@@ -246,7 +292,7 @@ public class InputQueryBuilder extends QBaseVisitor<Object> {
      */
     @Override
     public Object visitRolename(QParser.RolenameContext ctx) {
-        return this.ontology.getPropertyMap().get((String) this.visitWords(ctx.words()));
+        return property((String) this.visitWords(ctx.words()));
     }
 
     /**
@@ -257,9 +303,22 @@ public class InputQueryBuilder extends QBaseVisitor<Object> {
      */
     @Override
     public Object visitInverse(QParser.InverseContext ctx) {
-        return this.ontology.getPropertyMap()
-                .get((String) this.visitWords(ctx.words()))
-                .getInverseProperty();
+        return property((String) this.visitWords(ctx.words())).getInverseProperty();
+    }
+
+    /**
+     * Get the property of a role name.
+     *
+     * @param name The role name.
+     * @return The property.
+     * @throws IllegalArgumentException If the role name does not occur in the ontology.
+     */
+    private OWLObjectProperty property(String name) {
+        OWLObjectProperty p = this.ontology.getPropertyMap().get(name);
+        if (p == null) {
+            throw new IllegalArgumentException("unknown role name " + name);
+        }
+        return p;
     }
 
     /**
@@ -0,0 +1,357 @@
+package at.ac.tuwien.informatics.structure;
+
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.profiles.OWL2QLProfile;
+import org.semanticweb.owlapi.profiles.OWLProfileReport;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Class that wraps OWLOntolgy objects from the OWL API.
+ */
+public class Ontology {
+
+    /**
+     * The OWL2 QL ontology to be used in QA.
+     */
+    private final OWLOntology ontology;
+    /**
+     * A Map that maps simple class names/labels to the class in the ontology.
+     */
+    private HashMap<String, OWLClass> classMap;
+    /**
+     * A Map that maps simple role names to the properties in the ontology.
+     */
+    private HashMap<String, OWLObjectProperty> propertyMap;
+    /**
+     * A Map that maps a class A to the axioms with A on the right side (A_1 ISA A, exists r ISA A, exists r- ISA A).
+     */
+    private HashMap<OWLClass, Set<OWLAxiom>> classAxiomMap;
+    /**
+     * A Map that maps a property expression R to the axioms with exists R on the right side
+     * (A ISA exists R, exists r ISA exists R, exists r- ISA exists R).
+     */
+    private HashMap<OWLObjectPropertyExpression, Set<OWLAxiom>> existentialAxiomMap;
+    /**
+     * A map from property expressions to their sub-roles, closed under the role inclusion and inverse role axioms.
+     */
+    private HashMap<OWLObjectPropertyExpression, Set<OWLObjectPropertyExpression>> roleClosureMap;
+    /**
+     * A map from properties to their sub-roles, closed under the role inclusion axioms only.
+     */
+    private HashMap<OWLObjectPropertyExpression, Set<OWLObjectPropertyExpression>> roleNameClosureMap;
+    /**
+     * A map from classes to their subclasses, closed under the subclass axioms between class names.
+     */
+    private HashMap<OWLClass, Set<OWLClass>> classClosureMap;
+    /**
+     * The content hash of the axioms, computed on first use.
+     */
+    private volatile String fingerprint;
+
+    /**
+     * Initialize a new Ontology Wrapper from a file.
+     * @param path The path to the ontology file.
+     * @throws OWLOntologyCreationException If the ontology could not be loaded.
+     * @throws NotOWL2QLException If the ontology is not in OWL2 QL.
+     */
+    public Ontology(String path) throws OWLOntologyCreationException, NotOWL2QLException {
+        // the concurrent manager guards the lazily built indexes of the ontology, such that rewritings on several
+        // threads can query the axioms at the same time
+        OWLOntologyManager manager = OWLManager.createConcurrentOWLOntologyManager();
+        OWLOntology ontology = manager.loadOntologyFromOntologyDocument(new File(path));
+        OWLProfileReport report = new OWL2QLProfile().checkOntology(ontology);
+        if (!report.isInProfile()) {
+            throw new NotOWL2QLException();
+        }
+        this.ontology = ontology;
+        generateClassMap();
+        generatePropertyMap();
+        generateAxiomMaps();
+        generateRoleClosureMaps();
+        generateClassClosureMap();
+    }
+
+    /**
+     * Generate a map "A" -> ...#A (as OWLClass) from the ontology's signature.
+     */
+    private void generateClassMap() {
+        HashMap<String, OWLClass> classMap = new HashMap<>();
+        for (OWLClass c : this.ontology.getClassesInSignature()) {
+            if (!c.isTopEntity()) {
+                classMap.put(c.getIRI().getFragment(), c);
+            }
+        }
+        this.classMap = classMap;
+    }
+
+    /**
+     * Generate a map "r" -> ...#r (as OWLProperty) from the ontology's signature.
+     */
+    private void generatePropertyMap() {
+        HashMap<String, OWLObjectProperty> propertyMap = new HashMap<>();
+        for (OWLObjectProperty p : this.ontology.getObjectPropertiesInSignature()) {
+            propertyMap.put(p.getIRI().getFragment(), p);
+        }
+        this.propertyMap = propertyMap;
+    }
+
+    /**
+     * Generate the maps from classes and property expressions to the axioms that have them on the right side.
+     * These are exactly the axioms that can be applied to concept name and role atoms during rewriting.
+     */
+    private void generateAxiomMaps() {
+        HashMap<OWLClass, Set<OWLAxiom>> classAxiomMap = new HashMap<>();
+        HashMap<OWLObjectPropertyExpression, Set<OWLAxiom>> existentialAxiomMap = new HashMap<>();
+        for (OWLAxiom a : this.ontology.getAxioms()) {
+            OWLClassExpression superclass;
+            if (a instanceof OWLSubClassOfAxiom) {
+                superclass = ((OWLSubClassOfAxiom) a).getSuperClass();
+            } else if (a instanceof OWLObjectPropertyDomainAxiom) {
+                superclass = ((OWLObjectPropertyDomainAxiom) a).getDomain();
+            } else if (a instanceof OWLObjectPropertyRangeAxiom) {
+                superclass = ((OWLObjectPropertyRangeAxiom) a).getRange();
+            } else {
+                continue;
+            }
+            if (superclass instanceof OWLClass) {
+                classAxiomMap.computeIfAbsent((OWLClass) superclass, k -> new HashSet<>()).add(a);
+            } else if (superclass instanceof OWLObjectSomeValuesFrom) {
+                existentialAxiomMap.computeIfAbsent(((OWLObjectSomeValuesFrom) superclass).getProperty(),
+                        k -> new HashSet<>()).add(a);
+            }
+        }
+        this.classAxiomMap = classAxiomMap;
+        this.existentialAxiomMap = existentialAxiomMap;
+    }
+
+    /**
+     * Generate the maps from property expressions to the closure of their sub-roles.
+     * For role atoms, a role R1 is a sub-role of R if R1 ISA R, R1- ISA R-, or R1 is an inverse of R- is implied.
+     * For path elements, which contain role names only, just the role inclusion axioms are applied.
+     */
+    private void generateRoleClosureMaps() {
+        // the direct sub-roles of each property expression
+        HashMap<OWLObjectPropertyExpression, Set<OWLObjectPropertyExpression>> subroles = new HashMap<>();
+        HashMap<OWLObjectPropertyExpression, Set<OWLObjectPropertyExpression>> subroleNames = new HashMap<>();
+        for (OWLSubObjectPropertyOfAxiom a : this.ontology.getAxioms(AxiomType.SUB_OBJECT_PROPERTY)) {
+            // R1 ISA R, and R1- ISA R-
+            subroles.computeIfAbsent(a.getSuperProperty(), k -> new HashSet<>()).add(a.getSubProperty());
+            subroles.computeIfAbsent(a.getSuperProperty().getInverseProperty(), k -> new HashSet<>())
+                    .add(a.getSubProperty().getInverseProperty());
+            subroleNames.computeIfAbsent(a.getSuperProperty(), k -> new HashSet<>()).add(a.getSubProperty());
+        }
+        for (OWLInverseObjectPropertiesAxiom a : this.ontology.getAxioms(AxiomType.INVERSE_OBJECT_PROPERTIES)) {
+            // R1 inverse of R2: R1 ISA R2- and R2 ISA R1-, in both directions
+            for (OWLObjectPropertyExpression r : a.getProperties()) {
+                for (OWLObjectPropertyExpression p : a.getPropertiesMinus(r.getNamedProperty())) {
+                    subroles.computeIfAbsent(r.getNamedProperty(), k -> new HashSet<>())
+                            .add(p.getInverseProperty());
+                    subroles.computeIfAbsent(r.getNamedProperty().getInverseProperty(), k -> new HashSet<>())
+                            .add(p);
+                }
+            }
+        }
+        HashMap<OWLObjectPropertyExpression, Set<OWLObjectPropertyExpression>> roleClosureMap = new HashMap<>();
+        HashMap<OWLObjectPropertyExpression, Set<OWLObjectPropertyExpression>> roleNameClosureMap = new HashMap<>();
+        for (OWLObjectProperty p : this.ontology.getObjectPropertiesInSignature()) {
+            roleClosureMap.put(p, closure(p, subroles));
+            roleClosureMap.put(p.getInverseProperty(), closure(p.getInverseProperty(), subroles));
+            roleNameClosureMap.put(p, closure(p, subroleNames));
+        }
+        this.roleClosureMap = roleClosureMap;
+        this.roleNameClosureMap = roleNameClosureMap;
+    }
+
+    /**
+     * Generate the map from classes to the closure of their subclasses.
+     * Only the subclass axioms A_1 ISA A between class names are applied.
+     */
+    private void generateClassClosureMap() {
+        // the direct subclasses of each class
+        HashMap<OWLClass, Set<OWLClass>> subclasses = new HashMap<>();
+        for (OWLSubClassOfAxiom a : this.ontology.getAxioms(AxiomType.SUBCLASS_OF)) {
+            if (a.getSubClass() instanceof OWLClass && a.getSuperClass() instanceof OWLClass) {
+                subclasses.computeIfAbsent((OWLClass) a.getSuperClass(), k -> new HashSet<>())
+                        .add((OWLClass) a.getSubClass());
+            }
+        }
+        HashMap<OWLClass, Set<OWLClass>> classClosureMap = new HashMap<>();
+        for (OWLClass c : subclasses.keySet()) {
+            classClosureMap.put(c, closure(c, subclasses));
+        }
+        this.classClosureMap = classClosureMap;
+    }
+
+    /**
+     * Compute the reflexive transitive closure of a sub-relation, i.e., the sub-role or the subclass relation.
+     * @param r The property expression or class.
+     * @param subroles The direct sub-roles or subclasses of each property expression or class.
+     * @param <T> The type of property expressions or classes.
+     * @return The unmodifiable set of all sub-roles or subclasses of r, including r itself.
+     */
+    private static <T> Set<T> closure(T r, Map<T, Set<T>> subroles) {
+        Set<T> closure = new HashSet<>(Collections.singleton(r));
+        Deque<T> worklist = new ArrayDeque<>(closure);
+        while (!worklist.isEmpty()) {
+            for (T s : subroles.getOrDefault(worklist.poll(), Collections.emptySet())) {
+                if (closure.add(s)) {
+                    worklist.add(s);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(closure);
+    }
+
+    /**
+     * Add an axiom to the ontology, and update the maps and the fingerprint.
+     * Must not be called while the ontology is used by a rewriting.
+     * @param axiom The axiom to be added.
+     * @return True if the ontology has changed, false if it already contained the axiom.
+     * @throws NotOWL2QLException If the ontology would not be in OWL2 QL with the axiom. The axiom is not added then.
+     */
+    public synchronized boolean addAxiom(OWLAxiom axiom) throws NotOWL2QLException {
+        if (this.ontology.containsAxiom(axiom)) {
+            return false;
+        }
+        this.ontology.add(axiom);
+        if (!new OWL2QLProfile().checkOntology(this.ontology).isInProfile()) {
+            this.ontology.remove(axiom);
+            throw new NotOWL2QLException();
+        }
+        update();
+        return true;
+    }
+
+    /**
+     * Remove an axiom from the ontology, and update the maps and the fingerprint.
+     * Must not be called while the ontology is used by a rewriting.
+     * @param axiom The axiom to be removed.
+     * @return True if the ontology has changed, false if it did not contain the axiom.
+     */
+    public synchronized boolean removeAxiom(OWLAxiom axiom) {
+        if (!this.ontology.containsAxiom(axiom)) {
+            return false;
+        }
+        this.ontology.remove(axiom);
+        update();
+        return true;
+    }
+
+    /**
+     * Regenerate the maps and reset the fingerprint after the axioms have changed.
+     */
+    private void update() {
+        generateClassMap();
+        generatePropertyMap();
+        generateAxiomMaps();
+        generateRoleClosureMaps();
+        generateClassClosureMap();
+        this.fingerprint = null;
+    }
+
+    /**
+     * Get a content hash of the axioms of the ontology.
+     * The hash is the SHA-256 digest of the sorted axioms, so it does not depend on the order of the axioms in the
+     * ontology file, but changes whenever an axiom is added, removed or modified.
+     * @return The hash as a hexadecimal String.
+     */
+    public String getFingerprint() {
+        if (this.fingerprint == null) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                this.ontology.getAxioms().stream()
+                        .map(OWLAxiom::toString)
+                        .sorted()
+                        .forEach(a -> {
+                            digest.update(a.getBytes(StandardCharsets.UTF_8));
+                            digest.update((byte) '\n');
+                        });
+                this.fingerprint = String.format("%064x", new BigInteger(1, digest.digest()));
+            } catch (NoSuchAlgorithmException e) {
+                // every Java platform is required to support SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+        return this.fingerprint;
+    }
+
+    /**
+     * Get the axioms that have the given class on the right side.
+     * @param c The class.
+     * @return Set of subclass, domain and range axioms with c on the right side.
+     */
+    public Set<OWLAxiom> getAxiomsForClass(OWLClass c) {
+        return classAxiomMap.getOrDefault(c, Collections.emptySet());
+    }
+
+    /**
+     * Get the axioms that have an existential restriction on the given property expression on the right side.
+     * @param p The property expression.
+     * @return Set of subclass, domain and range axioms with exists p on the right side.
+     */
+    public Set<OWLAxiom> getAxiomsForExistential(OWLObjectPropertyExpression p) {
+        return existentialAxiomMap.getOrDefault(p, Collections.emptySet());
+    }
+
+    /**
+     * Get the sub-roles of a property expression, closed under the role inclusion and inverse role axioms.
+     * @param r The property expression.
+     * @return Unmodifiable set of the sub-roles of r, including r itself.
+     */
+    public Set<OWLObjectPropertyExpression> getSubRoles(OWLObjectPropertyExpression r) {
+        Set<OWLObjectPropertyExpression> closure = roleClosureMap.get(r);
+        return closure != null ? closure : Collections.singleton(r);
+    }
+
+    /**
+     * Get the sub-roles of a property, closed under the role inclusion axioms only.
+     * @param r The property.
+     * @return Unmodifiable set of the sub-roles of r, including r itself.
+     */
+    public Set<OWLObjectPropertyExpression> getSubRoleNames(OWLObjectPropertyExpression r) {
+        Set<OWLObjectPropertyExpression> closure = roleNameClosureMap.get(r);
+        return closure != null ? closure : Collections.singleton(r);
+    }
+
+    /**
+     * Get the subclasses of a class, closed under the subclass axioms between class names.
+     * @param c The class.
+     * @return Unmodifiable set of the subclasses of c, including c itself.
+     */
+    public Set<OWLClass> getSubClasses(OWLClass c) {
+        Set<OWLClass> closure = classClosureMap.get(c);
+        return closure != null ? closure : Collections.singleton(c);
+    }
+
+    /**
+     * Get the class map
+     * @return Map of simple class names and their OWLClasses
+     */
+    public HashMap<String, OWLClass> getClassMap() {
+        return classMap;
+    }
+
+    /**
+     * Get the object property map
+     * @return Map of object property names and their OWLObjectProperties
+     */
+    public HashMap<String, OWLObjectProperty> getPropertyMap() {
+        return propertyMap;
+    }
+
+    /**
+     * Get the OWL2 QL Ontology.
+     * @return The ontology OWLAPI object
+     */
+    public OWLOntology getOntology() {
+        return ontology;
+    }
+}
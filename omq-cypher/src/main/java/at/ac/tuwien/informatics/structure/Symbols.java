@@ -0,0 +1,265 @@
+package at.ac.tuwien.informatics.structure;
+
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLObjectInverseOf;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The table of interned symbols, which maps classes, properties and sets of them to small integers.
+ * Atoms store the integers of their names, so that comparing and hashing atoms, and encoding queries in a canonical
+ * form, are operations on integers instead of on OWL API objects and IRIs.
+ * <ul>
+ *     <li>Each class and each property gets a number of its own. A property expression is the number of its property,
+ *     shifted left by one bit, where the lowest bit marks inverse properties.</li>
+ *     <li>Each set of classes or property expressions gets a number of its own, such that two sets have the same
+ *     number if and only if they have the same elements.</li>
+ * </ul>
+ * The numbers of the elements of a set are also its mask, i.e., the bits of the mask that are set, so that the
+ * intersection of two sets and the test whether a set is a subset of another are a few operations on words.
+ * The numbers are only meaningful within the running process, they must not be persisted. The table is shared by all
+ * ontologies and rewritings, and is safe to use from several threads. It only grows, by the sets of names that occur
+ * in the rewritings, so a long-running process keeps one entry per distinct set it has seen; the numbers are
+ * non-negative ints, which the canonical form of queries holds in full.
+ */
+public final class Symbols {
+
+    /**
+     * The numbers of the classes.
+     */
+    private static final Map<OWLClass, Integer> classes = new ConcurrentHashMap<>();
+    /**
+     * The numbers of the properties.
+     */
+    private static final Map<OWLObjectProperty, Integer> properties = new ConcurrentHashMap<>();
+    /**
+     * The numbers of the sets, keyed by their sorted elements.
+     */
+    private static final Map<Key, Integer> sets = new ConcurrentHashMap<>();
+    /**
+     * The masks of the sets, indexed by the numbers of the sets.
+     * The array is replaced by a larger copy when it is full, so reading it does not need a lock.
+     */
+    private static volatile long[][] masks = new long[64][];
+    /**
+     * The properties, by their numbers.
+     */
+    private static final Map<Integer, OWLObjectProperty> propertiesByNumber = new ConcurrentHashMap<>();
+    /**
+     * Counter for the numbers of classes.
+     */
+    private static final AtomicInteger classCounter = new AtomicInteger();
+    /**
+     * Counter for the numbers of properties.
+     */
+    private static final AtomicInteger propertyCounter = new AtomicInteger();
+    /**
+     * Counter for the numbers of sets.
+     */
+    private static final AtomicInteger setCounter = new AtomicInteger();
+
+    private Symbols() {
+    }
+
+    /**
+     * Get the number of a class.
+     *
+     * @param c The class.
+     * @return The number of c.
+     */
+    public static int of(OWLClass c) {
+        return classes.computeIfAbsent(c, k -> classCounter.getAndIncrement());
+    }
+
+    /**
+     * Get the number of a property expression.
+     *
+     * @param p The property expression.
+     * @return The number of the property of p, shifted left by one bit, and the lowest bit set if p is an inverse.
+     */
+    public static int of(OWLObjectPropertyExpression p) {
+        int property = properties.computeIfAbsent(p.getNamedProperty(), k -> {
+            int number = propertyCounter.getAndIncrement();
+            propertiesByNumber.put(number, k);
+            return number;
+        });
+        return property << 1 | (p instanceof OWLObjectInverseOf ? 1 : 0);
+    }
+
+    /**
+     * Get the number of a set of classes.
+     *
+     * @param c The set of classes.
+     * @return The number of the set.
+     */
+    public static int ofClasses(Collection<OWLClass> c) {
+        return ofSet(c.stream().mapToInt(Symbols::of).toArray());
+    }
+
+    /**
+     * Get the number of a set of property expressions, or of the set of their inverses.
+     *
+     * @param p The set of property expressions.
+     * @param invert True if the number of the set of the inverses should be returned.
+     * @return The number of the set.
+     */
+    public static int ofRoles(Collection<? extends OWLObjectPropertyExpression> p, boolean invert) {
+        return ofSet(p.stream().mapToInt(r -> Symbols.of(r) ^ (invert ? 1 : 0)).toArray());
+    }
+
+    /**
+     * Get the mask of a set.
+     *
+     * @param set The number of the set.
+     * @return The mask of the set, which must not be modified.
+     */
+    public static long[] mask(int set) {
+        return masks[set];
+    }
+
+    /**
+     * Get the property expressions of a mask of a set of property expressions.
+     *
+     * @param mask The mask.
+     * @return A new set of the property expressions whose numbers are set in the mask.
+     */
+    public static Set<OWLObjectPropertyExpression> roles(long[] mask) {
+        Set<OWLObjectPropertyExpression> roles = new HashSet<>();
+        for (int i = 0; i < mask.length; i++) {
+            long word = mask[i];
+            while (word != 0) {
+                int number = i * Long.SIZE + Long.numberOfTrailingZeros(word);
+                OWLObjectProperty p = propertiesByNumber.get(number >> 1);
+                roles.add((number & 1) == 0 ? p : p.getInverseProperty());
+                word &= word - 1;
+            }
+        }
+        return roles;
+    }
+
+    /**
+     * Check whether two masks have a common element.
+     *
+     * @param a The first mask.
+     * @param b The second mask.
+     * @return True if the intersection of the sets is not empty, false otherwise.
+     */
+    public static boolean intersects(long[] a, long[] b) {
+        for (int i = 0; i < Math.min(a.length, b.length); i++) {
+            if ((a[i] & b[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check whether a mask contains all elements of another mask.
+     *
+     * @param a The first mask.
+     * @param b The second mask.
+     * @return True if the set of b is a subset of the set of a, false otherwise.
+     */
+    public static boolean containsAll(long[] a, long[] b) {
+        for (int i = 0; i < b.length; i++) {
+            if ((b[i] & ~(i < a.length ? a[i] : 0)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compute the intersection of two masks.
+     *
+     * @param a The first mask.
+     * @param b The second mask.
+     * @return A new mask of the intersection of the sets.
+     */
+    public static long[] and(long[] a, long[] b) {
+        long[] mask = new long[Math.min(a.length, b.length)];
+        for (int i = 0; i < mask.length; i++) {
+            mask[i] = a[i] & b[i];
+        }
+        return mask;
+    }
+
+    /**
+     * Get the number of a set of numbers.
+     *
+     * @param elements The numbers of the elements, in any order. The array is sorted in place.
+     * @return The number of the set.
+     */
+    private static int ofSet(int[] elements) {
+        Arrays.sort(elements);
+        return sets.computeIfAbsent(new Key(elements), k -> {
+            // the mask is stored before the number is handed out
+            int number = setCounter.getAndIncrement();
+            long[] mask = new long[elements.length == 0 ? 0 : elements[elements.length - 1] / Long.SIZE + 1];
+            for (int e : elements) {
+                mask[e / Long.SIZE] |= 1L << e;
+            }
+            putMask(number, mask);
+            return number;
+        });
+    }
+
+    /**
+     * Store the mask of a set.
+     *
+     * @param number The number of the set.
+     * @param mask The mask of the set.
+     */
+    private static synchronized void putMask(int number, long[] mask) {
+        long[][] table = masks;
+        if (number >= table.length) {
+            table = Arrays.copyOf(table, Math.max(2 * table.length, number + 1));
+        }
+        table[number] = mask;
+        // write the field even if the array has not been replaced, so readers see the new mask
+        masks = table;
+    }
+
+    /**
+     * A sorted array of numbers, compared by its elements.
+     */
+    private static final class Key {
+
+        /**
+         * The sorted numbers.
+         */
+        private final int[] elements;
+        /**
+         * The hash of the numbers.
+         */
+        private final int hash;
+
+        /**
+         * Initialize a new key.
+         *
+         * @param elements The sorted numbers.
+         */
+        Key(int[] elements) {
+            this.elements = elements;
+            this.hash = Arrays.hashCode(elements);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && Arrays.equals(this.elements, ((Key) obj).elements);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package at.ac.tuwien.informatics.structure;
+
+import at.ac.tuwien.informatics.structure.query.*;
+
+import java.util.*;
+
+/**
+ * A class that represents a unifier of two Lists of terms.
+ * The most general unifier is computed with a union-find structure over the terms: the i-th terms of both lists are
+ * merged into the same class, and each class is represented by one of its terms. A term that is not an unbound
+ * variable is preferred as the representative over unbound variables, otherwise the representative of the class of
+ * the second list is kept. Every other term of a class is substituted by the representative.
+ */
+public class Unifier {
+
+    private final List<Substitution> substitutions;
+
+    /**
+     * The representatives of the terms that are substituted.
+     */
+    private final Map<Term, Term> representatives;
+
+    /**
+     * The distinct terms of both lists, in the order of their first occurrence.
+     */
+    private final List<Term> terms = new ArrayList<>();
+    /**
+     * The positions of the terms in {@link #terms}.
+     */
+    private final Map<Term, Integer> positions = new HashMap<>();
+    /**
+     * The parent of each term in the union-find structure, by position.
+     */
+    private int[] parent;
+
+    /**
+     * Initialize a new Unifier object.
+     * Precondition for correctness: The input lists have equal length.
+     * Post-condition: substitutions is not null if a most general unifier exists.
+     *
+     * @param t1 List of terms to be unified.
+     * @param t2 List of terms to be unified.
+     */
+    public Unifier(List<Term> t1, List<Term> t2) {
+        int n = Math.min(t1.size(), t2.size());
+        this.parent = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            union(position(t1.get(i)), position(t2.get(i)));
+        }
+        this.substitutions = new LinkedList<>();
+        this.representatives = new HashMap<>();
+        for (int i = 0; i < this.terms.size(); i++) {
+            int root = find(i);
+            if (root != i) {
+                this.substitutions.add(new Substitution(this.terms.get(i), this.terms.get(root)));
+                this.representatives.put(this.terms.get(i), this.terms.get(root));
+            }
+        }
+        this.parent = null;
+    }
+
+    /**
+     * Get the position of a term, and add it as a class of its own if it has not occurred before.
+     *
+     * @param t The term.
+     * @return The position of t.
+     */
+    private int position(Term t) {
+        Integer i = this.positions.get(t);
+        if (i == null) {
+            i = this.terms.size();
+            this.terms.add(t);
+            this.positions.put(t, i);
+            this.parent[i] = i;
+        }
+        return i;
+    }
+
+    /**
+     * Find the representative of the class of a term, and compress the path to it.
+     *
+     * @param i The position of the term.
+     * @return The position of the representative.
+     */
+    private int find(int i) {
+        int root = i;
+        while (this.parent[root] != root) {
+            root = this.parent[root];
+        }
+        while (this.parent[i] != root) {
+            int next = this.parent[i];
+            this.parent[i] = root;
+            i = next;
+        }
+        return root;
+    }
+
+    /**
+     * Merge the classes of two terms.
+     * The representative of the merged class is the representative of the class of b, unless it is an unbound variable
+     * and the representative of the class of a is not.
+     *
+     * @param a The position of the first term.
+     * @param b The position of the second term.
+     */
+    private void union(int a, int b) {
+        int ra = find(a);
+        int rb = find(b);
+        if (ra == rb) {
+            return;
+        }
+        if (this.terms.get(rb) instanceof UnboundVariable && !(this.terms.get(ra) instanceof UnboundVariable)) {
+            this.parent[rb] = ra;
+        } else {
+            this.parent[ra] = rb;
+        }
+    }
+
+    /**
+     * Apply a set of substitutions to the head and body of the query.
+     * Atoms without a substituted term are not copied, but shared with the input query.
+     *
+     * @param q The input query.
+     * @return A query q' where the substitutions have been applied to the query.
+     */
+    public RewritableQuery apply(RewritableQuery q) {
+        if (this.substitutions.size() == 0) {
+            return q;
+        }
+        // apply substitutions to head
+        List<Variable> head = new LinkedList<>();
+        for (Variable v : q.getHead()) {
+            head.add((Variable) this.representatives.getOrDefault(v, v));
+        }
+        // apply substitutions to body
+        Set<RewritableAtom> body = new HashSet<>();
+        for (RewritableAtom a : q.getBody()) {
+            boolean substituted = false;
+            for (Term t : a.getTerms()) {
+                substituted = substituted || this.representatives.containsKey(t);
+            }
+            body.add(substituted ? a.applySubstitution(this.substitutions) : a);
+        }
+        return new RewritableQuery(head, body);
+    }
+
+    /**
+     * Get the list of substitutions from this unifier.
+     *
+     * @return List of Substitutions.
+     */
+    public List<Substitution> getSubstitutions() {
+        return substitutions;
+    }
+}
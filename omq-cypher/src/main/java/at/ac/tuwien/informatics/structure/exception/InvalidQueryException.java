@@ -0,0 +1,16 @@
+package at.ac.tuwien.informatics.structure.exception;
+
+/**
+ * Thrown if a query is not in the syntax of the query grammar.
+ */
+public class InvalidQueryException extends Exception {
+
+    /**
+     * Initialize a new exception.
+     *
+     * @param message The description of the first syntax error.
+     */
+    public InvalidQueryException(String message) {
+        super(message);
+    }
+}
@@ -3,12 +3,16 @@ package at.ac.tuwien.informatics.structure.query;
 import at.ac.tuwien.informatics.reformulation.Rewriter;
 import at.ac.tuwien.informatics.structure.Ontology;
 import at.ac.tuwien.informatics.structure.Substitution;
+import at.ac.tuwien.informatics.structure.Symbols;
 import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
 
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -21,6 +25,11 @@ public class ArbitraryLengthAtom implements Binary {
      */
     private final Set<OWLObjectPropertyExpression> roles;
 
+    /**
+     * The number of the set of roles, see {@link Symbols}.
+     */
+    private final int symbols;
+
     /**
      * The term on the left.
      */
@@ -30,6 +39,10 @@ public class ArbitraryLengthAtom implements Binary {
      * The term on the right.
      */
     private final Term right;
+    /**
+     * The hash of the atom, computed once since atoms are immutable.
+     */
+    private final int hash;
 
     /**
      * Initialize a new Arbitrary Length Atom
@@ -39,9 +52,28 @@ public class ArbitraryLengthAtom implements Binary {
      * @param right The term on the right.
      */
     public ArbitraryLengthAtom(Set<OWLObjectPropertyExpression> roles, Term left, Term right) {
+        this(roles, Symbols.ofRoles(roles, false), left, right);
+    }
+
+    /**
+     * Initialize a new Arbitrary Length Atom whose roles have been interned already.
+     * The set of roles is shared, which is safe since atoms do not modify it.
+     *
+     * @param roles The disjunction of roles in this atom.
+     * @param symbols The number of the set of roles.
+     * @param left The term on the left.
+     * @param right The term on the right.
+     */
+    private ArbitraryLengthAtom(Set<OWLObjectPropertyExpression> roles, int symbols, Term left, Term right) {
         this.roles = roles;
+        this.symbols = symbols;
         this.left = left;
         this.right = right;
+        int hash = 3;
+        hash = 53 * hash + symbols;
+        hash = 53 * hash + left.getLabel().hashCode();
+        hash = 53 * hash + right.getLabel().hashCode();
+        this.hash = hash;
     }
 
     @Override
@@ -56,17 +88,14 @@ public class ArbitraryLengthAtom implements Binary {
 
         ArbitraryLengthAtom r = (ArbitraryLengthAtom) obj;
 
-        return this.roles.equals(r.roles) && this.left.toString().equals(r.left.toString())
-                && this.right.toString().equals(r.right.toString());
+        // labels are interned
+        return this.hash == r.hash && this.symbols == r.symbols && this.left.getLabel() == r.left.getLabel()
+                && this.right.getLabel() == r.right.getLabel();
     }
 
     @Override
     public int hashCode() {
-        int hash = 3;
-        hash = 53 * hash + (this.roles != null ? this.roles.hashCode() : 0);
-        hash = 53 * hash + (this.left != null ? this.left.hashCode() : 0);
-        hash = 53 * hash + (this.right != null ? this.right.hashCode() : 0);
-        return hash;
+        return this.hash;
     }
 
     @Override
@@ -88,7 +117,7 @@ public class ArbitraryLengthAtom implements Binary {
      * @return A new arbitrary length single path atom, that can be rewritten.
      */
     public ArbitraryLengthAtom replaceTerms(Term left, Term right) {
-        return new ArbitraryLengthAtom(new HashSet<>(this.roles), left, right);
+        return new ArbitraryLengthAtom(this.roles, this.symbols, left, right);
     }
 
     /**
@@ -105,7 +134,7 @@ public class ArbitraryLengthAtom implements Binary {
             left = left.applySubstitution(sub);
             right = right.applySubstitution(sub);
         }
-        return new ArbitraryLengthAtom(new HashSet<>(this.roles), left, right);
+        return new ArbitraryLengthAtom(this.roles, this.symbols, left, right);
     }
 
     /**
@@ -120,6 +149,18 @@ public class ArbitraryLengthAtom implements Binary {
         return false;
     }
 
+    /**
+     * Return all axioms of the ontology that are applicable to this atom.
+     * To arbitrary length atoms, no axioms are applicable.
+     *
+     * @param o The ontology.
+     * @return The empty set.
+     */
+    @Override
+    public Set<OWLAxiom> getApplicableAxioms(Ontology o) {
+        return Collections.emptySet();
+    }
+
     /**
      * Apply a replacement by an axiom on this atom and return the new atom.
      * <p>
@@ -133,7 +174,7 @@ public class ArbitraryLengthAtom implements Binary {
      */
     @Override
     public RewritableAtom apply(OWLAxiom I, Ontology o, Rewriter rewriter) {
-        return new ArbitraryLengthAtom(new HashSet<>(this.roles), this.left.getFresh(), this.right.getFresh());
+        return new ArbitraryLengthAtom(this.roles, this.symbols, this.left.getFresh(), this.right.getFresh());
     }
 
     @Override
@@ -150,4 +191,55 @@ public class ArbitraryLengthAtom implements Binary {
     public Set<OWLObjectPropertyExpression> getRoles() {
         return this.roles;
     }
+
+    @Override
+    public long[] getRoleMask() {
+        return Symbols.mask(this.symbols);
+    }
+
+    /**
+     * Get the number of the set of roles, see {@link Symbols}.
+     *
+     * @return The number of the set.
+     */
+    int getSymbols() {
+        return this.symbols;
+    }
+
+    /**
+     * Get the terms of this atom.
+     *
+     * @return List containing the left and the right term.
+     */
+    @Override
+    public List<Term> getTerms() {
+        return Arrays.asList(this.left, this.right);
+    }
+
+    /**
+     * Encode this atom as a string in which every term is replaced by its label.
+     *
+     * @param labelling The labels of the terms.
+     * @return The encoding of this atom.
+     */
+    @Override
+    public String encode(Function<Term, String> labelling) {
+        return this.roles.stream()
+                .map(p -> p.getNamedProperty().getIRI().toString())
+                .sorted()
+                .collect(Collectors.joining("|", "A", "")) +
+                '(' + labelling.apply(this.left) + ',' + labelling.apply(this.right) + ')';
+    }
+
+    /**
+     * Encode this atom as a number in which every term is replaced by its label.
+     *
+     * @param labelling The labels of the terms.
+     * @return The encoding of this atom.
+     */
+    @Override
+    public long encodeKey(ToIntFunction<Term> labelling) {
+        return CanonicalForm.key(CanonicalForm.ARBITRARY_LENGTH, this.symbols, labelling.applyAsInt(this.left),
+                labelling.applyAsInt(this.right));
+    }
 }
@@ -1,5 +1,6 @@
 package at.ac.tuwien.informatics.structure.query;
 
+import at.ac.tuwien.informatics.structure.Ontology;
 import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
 
 import java.util.HashSet;
@@ -31,7 +32,17 @@ public class ArbitraryLengthPathElement extends PathElement {
 
         ArbitraryLengthPathElement a = (ArbitraryLengthPathElement) obj;
 
-        return this.roles.equals(a.roles);
+        return this.symbols == a.symbols;
+    }
+
+    @Override
+    public ArbitraryLengthPathElement saturate(Ontology o) {
+        return new ArbitraryLengthPathElement(this.saturateRoles(o));
+    }
+
+    @Override
+    public String encode() {
+        return this.encode("A");
     }
 
     @Override
@@ -0,0 +1,88 @@
+package at.ac.tuwien.informatics.structure.query;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A table of hash-consed atoms, i.e., a table that hands out a single shared object for all identical atoms.
+ * The queries of a rewriting have most of their atoms in common, so sharing them saves memory, and comparing two shared
+ * atoms is a comparison of references.
+ * Atoms can be equal without being identical: an unbound variable is equal to every other unbound variable, and a role
+ * atom is equal to its inverse. Such atoms are not shared, since the names of the variables and the orientation of the
+ * roles matter to the rewriting steps, so an atom is only replaced by an atom with the same names and terms.
+ * Each rewriting has its own table, which is safe to use from several threads.
+ */
+public class AtomFactory {
+
+    /**
+     * The shared atoms.
+     */
+    private final Map<RewritableAtom, RewritableAtom> atoms = new ConcurrentHashMap<>();
+
+    /**
+     * Get the shared atom that is identical to an atom.
+     * If there is none, the atom becomes the shared atom, unless a different atom that is equal to it is shared
+     * already.
+     *
+     * @param a The atom.
+     * @return The shared atom identical to a, or a itself.
+     */
+    public RewritableAtom intern(RewritableAtom a) {
+        RewritableAtom b = this.atoms.putIfAbsent(a, a);
+        if (b == null || !identical(a, b)) {
+            return a;
+        }
+        return b;
+    }
+
+    /**
+     * Get the number of shared atoms.
+     *
+     * @return The number of atoms in the table.
+     */
+    public int size() {
+        return this.atoms.size();
+    }
+
+    /**
+     * Check whether two equal atoms are identical, i.e., whether they have the same names and the same terms in the
+     * same order.
+     *
+     * @param a The first atom.
+     * @param b The second atom, equal to a.
+     * @return True if a and b are identical, false otherwise.
+     */
+    private static boolean identical(RewritableAtom a, RewritableAtom b) {
+        if (a == b) {
+            return true;
+        }
+        if (a instanceof Conceptname && b instanceof Conceptname) {
+            if (((Conceptname) a).getSymbols() != ((Conceptname) b).getSymbols()) {
+                return false;
+            }
+        } else if (a instanceof Concepts && b instanceof Concepts) {
+            if (((Concepts) a).getSymbols() != ((Concepts) b).getSymbols()) {
+                return false;
+            }
+        } else if (a instanceof Roles && b instanceof Roles) {
+            if (((Roles) a).getSymbols() != ((Roles) b).getSymbols()) {
+                return false;
+            }
+        } else if (a instanceof ArbitraryLengthAtom && b instanceof ArbitraryLengthAtom) {
+            if (((ArbitraryLengthAtom) a).getSymbols() != ((ArbitraryLengthAtom) b).getSymbols()) {
+                return false;
+            }
+        } else {
+            return false;
+        }
+        List<Term> s = a.getTerms();
+        List<Term> t = b.getTerms();
+        for (int i = 0; i < s.size(); i++) {
+            if (s.get(i).getClass() != t.get(i).getClass() || s.get(i).getName() != t.get(i).getName()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,172 @@
+package at.ac.tuwien.informatics.structure.query;
+
+import at.ac.tuwien.informatics.structure.Symbols;
+
+import java.util.*;
+import java.util.function.BiConsumer;
+
+/**
+ * An index of the atoms of a query body, which enumerates the pairs of atoms that the rewriting steps (b)-(d) can
+ * possibly be applied to.
+ * <ul>
+ *     <li>(b) Two atoms can only be reduced if they have the same predicate, i.e., the same concept name, the same set
+ *     of roles or the inverse set of roles, or if they are two disjunctions of concept names with a name in common.
+ *     Reducing is symmetric, so each unordered pair is enumerated once.</li>
+ *     <li>(c) An atom can only be concatenated with an arbitrary length atom that shares a term with it, and contains
+ *     its roles or the inverses of its roles.</li>
+ *     <li>(d) Two binary atoms can only be merged if they have a role in common, possibly after inverting the first
+ *     atom. Merging two atoms of the same kind is symmetric, so each unordered pair is enumerated once, but a role atom
+ *     and an arbitrary length atom are enumerated in both orders. A role atom can be merged with its own inverse.</li>
+ * </ul>
+ * The atoms of each pair are the atoms of the body, so they can be removed from a copy of the query.
+ */
+public class AtomIndex {
+
+    /**
+     * The atoms, grouped by kind and by the number of their predicate.
+     * Role atoms are grouped by the smaller of the numbers of their set of roles and of the inverse set.
+     */
+    private final Map<Long, List<RewritableAtom>> predicates = new HashMap<>();
+    /**
+     * The disjunctions of concept names.
+     */
+    private final List<Concepts> concepts = new ArrayList<>();
+    /**
+     * The binary atoms.
+     */
+    private final List<Binary> binaries = new ArrayList<>();
+    /**
+     * The arbitrary length atoms, by each of their terms.
+     */
+    private final Map<Term, List<ArbitraryLengthAtom>> arbitraryLength = new HashMap<>();
+
+    /**
+     * Index the atoms of a query body.
+     *
+     * @param body The atoms.
+     */
+    public AtomIndex(Set<RewritableAtom> body) {
+        for (RewritableAtom a : body) {
+            if (a instanceof Conceptname) {
+                group(CanonicalForm.CONCEPTNAME, ((Conceptname) a).getSymbols(), a);
+            } else if (a instanceof Concepts) {
+                this.concepts.add((Concepts) a);
+            } else if (a instanceof Roles) {
+                Roles r = (Roles) a;
+                group(CanonicalForm.ROLES, Math.min(r.getSymbols(), r.getInverseSymbols()), a);
+                this.binaries.add(r);
+            } else if (a instanceof ArbitraryLengthAtom) {
+                ArbitraryLengthAtom r = (ArbitraryLengthAtom) a;
+                group(CanonicalForm.ARBITRARY_LENGTH, r.getSymbols(), a);
+                this.binaries.add(r);
+                for (Term t : r.getTerms()) {
+                    List<ArbitraryLengthAtom> atoms = this.arbitraryLength.computeIfAbsent(t, k -> new ArrayList<>());
+                    if (!atoms.contains(r)) {
+                        atoms.add(r);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Add an atom to the group of its predicate.
+     *
+     * @param kind The kind of the atom.
+     * @param symbol The number of the predicate.
+     * @param a The atom.
+     */
+    private void group(int kind, int symbol, RewritableAtom a) {
+        this.predicates.computeIfAbsent((long) kind << Integer.SIZE | symbol, k -> new ArrayList<>()).add(a);
+    }
+
+    /**
+     * Pass each unordered pair of distinct atoms that can possibly be reduced to a consumer.
+     *
+     * @param pairs The consumer of the pairs.
+     */
+    public void forEachReducible(BiConsumer<RewritableAtom, RewritableAtom> pairs) {
+        for (List<RewritableAtom> group : this.predicates.values()) {
+            for (int i = 0; i < group.size(); i++) {
+                for (int j = i + 1; j < group.size(); j++) {
+                    pairs.accept(group.get(i), group.get(j));
+                }
+            }
+        }
+        for (int i = 0; i < this.concepts.size(); i++) {
+            long[] names = Symbols.mask(this.concepts.get(i).getSymbols());
+            for (int j = i + 1; j < this.concepts.size(); j++) {
+                if (Symbols.intersects(names, Symbols.mask(this.concepts.get(j).getSymbols()))) {
+                    pairs.accept(this.concepts.get(i), this.concepts.get(j));
+                }
+            }
+        }
+    }
+
+    /**
+     * Pass each pair of a binary atom and a distinct arbitrary length atom that can possibly be concatenated to a
+     * consumer.
+     *
+     * @param pairs The consumer of the pairs.
+     */
+    public void forEachConcatenable(BiConsumer<Binary, ArbitraryLengthAtom> pairs) {
+        for (Binary a1 : this.binaries) {
+            long[] roles = a1.getRoleMask();
+            long[] inverse = a1 instanceof Roles ? ((Roles) a1).getInverseRoleMask() : null;
+            List<ArbitraryLengthAtom> candidates = new ArrayList<>();
+            for (Term t : a1.getTerms()) {
+                for (ArbitraryLengthAtom a2 : this.arbitraryLength.getOrDefault(t, Collections.emptyList())) {
+                    if (!candidates.contains(a2) && !a1.equals(a2) && (Symbols.containsAll(a2.getRoleMask(), roles) ||
+                            (inverse != null && Symbols.containsAll(a2.getRoleMask(), inverse)))) {
+                        candidates.add(a2);
+                    }
+                }
+            }
+            for (ArbitraryLengthAtom a2 : candidates) {
+                pairs.accept(a1, a2);
+            }
+        }
+    }
+
+    /**
+     * Pass each pair of binary atoms that can possibly be merged to a consumer.
+     *
+     * @param pairs The consumer of the pairs.
+     */
+    public void forEachMergeable(BiConsumer<Binary, Binary> pairs) {
+        for (int i = 0; i < this.binaries.size(); i++) {
+            Binary a1 = this.binaries.get(i);
+            if (a1 instanceof Roles && Symbols.intersects(((Roles) a1).getInverseRoleMask(), a1.getRoleMask())) {
+                pairs.accept(a1, a1);  // an atom and its own inverse
+            }
+            for (int j = i + 1; j < this.binaries.size(); j++) {
+                Binary a2 = this.binaries.get(j);
+                if (a1 instanceof Roles == a2 instanceof Roles) {
+                    if (mergeable(a1, a2)) {
+                        pairs.accept(a1, a2);
+                    }
+                } else {
+                    if (mergeable(a1, a2)) {
+                        pairs.accept(a1, a2);
+                    }
+                    if (mergeable(a2, a1)) {
+                        pairs.accept(a2, a1);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Check whether two binary atoms have a role in common, possibly after inverting the first atom if it is a role
+     * atom.
+     *
+     * @param a1 The first atom.
+     * @param a2 The second atom.
+     * @return True if the atoms can possibly be merged, false otherwise.
+     */
+    private static boolean mergeable(Binary a1, Binary a2) {
+        return Symbols.intersects(a1.getRoleMask(), a2.getRoleMask()) ||
+                (a1 instanceof Roles && Symbols.intersects(((Roles) a1).getInverseRoleMask(), a2.getRoleMask()));
+    }
+}
@@ -13,4 +13,11 @@ public interface Binary extends RewritableAtom {
     Binary replaceTerms(Term left, Term right);
 
     Set<OWLObjectPropertyExpression> getRoles();
+
+    /**
+     * Get the mask of the set of roles of this atom, see {@link at.ac.tuwien.informatics.structure.Symbols}.
+     *
+     * @return The mask, which must not be modified.
+     */
+    long[] getRoleMask();
 }
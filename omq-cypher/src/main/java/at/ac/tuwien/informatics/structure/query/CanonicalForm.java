@@ -0,0 +1,236 @@
+package at.ac.tuwien.informatics.structure.query;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+
+/**
+ * Computes a canonical key of a query that does not depend on the names of the variables that are not answer
+ * variables.
+ * Answer variables are labelled by the first position they occur at in the head, all other variables are labelled by
+ * colour refinement, and ties are broken by trying out each candidate and keeping the smallest encoding.
+ * Two queries have the same canonical key if and only if one is obtained from the other by renaming variables,
+ * unless the search for the smallest encoding had to be cut short for a highly symmetric query.
+ * <p>
+ * The key is an array of numbers: the number of answer variables, the labels of the answer variables, and the sorted
+ * encodings of the atoms (see {@link RewritableAtom#encodeKey(ToIntFunction)}). An atom is encoded in a single
+ * non-negative number, which holds the kind of the atom in 2 bits, the number of its names (see
+ * {@link at.ac.tuwien.informatics.structure.Symbols}) in the next 31 bits, and the labels of its terms in 15 bits each.
+ * Since the numbers of the names are non-negative ints, every number fits, however many sets of names the process has
+ * interned; only the number of variables of a single query is limited.
+ */
+final class CanonicalForm {
+
+    /**
+     * The maximal number of complete labellings that are compared for a single query.
+     */
+    private static final int MAX_LABELLINGS = 256;
+
+    /**
+     * Kind of atom: concept name.
+     */
+    static final int CONCEPTNAME = 0;
+    /**
+     * Kind of atom: disjunction of concept names.
+     */
+    static final int CONCEPTS = 1;
+    /**
+     * Kind of atom: single length roles atom.
+     */
+    static final int ROLES = 2;
+    /**
+     * Kind of atom: arbitrary length atom.
+     */
+    static final int ARBITRARY_LENGTH = 3;
+
+    /**
+     * The number of bits of a label.
+     */
+    private static final int LABEL_BITS = 15;
+    /**
+     * The number of bits of the number of the names of an atom, which holds every non-negative int.
+     */
+    private static final int SYMBOL_BITS = Integer.SIZE - 1;
+    /**
+     * The label of all unbound variables.
+     */
+    private static final int UNBOUND = (1 << LABEL_BITS) - 1;
+    /**
+     * The label of the variable whose signature is computed during colour refinement.
+     */
+    private static final int SELF = UNBOUND - 1;
+
+    /**
+     * The labels of the answer variables, 1..n by their first position in the head.
+     */
+    private final Map<Term, Integer> fixed = new HashMap<>();
+    /**
+     * The variables that can be renamed, and the atoms they occur in.
+     */
+    private final Map<Term, List<RewritableAtom>> occurrences = new HashMap<>();
+    /**
+     * The body of the query.
+     */
+    private final Set<RewritableAtom> body;
+    /**
+     * The encoding of the head of the query.
+     */
+    private final long[] head;
+    /**
+     * The smallest encoding of the query found so far.
+     */
+    private long[] best;
+    /**
+     * The number of complete labellings compared so far.
+     */
+    private int labellings = 0;
+
+    private CanonicalForm(List<Variable> head, Set<RewritableAtom> body) {
+        this.body = body;
+        for (int i = 0; i < head.size(); i++) {
+            this.fixed.putIfAbsent(head.get(i), i + 1);
+        }
+        this.head = new long[head.size() + 1];
+        this.head[0] = head.size();
+        for (int i = 0; i < head.size(); i++) {
+            this.head[i + 1] = this.fixed.get(head.get(i));
+        }
+        for (RewritableAtom a : body) {
+            for (Term t : a.getTerms()) {
+                if (t instanceof Variable && !this.fixed.containsKey(t)) {
+                    List<RewritableAtom> atoms = this.occurrences.computeIfAbsent(t, k -> new ArrayList<>());
+                    if (!atoms.contains(a)) {
+                        atoms.add(a);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Compute the canonical key of a query.
+     *
+     * @param head The answer variables of the query.
+     * @param body The atoms of the query.
+     * @return The canonical key.
+     */
+    static long[] of(List<Variable> head, Set<RewritableAtom> body) {
+        CanonicalForm c = new CanonicalForm(head, body);
+        Map<Term, Integer> colours = new HashMap<>();
+        c.occurrences.keySet().forEach(t -> colours.put(t, 0));
+        c.search(c.refine(colours));
+        return c.best;
+    }
+
+    /**
+     * Encode an atom in a single number.
+     *
+     * @param kind The kind of the atom.
+     * @param symbol The number of the names of the atom.
+     * @param left The label of the left or only term.
+     * @param right The label of the right term, 0 for atoms with a single term.
+     * @return The encoding of the atom.
+     */
+    static long key(int kind, int symbol, int left, int right) {
+        return (long) kind << (SYMBOL_BITS + 2 * LABEL_BITS) | (long) symbol << (2 * LABEL_BITS) |
+                (long) left << LABEL_BITS | right;
+    }
+
+    /**
+     * Get the label of a term under a colouring.
+     *
+     * @param t The term.
+     * @param colours The colours of the variables that can be renamed.
+     * @return The label of the term.
+     */
+    private int label(Term t, Map<Term, Integer> colours) {
+        if (t instanceof UnboundVariable) {
+            return UNBOUND;
+        }
+        Integer label = this.fixed.get(t);
+        if (label != null) {
+            return label;
+        }
+        label = this.fixed.size() + 1 + colours.get(t);
+        if (label >= SELF) {
+            throw new IllegalStateException("Too many variables for the canonical form");
+        }
+        return label;
+    }
+
+    /**
+     * Refine a colouring of the variables until it is stable.
+     * Each round, the new colour of a variable is determined by its old colour and the atoms it occurs in, with the
+     * other variables replaced by their old colours.
+     *
+     * @param colours The colouring to be refined.
+     * @return The stable refinement, with colours 0..n-1.
+     */
+    private Map<Term, Integer> refine(Map<Term, Integer> colours) {
+        int classes = new HashSet<>(colours.values()).size();
+        while (true) {
+            Map<Term, long[]> signatures = new HashMap<>();
+            for (Map.Entry<Term, List<RewritableAtom>> e : this.occurrences.entrySet()) {
+                Term v = e.getKey();
+                Map<Term, Integer> current = colours;
+                ToIntFunction<Term> labelling = t -> t.equals(v) && !(t instanceof UnboundVariable) ?
+                        SELF : label(t, current);
+                long[] signature = new long[e.getValue().size() + 1];
+                for (int i = 0; i < e.getValue().size(); i++) {
+                    signature[i + 1] = e.getValue().get(i).encodeKey(labelling);
+                }
+                Arrays.sort(signature, 1, signature.length);
+                signature[0] = colours.get(v);
+                signatures.put(v, signature);
+            }
+            // rank the distinct signatures
+            TreeMap<long[], Integer> ranks = new TreeMap<>(Arrays::compare);
+            signatures.values().forEach(s -> ranks.put(s, 0));
+            int rank = 0;
+            for (Map.Entry<long[], Integer> e : ranks.entrySet()) {
+                e.setValue(rank++);
+            }
+            Map<Term, Integer> refined = new HashMap<>();
+            signatures.forEach((v, s) -> refined.put(v, ranks.get(s)));
+            colours = refined;
+            if (ranks.size() == classes) {
+                return colours;
+            }
+            classes = ranks.size();
+        }
+    }
+
+    /**
+     * Search for the smallest encoding of the query by individualizing variables with equal colours.
+     *
+     * @param colours A stable colouring.
+     */
+    private void search(Map<Term, Integer> colours) {
+        if (this.labellings >= MAX_LABELLINGS) {
+            return;
+        }
+        // find the smallest colour shared by several variables
+        Map<Integer, List<Term>> classes = new TreeMap<>();
+        colours.forEach((v, c) -> classes.computeIfAbsent(c, k -> new ArrayList<>()).add(v));
+        Optional<List<Term>> cell = classes.values().stream().filter(l -> l.size() > 1).findFirst();
+        if (cell.isEmpty()) {
+            this.labellings++;
+            long[] encoding = Arrays.copyOf(this.head, this.head.length + this.body.size());
+            int i = this.head.length;
+            for (RewritableAtom a : this.body) {
+                encoding[i++] = a.encodeKey(t -> label(t, colours));
+            }
+            Arrays.sort(encoding, this.head.length, encoding.length);
+            if (this.best == null || Arrays.compare(encoding, this.best) < 0) {
+                this.best = encoding;
+            }
+            return;
+        }
+        int colour = colours.get(cell.get().get(0));
+        for (Term v : cell.get()) {
+            // give v a colour of its own, directly before the other variables in its cell
+            Map<Term, Integer> individualized = new HashMap<>();
+            colours.forEach((t, c) -> individualized.put(t, 2 * c + (c == colour && !t.equals(v) ? 1 : 0)));
+            search(refine(individualized));
+        }
+    }
+}
@@ -3,12 +3,16 @@ package at.ac.tuwien.informatics.structure.query;
 import at.ac.tuwien.informatics.reformulation.Rewriter;
 import at.ac.tuwien.informatics.structure.Ontology;
 import at.ac.tuwien.informatics.structure.Substitution;
+import at.ac.tuwien.informatics.structure.Symbols;
 import org.eclipse.rdf4j.model.vocabulary.OWL;
 import org.semanticweb.owlapi.model.*;
 
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 /**
  * A class that represents a query atom of the form A(_) for a concept name A.
@@ -19,10 +23,18 @@ public class Conceptname implements RewritableAtom {
      * The name of the concept.
      */
     private final OWLClass name;
+    /**
+     * The number of the concept, see {@link Symbols}.
+     */
+    private final int symbol;
     /**
      * The term in the atom.
      */
     private final Term term;
+    /**
+     * The hash of the atom, computed once since atoms are immutable.
+     */
+    private final int hash;
 
     /**
      * Initialize a new Conceptname object.
@@ -30,8 +42,23 @@ public class Conceptname implements RewritableAtom {
      * @param term The {@link Term} in the atom.
      */
     public Conceptname(OWLClass name, Term term) {
+        this(name, Symbols.of(name), term);
+    }
+
+    /**
+     * Initialize a new Conceptname object whose name has been interned already.
+     * @param name The name of the concept.
+     * @param symbol The number of the concept.
+     * @param term The {@link Term} in the atom.
+     */
+    private Conceptname(OWLClass name, int symbol, Term term) {
         this.name = name;
+        this.symbol = symbol;
         this.term = term;
+        int hash = 3;
+        hash = 53 * hash + symbol;
+        hash = 53 * hash + term.getLabel().hashCode();
+        this.hash = hash;
     }
 
     @Override
@@ -45,15 +72,12 @@ public class Conceptname implements RewritableAtom {
 
         Conceptname c = (Conceptname) obj;
 
-        return this.name.equals(c.name) && this.term.toString().equals(c.term.toString());
+        return this.hash == c.hash && this.symbol == c.symbol && this.term.getLabel() == c.term.getLabel();
     }
 
     @Override
     public int hashCode() {
-        int hash = 3;
-        hash = 53 * hash + (this.name != null ? this.name.hashCode() : 0);
-        hash = 53 * hash + (this.term != null ? this.term.hashCode() : 0);
-        return hash;
+        return this.hash;
     }
 
     @Override
@@ -81,6 +105,17 @@ public class Conceptname implements RewritableAtom {
         return false;
     }
 
+    /**
+     * Return all axioms of the ontology that are applicable to this atom i.e., A_1 ISA A, exists r ISA A and
+     * exists r- ISA A.
+     *
+     * @param o The ontology.
+     * @return The set of applicable axioms.
+     */
+    @Override
+    public Set<OWLAxiom> getApplicableAxioms(Ontology o) {
+        return o.getAxiomsForClass(this.name);
+    }
 
     /**
      * Apply a replacement by an axiom on this atom and return the new atom.
@@ -105,9 +140,7 @@ public class Conceptname implements RewritableAtom {
         } else {  // exists r ISA A
             property = ((OWLObjectPropertyDomainAxiom) I).getProperty();
         }
-        Roles roles = new Roles(new HashSet<>(Collections.singleton(property)), this.term.getFresh(), v);
-        roles.saturate(o);
-        return roles;
+        return new Roles(new HashSet<>(Collections.singleton(property)), this.term.getFresh(), v).saturate(o);
     }
 
     /**
@@ -118,6 +151,57 @@ public class Conceptname implements RewritableAtom {
         return this.term.getFresh();
     }
 
+    /**
+     * Create a new concept name atom with the same concept and the given term.
+     *
+     * @param term The {@link Term} in the new atom.
+     * @return A new concept name atom.
+     */
+    public Conceptname replaceTerm(Term term) {
+        return new Conceptname(this.name, this.symbol, term);
+    }
+
+    /**
+     * Get the number of the concept, see {@link Symbols}.
+     *
+     * @return The number of the concept.
+     */
+    int getSymbols() {
+        return this.symbol;
+    }
+
+    /**
+     * Get the terms of this atom.
+     *
+     * @return List containing the term of this atom.
+     */
+    @Override
+    public List<Term> getTerms() {
+        return Collections.singletonList(this.term);
+    }
+
+    /**
+     * Encode this atom as a string in which the term is replaced by its label.
+     *
+     * @param labelling The labels of the terms.
+     * @return The encoding of this atom.
+     */
+    @Override
+    public String encode(Function<Term, String> labelling) {
+        return this.name.getIRI().toString() + '(' + labelling.apply(this.term) + ')';
+    }
+
+    /**
+     * Encode this atom as a number in which the term is replaced by its label.
+     *
+     * @param labelling The labels of the terms.
+     * @return The encoding of this atom.
+     */
+    @Override
+    public long encodeKey(ToIntFunction<Term> labelling) {
+        return CanonicalForm.key(CanonicalForm.CONCEPTNAME, this.symbol, labelling.applyAsInt(this.term), 0);
+    }
+
     /**
      * Get the name of the concept in this atom.
      * @return The name of this atom.
@@ -138,6 +222,6 @@ public class Conceptname implements RewritableAtom {
         for (Substitution sub : substitutions) {
             t = t.applySubstitution(sub);
         }
-        return new Conceptname(this.name, t);
+        return new Conceptname(this.name, this.symbol, t);
     }
 }
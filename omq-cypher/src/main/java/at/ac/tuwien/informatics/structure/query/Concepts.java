@@ -0,0 +1,262 @@
+package at.ac.tuwien.informatics.structure.query;
+
+import at.ac.tuwien.informatics.reformulation.Rewriter;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.Substitution;
+import at.ac.tuwien.informatics.structure.Symbols;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * A class that represents a query atom of the form (A \cup ...)(_) for concept names "A", i.e., a disjunction of
+ * concept names over the same term.
+ * The atom is meant to be saturated under the subclass axioms between concept names, the way {@link Roles} is
+ * saturated under the role inclusion axioms, so these axioms never have to be applied in a rewriting step.
+ */
+public class Concepts implements RewritableAtom {
+
+    /**
+     * The names of the concepts.
+     */
+    private final Set<OWLClass> names;
+    /**
+     * The number of the set of concepts, see {@link Symbols}.
+     */
+    private final int symbols;
+    /**
+     * The term in the atom.
+     */
+    private final Term term;
+    /**
+     * The hash of the atom, computed once since atoms are immutable.
+     */
+    private final int hash;
+
+    /**
+     * Initialize a new Concepts object.
+     * @param names The names of the concepts.
+     * @param term The {@link Term} in the atom.
+     */
+    public Concepts(Set<OWLClass> names, Term term) {
+        this(names, Symbols.ofClasses(names), term);
+    }
+
+    /**
+     * Initialize a new Concepts object whose names have been interned already.
+     * The set of names is shared, which is safe since atoms do not modify it.
+     * @param names The names of the concepts.
+     * @param symbols The number of the set of names.
+     * @param term The {@link Term} in the atom.
+     */
+    private Concepts(Set<OWLClass> names, int symbols, Term term) {
+        this.names = names;
+        this.symbols = symbols;
+        this.term = term;
+        int hash = 5;
+        hash = 53 * hash + symbols;
+        hash = 53 * hash + term.getLabel().hashCode();
+        this.hash = hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof Concepts)) {
+            return false;
+        }
+
+        Concepts c = (Concepts) obj;
+
+        return this.hash == c.hash && this.symbols == c.symbols && this.term.getLabel() == c.term.getLabel();
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hash;
+    }
+
+    @Override
+    public String toString() {
+        String namestring = this.names.stream()
+                .map(c -> c.getIRI().getFragment())
+                .sorted()
+                .collect(Collectors.joining("|"));
+        if (this.names.size() > 1) {
+            namestring = '(' + namestring + ')';
+        }
+        return namestring + '(' + this.term.toString() + ')';
+    }
+
+    /**
+     * Return true if the atom can be replaced by another atom given an axiom.
+     * Subclass axioms between concept names are not applicable, since the atom is saturated under them.
+     *
+     * @param I The axiom to be applied.
+     * @return True if the axiom is applicable, false otherwise.
+     */
+    @Override
+    public boolean applicable(OWLAxiom I) {
+        if (I instanceof OWLSubClassOfAxiom) {  // exists r ISA A
+            OWLSubClassOfAxiom i = (OWLSubClassOfAxiom) I;
+            return i.getSubClass() instanceof OWLObjectSomeValuesFrom && this.names.contains(i.getSuperClass());
+        }
+        if (I instanceof OWLObjectPropertyDomainAxiom) {
+            return this.names.contains(((OWLObjectPropertyDomainAxiom) I).getDomain());
+        }
+        if (I instanceof OWLObjectPropertyRangeAxiom) {
+            return this.names.contains(((OWLObjectPropertyRangeAxiom) I).getRange());
+        }
+        return false;
+    }
+
+    /**
+     * Return all axioms of the ontology that are applicable to this atom i.e., exists r ISA A and exists r- ISA A
+     * for a concept name A of this atom.
+     *
+     * @param o The ontology.
+     * @return The set of applicable axioms.
+     */
+    @Override
+    public Set<OWLAxiom> getApplicableAxioms(Ontology o) {
+        Set<OWLAxiom> axioms = new HashSet<>();
+        for (OWLClass c : this.names) {
+            for (OWLAxiom I : o.getAxiomsForClass(c)) {
+                if (!(I instanceof OWLSubClassOfAxiom) ||
+                        !(((OWLSubClassOfAxiom) I).getSubClass() instanceof OWLClass)) {
+                    axioms.add(I);
+                }
+            }
+        }
+        return axioms;
+    }
+
+    /**
+     * Apply a replacement by an axiom on this atom and return the new atom.
+     * Precondition for correctness: applicable was called before.
+     *
+     * @param I The axiom to be applied.
+     * @param o The ontology.
+     * @param rewriter The rewriter that called this function.
+     * @return The new atom.
+     */
+    @Override
+    public RewritableAtom apply(OWLAxiom I, Ontology o, Rewriter rewriter) {
+        UnboundVariable v = new UnboundVariable(rewriter.getFreshVariableName());
+        OWLObjectPropertyExpression property;
+        if (I instanceof OWLSubClassOfAxiom) {  // exists r ISA A
+            property = ((OWLObjectSomeValuesFrom) ((OWLSubClassOfAxiom) I).getSubClass()).getProperty();
+        } else if (I instanceof OWLObjectPropertyRangeAxiom) {  // exists r^- ISA A
+            property = ((OWLObjectPropertyRangeAxiom) I).getProperty().getInverseProperty();
+        } else {  // exists r ISA A
+            property = ((OWLObjectPropertyDomainAxiom) I).getProperty();
+        }
+        return new Roles(new HashSet<>(Collections.singleton(property)), this.term.getFresh(), v).saturate(o);
+    }
+
+    /**
+     * Exhaustively apply the subclass axioms between concept names to this atom.
+     * This atom is not modified, so atoms can be shared between threads.
+     *
+     * @param o The ontology.
+     * @return A new atom with the same term, whose set of concept names is closed under the subclass axioms.
+     */
+    public Concepts saturate(Ontology o) {
+        // the closure of each class is precomputed by the ontology, the closure of the set is their union
+        Set<OWLClass> names = new HashSet<>();
+        for (OWLClass c : this.names) {
+            names.addAll(o.getSubClasses(c));
+        }
+        return new Concepts(names, this.term.getFresh());
+    }
+
+    /**
+     * Get the Term of the atom.
+     * @return The term of this atom.
+     */
+    public Term getTerm() {
+        return this.term.getFresh();
+    }
+
+    /**
+     * Create a new atom with the same concepts and the given term.
+     *
+     * @param term The {@link Term} in the new atom.
+     * @return A new Concepts atom.
+     */
+    public Concepts replaceTerm(Term term) {
+        return new Concepts(this.names, this.symbols, term);
+    }
+
+    /**
+     * Get the number of the set of concepts, see {@link Symbols}.
+     *
+     * @return The number of the set.
+     */
+    int getSymbols() {
+        return this.symbols;
+    }
+
+    /**
+     * Get the terms of this atom.
+     *
+     * @return List containing the term of this atom.
+     */
+    @Override
+    public List<Term> getTerms() {
+        return Collections.singletonList(this.term);
+    }
+
+    /**
+     * Encode this atom as a string in which the term is replaced by its label.
+     *
+     * @param labelling The labels of the terms.
+     * @return The encoding of this atom.
+     */
+    @Override
+    public String encode(Function<Term, String> labelling) {
+        return this.names.stream()
+                .map(c -> c.getIRI().toString())
+                .sorted()
+                .collect(Collectors.joining("|", "C", "")) + '(' + labelling.apply(this.term) + ')';
+    }
+
+    /**
+     * Encode this atom as a number in which the term is replaced by its label.
+     *
+     * @param labelling The labels of the terms.
+     * @return The encoding of this atom.
+     */
+    @Override
+    public long encodeKey(ToIntFunction<Term> labelling) {
+        return CanonicalForm.key(CanonicalForm.CONCEPTS, this.symbols, labelling.applyAsInt(this.term), 0);
+    }
+
+    /**
+     * Get the names of the concepts in this atom.
+     * @return The names of this atom.
+     */
+    public Set<OWLClass> getNames() {
+        return this.names;
+    }
+
+    /**
+     * Apply a list of substitutions to the terms of this atom.
+     *
+     * @param substitutions A list of substitutions.
+     * @return A new Concepts atom with the substitutions applied to its terms.
+     */
+    @Override
+    public Concepts applySubstitution(List<Substitution> substitutions) {
+        Term t = this.term.getFresh();
+        for (Substitution sub : substitutions) {
+            t = t.applySubstitution(sub);
+        }
+        return new Concepts(this.names, this.symbols, t);
+    }
+}
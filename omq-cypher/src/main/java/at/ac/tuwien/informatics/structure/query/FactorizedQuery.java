@@ -0,0 +1,133 @@
+package at.ac.tuwien.informatics.structure.query;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * A class that represents a union of queries as an AND-OR tree, in which the atoms that several queries have in common
+ * are stored only once.
+ * Each node holds a conjunction of atoms. An inner node stands for the conjunction of its atoms with the disjunction of
+ * its branches. A leaf stands for the conjunction of its atoms, and holds the head of the queries that end in it.
+ * Each path from the root to a leaf is a query of the union, whose body is the union of the atoms on the path.
+ */
+public class FactorizedQuery {
+
+    /**
+     * The atoms of this node.
+     */
+    private final Set<RewritableAtom> atoms;
+    /**
+     * The branches of this node, empty if this node is a leaf.
+     */
+    private final List<FactorizedQuery> branches;
+    /**
+     * The head of the queries that end in this node, null if this node is not a leaf.
+     */
+    private final List<Variable> head;
+
+    /**
+     * Initialize a new leaf.
+     * @param head The head of the queries that end in this leaf.
+     * @param atoms The atoms of this leaf.
+     */
+    public FactorizedQuery(List<Variable> head, Set<RewritableAtom> atoms) {
+        this.atoms = atoms;
+        this.branches = Collections.emptyList();
+        this.head = head;
+    }
+
+    /**
+     * Initialize a new inner node.
+     * @param atoms The atoms that all queries of the branches have in common.
+     * @param branches The branches, at least one.
+     */
+    public FactorizedQuery(Set<RewritableAtom> atoms, List<FactorizedQuery> branches) {
+        this.atoms = atoms;
+        this.branches = branches;
+        this.head = null;
+    }
+
+    @Override
+    public String toString() {
+        String atomstring = this.atoms.stream().map(RewritableAtom::toString).collect(Collectors.joining(","));
+        if (this.isLeaf()) {
+            return "q(" + this.head.stream().map(Variable::toString).collect(Collectors.joining(",")) + "):-" +
+                    atomstring;
+        }
+        return atomstring + (this.atoms.isEmpty() ? "" : ",") + '(' +
+                this.branches.stream().map(FactorizedQuery::toString).collect(Collectors.joining(" | ")) + ')';
+    }
+
+    /**
+     * Return true if this node is a leaf.
+     *
+     * @return True if this node has no branches, false otherwise.
+     */
+    public boolean isLeaf() {
+        return this.head != null;
+    }
+
+    /**
+     * Get the atoms of this node.
+     *
+     * @return Set of atoms.
+     */
+    public Set<RewritableAtom> getAtoms() {
+        return this.atoms;
+    }
+
+    /**
+     * Get the branches of this node.
+     *
+     * @return List of branches, empty if this node is a leaf.
+     */
+    public List<FactorizedQuery> getBranches() {
+        return this.branches;
+    }
+
+    /**
+     * Get the head of the queries that end in this node.
+     *
+     * @return List of variables, or null if this node is not a leaf.
+     */
+    public List<Variable> getHead() {
+        return this.head;
+    }
+
+    /**
+     * Get the number of atoms stored in the tree, i.e., the size of the factorized representation.
+     *
+     * @return The number of atoms of this node and all nodes below it.
+     */
+    public int getAtomCount() {
+        return this.atoms.size() + this.branches.stream().mapToInt(FactorizedQuery::getAtomCount).sum();
+    }
+
+    /**
+     * Get the union of queries this tree stands for.
+     *
+     * @return Set of queries, one for each leaf.
+     */
+    public Set<RewritableQuery> getQueries() {
+        Set<RewritableQuery> queries = new HashSet<>();
+        collect(new HashSet<>(), queries);
+        return queries;
+    }
+
+    /**
+     * Add the queries of the leaves below this node to a set.
+     *
+     * @param above The atoms of the nodes above this node.
+     * @param queries The set the queries are added to.
+     */
+    private void collect(Set<RewritableAtom> above, Set<RewritableQuery> queries) {
+        Set<RewritableAtom> body = new HashSet<>(above);
+        body.addAll(this.atoms);
+        if (this.isLeaf()) {
+            queries.add(new RewritableQuery(new LinkedList<>(this.head), body));
+        }
+        for (FactorizedQuery b : this.branches) {
+            b.collect(body, queries);
+        }
+    }
+}
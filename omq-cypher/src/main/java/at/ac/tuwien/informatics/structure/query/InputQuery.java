@@ -3,6 +3,7 @@ package at.ac.tuwien.informatics.structure.query;
 
 import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -61,6 +62,27 @@ public class InputQuery implements Query {
                 this.body.stream().map(Atom::toString).collect(Collectors.joining(","));
     }
 
+    /**
+     * Get a normal form of this query.
+     * Queries that only differ in the order of the atoms, the order of the roles in an atom, or the direction in
+     * which a role atom is written (r(x,y) and r-(y,x)) have the same normal form. Names are written as full IRIs.
+     *
+     * @return The normal form as a String.
+     */
+    public String getNormalForm() {
+        Function<Term, String> labelling = Term::toString;
+        return this.head.stream().map(Variable::toString).collect(Collectors.joining(",", "q(", "):-")) +
+                this.body.stream()
+                        .map(a -> {
+                            if (a instanceof Path) {
+                                return ((Path) a).encode(labelling);
+                            }
+                            return ((RewritableAtom) a).encode(labelling);
+                        })
+                        .sorted()
+                        .collect(Collectors.joining(","));
+    }
+
     /**
      * Get the head of this query.
      * @return The list of variables in the head.
@@ -3,7 +3,9 @@ package at.ac.tuwien.informatics.structure.query;
 
 import at.ac.tuwien.informatics.structure.Ontology;
 
+import java.util.LinkedList;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -64,10 +66,24 @@ public class Path implements Atom {
     /**
      * Saturate each element of the path by exhaustively applying the subrole axioms for each role in the set of role
      * names in the element.
+     * This path is not modified.
      * @param o The ontology.
+     * @return A new path with the saturated elements.
      */
-    public void saturate(Ontology o) {
-        elements.forEach(e -> e.saturate(o));
+    public Path saturate(Ontology o) {
+        return new Path(elements.stream().map(e -> e.saturate(o)).collect(Collectors.toCollection(LinkedList::new)),
+                left.getFresh(), right.getFresh());
+    }
+
+    /**
+     * Encode this atom as a string in which the terms are replaced by their labels.
+     *
+     * @param labelling The labels of the terms.
+     * @return The encoding of this atom.
+     */
+    public String encode(Function<Term, String> labelling) {
+        return this.elements.stream().map(PathElement::encode).collect(Collectors.joining("/", "P", "")) +
+                '(' + labelling.apply(this.left) + ',' + labelling.apply(this.right) + ')';
     }
 
     /**
@@ -0,0 +1,118 @@
+package at.ac.tuwien.informatics.structure.query;
+
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.Symbols;
+import org.semanticweb.owlapi.model.OWLObjectInverseOf;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * An interface that represents an element of a path \rho(x,y).
+ * Can be arbitrary length or single length.
+ */
+public abstract class PathElement {
+
+    /**
+     * The set (disjunction) of role names occurring in this path element.
+     */
+    protected final Set<OWLObjectPropertyExpression> roles;
+    /**
+     * The number of the set of role names, see {@link Symbols}.
+     */
+    protected final int symbols;
+
+    /**
+     * Initialize a new path element.
+     *
+     * @param roles the set (disjunction) of role names occuring in this path element.
+     */
+    public PathElement(Set<OWLObjectPropertyExpression> roles) {
+        this.roles = roles;
+        this.symbols = Symbols.ofRoles(roles, false);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 3;
+        hash = 53 * hash + this.symbols;
+        return hash;
+    }
+
+    /**
+     * Get the mask of the set of role names of this path element.
+     *
+     * @return The mask, which must not be modified.
+     */
+    public long[] getRoleMask() {
+        return Symbols.mask(this.symbols);
+    }
+
+    @Override
+    public String toString() {
+        String rolestring = this.roles.stream()
+                .map(p -> p.getNamedProperty().getIRI().getFragment() + ((p instanceof OWLObjectInverseOf) ? "-" : ""))
+                .collect(Collectors.joining("|"));
+        if (this.roles.size() > 1) {
+            rolestring = '(' + rolestring + ')';
+        }
+        return rolestring;
+    }
+
+    /**
+     * Exhaustively apply the subrole axiom to this path element.
+     * This means adding each implied subrole of each role in the set of rolenames to the set of rolenames.
+     * This path element is not modified.
+     *
+     * @param o The ontology.
+     * @return A new path element of the same kind with the saturated set of rolenames.
+     */
+    public abstract PathElement saturate(Ontology o);
+
+    /**
+     * Compute the set of rolenames of this path element, closed under the subrole axioms.
+     *
+     * @param o The ontology.
+     * @return A new set of rolenames.
+     */
+    protected Set<OWLObjectPropertyExpression> saturateRoles(Ontology o) {
+        // for _path elements_, saturation only for role names! (guaranteed no inverses).
+        // the closure of each role name is precomputed by the ontology, the closure of the set is their union
+        Set<OWLObjectPropertyExpression> roles = new HashSet<>();
+        for (OWLObjectPropertyExpression r : this.roles) {
+            roles.addAll(o.getSubRoleNames(r));
+        }
+        return roles;
+    }
+
+    /**
+     * Encode the set of rolenames of this path element as a sorted list of their IRIs.
+     *
+     * @param prefix The prefix that marks the kind of path element.
+     * @return The encoding of this path element.
+     */
+    protected String encode(String prefix) {
+        return this.roles.stream()
+                .map(p -> p.getNamedProperty().getIRI().toString())
+                .sorted()
+                .collect(Collectors.joining("|", prefix, ""));
+    }
+
+    /**
+     * Encode this path element as a string that does not depend on the order of its rolenames.
+     *
+     * @return The encoding of this path element.
+     */
+    public abstract String encode();
+
+    /**
+     * Convert this path element to a single path atom.
+     *
+     * @param left The left {@link Term}.
+     * @param right The right {@link Term}.
+     * @return This path element as a rewritable single path atom.
+     */
+    public abstract Binary toBinary(Term left, Term right);
+}
@@ -0,0 +1,82 @@
+package at.ac.tuwien.informatics.structure.query;
+
+import at.ac.tuwien.informatics.reformulation.Rewriter;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.Substitution;
+import org.semanticweb.owlapi.model.OWLAxiom;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * An interface that represents a rewritable atom in the query body.
+ */
+
+public interface RewritableAtom extends Atom {
+
+    /**
+     * Return true if the atom can be replaced by another atom given an axiom.
+     *
+     * @param I The axiom to be applied.
+     * @return True if the axiom is applicable, false otherwise.
+     */
+    boolean applicable(OWLAxiom I);
+
+    /**
+     * Return all axioms of the ontology that are applicable to this atom.
+     * The axioms are looked up in the index of the ontology, so this does not scan all axioms of the ontology.
+     *
+     * @param o The ontology.
+     * @return The set of applicable axioms.
+     */
+    Set<OWLAxiom> getApplicableAxioms(Ontology o);
+
+    /**
+     * Apply a replacement by an axiom on this atom and return the new atom.
+     *
+     * Precondition for correctness: applicable was called before.
+     * @param I The axiom to be applied.
+     * @param o The ontology.
+     * @param rewriter The query rewriter that called apply on this atom.
+     * @return The new atom.
+     */
+    RewritableAtom apply(OWLAxiom I, Ontology o, Rewriter rewriter);
+
+    /**
+     * Apply a list of substitutions to the terms of an atom.
+     *
+     * @param substitutions A list of substitutions.
+     * @return A new RewritableAtom with the substitutions applied to its terms.
+     */
+    RewritableAtom applySubstitution(List<Substitution> substitutions);
+
+    /**
+     * Get the terms of this atom, from left to right.
+     *
+     * @return List of terms.
+     */
+    List<Term> getTerms();
+
+    /**
+     * Encode this atom as a string in which every term is replaced by its label.
+     * Two atoms are equal if and only if they have the same encoding under a labelling that maps every variable to its
+     * name and every unbound variable to the same label.
+     *
+     * @param labelling The labels of the terms.
+     * @return The encoding of this atom.
+     */
+    String encode(Function<Term, String> labelling);
+
+    /**
+     * Encode this atom as a number in which every term is replaced by its label, see {@link CanonicalForm}.
+     * Two atoms are equal if and only if they have the same encoding under a labelling that maps every variable to a
+     * number of its own and every unbound variable to the same number. Unlike {@link #encode(Function)}, the encoding
+     * is only meaningful within the running process.
+     *
+     * @param labelling The labels of the terms.
+     * @return The encoding of this atom.
+     */
+    long encodeKey(ToIntFunction<Term> labelling);
+}
@@ -0,0 +1,149 @@
+package at.ac.tuwien.informatics.structure.query;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A class that represents a rewritable CRPQ.
+ */
+public class RewritableQuery implements Query {
+    /**
+     * The set of answer variables in the head.
+     */
+    private final List<Variable> head;
+    /**
+     * The set of atoms in the body.
+     */
+    private final Set<RewritableAtom> body;
+    /**
+     * Rough number of bytes on the heap of the query object, its head and the set of atoms, without the atoms.
+     */
+    private static final long QUERY_BYTES = 128;
+    /**
+     * Rough number of bytes on the heap of an atom, its terms, and its entry in the set of atoms.
+     */
+    private static final long ATOM_BYTES = 120;
+    /**
+     * Rough number of bytes on the heap of an array object, without its elements.
+     */
+    private static final long ARRAY_BYTES = 16;
+    /**
+     * The canonical key of this query, computed on first use, since the body may still be built after the query has
+     * been created.
+     * The field is volatile, so a thread that sees the array also sees its elements. Computing it is deterministic and
+     * the array is never modified, so a race between threads at most computes it twice.
+     */
+    private volatile long[] canonicalKey;
+    /**
+     * The hash of the canonical key, computed on first use the same way String caches its hash, 0 if not computed.
+     */
+    private int hash;
+
+    /**
+     * Initialize a new query object with a head and body.
+     * The set of atoms is interpreted as a conjunction thereof.
+     * @param head A set of answer {@link Variable}.
+     * @param body A set of atoms {@link RewritableAtom}
+     */
+    public RewritableQuery(List<Variable> head, Set<RewritableAtom> body) {
+        this.head = head;
+        this.body = body;
+    }
+
+    /**
+     * Get the canonical key of this query.
+     * Queries that only differ in the names of the variables that are not answer variables, or in the names of the
+     * answer variables at the same positions in the head, have the same canonical key.
+     * Equality and hashing of queries are based on the canonical key, so the body must not be modified after the
+     * query has been compared or hashed. The key is built from the numbers of the interned names of the atoms, so it
+     * is only meaningful within the running process, see {@link at.ac.tuwien.informatics.structure.Symbols}.
+     * The returned array must not be modified.
+     *
+     * @return The canonical key as an array of numbers.
+     */
+    public long[] getCanonicalKey() {
+        long[] key = this.canonicalKey;
+        if (key == null) {
+            key = CanonicalForm.of(this.head, this.body);
+            this.canonicalKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * Compare the canonical keys of two queries.
+     * The order is consistent with equality, and the same within a running process, but not across processes.
+     *
+     * @param a The first query.
+     * @param b The second query.
+     * @return A negative number, zero, or a positive number if the key of a is smaller, equal or larger than the key
+     * of b.
+     */
+    public static int compareCanonicalKeys(RewritableQuery a, RewritableQuery b) {
+        return Arrays.compare(a.getCanonicalKey(), b.getCanonicalKey());
+    }
+
+    /**
+     * Estimate the number of bytes on the heap used by this query, including its canonical key.
+     * The estimate is meant for budgeting and cache sizing: it assumes fixed sizes for the atoms, and ignores objects
+     * that are shared with the ontology, such as the IRIs of the concept and role names.
+     *
+     * @return The estimated number of bytes.
+     */
+    public long getEstimatedSize() {
+        return QUERY_BYTES + ATOM_BYTES * this.body.size() + ARRAY_BYTES + 8L * this.getCanonicalKey().length;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = this.hash;
+        if (h == 0) {
+            h = Arrays.hashCode(this.getCanonicalKey());
+            this.hash = h;
+        }
+        return h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+
+        if (!(obj instanceof RewritableQuery)) {
+            return false;
+        }
+
+        RewritableQuery q = (RewritableQuery) obj;
+
+        return Arrays.equals(this.getCanonicalKey(), q.getCanonicalKey());
+    }
+
+    @Override
+    public String toString() {
+        return "q(" +
+                this.head.stream().map(Variable::toString).collect(Collectors.joining(",")) +
+                "):-" +
+                this.body.stream().map(RewritableAtom::toString).collect(Collectors.joining(","));
+    }
+
+    /**
+     * Get the head of the query.
+     *
+     * @return List of variables in the head.
+     */
+    public List<Variable> getHead() {
+        return head;
+    }
+
+    /**
+     * Get the body of the query.
+     *
+     * @return List of atoms in the body.
+     */
+    public Set<RewritableAtom> getBody() {
+        return body;
+    }
+}
@@ -3,9 +3,12 @@ package at.ac.tuwien.informatics.structure.query;
 import at.ac.tuwien.informatics.reformulation.Rewriter;
 import at.ac.tuwien.informatics.structure.Ontology;
 import at.ac.tuwien.informatics.structure.Substitution;
+import at.ac.tuwien.informatics.structure.Symbols;
 import org.semanticweb.owlapi.model.*;
 
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -18,6 +21,14 @@ public class Roles implements Binary {
      * The names of the roles.
      */
     private final Set<OWLObjectPropertyExpression> roles;
+    /**
+     * The number of the set of roles, see {@link Symbols}.
+     */
+    private final int symbols;
+    /**
+     * The number of the set of the inverses of the roles.
+     */
+    private final int inverseSymbols;
     /**
      * The term on the left.
      */
@@ -26,6 +37,24 @@ public class Roles implements Binary {
      * The term on the right.
      */
     private final Term right;
+    /**
+     * The number of the set of roles in the canonical orientation of this atom.
+     * An atom and its inverse are equal, the canonical orientation is the one of the two with the smaller number, or
+     * with the smaller terms if both numbers are the same.
+     */
+    private final int canonicalSymbols;
+    /**
+     * The label of the left term in the canonical orientation of this atom.
+     */
+    private final String canonicalLeft;
+    /**
+     * The label of the right term in the canonical orientation of this atom.
+     */
+    private final String canonicalRight;
+    /**
+     * The hash of the atom, computed once since atoms are immutable.
+     */
+    private final int hash;
 
     /**
      * Initialize a new Role object.
@@ -34,22 +63,40 @@ public class Roles implements Binary {
      * @param right The right {@link Term}.
      */
     public Roles(Set<OWLObjectPropertyExpression> roles, Term left, Term right) {
+        this(roles, Symbols.ofRoles(roles, false), Symbols.ofRoles(roles, true), left, right);
+    }
+
+    /**
+     * Initialize a new Role object whose roles have been interned already.
+     * The set of roles is shared, which is safe since atoms do not modify it.
+     * @param roles The roles/properties in this atom.
+     * @param symbols The number of the set of roles.
+     * @param inverseSymbols The number of the set of the inverses of the roles.
+     * @param left The left {@link Term}.
+     * @param right The right {@link Term}.
+     */
+    private Roles(Set<OWLObjectPropertyExpression> roles, int symbols, int inverseSymbols, Term left, Term right) {
         this.roles = roles;
+        this.symbols = symbols;
+        this.inverseSymbols = inverseSymbols;
         this.left = left;
         this.right = right;
+        String l = left.getLabel();
+        String r = right.getLabel();
+        boolean forward = symbols < inverseSymbols || (symbols == inverseSymbols && l.compareTo(r) <= 0);
+        this.canonicalSymbols = forward ? symbols : inverseSymbols;
+        this.canonicalLeft = forward ? l : r;
+        this.canonicalRight = forward ? r : l;
+        int hash = 3;
+        hash = 53 * hash + this.canonicalSymbols;
+        hash = 53 * hash + this.canonicalLeft.hashCode();
+        hash = 53 * hash + this.canonicalRight.hashCode();
+        this.hash = hash;
     }
 
     @Override
     public int hashCode() {
-        return this.hashCodePart() * this.getInverse().hashCodePart();
-    }
-
-    private int hashCodePart() {
-        int hash = 3;
-        hash = 53 * hash + (this.roles != null ? this.roles.hashCode() : 0);
-        hash = 53 * hash + (this.left != null ? this.left.hashCode() : 0);
-        hash = 53 * hash + (this.right != null ? this.right.hashCode() : 0);
-        return hash;
+        return this.hash;
     }
 
     @Override
@@ -64,11 +111,9 @@ public class Roles implements Binary {
 
         Roles r = (Roles) obj;
 
-        Roles inv = this.getInverse();
-
-        return (this.roles.equals(r.roles) && this.left.toString().equals(r.left.toString())
-                && this.right.toString().equals(r.right.toString())) || (inv.roles.equals(r.roles) &&
-                inv.left.toString().equals(r.left.toString()) && inv.right.toString().equals(r.right.toString()));
+        // an atom and its inverse have the same canonical orientation, and labels are interned
+        return this.hash == r.hash && this.canonicalSymbols == r.canonicalSymbols &&
+                this.canonicalLeft == r.canonicalLeft && this.canonicalRight == r.canonicalRight;
     }
 
     @Override
@@ -127,6 +172,33 @@ public class Roles implements Binary {
         return false;
     }
 
+    /**
+     * Return all axioms of the ontology that are applicable to this atom.
+     * These are the axioms with exists R on the right side for R in the roles if the right term is unbound,
+     * and for R- in the roles if the left term is unbound.
+     *
+     * @param o The ontology.
+     * @return The set of applicable axioms.
+     */
+    @Override
+    public Set<OWLAxiom> getApplicableAxioms(Ontology o) {
+        boolean rightUnbound = this.right instanceof UnboundVariable;
+        boolean leftUnbound = this.left instanceof UnboundVariable;
+        if (!rightUnbound && !leftUnbound) {
+            return Collections.emptySet();
+        }
+        Set<OWLAxiom> axioms = new HashSet<>();
+        for (OWLObjectPropertyExpression r : this.roles) {
+            if (rightUnbound) {  // A \ISA \exists R, R(x,_)
+                axioms.addAll(o.getAxiomsForExistential(r));
+            }
+            if (leftUnbound) {  // A \ISA \exists R, R-(_,x)
+                axioms.addAll(o.getAxiomsForExistential(r.getInverseProperty()));
+            }
+        }
+        return axioms;
+    }
+
     /**
      * Apply a replacement by an axiom on this atom and return the new atom.
      * <p>
@@ -170,8 +242,7 @@ public class Roles implements Binary {
                             Collections.singleton(i.getProperty().getInverseProperty())),
                             this.left.getFresh(), this.right.getFresh());
                 }
-                newatom.saturate(o);
-                return newatom;
+                return newatom.saturate(o);
             }
         }
         // exists r- \ISA \exists R
@@ -188,8 +259,7 @@ public class Roles implements Binary {
             newatom = new Roles(new HashSet<>(Collections.singleton(i.getProperty().getInverseProperty())),
                     this.right.getFresh(), this.left.getFresh());
         }
-        newatom.saturate(o);
-        return newatom;
+        return newatom.saturate(o);
     }
 
     /**
@@ -207,37 +277,23 @@ public class Roles implements Binary {
             left = left.applySubstitution(sub);
             right = right.applySubstitution(sub);
         }
-        return new Roles(new HashSet<>(this.roles), left, right);
+        return new Roles(this.roles, this.symbols, this.inverseSymbols, left, right);
     }
 
-    public void saturate(Ontology o) {
-        Set<OWLObjectPropertyExpression> subroles = new HashSet<>();
-        while (!subroles.equals(this.roles)) {
-            subroles = new HashSet<>(this.roles);
-            // iterate over all the axioms for the roles that have r or r- on the right side
-            for (OWLObjectPropertyExpression r : subroles) {
-                // R1 \ISA R
-                this.roles.addAll(o.getOntology().getObjectSubPropertyAxiomsForSuperProperty(r)
-                        .stream()
-                        .map(OWLSubObjectPropertyOfAxiom::getSubProperty)
-                        .collect(Collectors.toSet()));
-                // R1 \ISA R-
-                this.roles.addAll(o.getOntology().getObjectSubPropertyAxiomsForSuperProperty(r.getInverseProperty())
-                        .stream()
-                        .map(OWLSubObjectPropertyOfAxiom::getSubProperty)
-                        .map(OWLObjectPropertyExpression::getInverseProperty)
-                        .collect(Collectors.toSet()));
-                // inverses
-                // use the named property (in case of inverse), and add the inverse of the inverse in case
-                // r is an inverse itself.
-                this.roles.addAll(o.getOntology().getInverseObjectPropertyAxioms(r.getNamedProperty())
-                        .stream()
-                        .map(p -> p.getPropertiesMinus(r.getNamedProperty()))
-                        .flatMap(Collection::stream)
-                        .map(p -> (r instanceof OWLObjectInverseOf) ? p : p.getInverseProperty())
-                        .collect(Collectors.toSet()));
-            }
+    /**
+     * Exhaustively apply the subrole and inverse role axioms to this atom.
+     * This atom is not modified, so atoms can be shared between threads.
+     *
+     * @param o The ontology.
+     * @return A new atom with the same terms, whose set of roles is closed under the subrole and inverse role axioms.
+     */
+    public Roles saturate(Ontology o) {
+        // the closure of each role is precomputed by the ontology, the closure of the set is their union
+        Set<OWLObjectPropertyExpression> roles = new HashSet<>();
+        for (OWLObjectPropertyExpression r : this.roles) {
+            roles.addAll(o.getSubRoles(r));
         }
+        return new Roles(roles, this.left.getFresh(), this.right.getFresh());
     }
 
     @Override
@@ -245,6 +301,21 @@ public class Roles implements Binary {
         return this.roles;
     }
 
+    @Override
+    public long[] getRoleMask() {
+        return Symbols.mask(this.symbols);
+    }
+
+    /**
+     * Get the mask of the set of the inverses of the roles of this atom, i.e., the mask of the roles of the inverse of
+     * this atom.
+     *
+     * @return The mask, which must not be modified.
+     */
+    public long[] getInverseRoleMask() {
+        return Symbols.mask(this.inverseSymbols);
+    }
+
     @Override
     public Term getLeft() {
         return this.left.getFresh();
@@ -264,13 +335,86 @@ public class Roles implements Binary {
      */
     @Override
     public Roles replaceTerms(Term left, Term right) {
-        return new Roles(new HashSet<>(this.roles), left, right);
+        return new Roles(this.roles, this.symbols, this.inverseSymbols, left, right);
+    }
+
+    /**
+     * Get the number of the set of roles, see {@link Symbols}.
+     *
+     * @return The number of the set.
+     */
+    int getSymbols() {
+        return this.symbols;
+    }
+
+    /**
+     * Get the number of the set of the inverses of the roles, see {@link Symbols}.
+     *
+     * @return The number of the set.
+     */
+    int getInverseSymbols() {
+        return this.inverseSymbols;
+    }
+
+    /**
+     * Get the terms of this atom.
+     *
+     * @return List containing the left and the right term.
+     */
+    @Override
+    public List<Term> getTerms() {
+        return Arrays.asList(this.left, this.right);
+    }
+
+    /**
+     * Encode this atom as a string in which every term is replaced by its label.
+     * An atom and its inverse have the same encoding, the orientation with the smaller string is used.
+     *
+     * @param labelling The labels of the terms.
+     * @return The encoding of this atom.
+     */
+    @Override
+    public String encode(Function<Term, String> labelling) {
+        String l = labelling.apply(this.left);
+        String r = labelling.apply(this.right);
+        String forward = encodeRoles(false) + '(' + l + ',' + r + ')';
+        String inverse = encodeRoles(true) + '(' + r + ',' + l + ')';
+        return forward.compareTo(inverse) <= 0 ? forward : inverse;
+    }
+
+    /**
+     * Encode this atom as a number in which every term is replaced by its label.
+     * An atom and its inverse have the same encoding, the orientation with the smaller number is used.
+     *
+     * @param labelling The labels of the terms.
+     * @return The encoding of this atom.
+     */
+    @Override
+    public long encodeKey(ToIntFunction<Term> labelling) {
+        int l = labelling.applyAsInt(this.left);
+        int r = labelling.applyAsInt(this.right);
+        return Math.min(CanonicalForm.key(CanonicalForm.ROLES, this.symbols, l, r),
+                CanonicalForm.key(CanonicalForm.ROLES, this.inverseSymbols, r, l));
+    }
+
+    /**
+     * Encode the set of roles as a sorted list of role names, where inverse roles are marked with a "-".
+     *
+     * @param invert True if the encoding of the inverse roles should be returned.
+     * @return The encoding of the roles.
+     */
+    private String encodeRoles(boolean invert) {
+        return this.roles.stream()
+                .map(p -> p.getNamedProperty().getIRI().toString() +
+                        ((p instanceof OWLObjectInverseOf) != invert ? "-" : ""))
+                .sorted()
+                .collect(Collectors.joining("|", "R", ""));
     }
 
     public Roles getInverse() {
         Set<OWLObjectPropertyExpression> inverses = this.roles.stream()
                 .map(OWLObjectPropertyExpression::getInverseProperty)
                 .collect(Collectors.toSet());
-        return new Roles(inverses, this.right.getFresh(), this.left.getFresh());
+        return new Roles(inverses, this.inverseSymbols, this.symbols, this.right.getFresh(), this.left.getFresh());
     }
 }
@@ -22,6 +22,14 @@ public interface Term {
      */
     String getName();
 
+    /**
+     * Get the label of this term in atoms: the name of a variable, or "_" for every unbound variable, since atoms do
+     * not tell unbound variables apart. Labels are interned, so atoms compare them by reference.
+     *
+     * @return The interned label of this term.
+     */
+    String getLabel();
+
     /**
      * Get a fresh object that is equal to this Term.
      *
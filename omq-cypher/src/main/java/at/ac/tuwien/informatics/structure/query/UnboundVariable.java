@@ -8,15 +8,28 @@ import at.ac.tuwien.informatics.structure.Substitution;
  */
 public class UnboundVariable implements Term {
 
+    /**
+     * The label of all unbound variables in atoms.
+     */
+    private static final String LABEL = "_";
+
     private final String name;
 
     public UnboundVariable(String name) {
-        this.name = name;
+        this.name = name.intern();
+    }
+
+    /**
+     * Initialize a copy of an unbound variable, which shares its interned name.
+     * @param v The unbound variable to be copied.
+     */
+    private UnboundVariable(UnboundVariable v) {
+        this.name = v.name;
     }
 
     @Override
     public String toString() {
-        return "_";
+        return LABEL;
     }
 
     @Override
@@ -31,7 +44,8 @@ public class UnboundVariable implements Term {
 
         UnboundVariable v = (UnboundVariable) obj;
 
-        return this.name.equals(v.name);
+        // names are interned
+        return this.name == v.name;
 
     }
 
@@ -53,7 +67,7 @@ public class UnboundVariable implements Term {
         if (s.getIn().equals(this)) {
             return s.getOut().getFresh();
         }
-        return new UnboundVariable(this.name);
+        return new UnboundVariable(this);
     }
 
     /**
@@ -66,6 +80,16 @@ public class UnboundVariable implements Term {
         return this.name;
     }
 
+    /**
+     * Get the label of this unbound variable in atoms, which is the same for all unbound variables.
+     *
+     * @return "_".
+     */
+    @Override
+    public String getLabel() {
+        return LABEL;
+    }
+
     /**
      * Get a fresh Unbound Variable that is equal to this Unbound Variable.
      *
@@ -73,6 +97,6 @@ public class UnboundVariable implements Term {
      */
     @Override
     public Term getFresh() {
-        return new UnboundVariable(this.name);
+        return new UnboundVariable(this);
     }
 }
@@ -8,7 +8,7 @@ import at.ac.tuwien.informatics.structure.Substitution;
 public class Variable implements Term {
 
     /**
-     * The name of the variable.
+     * The interned name of the variable.
      */
     private final String name;
 
@@ -17,13 +17,21 @@ public class Variable implements Term {
      * @param name The name of the variable.
      */
     public Variable(String name) {
-        this.name = name;
+        this.name = name.intern();
+    }
+
+    /**
+     * Initialize a copy of a variable, which shares its interned name.
+     * @param v The variable to be copied.
+     */
+    private Variable(Variable v) {
+        this.name = v.name;
     }
 
     @Override
     public int hashCode() {
         int hash = 3;
-        hash = 53 * hash + (this.name != null ? this.name.hashCode() : 0);
+        hash = 53 * hash + this.name.hashCode();
         return hash;
     }
 
@@ -39,7 +47,8 @@ public class Variable implements Term {
 
         Variable v = (Variable) obj;
 
-        return this.name.equals(v.name);
+        // names are interned
+        return this.name == v.name;
     }
 
     @Override
@@ -58,7 +67,7 @@ public class Variable implements Term {
         if (s.getIn().equals(this)) {
             return s.getOut().getFresh();
         }
-        return new Variable(this.name);
+        return new Variable(this);
     }
 
     /**
@@ -71,6 +80,16 @@ public class Variable implements Term {
         return this.name;
     }
 
+    /**
+     * Get the label of this variable in atoms, which is its interned name.
+     *
+     * @return The name of this variable.
+     */
+    @Override
+    public String getLabel() {
+        return this.name;
+    }
+
     /**
      * Get a fresh Variable that is equal to this Variable.
      *
@@ -78,6 +97,6 @@ public class Variable implements Term {
      */
     @Override
     public Variable getFresh() {
-        return new Variable(this.name);
+        return new Variable(this);
     }
 }
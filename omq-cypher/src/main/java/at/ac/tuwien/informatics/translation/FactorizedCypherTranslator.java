@@ -0,0 +1,172 @@
+package at.ac.tuwien.informatics.translation;
+
+import at.ac.tuwien.informatics.reformulation.Factorizer;
+import at.ac.tuwien.informatics.structure.query.*;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * This class translates a union of CRPQs to a single Cypher query, in which the atoms that several queries have in
+ * common are matched only once.
+ * The union is factorized into a {@link FactorizedQuery} first. The atoms of each node are matched, and the branches
+ * below the node are evaluated for each match in a "call { ... union ... }" subquery, which imports the variables of
+ * the match it needs. Each branch returns the answer variables as columns with the prefix "answer_", and the outermost
+ * query returns these columns under the names of the answer variables.
+ * Attention: This translator is not supported by opencypher, only Neo4j's Cypher implementation (4.0 and newer).
+ */
+public class FactorizedCypherTranslator implements Translator {
+
+    /**
+     * The prefix of the columns that hold the answer variables in subqueries.
+     */
+    private static final String ANSWER_PREFIX = "answer_";
+    /**
+     * The column returned by the subqueries of a query without answer variables.
+     */
+    private static final String BOOLEAN_ANSWER = "answer";
+
+    /**
+     * Given a list of answer variables and a set of queries, return a string that represents a query over
+     * the sources.
+     *
+     * @param answerVars The answer variables for the query.
+     * @param queries    The set of queries that should be translated to a query over the sources.
+     * @return String representation of the query.
+     */
+    @Override
+    public String translate(List<Variable> answerVars, Set<RewritableQuery> queries) {
+        return translate(answerVars, new Factorizer().factorize(answerVars, queries));
+    }
+
+    /**
+     * Given a list of answer variables and a stream of queries, write a query over the sources to the output.
+     * The union has to be factorized as a whole, so the stream is consumed before the query is written.
+     *
+     * @param answerVars The answer variables for the query.
+     * @param queries The stream of queries that should be translated to a query over the sources.
+     * @param out The output the query over the sources is written to.
+     * @throws IOException If the output cannot be written.
+     */
+    @Override
+    public void translate(List<Variable> answerVars, Stream<RewritableQuery> queries, Appendable out)
+            throws IOException {
+        out.append(translate(answerVars, queries.collect(Collectors.toSet())));
+    }
+
+    /**
+     * Given a list of answer variables and a factorized union of queries, return a string that represents a query over
+     * the sources.
+     * The answer variables of the leaves must be named after the given answer variables, as done by
+     * {@link Factorizer#factorize(List, Set)}.
+     *
+     * @param answerVars The answer variables for the query.
+     * @param q The factorized union of queries.
+     * @return String representation of the query.
+     */
+    public String translate(List<Variable> answerVars, FactorizedQuery q) {
+        return nodeToCypher(answerVars, q, Collections.emptySet(), new AtomicInteger(), true);
+    }
+
+    /**
+     * Translate a node of a factorized union to Cypher.
+     *
+     * @param answerVars The answer variables for the query.
+     * @param node The node to be translated.
+     * @param bound The names of the variables that are matched above the node.
+     * @param variableCounter The counter for the names of relationships and nodes, shared by the whole query.
+     * @param outermost True if the node is the root, false if it is translated to a subquery.
+     * @return A string representation of the node in Cypher.
+     */
+    private String nodeToCypher(List<Variable> answerVars, FactorizedQuery node, Set<String> bound,
+                                AtomicInteger variableCounter, boolean outermost) {
+        Set<String> matches = new LinkedHashSet<>();
+        Set<String> dependencies = new LinkedHashSet<>();
+        for (RewritableAtom atom : node.getAtoms()) {
+            CypherTranslator.atomToCypher(atom, variableCounter, matches, dependencies);
+        }
+        List<String> clauses = new LinkedList<>(matches);
+        if (dependencies.size() > 0) {
+            clauses.add("where " + String.join(" and ", dependencies));
+        }
+        if (!node.isLeaf()) {
+            Set<String> scope = new HashSet<>(bound);
+            scope.addAll(variables(node));
+            List<String> branches = new LinkedList<>();
+            for (FactorizedQuery b : node.getBranches()) {
+                // import the variables of the match that the branch refers to
+                List<String> imports = scope.stream()
+                        .filter(variablesBelow(b)::contains)
+                        .sorted()
+                        .collect(Collectors.toList());
+                branches.add((imports.isEmpty() ? "" : "with " + String.join(", ", imports) + "\n") +
+                        nodeToCypher(answerVars, b, scope, variableCounter, false));
+            }
+            clauses.add("call {\n" + String.join("\nunion\n", branches) + "\n}");
+        }
+        clauses.add(returnClause(answerVars, node, outermost));
+        return String.join("\n", clauses);
+    }
+
+    /**
+     * Get the return clause of a node.
+     *
+     * @param answerVars The answer variables for the query.
+     * @param node The node.
+     * @param outermost True if the node is the root, false if it is translated to a subquery.
+     * @return The return clause.
+     */
+    private String returnClause(List<Variable> answerVars, FactorizedQuery node, boolean outermost) {
+        if (answerVars.size() == 0) {
+            return outermost ? "return distinct 1" :
+                    "return " + (node.isLeaf() ? "1 as " + BOOLEAN_ANSWER : BOOLEAN_ANSWER);
+        }
+        return (outermost ? "return distinct " : "return ") + IntStream.range(0, answerVars.size())
+                .mapToObj(i -> {
+                    String column = ANSWER_PREFIX + answerVars.get(i).getName();
+                    String value = node.isLeaf() ? node.getHead().get(i).getName() : column;
+                    if (outermost) {
+                        return value + " as " + answerVars.get(i).getName();
+                    }
+                    return node.isLeaf() ? value + " as " + column : column;
+                })
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Get the names of the variables of the atoms of a node.
+     * Unbound variables occur in a single atom, so they are never referred to by another node.
+     *
+     * @param node The node.
+     * @return Set of names.
+     */
+    private static Set<String> variables(FactorizedQuery node) {
+        Set<String> variables = node.getAtoms().stream()
+                .flatMap(a -> a.getTerms().stream())
+                .filter(t -> !(t instanceof UnboundVariable))
+                .map(Term::getName)
+                .collect(Collectors.toSet());
+        if (node.isLeaf()) {
+            variables.addAll(node.getHead().stream().map(Variable::getName).collect(Collectors.toSet()));
+        }
+        return variables;
+    }
+
+    /**
+     * Get the names of the variables of a node and all nodes below it.
+     *
+     * @param node The node.
+     * @return Set of names.
+     */
+    private static Set<String> variablesBelow(FactorizedQuery node) {
+        Set<String> variables = variables(node);
+        for (FactorizedQuery b : node.getBranches()) {
+            variables.addAll(variablesBelow(b));
+        }
+        return variables;
+    }
+}
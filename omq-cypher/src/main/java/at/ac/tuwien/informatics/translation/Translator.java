@@ -3,8 +3,10 @@ package at.ac.tuwien.informatics.translation;
 import at.ac.tuwien.informatics.structure.query.RewritableQuery;
 import at.ac.tuwien.informatics.structure.query.Variable;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * This interface represents translators for our query language to a graph query language
@@ -24,4 +26,16 @@ public interface Translator {
      */
     String translate(List<Variable> answerVars, Set<RewritableQuery> queries);
 
+    /**
+     * Given a list of answer variables and a stream of queries, write a query over the sources to the output.
+     * Each query is translated and written as soon as the stream emits it, so the union of queries does not need to be
+     * held in memory.
+     *
+     * @param answerVars The answer variables for the query.
+     * @param queries The stream of queries that should be translated to a query over the sources.
+     * @param out The output the query over the sources is written to.
+     * @throws IOException If the output cannot be written.
+     */
+    void translate(List<Variable> answerVars, Stream<RewritableQuery> queries, Appendable out) throws IOException;
+
 }
@@ -0,0 +1,240 @@
+package at.ac.tuwien.informatics.cache;
+
+import at.ac.tuwien.informatics.reformulation.DisjunctiveRewriterImpl;
+import at.ac.tuwien.informatics.reformulation.RewriterImpl;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import at.ac.tuwien.informatics.structure.query.*;
+import at.ac.tuwien.informatics.translation.CypherTranslator;
+import at.ac.tuwien.informatics.translation.Translator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDiskRewritingCache {
+
+    private static final String MODE = new RewriterImpl().getMode();
+
+    @Test
+    public void testRoundTrip(@TempDir File tmp) throws OWLOntologyCreationException, NotOWL2QLException,
+            IOException {
+        java.nio.file.Path dir = tmp.toPath();
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/paths2.owl");
+
+        // q():-A(x),r*(x,y),B(y)
+        InputQuery q = new InputQuery(new LinkedList<>(),
+                new HashSet<>(Arrays.asList(
+                        new Conceptname(o.getClassMap().get("A"), new Variable("x")),
+                        new Path(new LinkedList<>(Collections.singleton(
+                                new ArbitraryLengthPathElement(
+                                        new HashSet<>(Collections.singleton(o.getPropertyMap().get("r")))))),
+                                new Variable("x"), new Variable("y")),
+                        new Conceptname(o.getClassMap().get("B"), new Variable("y"))
+                )));
+        Set<RewritableQuery> Q = new RewriterImpl().rewrite(q, o);
+        Translator translator = new CypherTranslator();
+        String cypher = translator.translate(q.getHead(), Q);
+
+        DiskRewritingCache cache = new DiskRewritingCache(dir);
+        assertNull(cache.get(o, q, MODE));
+        cache.put(o, q, MODE, new CachedRewriting(Q, cypher));
+
+        // read with a new cache and a new ontology object
+        Ontology o2 = new Ontology(resourcesDirectory.getAbsolutePath() + "/paths2.owl");
+        CachedRewriting cached = new DiskRewritingCache(dir).get(o2, q, MODE);
+        assertNotNull(cached);
+        assertEquals(Q, cached.getQueries());
+        assertEquals(Q.stream().map(RewritableQuery::toString).collect(Collectors.toSet()),
+                cached.getQueries().stream().map(RewritableQuery::toString).collect(Collectors.toSet()));
+        assertEquals(cypher, cached.getTranslation());
+
+        // the order of the atoms does not matter
+        InputQuery qp = new InputQuery(new LinkedList<>(),
+                new LinkedHashSet<>(new LinkedList<>(q.getBody())));
+        assertNotNull(cache.get(o, qp, MODE));
+
+        // another query is not in the cache
+        InputQuery q2 = new InputQuery(new LinkedList<>(),
+                new HashSet<>(Collections.singleton(new Conceptname(o.getClassMap().get("A"), new Variable("x")))));
+        assertNull(cache.get(o, q2, MODE));
+    }
+
+    @Test
+    public void testRolesRoundTrip(@TempDir File tmp) throws OWLOntologyCreationException, NotOWL2QLException,
+            IOException {
+        java.nio.file.Path dir = tmp.toPath();
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university2.ttl");
+
+        // q(x):-supervisedBy(x,y), Professor(y)
+        InputQuery q = new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Arrays.asList(
+                        new Roles(new HashSet<>(Collections.singleton(
+                                o.getPropertyMap().get("isSupervisedBy"))),
+                                new Variable("x"), new Variable("y")),
+                        new Conceptname(o.getClassMap().get("Professor"), new Variable("y"))
+                )));
+        Set<RewritableQuery> Q = new RewriterImpl().rewrite(q, o);
+
+        DiskRewritingCache cache = new DiskRewritingCache(dir);
+        cache.put(o, q, MODE, new CachedRewriting(Q, null));
+        CachedRewriting cached = cache.get(o, q, MODE);
+        assertEquals(Q, cached.getQueries());
+        assertNull(cached.getTranslation());
+
+        // r(x,y) and r-(y,x) are the same query
+        InputQuery qp = new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Arrays.asList(
+                        new Roles(new HashSet<>(Collections.singleton(
+                                o.getPropertyMap().get("isSupervisedBy").getInverseProperty())),
+                                new Variable("y"), new Variable("x")),
+                        new Conceptname(o.getClassMap().get("Professor"), new Variable("y"))
+                )));
+        assertNotNull(cache.get(o, qp, MODE));
+    }
+
+    @Test
+    public void testEviction(@TempDir File tmp) throws OWLOntologyCreationException, NotOWL2QLException,
+            IOException, OWLOntologyStorageException {
+        java.nio.file.Path dir = tmp.toPath();
+        // copy the ontology
+        File resourcesDirectory = new File("src/test/resources");
+        java.nio.file.Path file = dir.resolve("paths2.owl");
+        Files.copy(new File(resourcesDirectory, "paths2.owl").toPath(), file);
+        Ontology o = new Ontology(file.toString());
+
+        InputQuery q = new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Collections.singleton(new Conceptname(o.getClassMap().get("A"), new Variable("x")))));
+        DiskRewritingCache cache = new DiskRewritingCache(dir.resolve("cache"));
+        cache.put(o, q, MODE, new CachedRewriting(new RewriterImpl().rewrite(q, o), null));
+        assertTrue(Files.isDirectory(dir.resolve("cache").resolve(o.getFingerprint())));
+
+        // change the ontology
+        OWLOntology ontology = o.getOntology();
+        OWLAxiom axiom = ontology.getAxioms(AxiomType.SUBCLASS_OF).iterator().next();
+        ontology.remove(axiom);
+        ontology.getOWLOntologyManager().saveOntology(ontology, IRI.create(file.toUri()));
+        Ontology o2 = new Ontology(file.toString());
+        assertNotEquals(o.getFingerprint(), o2.getFingerprint());
+
+        // the entries of the previous version are kept, since it may still be in use
+        DiskRewritingCache cache2 = new DiskRewritingCache(dir.resolve("cache"));
+        assertNull(cache2.get(o2, q, MODE));
+        cache2.put(o2, q, MODE, new CachedRewriting(new RewriterImpl().rewrite(q, o2), null));
+        assertNotNull(cache.get(o, q, MODE));
+
+        // until they are evicted
+        assertEquals(1, cache2.evictOtherVersions(Collections.singleton(o2)));
+        assertFalse(Files.exists(dir.resolve("cache").resolve(o.getFingerprint())));
+        assertNotNull(cache2.get(o2, q, MODE));
+        assertEquals(0, cache2.evictOtherVersions(Collections.singleton(o2)));
+    }
+
+    @Test
+    public void testModes(@TempDir File tmp) throws OWLOntologyCreationException, NotOWL2QLException, IOException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/paths2.owl");
+        InputQuery q = new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Collections.singleton(new Conceptname(o.getClassMap().get("A"), new Variable("x")))));
+
+        // rewritings of a disjunctive rewriter are not returned for the standard rewriter, and vice versa
+        DiskRewritingCache cache = new DiskRewritingCache(tmp.toPath());
+        String disjunctive = new DisjunctiveRewriterImpl().getMode();
+        assertNotEquals(MODE, disjunctive);
+        cache.put(o, q, disjunctive, new CachedRewriting(new DisjunctiveRewriterImpl().rewrite(q, o), null));
+        assertNull(cache.get(o, q, MODE));
+        assertNotNull(cache.get(o, q, disjunctive));
+    }
+
+    @Test
+    public void testDamagedEntries(@TempDir File tmp) throws OWLOntologyCreationException, NotOWL2QLException,
+            IOException {
+        java.nio.file.Path dir = tmp.toPath();
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/paths2.owl");
+        InputQuery q = new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Collections.singleton(new Conceptname(o.getClassMap().get("A"), new Variable("x")))));
+        DiskRewritingCache cache = new DiskRewritingCache(dir);
+
+        // an index out of the table of Strings, a negative count, and a String longer than the entry
+        byte[][] damages = {{0, 1, 1, 7}, {(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x0f},
+                {1, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x07}};
+        for (byte[] damage : damages) {
+            cache.put(o, q, MODE, new CachedRewriting(new RewriterImpl().rewrite(q, o), null));
+            java.nio.file.Path entry;
+            try (Stream<java.nio.file.Path> files = Files.walk(dir)) {
+                entry = files.filter(f -> f.toString().endsWith(".gz")).findFirst().orElseThrow();
+            }
+            damage(entry, damage);
+            assertNull(cache.get(o, q, MODE));
+            assertFalse(Files.exists(entry));
+        }
+    }
+
+    @Test
+    public void testVersionsInOneProcess(@TempDir File tmp) throws OWLOntologyCreationException, NotOWL2QLException,
+            IOException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/paths2.owl");
+        InputQuery q = new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Collections.singleton(new Conceptname(o.getClassMap().get("A"), new Variable("x")))));
+        DiskRewritingCache cache = new DiskRewritingCache(tmp.toPath());
+        cache.put(o, q, MODE, new CachedRewriting(new RewriterImpl().rewrite(q, o), null));
+
+        // a change of the ontology keeps the entries of the loaded version
+        String fingerprint = o.getFingerprint();
+        OWLAxiom axiom = o.getOntology().getAxioms(AxiomType.SUBCLASS_OF).iterator().next();
+        o.removeAxiom(axiom);
+        cache.put(o, q, MODE, new CachedRewriting(new RewriterImpl().rewrite(q, o), null));
+        assertTrue(Files.exists(tmp.toPath().resolve(fingerprint)));
+
+        // after the change is undone, the entries of that version can be stored again, also after they have been
+        // evicted
+        assertEquals(1, cache.evictOtherVersions(Collections.singleton(o)));
+        assertFalse(Files.exists(tmp.toPath().resolve(fingerprint)));
+        o.addAxiom(axiom);
+        assertEquals(fingerprint, o.getFingerprint());
+        cache.put(o, q, MODE, new CachedRewriting(new RewriterImpl().rewrite(q, o), null));
+        assertNotNull(cache.get(o, q, MODE));
+    }
+
+    private static void damage(java.nio.file.Path entry, byte[] damage) throws IOException {
+        byte[] bytes;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(entry))) {
+            bytes = in.readAllBytes();
+        }
+        // keep the magic number, the version and the key, and replace the rest
+        int i = 8;
+        int length = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = bytes[i++] & 0xff;
+            length |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                break;
+            }
+        }
+        ByteArrayOutputStream damaged = new ByteArrayOutputStream();
+        damaged.write(bytes, 0, i + length);
+        damaged.write(damage);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(entry))) {
+            damaged.writeTo(out);
+        }
+    }
+}
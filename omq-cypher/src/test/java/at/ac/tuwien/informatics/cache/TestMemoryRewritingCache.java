@@ -0,0 +1,110 @@
+package at.ac.tuwien.informatics.cache;
+
+import at.ac.tuwien.informatics.reformulation.DisjunctiveRewriterImpl;
+import at.ac.tuwien.informatics.reformulation.RewriterImpl;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import at.ac.tuwien.informatics.structure.query.*;
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestMemoryRewritingCache {
+
+    private static final String MODE = new RewriterImpl().getMode();
+
+    @Test
+    public void testCachingRewriter() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+
+        CachingRewriter rewriter = new CachingRewriter(new RewriterImpl(), new MemoryRewritingCache(1 << 20));
+        // q(x):-teaches(x,y), Course(y)
+        InputQuery q = new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Arrays.asList(
+                        new Roles(new HashSet<>(Collections.singleton(o.getPropertyMap().get("teaches"))),
+                                new Variable("x"), new Variable("y")),
+                        new Conceptname(o.getClassMap().get("Course"), new Variable("y"))
+                )));
+
+        Set<RewritableQuery> Q = rewriter.rewrite(q, o);
+        assertEquals(new RewriterImpl().rewrite(q, o), Q);
+        assertSame(Q, rewriter.rewrite(q, o));
+
+        // the same query with another ontology object is not a hit
+        Ontology o2 = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+        assertEquals(Q, rewriter.rewrite(q, o2));
+
+        CacheStatistics statistics = rewriter.getCache().getStatistics();
+        assertEquals(1, statistics.getHits());
+        assertEquals(2, statistics.getMisses());
+        assertEquals(2, statistics.getEntries());
+        assertEquals(0, statistics.getEvictions());
+
+        rewriter.getCache().invalidate(o2);
+        assertEquals(1, rewriter.getCache().getStatistics().getEntries());
+    }
+
+    @Test
+    public void testEviction() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+
+        RewriterImpl rewriter = new RewriterImpl();
+        InputQuery q1 = new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Collections.singleton(new Conceptname(o.getClassMap().get("Course"), new Variable("x")))));
+        InputQuery q2 = new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Collections.singleton(new Conceptname(o.getClassMap().get("Professor"), new Variable("x")))));
+        Set<RewritableQuery> Q1 = rewriter.rewrite(q1, o);
+        Set<RewritableQuery> Q2 = rewriter.rewrite(q2, o);
+
+        // rewritings larger than the cache are not stored
+        MemoryRewritingCache cache = new MemoryRewritingCache(1);
+        cache.put(o, q1, MODE, Q1);
+        assertEquals(0, cache.getStatistics().getEntries());
+
+        cache = new MemoryRewritingCache(1 << 20);
+        cache.put(o, q1, MODE, Q1);
+        long size1 = cache.getStatistics().getBytes();
+        cache.put(o, q2, MODE, Q2);
+        long size2 = cache.getStatistics().getBytes() - size1;
+
+        // room for the larger of the two rewritings, but not for both
+        cache = new MemoryRewritingCache(Math.max(size1, size2) + Math.min(size1, size2) - 1);
+        cache.put(o, q1, MODE, Q1);
+        cache.put(o, q2, MODE, Q2);
+        assertEquals(1, cache.getStatistics().getEvictions());
+        assertNull(cache.get(o, q1, MODE));
+        assertEquals(Q2, cache.get(o, q2, MODE));
+
+        // a hit makes an entry the most recently used one
+        cache.put(o, q1, MODE, Q1);
+        assertEquals(2, cache.getStatistics().getEvictions());
+        assertNotNull(cache.get(o, q1, MODE));
+        assertTrue(cache.getStatistics().getBytes() <= Math.max(size1, size2) + Math.min(size1, size2) - 1);
+    }
+
+    @Test
+    public void testModes() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+        InputQuery q = new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Collections.singleton(new Conceptname(o.getClassMap().get("Professor"), new Variable("x")))));
+
+        // rewriters of different modes sharing a cache do not see each other's rewritings
+        MemoryRewritingCache cache = new MemoryRewritingCache(1 << 20);
+        CachingRewriter standard = new CachingRewriter(new RewriterImpl(), cache);
+        CachingRewriter disjunctive = new CachingRewriter(new DisjunctiveRewriterImpl(), cache);
+        assertEquals(new RewriterImpl().rewrite(q, o), standard.rewrite(q, o));
+        assertEquals(new DisjunctiveRewriterImpl().rewrite(q, o), disjunctive.rewrite(q, o));
+        assertEquals(0, cache.getStatistics().getHits());
+        assertEquals(2, cache.getStatistics().getEntries());
+    }
+}
@@ -0,0 +1,73 @@
+package at.ac.tuwien.informatics.client;
+
+import at.ac.tuwien.informatics.reformulation.RewriterImpl;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestBatchRewriter {
+
+    @Test
+    public void testBatch(@TempDir Path output) throws OWLOntologyCreationException, NotOWL2QLException, IOException,
+            InterruptedException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+        Path queries = output.resolve("queries.txt");
+        Files.write(queries, Arrays.asList(
+                "# queries over the university ontology",
+                "q(x):-teaches(x,y),Course(y)",
+                "",
+                "q(x):-Unknown(x)",
+                "q(x):-Assistant_Prof(x)"), StandardCharsets.UTF_8);
+
+        List<BatchRewriter.Result> results = new BatchRewriter(o, new RewriterImpl(), null, 2, Duration.ofSeconds(60))
+                .run(BatchRewriter.readQueries(queries), output.resolve("out"));
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSuccessful());
+        assertEquals("q1", results.get(0).getName());
+        assertTrue(results.get(0).getQueries() > 0);
+        assertFalse(results.get(1).isSuccessful());
+        assertTrue(results.get(2).isSuccessful());
+        assertFalse(results.get(0).isTimedOut());
+
+        // one Cypher file per rewritten query, and a line of timings per query
+        assertTrue(Files.readAllLines(output.resolve("out/q1.cypher")).stream().anyMatch(l -> l.startsWith("match")));
+        assertFalse(Files.exists(output.resolve("out/q2.cypher")));
+        assertTrue(Files.exists(output.resolve("out/q3.cypher")));
+        assertEquals(4, Files.readAllLines(output.resolve("out").resolve(BatchRewriter.TIMINGS)).size());
+    }
+
+    @Test
+    public void testTimeout(@TempDir Path output) throws OWLOntologyCreationException, NotOWL2QLException,
+            IOException, InterruptedException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+
+        // without a budget, the query is marked as timed out, and the rest of the batch goes on
+        List<BatchRewriter.Result> results = new BatchRewriter(o, new RewriterImpl(), null, 1, Duration.ZERO)
+                .run(Arrays.asList("q(x):-teaches(x,y),Course(y)", "q(x):-Unknown(x)"), output);
+        assertTrue(results.get(0).isTimedOut());
+        assertFalse(results.get(0).isSuccessful());
+        assertFalse(results.get(1).isTimedOut());
+        assertFalse(Files.exists(output.resolve("q1.cypher")));
+
+        List<String> timings = Files.readAllLines(output.resolve(BatchRewriter.TIMINGS));
+        assertTrue(timings.get(0).contains(",timedOut,"));
+        assertTrue(timings.get(1).contains(",true,"));
+        assertTrue(timings.get(2).contains(",false,"));
+    }
+}
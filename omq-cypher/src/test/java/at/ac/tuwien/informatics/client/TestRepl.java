@@ -0,0 +1,89 @@
+package at.ac.tuwien.informatics.client;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestRepl {
+
+    @Test
+    public void testSession(@TempDir Path output) throws IOException {
+        File resourcesDirectory = new File("src/test/resources");
+        Path cypher = output.resolve("q.cypher");
+        String script = String.join("\n",
+                ":load " + resourcesDirectory.getAbsolutePath() + "/university.owl",
+                "q(x):-teaches(x,y),Course(y)",
+                ":write " + cypher,
+                "q(x):-Course(y),teaches(x,y)",
+                "q(x):-Unknown(x)",
+                ":stats",
+                ":frobnicate",
+                ":quit",
+                "q(x):-Assistant_Prof(x)");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Repl repl = new Repl(new BufferedReader(new StringReader(script)), new PrintStream(bytes, true, "UTF-8"), null,
+                Duration.ofSeconds(60));
+        repl.run();
+        String out = bytes.toString("UTF-8");
+
+        // the second query is the first with the atoms in a different order, so it is answered from the cache
+        assertTrue(repl.getLast().isCached());
+        assertTrue(out.contains("loaded university"));
+        assertTrue(out.contains("Your input query was invalid"));
+        assertTrue(out.contains("cache: hits=1"));
+        assertTrue(out.contains("unknown command :frobnicate"));
+        assertEquals(repl.getLast().getTranslation(), new String(Files.readAllBytes(cypher), StandardCharsets.UTF_8));
+
+        // the session ends at :quit
+        assertFalse(out.contains("Assistant_Prof"));
+    }
+
+    @Test
+    public void testWithoutOntology() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Repl repl = new Repl(new BufferedReader(new StringReader("q(x):-A(x)\n:cypher")),
+                new PrintStream(bytes, true, "UTF-8"), null, Duration.ofSeconds(60));
+        repl.run();
+        String out = bytes.toString("UTF-8");
+        assertNull(repl.getLast());
+        assertTrue(out.contains("load an ontology first"));
+        assertTrue(out.contains("no query has been rewritten yet"));
+    }
+
+    @Test
+    public void testTimeout() throws IOException {
+        File resourcesDirectory = new File("src/test/resources");
+        String script = String.join("\n",
+                ":load " + resourcesDirectory.getAbsolutePath() + "/university.owl",
+                "q(x):-teaches(x,y),Course(y)",
+                ":timeout",
+                ":timeout soon",
+                ":timeout 60",
+                "q(x):-teaches(x,y),Course(y)");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Repl repl = new Repl(new BufferedReader(new StringReader(script)), new PrintStream(bytes, true, "UTF-8"), null,
+                Duration.ZERO);
+        repl.run();
+        String out = bytes.toString("UTF-8");
+
+        // without a budget the query is not rewritten, and the incomplete rewriting is not cached
+        assertTrue(out.contains("the rewriting did not complete (TIME_LIMIT)"));
+        assertTrue(out.contains("the time budget of a rewriting is 0 s"));
+        assertTrue(out.contains("usage: :timeout <seconds>"));
+        assertTrue(out.contains("the time budget of a rewriting is 60 s"));
+        assertNotNull(repl.getLast());
+        assertFalse(repl.getLast().isCached());
+    }
+}
@@ -0,0 +1,101 @@
+package at.ac.tuwien.informatics.client;
+
+import at.ac.tuwien.informatics.cache.CachedRewriting;
+import at.ac.tuwien.informatics.cache.DiskRewritingCache;
+import at.ac.tuwien.informatics.cache.MemoryRewritingCache;
+import at.ac.tuwien.informatics.reformulation.CancellationToken;
+import at.ac.tuwien.informatics.reformulation.RewriterImpl;
+import at.ac.tuwien.informatics.reformulation.RewritingBudget;
+import at.ac.tuwien.informatics.reformulation.RewritingResult;
+import at.ac.tuwien.informatics.structure.InputQueryBuilder;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.InvalidQueryException;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import at.ac.tuwien.informatics.structure.query.InputQuery;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestRewritingPipeline {
+
+    @Test
+    public void testSources(@TempDir File tmp) throws OWLOntologyCreationException, NotOWL2QLException,
+            InvalidQueryException, IOException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+        InputQuery q = InputQueryBuilder.parse("q(x):-teaches(x,y),Course(y)", o);
+        RewriterImpl rewriter = new RewriterImpl();
+        DiskRewritingCache diskCache = new DiskRewritingCache(tmp.toPath());
+
+        RewritingPipeline pipeline = new RewritingPipeline(rewriter, new MemoryRewritingCache(1 << 20), diskCache);
+        RewritingPipeline.Outcome rewritten = pipeline.rewrite(o, q, RewritingBudget.unlimited(),
+                new CancellationToken());
+        assertTrue(rewritten.isComplete());
+        assertEquals(RewritingPipeline.Source.REWRITER, rewritten.getSource());
+        assertTrue(rewritten.getUnion() >= rewritten.getQueries().size());
+        assertNotNull(rewritten.getTranslation());
+        assertNull(rewritten.getStoreError());
+
+        RewritingPipeline.Outcome cached = pipeline.rewrite(o, q, RewritingBudget.unlimited(),
+                new CancellationToken());
+        assertEquals(RewritingPipeline.Source.MEMORY_CACHE, cached.getSource());
+        assertEquals(-1, cached.getUnion());
+        // the translation is cached with the queries
+        assertSame(rewritten.getTranslation(), cached.getTranslation());
+        assertEquals(0, cached.getTranslateNanos());
+
+        // a new pipeline finds the rewriting on disk
+        cached = new RewritingPipeline(rewriter, null, diskCache).rewrite(o, q, RewritingBudget.unlimited(),
+                new CancellationToken());
+        assertEquals(RewritingPipeline.Source.DISK_CACHE, cached.getSource());
+        assertEquals(rewritten.getQueries(), cached.getQueries());
+        assertEquals(rewritten.getTranslation(), cached.getTranslation());
+    }
+
+    @Test
+    public void testEntryWithoutTranslation(@TempDir File tmp) throws OWLOntologyCreationException,
+            NotOWL2QLException, InvalidQueryException, IOException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+        InputQuery q = InputQueryBuilder.parse("q(x):-Assistant_Prof(x)", o);
+        RewriterImpl rewriter = new RewriterImpl();
+        DiskRewritingCache diskCache = new DiskRewritingCache(tmp.toPath());
+        RewritingPipeline.Outcome rewritten = new RewritingPipeline(rewriter, null, null)
+                .rewrite(o, q, RewritingBudget.unlimited(), new CancellationToken());
+        diskCache.put(o, q, rewriter.getMode(), new CachedRewriting(rewritten.getQueries(), null));
+
+        // the entry is translated, and stored again with its translation
+        RewritingPipeline.Outcome cached = new RewritingPipeline(rewriter, null, diskCache)
+                .rewrite(o, q, RewritingBudget.unlimited(), new CancellationToken());
+        assertEquals(RewritingPipeline.Source.DISK_CACHE, cached.getSource());
+        assertEquals(rewritten.getTranslation(), cached.getTranslation());
+        assertEquals(rewritten.getTranslation(), diskCache.get(o, q, rewriter.getMode()).getTranslation());
+    }
+
+    @Test
+    public void testCancelled(@TempDir File tmp) throws OWLOntologyCreationException, NotOWL2QLException,
+            InvalidQueryException, IOException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+        InputQuery q = InputQueryBuilder.parse("q(x):-teaches(x,y),Course(y)", o);
+        RewriterImpl rewriter = new RewriterImpl();
+        MemoryRewritingCache memoryCache = new MemoryRewritingCache(1 << 20);
+        DiskRewritingCache diskCache = new DiskRewritingCache(tmp.toPath());
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+
+        // an incomplete rewriting is neither translated nor cached
+        RewritingPipeline.Outcome outcome = new RewritingPipeline(rewriter, memoryCache, diskCache)
+                .rewrite(o, q, RewritingBudget.unlimited(), token);
+        assertFalse(outcome.isComplete());
+        assertEquals(RewritingResult.Status.CANCELLED, outcome.getStatus());
+        assertNull(outcome.getTranslation());
+        assertNull(memoryCache.get(o, q, rewriter.getMode() + RewritingPipeline.PRUNED));
+        assertNull(diskCache.get(o, q, rewriter.getMode()));
+    }
+}
@@ -0,0 +1,102 @@
+package at.ac.tuwien.informatics.client;
+
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestRewritingServer {
+
+    private RewritingServer server;
+
+    @BeforeEach
+    public void start() throws OWLOntologyCreationException, NotOWL2QLException, IOException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+        server = new RewritingServer(0, Collections.singletonMap("university", o), 2, 4, 1 << 20, null,
+                Duration.ofSeconds(60));
+        server.start();
+    }
+
+    @AfterEach
+    public void stop() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testTranslate() throws IOException {
+        HttpURLConnection c = post("/translate?ontology=university", "q(x):-teaches(x,y),Course(y)");
+        assertEquals(200, c.getResponseCode());
+        assertEquals("miss", c.getHeaderField(RewritingServer.CACHE_HEADER));
+        assertTrue(read(c.getInputStream()).startsWith("match"));
+
+        // the same query again, with the atoms in a different order, is answered from the cache
+        c = post("/translate", "q(x):-Course(y),teaches(x,y)");
+        assertEquals(200, c.getResponseCode());
+        assertEquals("hit", c.getHeaderField(RewritingServer.CACHE_HEADER));
+        assertEquals(1, server.getCache().getStatistics().getHits());
+    }
+
+    @Test
+    public void testRewrite() throws IOException {
+        HttpURLConnection c = post("/rewrite", "q(x):-Assistant_Prof(x)");
+        assertEquals(200, c.getResponseCode());
+        int queries = Integer.parseInt(c.getHeaderField(RewritingServer.QUERIES_HEADER));
+        assertTrue(queries > 0);
+        assertEquals(queries, read(c.getInputStream()).split("\n").length);
+    }
+
+    @Test
+    public void testErrors() throws IOException {
+        assertEquals(400, post("/translate", "q(x):-Unknown(x)").getResponseCode());
+        assertEquals(404, post("/translate?ontology=vvr", "q(x):-Assistant_Prof(x)").getResponseCode());
+        assertEquals(405, get("/translate").getResponseCode());
+        char[] padding = new char[RewritingServer.MAX_BODY_BYTES];
+        Arrays.fill(padding, ' ');
+        assertEquals(413, post("/translate", "q(x):-Assistant_Prof(x)" + new String(padding)).getResponseCode());
+
+        HttpURLConnection c = get("/ontologies");
+        assertEquals(200, c.getResponseCode());
+        assertEquals("university\n", read(c.getInputStream()));
+        assertEquals(200, get("/stats").getResponseCode());
+    }
+
+    private HttpURLConnection get(String path) throws IOException {
+        return (HttpURLConnection) url(path).openConnection();
+    }
+
+    private HttpURLConnection post(String path, String body) throws IOException {
+        HttpURLConnection c = (HttpURLConnection) url(path).openConnection();
+        c.setRequestMethod("POST");
+        c.setDoOutput(true);
+        try (OutputStream out = c.getOutputStream()) {
+            out.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return c;
+    }
+
+    private URL url(String path) throws IOException {
+        return new URL("http://localhost:" + server.getAddress().getPort() + path);
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try (InputStream i = in) {
+            return new String(i.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
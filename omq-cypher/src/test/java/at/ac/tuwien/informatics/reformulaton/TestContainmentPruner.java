@@ -0,0 +1,106 @@
+package at.ac.tuwien.informatics.reformulaton;
+
+import at.ac.tuwien.informatics.generated.QLexer;
+import at.ac.tuwien.informatics.generated.QParser;
+import at.ac.tuwien.informatics.reformulation.ContainmentPruner;
+import at.ac.tuwien.informatics.reformulation.RewriterImpl;
+import at.ac.tuwien.informatics.structure.InputQueryBuilder;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import at.ac.tuwien.informatics.structure.query.*;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestContainmentPruner {
+
+    @Test
+    public void testContainsExtraAtom() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/subroles.owl");
+        ContainmentPruner pruner = new ContainmentPruner();
+
+        // q(x):-r(x,y) contains q(x):-r(x,y),A(y)
+        RewritableQuery general = new RewritableQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Collections.singleton(
+                        new Roles(Collections.singleton(o.getPropertyMap().get("r")),
+                                new Variable("x"), new UnboundVariable("y")))));
+        RewritableQuery specific = new RewritableQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Arrays.asList(
+                        new Roles(Collections.singleton(o.getPropertyMap().get("r")),
+                                new Variable("x"), new Variable("y")),
+                        new Conceptname(o.getClassMap().get("A"), new Variable("y")))));
+
+        assertTrue(pruner.contains(general, specific));
+        assertFalse(pruner.contains(specific, general));
+        assertEquals(Collections.singleton(general), pruner.prune(new HashSet<>(Arrays.asList(general, specific))));
+    }
+
+    @Test
+    public void testContainsRoles() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/subroles.owl");
+        ContainmentPruner pruner = new ContainmentPruner();
+
+        // q(x,y):-(r|s)(x,y) contains q(x,y):-r-(y,x) and q(x,y):-r*(x,y) contains q(x,y):-r(x,y)
+        RewritableQuery roles = new RewritableQuery(new LinkedList<>(Arrays.asList(new Variable("x"),
+                new Variable("y"))),
+                new HashSet<>(Collections.singleton(
+                        new Roles(new HashSet<>(Arrays.asList(o.getPropertyMap().get("r"), o.getPropertyMap().get("s"))),
+                                new Variable("x"), new Variable("y")))));
+        RewritableQuery inverse = new RewritableQuery(new LinkedList<>(Arrays.asList(new Variable("x"),
+                new Variable("y"))),
+                new HashSet<>(Collections.singleton(
+                        new Roles(Collections.singleton(o.getPropertyMap().get("r").getInverseProperty()),
+                                new Variable("y"), new Variable("x")))));
+        RewritableQuery path = new RewritableQuery(new LinkedList<>(Arrays.asList(new Variable("x"),
+                new Variable("y"))),
+                new HashSet<>(Collections.singleton(
+                        new ArbitraryLengthAtom(Collections.singleton(o.getPropertyMap().get("r")),
+                                new Variable("x"), new Variable("y")))));
+        RewritableQuery loop = new RewritableQuery(new LinkedList<>(Arrays.asList(new Variable("x"),
+                new Variable("x"))),
+                new HashSet<>(Collections.singleton(
+                        new Conceptname(o.getClassMap().get("A"), new Variable("x")))));
+
+        assertTrue(pruner.contains(roles, inverse));
+        assertFalse(pruner.contains(inverse, roles));
+        assertTrue(pruner.contains(path, inverse));
+        assertFalse(pruner.contains(path, roles));
+        // paths of length zero
+        assertTrue(pruner.contains(path, loop));
+        assertFalse(pruner.contains(roles, loop));
+    }
+
+    @Test
+    public void testPruneUseCase() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/vvr.owl");
+        QParser parser = new QParser(new CommonTokenStream(new QLexer(CharStreams.fromString(
+                "q(x):-pedestrian(x),OF(y,x),HAS(y,z),pedestrian_moving(z),NEXT/NEXT*(y,yp)," +
+                        "HAS(yp,zp),pedestrian_stationary(zp)"))));
+        InputQuery q = (InputQuery) new InputQueryBuilder(o).visit(parser.query());
+        ContainmentPruner pruner = new ContainmentPruner();
+
+        Set<RewritableQuery> Q = new RewriterImpl().rewrite(q, o);
+        Set<RewritableQuery> Qp = pruner.prune(Q);
+
+        assertTrue(Qp.size() < Q.size());
+        assertTrue(Q.containsAll(Qp));
+        // every dropped query is contained in a query that has been kept
+        for (RewritableQuery qp : Q) {
+            assertTrue(Qp.stream().anyMatch(k -> pruner.contains(k, qp)));
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package at.ac.tuwien.informatics.reformulaton;
+
+import at.ac.tuwien.informatics.generated.QLexer;
+import at.ac.tuwien.informatics.generated.QParser;
+import at.ac.tuwien.informatics.reformulation.ContainmentPruner;
+import at.ac.tuwien.informatics.reformulation.DisjunctiveRewriterImpl;
+import at.ac.tuwien.informatics.reformulation.IncrementalRewriting;
+import at.ac.tuwien.informatics.reformulation.RewriterImpl;
+import at.ac.tuwien.informatics.structure.InputQueryBuilder;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import at.ac.tuwien.informatics.structure.query.*;
+import at.ac.tuwien.informatics.translation.CypherTranslator;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestDisjunctiveRewriterImpl {
+
+    @Test
+    public void testSameAnswersAsRewriterImpl() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university2.ttl");
+
+        // q(x):-supervisedBy(x,y), Professor(y)
+        InputQuery q = new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Arrays.asList(
+                        new Roles(new HashSet<>(Collections.singleton(
+                                o.getPropertyMap().get("isSupervisedBy"))),
+                                new Variable("x"), new Variable("y")),
+                        new Conceptname(o.getClassMap().get("Professor"), new Variable("y"))
+                )));
+
+        Set<RewritableQuery> Q = new RewriterImpl().rewrite(q, o);
+        Set<RewritableQuery> D = new DisjunctiveRewriterImpl().rewrite(q, o);
+
+        assertTrue(D.size() < Q.size());
+        assertTrue(D.stream().flatMap(qp -> qp.getBody().stream()).noneMatch(a -> a instanceof Conceptname));
+        assertEquivalent(Q, expand(D));
+    }
+
+    @Test
+    public void testUseCaseQuery() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/vvr.owl");
+
+        InputQuery q = parse("q(x):-pedestrian(x),OF(y,x),HAS(y,z),pedestrian_moving(z)", o);
+
+        Set<RewritableQuery> Q = new RewriterImpl().rewrite(q, o);
+        Set<RewritableQuery> D = new DisjunctiveRewriterImpl().rewrite(q, o);
+
+        // the subclasses of pedestrian and pedestrian_moving are not enumerated
+        assertTrue(D.size() * 4 <= Q.size(), D.size() + " vs " + Q.size());
+        assertEquivalent(new ContainmentPruner().prune(Q), new ContainmentPruner().prune(expand(D)));
+    }
+
+    @Test
+    public void testIncrementalSubclassAxiom() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university2.ttl");
+
+        RewriterImpl rewriter = new DisjunctiveRewriterImpl();
+        // q(x):-supervisedBy(x,y), Professor(y)
+        InputQuery q = new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Arrays.asList(
+                        new Roles(new HashSet<>(Collections.singleton(
+                                o.getPropertyMap().get("isSupervisedBy"))),
+                                new Variable("x"), new Variable("y")),
+                        new Conceptname(o.getClassMap().get("Professor"), new Variable("y"))
+                )));
+
+        IncrementalRewriting rewriting = new IncrementalRewriting(rewriter, q, o);
+        Set<RewritableQuery> Q = rewriter.rewrite(q, o);
+        assertEquals(Q, rewriting.getQueries());
+
+        // subclass axioms between concept names change the saturation of the concept atoms
+        List<OWLAxiom> axioms = new ArrayList<>(o.getOntology().getLogicalAxioms());
+        for (OWLAxiom I : axioms) {
+            assertTrue(o.removeAxiom(I));
+            rewriting.axiomRemoved(I);
+            assertEquals(rewriter.rewrite(q, o), rewriting.getQueries(), "removed " + I);
+
+            assertTrue(o.addAxiom(I));
+            rewriting.axiomAdded(I);
+            assertEquals(Q, rewriting.getQueries(), "added " + I);
+        }
+    }
+
+    @Test
+    public void testTranslation() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university2.ttl");
+
+        OWLClass professor = o.getClassMap().get("Professor");
+        Concepts c = new Concepts(new HashSet<>(Collections.singleton(professor)), new Variable("x")).saturate(o);
+        assertTrue(c.getNames().size() > 1);
+
+        RewritableQuery q = new RewritableQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Collections.singleton(c)));
+        String res = new CypherTranslator().translate(q.getHead(), Collections.singleton(q));
+
+        // a single branch, with a disjunction of labels
+        assertFalse(res.contains("union"));
+        assertTrue(res.contains("match (x)"));
+        assertTrue(res.contains("x:Professor or ") || res.contains(" or x:Professor"));
+    }
+
+    /**
+     * Parse a query over an ontology.
+     */
+    private static InputQuery parse(String query, Ontology o) {
+        QParser parser = new QParser(new CommonTokenStream(new QLexer(CharStreams.fromString(query))));
+        return (InputQuery) new InputQueryBuilder(o).visit(parser.query());
+    }
+
+    /**
+     * Replace each disjunction of concept names by each of its names, i.e., compute the union of conjunctive queries
+     * that is equivalent to the given queries.
+     */
+    private static Set<RewritableQuery> expand(Set<RewritableQuery> queries) {
+        Set<RewritableQuery> expanded = new HashSet<>();
+        for (RewritableQuery q : queries) {
+            List<Set<RewritableAtom>> bodies = new LinkedList<>(Collections.singleton(new HashSet<>()));
+            for (RewritableAtom a : q.getBody()) {
+                List<Set<RewritableAtom>> extended = new LinkedList<>();
+                for (Set<RewritableAtom> body : bodies) {
+                    if (a instanceof Concepts) {
+                        for (OWLClass c : ((Concepts) a).getNames()) {
+                            Set<RewritableAtom> b = new HashSet<>(body);
+                            b.add(new Conceptname(c, ((Concepts) a).getTerm()));
+                            extended.add(b);
+                        }
+                    } else {
+                        Set<RewritableAtom> b = new HashSet<>(body);
+                        b.add(a);
+                        extended.add(b);
+                    }
+                }
+                bodies = extended;
+            }
+            for (Set<RewritableAtom> body : bodies) {
+                expanded.add(new RewritableQuery(new LinkedList<>(q.getHead()), body));
+            }
+        }
+        return expanded;
+    }
+
+    /**
+     * Assert that each query of one union is contained in a query of the other union, and vice versa.
+     */
+    private static void assertEquivalent(Set<RewritableQuery> expected, Set<RewritableQuery> actual) {
+        ContainmentPruner pruner = new ContainmentPruner();
+        for (RewritableQuery q : expected) {
+            assertTrue(actual.stream().anyMatch(qp -> pruner.contains(qp, q)), "missing " + q);
+        }
+        for (RewritableQuery q : actual) {
+            assertTrue(expected.stream().anyMatch(qp -> pruner.contains(qp, q)), "unexpected " + q);
+        }
+    }
+}
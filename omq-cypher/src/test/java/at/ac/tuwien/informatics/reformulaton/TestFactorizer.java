@@ -0,0 +1,64 @@
+package at.ac.tuwien.informatics.reformulaton;
+
+import at.ac.tuwien.informatics.reformulation.Factorizer;
+import at.ac.tuwien.informatics.reformulation.RewriterImpl;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import at.ac.tuwien.informatics.structure.query.*;
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestFactorizer {
+
+    @Test
+    public void testSharedAtoms() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+
+        List<Variable> head = new LinkedList<>(Collections.singleton(new Variable("x")));
+        Roles teaches = new Roles(new HashSet<>(Collections.singleton(o.getPropertyMap().get("teaches"))),
+                new Variable("x"), new Variable("y"));
+        // q(x):-teaches(x,y),Course(y) and q(x):-teaches(x,y),Student(y)
+        Set<RewritableQuery> queries = new HashSet<>(Arrays.asList(
+                new RewritableQuery(head, new HashSet<>(Arrays.asList(teaches,
+                        new Conceptname(o.getClassMap().get("Course"), new Variable("y"))))),
+                new RewritableQuery(head, new HashSet<>(Arrays.asList(teaches,
+                        new Conceptname(o.getClassMap().get("Student"), new Variable("y")))))
+        ));
+
+        FactorizedQuery f = new Factorizer().factorize(head, queries);
+        // the role atom is stored once, above the two concept name atoms
+        assertEquals(Collections.singleton(teaches), f.getAtoms());
+        assertEquals(2, f.getBranches().size());
+        assertEquals(3, f.getAtomCount());
+        assertEquals(queries, f.getQueries());
+    }
+
+    @Test
+    public void testSameQueries() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university2.ttl");
+
+        // q(x):-supervisedBy(x,y), Professor(y)
+        InputQuery q = new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Arrays.asList(
+                        new Roles(new HashSet<>(Collections.singleton(
+                                o.getPropertyMap().get("isSupervisedBy"))),
+                                new Variable("x"), new Variable("y")),
+                        new Conceptname(o.getClassMap().get("Professor"), new Variable("y"))
+                )));
+        Set<RewritableQuery> Q = new RewriterImpl().rewrite(q, o);
+
+        FactorizedQuery f = new Factorizer().factorize(q.getHead(), Q);
+        assertEquals(Q, f.getQueries());
+        assertTrue(f.getAtomCount() < Q.stream().mapToInt(qp -> qp.getBody().size()).sum());
+    }
+}
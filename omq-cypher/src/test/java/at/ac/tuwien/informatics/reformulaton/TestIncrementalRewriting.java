@@ -0,0 +1,83 @@
+package at.ac.tuwien.informatics.reformulaton;
+
+import at.ac.tuwien.informatics.reformulation.IncrementalRewriting;
+import at.ac.tuwien.informatics.reformulation.RewriterImpl;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import at.ac.tuwien.informatics.structure.query.*;
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestIncrementalRewriting {
+
+    @Test
+    public void testRemoveAndAddAxioms() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university2.ttl");
+
+        RewriterImpl rewriter = new RewriterImpl();
+        // q(x):-supervisedBy(x,y), Professor(y)
+        InputQuery q = new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Arrays.asList(
+                        new Roles(new HashSet<>(Collections.singleton(
+                                o.getPropertyMap().get("isSupervisedBy"))),
+                                new Variable("x"), new Variable("y")),
+                        new Conceptname(o.getClassMap().get("Professor"), new Variable("y"))
+                )));
+
+        IncrementalRewriting rewriting = new IncrementalRewriting(rewriter, q, o);
+        Set<RewritableQuery> Q = rewriter.rewrite(q, o);
+        assertEquals(Q, rewriting.getQueries());
+
+        // remove and add back each axiom, the result is the same as rewriting from scratch
+        List<OWLAxiom> axioms = new ArrayList<>(o.getOntology().getLogicalAxioms());
+        for (OWLAxiom I : axioms) {
+            assertTrue(o.removeAxiom(I));
+            rewriting.axiomRemoved(I);
+            assertEquals(rewriter.rewrite(q, o), rewriting.getQueries(), "removed " + I);
+
+            assertTrue(o.addAxiom(I));
+            rewriting.axiomAdded(I);
+            assertEquals(Q, rewriting.getQueries(), "added " + I);
+        }
+    }
+
+    @Test
+    public void testProvenance() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+
+        // q(x):-Professor(x)
+        InputQuery q = new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Collections.singleton(
+                        new Conceptname(o.getClassMap().get("Professor"), new Variable("x")))));
+        IncrementalRewriting rewriting = new IncrementalRewriting(new RewriterImpl(), q, o);
+
+        // Assistant_Prof ISA Professor
+        OWLDataFactory factory = o.getOntology().getOWLOntologyManager().getOWLDataFactory();
+        OWLAxiom I = factory.getOWLSubClassOfAxiom(o.getClassMap().get("Assistant_Prof"),
+                o.getClassMap().get("Professor"));
+        RewritableQuery qp = new RewritableQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Collections.singleton(
+                        new Conceptname(o.getClassMap().get("Assistant_Prof"), new Variable("x")))));
+        assertTrue(rewriting.getQueries().contains(qp));
+        assertEquals(Collections.singleton(I), rewriting.getProducingAxioms(qp));
+
+        assertTrue(o.removeAxiom(I));
+        rewriting.axiomRemoved(I);
+        assertFalse(rewriting.getQueries().contains(qp));
+
+        // the ontology is unchanged if the axiom is already in it
+        assertTrue(o.addAxiom(I));
+        assertFalse(o.addAxiom(I));
+    }
+}
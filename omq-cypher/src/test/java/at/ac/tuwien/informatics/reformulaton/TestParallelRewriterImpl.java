@@ -0,0 +1,107 @@
+package at.ac.tuwien.informatics.reformulaton;
+
+import at.ac.tuwien.informatics.reformulation.CancellationToken;
+import at.ac.tuwien.informatics.reformulation.ParallelRewriterImpl;
+import at.ac.tuwien.informatics.reformulation.RewriterImpl;
+import at.ac.tuwien.informatics.reformulation.RewritingBudget;
+import at.ac.tuwien.informatics.reformulation.RewritingResult;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import at.ac.tuwien.informatics.structure.query.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestParallelRewriterImpl {
+
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    public void start() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    public void testCQUniversity() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+
+        // q(x):-teaches(x,y), Course(y)
+        InputQuery q = new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Arrays.asList(
+                        new Roles(new HashSet<>(Collections.singleton(o.getPropertyMap().get("teaches"))),
+                                new Variable("x"), new Variable("y")),
+                        new Conceptname(o.getClassMap().get("Course"), new Variable("y"))
+                )));
+
+        Set<RewritableQuery> Q = new ParallelRewriterImpl(pool).rewrite(q, o);
+
+        assertEquals(5, Q.size());
+        assertEquals(new RewriterImpl().rewrite(q, o), Q);
+    }
+
+    @Test
+    public void testCQUniversity2() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university2.ttl");
+
+        // q(x):-supervisedBy(x,y), Professor(y)
+        InputQuery q = new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Arrays.asList(
+                        new Roles(new HashSet<>(Collections.singleton(
+                                o.getPropertyMap().get("isSupervisedBy"))),
+                                new Variable("x"), new Variable("y")),
+                        new Conceptname(o.getClassMap().get("Professor"), new Variable("y"))
+                )));
+
+        Set<RewritableQuery> Q = new ParallelRewriterImpl(pool).rewrite(q, o);
+
+        assertEquals(8, Q.size());
+        assertEquals(new RewriterImpl().rewrite(q, o), Q);
+    }
+
+    @Test
+    public void testCRPQWithConcatenationNoDrop() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/paths2.owl");
+
+        // q():-A(x),r*(x,y),B(y)
+        InputQuery q = new InputQuery(new LinkedList<>(),
+                new HashSet<>(Arrays.asList(
+                        new Conceptname(o.getClassMap().get("A"), new Variable("x")),
+                        new Path(new LinkedList<>(Collections.singleton(
+                                new ArbitraryLengthPathElement(
+                                        new HashSet<>(Collections.singleton(o.getPropertyMap().get("r")))))),
+                                new Variable("x"), new Variable("y")),
+                        new Conceptname(o.getClassMap().get("B"), new Variable("y"))
+                )));
+
+        Set<RewritableQuery> Q = new ParallelRewriterImpl(pool).rewrite(q, o);
+
+        assertEquals(12, Q.size());
+        assertEquals(new RewriterImpl().rewrite(q, o), Q);
+
+        // the tasks share the budget
+        RewritingResult result = new ParallelRewriterImpl(pool).rewrite(q, o,
+                RewritingBudget.unlimited().withMaxQueries(5), new CancellationToken());
+        assertEquals(RewritingResult.Status.QUERY_LIMIT, result.getStatus());
+        assertTrue(result.getQueries().size() <= 5);
+        assertTrue(Q.containsAll(result.getQueries()));
+    }
+}
@@ -1,6 +1,9 @@
 package at.ac.tuwien.informatics.reformulaton;
 
+import at.ac.tuwien.informatics.reformulation.CancellationToken;
 import at.ac.tuwien.informatics.reformulation.RewriterImpl;
+import at.ac.tuwien.informatics.reformulation.RewritingBudget;
+import at.ac.tuwien.informatics.reformulation.RewritingResult;
 import at.ac.tuwien.informatics.structure.Ontology;
 import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
 import at.ac.tuwien.informatics.structure.query.*;
@@ -8,9 +11,15 @@ import org.junit.jupiter.api.Test;
 import org.semanticweb.owlapi.model.*;
 
 import java.io.File;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TestRewriterImpl {
@@ -447,7 +456,8 @@ public class TestRewriterImpl {
 
         Q = rewriter.rewrite(q, o);
 
-        assertEquals(11, Q.size());
+        // rewritings that only differ in the names of variables are equal
+        assertEquals(9, Q.size());
     }
 
     @Test
@@ -475,7 +485,8 @@ public class TestRewriterImpl {
 
         Q = rewriter.rewrite(q, o);
 
-        assertEquals(12, Q.size());
+        // rewritings that only differ in the names of variables are equal
+        assertEquals(10, Q.size());
     }
 
     @Test
@@ -501,6 +512,126 @@ public class TestRewriterImpl {
 
         Q = rewriter.rewrite(q, o);
 
-        assertEquals(14, Q.size());
+        // rewritings that only differ in the names of variables are equal
+        assertEquals(12, Q.size());
+    }
+
+    @Test
+    public void testRewriteStream() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/paths2.owl");
+
+        RewriterImpl rewriter = new RewriterImpl();
+        InputQuery q;
+
+        // q():-A(x),r*(x,y),B(y)
+        q = new InputQuery(new LinkedList<>(),
+                new HashSet<>(Arrays.asList(
+                        new Conceptname(o.getClassMap().get("A"), new Variable("x")),
+                        new Path(new LinkedList<>(Collections.singleton(
+                                new ArbitraryLengthPathElement(
+                                        new HashSet<>(Collections.singleton(o.getPropertyMap().get("r")))))),
+                                new Variable("x"), new Variable("y")),
+                        new Conceptname(o.getClassMap().get("B"), new Variable("y"))
+                )));
+
+        // the input query is emitted first
+        assertEquals(rewriter.tau(rewriter.saturatePaths(q, o)), rewriter.rewriteStream(q, o).findFirst().get());
+
+        List<RewritableQuery> Q = rewriter.rewriteStream(q, o).collect(Collectors.toList());
+
+        // each query is emitted once
+        assertEquals(12, Q.size());
+        assertEquals(rewriter.rewrite(q, o), new HashSet<>(Q));
+    }
+
+    @Test
+    public void testRewriteWithBudget() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/paths2.owl");
+
+        RewriterImpl rewriter = new RewriterImpl();
+        InputQuery q;
+        RewritingResult result;
+
+        // q():-A(x),r*(x,y),B(y)
+        q = new InputQuery(new LinkedList<>(),
+                new HashSet<>(Arrays.asList(
+                        new Conceptname(o.getClassMap().get("A"), new Variable("x")),
+                        new Path(new LinkedList<>(Collections.singleton(
+                                new ArbitraryLengthPathElement(
+                                        new HashSet<>(Collections.singleton(o.getPropertyMap().get("r")))))),
+                                new Variable("x"), new Variable("y")),
+                        new Conceptname(o.getClassMap().get("B"), new Variable("y"))
+                )));
+        Set<RewritableQuery> Q = rewriter.rewrite(q, o);
+
+        // unlimited
+        result = rewriter.rewrite(q, o, RewritingBudget.unlimited(), new CancellationToken());
+        assertTrue(result.isComplete());
+        assertEquals(12, result.getQueries().size());
+
+        // limit on the number of queries
+        result = rewriter.rewrite(q, o, RewritingBudget.unlimited().withMaxQueries(5), new CancellationToken());
+        assertFalse(result.isComplete());
+        assertEquals(RewritingResult.Status.QUERY_LIMIT, result.getStatus());
+        assertEquals(5, result.getQueries().size());
+        assertTrue(Q.containsAll(result.getQueries()));
+
+        // limit on the heap, the input query is always part of the result
+        result = rewriter.rewrite(q, o, RewritingBudget.unlimited().withMaxHeapBytes(1), new CancellationToken());
+        assertEquals(RewritingResult.Status.MEMORY_LIMIT, result.getStatus());
+        assertEquals(1, result.getQueries().size());
+
+        // limit on the time
+        result = rewriter.rewrite(q, o, RewritingBudget.unlimited().withMaxTime(Duration.ZERO),
+                new CancellationToken());
+        assertEquals(RewritingResult.Status.TIME_LIMIT, result.getStatus());
+        assertEquals(1, result.getQueries().size());
+
+        // cancelled before the start
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        result = rewriter.rewrite(q, o, RewritingBudget.unlimited(), token);
+        assertEquals(RewritingResult.Status.CANCELLED, result.getStatus());
+        assertTrue(Q.containsAll(result.getQueries()));
+    }
+
+    @Test
+    public void testConcurrentRewrite() throws Exception {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university2.ttl");
+
+        RewriterImpl rewriter = new RewriterImpl();
+        // q(x):-supervisedBy(x,y), Professor(y)
+        Roles r = new Roles(new HashSet<>(Collections.singleton(o.getPropertyMap().get("isSupervisedBy"))),
+                new Variable("x"), new Variable("y"));
+        InputQuery q = new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Arrays.asList(r, new Conceptname(o.getClassMap().get("Professor"), new Variable("y")))));
+
+        Set<RewritableQuery> Q = rewriter.rewrite(q, o);
+        // the input query is not modified by the saturation
+        assertEquals(Collections.singleton(o.getPropertyMap().get("isSupervisedBy")), r.getRoles());
+
+        // a single instance serves concurrent rewritings
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Set<RewritableQuery>>> futures = new LinkedList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(executor.submit(() -> rewriter.rewrite(q, o)));
+            }
+            for (Future<Set<RewritableQuery>> f : futures) {
+                assertEquals(Q, f.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // each rewriting has its own fresh variable names
+        assertEquals(Q.stream().map(RewritableQuery::toString).collect(Collectors.toSet()),
+                rewriter.rewrite(q, o).stream().map(RewritableQuery::toString).collect(Collectors.toSet()));
     }
 }
@@ -0,0 +1,77 @@
+package at.ac.tuwien.informatics.reformulaton;
+
+import at.ac.tuwien.informatics.reformulation.RewriterImpl;
+import at.ac.tuwien.informatics.reformulation.RewritingMetrics;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import at.ac.tuwien.informatics.structure.query.*;
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestRewritingMetrics {
+
+    @Test
+    public void testCounters() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+
+        // q(x):-teaches(x,y), Course(y)
+        InputQuery q = new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Arrays.asList(
+                        new Roles(new HashSet<>(Collections.singleton(o.getPropertyMap().get("teaches"))),
+                                new Variable("x"), new Variable("y")),
+                        new Conceptname(o.getClassMap().get("Course"), new Variable("y"))
+                )));
+
+        RewriterImpl rewriter = new RewriterImpl();
+        RewritingMetrics metrics = new RewritingMetrics();
+        rewriter.setMetrics(metrics);
+        Set<RewritableQuery> Q = rewriter.rewrite(q, o);
+
+        // each query is expanded exactly once, and each query but the input query is derived once as a new query
+        assertEquals(5, Q.size());
+        assertEquals(Q.size(), metrics.getExpansions());
+        assertEquals(Q.size() - 1, metrics.getDerivedQueries() - metrics.getDuplicateQueries());
+        assertEquals(1, metrics.getApplications(RewritingMetrics.Step.SATURATE_PATHS));
+        assertTrue(metrics.getApplications(RewritingMetrics.Step.REPLACE) > 0);
+        assertTrue(metrics.getApplications(RewritingMetrics.Step.TAU) > metrics.getDerivedQueries());
+        assertTrue(metrics.getEffectiveApplications(RewritingMetrics.Step.REDUCE) <=
+                metrics.getApplications(RewritingMetrics.Step.REDUCE));
+        assertEquals(metrics.getApplications(RewritingMetrics.Step.REPLACE),
+                metrics.getAxiomApplications().values().stream().mapToLong(Long::longValue).sum());
+        assertTrue(metrics.getMaxFrontierSize() >= 1);
+
+        // the metrics are cumulative until they are reset
+        rewriter.rewrite(q, o);
+        assertEquals(2L * Q.size(), metrics.getExpansions());
+        metrics.reset();
+        assertEquals(0, metrics.getExpansions());
+        assertEquals(0, metrics.getApplications(RewritingMetrics.Step.TAU));
+        assertTrue(metrics.getAxiomApplications().isEmpty());
+    }
+
+    @Test
+    public void testJMX() throws JMException {
+        RewritingMetrics metrics = new RewritingMetrics();
+        ObjectName name = metrics.register("test");
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            assertTrue(server.isRegistered(name));
+            assertEquals(0L, server.getAttribute(name, "Expansions"));
+            assertNotNull(server.getAttribute(name, "Applications"));
+        } finally {
+            metrics.unregister("test");
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+}
@@ -3,12 +3,14 @@ import at.ac.tuwien.informatics.generated.QLexer;
 import at.ac.tuwien.informatics.generated.QParser;
 import at.ac.tuwien.informatics.structure.InputQueryBuilder;
 import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.InvalidQueryException;
 import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
 import at.ac.tuwien.informatics.structure.query.*;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.antlr.v4.runtime.*;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
@@ -261,4 +263,21 @@ public class TestInputQueryBuilder {
 
         assertEquals(q1, q);
     }
+
+    @Test
+    public void testParse() throws OWLOntologyCreationException, NotOWL2QLException, InvalidQueryException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+
+        InputQuery q = InputQueryBuilder.parse("q(x):-Assistant_Prof(x)", o);
+        assertEquals(new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Collections.singleton(
+                        new Conceptname(o.getClassMap().get("Assistant_Prof"), new Variable("x"))))), q);
+
+        // syntax errors and unknown names fail the parsing
+        assertThrows(InvalidQueryException.class, () -> InputQueryBuilder.parse("q(x):- Assistant_Prof(x)", o));
+        assertThrows(InvalidQueryException.class, () -> InputQueryBuilder.parse("q(x):-Assistant_Prof(x", o));
+        assertThrows(InvalidQueryException.class, () -> InputQueryBuilder.parse("q(x):-Unknown(x)", o));
+        assertThrows(InvalidQueryException.class, () -> InputQueryBuilder.parse("q(x):-unknown-(x,y)", o));
+    }
 }
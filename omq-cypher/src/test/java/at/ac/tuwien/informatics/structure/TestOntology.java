@@ -0,0 +1,112 @@
+package at.ac.tuwien.informatics.structure;
+
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import org.semanticweb.owlapi.model.*;
+
+import at.ac.tuwien.informatics.structure.query.Conceptname;
+import at.ac.tuwien.informatics.structure.query.Variable;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+public class TestOntology {
+
+    @Test
+    public void testCompliantOntology() throws OWLOntologyCreationException, NotOWL2QLException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+    }
+
+    @Test
+    public void testSubClassOf() throws OWLOntologyCreationException, NotOWL2QLException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+
+        HashSet<OWLClassExpression> subclasses = new HashSet<>();
+
+        for (OWLAxiom a : o.getOntology().getAxioms()) {
+            if (a instanceof OWLSubClassOfAxiom) {
+                if(((OWLSubClassOfAxiom) a).getSuperClass() == o.getClassMap().get("Professor")) {
+                    subclasses.add(((OWLSubClassOfAxiom) a).getSubClass());
+                }
+            }
+        }
+
+        HashSet<OWLClass> h = new HashSet<>();
+        h.add(o.getClassMap().get("Assistant_Prof"));
+        assertEquals(subclasses, h);
+    }
+
+    @Test
+    public void testSubClassOfWithFoaf() throws OWLOntologyCreationException, NotOWL2QLException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university2.ttl");
+
+        HashSet<OWLClassExpression> subclasses = new HashSet<>();
+
+        for (OWLAxiom a : o.getOntology().getAxioms()) {
+            if (a instanceof OWLSubClassOfAxiom) {
+                if(((OWLSubClassOfAxiom) a).getSuperClass() == o.getClassMap().get("Person")) {
+                    subclasses.add(((OWLSubClassOfAxiom) a).getSubClass());
+                }
+            }
+        }
+
+        HashSet<OWLClass> h = new HashSet<>();
+        h.add(o.getClassMap().get("Student"));
+        h.add(o.getClassMap().get("FacultyMember"));
+        assertEquals(subclasses, h);
+    }
+
+    @Test
+    public void testAxiomsForClass() throws OWLOntologyCreationException, NotOWL2QLException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university2.ttl");
+
+        // the index must return exactly the axioms that are applicable to the concept name atom
+        for (OWLClass c : o.getClassMap().values()) {
+            Conceptname a = new Conceptname(c, new Variable("x"));
+            Set<OWLAxiom> applicableAxioms = new HashSet<>();
+            for (OWLAxiom I : o.getOntology().getAxioms()) {
+                if (a.applicable(I)) {
+                    applicableAxioms.add(I);
+                }
+            }
+            assertEquals(applicableAxioms, o.getAxiomsForClass(c));
+        }
+    }
+
+    @Test
+    public void testFingerprint() throws OWLOntologyCreationException, NotOWL2QLException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o1 = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+        Ontology o2 = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+        Ontology o3 = new Ontology(resourcesDirectory.getAbsolutePath() + "/university2.ttl");
+
+        assertEquals(o1.getFingerprint(), o2.getFingerprint());
+        assertNotEquals(o1.getFingerprint(), o3.getFingerprint());
+    }
+
+    @Test
+    public void testSubRoles() throws OWLOntologyCreationException, NotOWL2QLException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university2.ttl");
+
+        // teaches has the sub-roles givesLab and givesLecture, and is the inverse of isTaughtBy
+        Set<OWLObjectPropertyExpression> subroles = new HashSet<>(Arrays.asList(o.getPropertyMap().get("teaches"),
+                o.getPropertyMap().get("isTaughtBy").getInverseProperty(), o.getPropertyMap().get("givesLab"),
+                o.getPropertyMap().get("givesLecture")));
+        assertEquals(subroles, o.getSubRoles(o.getPropertyMap().get("teaches")));
+
+        // without inverses
+        subroles = new HashSet<>(Arrays.asList(o.getPropertyMap().get("teaches"), o.getPropertyMap().get("givesLab"),
+                o.getPropertyMap().get("givesLecture")));
+        assertEquals(subroles, o.getSubRoleNames(o.getPropertyMap().get("teaches")));
+    }
+}
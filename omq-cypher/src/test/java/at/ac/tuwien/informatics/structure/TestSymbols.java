@@ -0,0 +1,48 @@
+package at.ac.tuwien.informatics.structure;
+
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestSymbols {
+
+    @Test
+    public void testSets() throws OWLOntologyCreationException, NotOWL2QLException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/subroles.owl");
+        OWLObjectPropertyExpression r = o.getPropertyMap().get("r");
+        OWLObjectPropertyExpression s = o.getPropertyMap().get("s");
+
+        // the order of the elements does not matter
+        assertEquals(Symbols.ofRoles(Arrays.asList(r, s), false), Symbols.ofRoles(Arrays.asList(s, r), false));
+        assertNotEquals(Symbols.ofRoles(Arrays.asList(r, s), false), Symbols.ofRoles(Arrays.asList(r, s), true));
+        assertEquals(Symbols.ofRoles(Collections.singleton(r.getInverseProperty()), false),
+                Symbols.ofRoles(Collections.singleton(r), true));
+    }
+
+    @Test
+    public void testMasks() throws OWLOntologyCreationException, NotOWL2QLException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/subroles.owl");
+        OWLObjectPropertyExpression r = o.getPropertyMap().get("r");
+        OWLObjectPropertyExpression s = o.getPropertyMap().get("s");
+
+        long[] rs = Symbols.mask(Symbols.ofRoles(Arrays.asList(r, s), false));
+        long[] rOnly = Symbols.mask(Symbols.ofRoles(Collections.singleton(r), false));
+        long[] sInverse = Symbols.mask(Symbols.ofRoles(Collections.singleton(s.getInverseProperty()), false));
+
+        assertTrue(Symbols.containsAll(rs, rOnly));
+        assertFalse(Symbols.containsAll(rOnly, rs));
+        assertTrue(Symbols.intersects(rs, rOnly));
+        assertFalse(Symbols.intersects(rs, sInverse));
+        assertEquals(new HashSet<>(Collections.singleton(r)), Symbols.roles(Symbols.and(rs, rOnly)));
+        assertEquals(new HashSet<>(Collections.singleton(s.getInverseProperty())), Symbols.roles(sInverse));
+        assertTrue(Symbols.roles(Symbols.and(rs, sInverse)).isEmpty());
+    }
+}
@@ -71,6 +71,32 @@ public class TestUnifier {
                 unifier.getSubstitutions());
     }
 
+    @Test
+    public void testUnifierChains() {
+        // x=y, y=z and z=w are merged into a single class
+        List<Term> t1 = Arrays.asList(new Variable("x"), new Variable("y"), new Variable("z"));
+        List<Term> t2 = Arrays.asList(new Variable("y"), new Variable("z"), new Variable("w"));
+
+        Unifier unifier = new Unifier(t1, t2);
+
+        assertEquals(new LinkedList<>(
+                        Arrays.asList(new Substitution(new Variable("x"), new Variable("w")),
+                                new Substitution(new Variable("y"), new Variable("w")),
+                                new Substitution(new Variable("z"), new Variable("w")))),
+                unifier.getSubstitutions());
+
+        // a class with a bound variable is never represented by an unbound variable
+        t1 = Arrays.asList(new UnboundVariable("u"), new Variable("x"));
+        t2 = Arrays.asList(new UnboundVariable("v"), new UnboundVariable("u"));
+
+        unifier = new Unifier(t1, t2);
+
+        assertEquals(new LinkedList<>(
+                        Arrays.asList(new Substitution(new UnboundVariable("u"), new Variable("x")),
+                                new Substitution(new UnboundVariable("v"), new Variable("x")))),
+                unifier.getSubstitutions());
+    }
+
     @Test
     public void testApplyUnifier() throws OWLOntologyCreationException, NotOWL2QLException {
         // load ontology
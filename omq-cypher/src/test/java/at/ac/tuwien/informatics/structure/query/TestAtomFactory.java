@@ -0,0 +1,56 @@
+package at.ac.tuwien.informatics.structure.query;
+
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import java.io.File;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TestAtomFactory {
+
+    @Test
+    public void testIdenticalAtomsAreShared() throws OWLOntologyCreationException, NotOWL2QLException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/subroles.owl");
+        AtomFactory atoms = new AtomFactory();
+
+        RewritableAtom r1 = atoms.intern(new Roles(Collections.singleton(o.getPropertyMap().get("r")),
+                new Variable("x"), new UnboundVariable("y")));
+        RewritableAtom r2 = atoms.intern(new Roles(Collections.singleton(o.getPropertyMap().get("r")),
+                new Variable("x"), new UnboundVariable("y")));
+        assertSame(r1, r2);
+
+        RewritableAtom c1 = atoms.intern(new Conceptname(o.getClassMap().get("A"), new Variable("x")));
+        RewritableAtom c2 = atoms.intern(new Conceptname(o.getClassMap().get("A"), new Variable("x")));
+        assertSame(c1, c2);
+        assertEquals(2, atoms.size());
+    }
+
+    @Test
+    public void testEqualAtomsAreNotShared() throws OWLOntologyCreationException, NotOWL2QLException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/subroles.owl");
+        AtomFactory atoms = new AtomFactory();
+
+        // unbound variables are equal, but their names are kept
+        RewritableAtom r1 = atoms.intern(new Roles(Collections.singleton(o.getPropertyMap().get("r")),
+                new Variable("x"), new UnboundVariable("y")));
+        RewritableAtom r2 = atoms.intern(new Roles(Collections.singleton(o.getPropertyMap().get("r")),
+                new Variable("x"), new UnboundVariable("z")));
+        assertEquals(r1, r2);
+        assertNotSame(r1, r2);
+        assertEquals("z", r2.getTerms().get(1).getName());
+
+        // an atom is equal to its inverse, but the orientation is kept
+        RewritableAtom r3 = atoms.intern(new Roles(Collections.singleton(o.getPropertyMap().get("r")
+                .getInverseProperty()), new UnboundVariable("y"), new Variable("x")));
+        assertEquals(r1, r3);
+        assertEquals(r1.hashCode(), r3.hashCode());
+        assertNotSame(r1, r3);
+        assertEquals("x", r3.getTerms().get(1).getName());
+    }
+}
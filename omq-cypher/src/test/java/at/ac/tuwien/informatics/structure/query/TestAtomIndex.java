@@ -0,0 +1,64 @@
+package at.ac.tuwien.informatics.structure.query;
+
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestAtomIndex {
+
+    @Test
+    public void testReducible() throws OWLOntologyCreationException, NotOWL2QLException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/subroles.owl");
+
+        // A(x),A(y),r(x,y),r-(z,x),s(y,z): A(x)/A(y) and r(x,y)/r-(z,x) have the same predicate
+        RewritableAtom ax = new Conceptname(o.getClassMap().get("A"), new Variable("x"));
+        RewritableAtom ay = new Conceptname(o.getClassMap().get("A"), new Variable("y"));
+        RewritableAtom rxy = new Roles(Collections.singleton(o.getPropertyMap().get("r")),
+                new Variable("x"), new Variable("y"));
+        RewritableAtom rzx = new Roles(Collections.singleton(o.getPropertyMap().get("r").getInverseProperty()),
+                new Variable("z"), new Variable("x"));
+        RewritableAtom syz = new Roles(Collections.singleton(o.getPropertyMap().get("s")),
+                new Variable("y"), new Variable("z"));
+        AtomIndex index = new AtomIndex(new HashSet<>(Arrays.asList(ax, ay, rxy, rzx, syz)));
+
+        List<Set<RewritableAtom>> pairs = new LinkedList<>();
+        index.forEachReducible((a1, a2) -> pairs.add(new HashSet<>(Arrays.asList(a1, a2))));
+        assertEquals(2, pairs.size());
+        assertTrue(pairs.contains(new HashSet<>(Arrays.asList(ax, ay))));
+        assertTrue(pairs.contains(new HashSet<>(Arrays.asList(rxy, rzx))));
+    }
+
+    @Test
+    public void testConcatenableAndMergeable() throws OWLOntologyCreationException, NotOWL2QLException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/subroles.owl");
+
+        // r(x,y),r*(y,z),s*(w,v): only r(x,y) and r*(y,z) share a term and a role
+        Binary rxy = new Roles(Collections.singleton(o.getPropertyMap().get("r")),
+                new Variable("x"), new Variable("y"));
+        ArbitraryLengthAtom ryz = new ArbitraryLengthAtom(Collections.singleton(o.getPropertyMap().get("r")),
+                new Variable("y"), new Variable("z"));
+        ArbitraryLengthAtom swv = new ArbitraryLengthAtom(Collections.singleton(o.getPropertyMap().get("s")),
+                new Variable("w"), new Variable("v"));
+        AtomIndex index = new AtomIndex(new HashSet<>(Arrays.asList(rxy, ryz, swv)));
+
+        List<List<Binary>> concatenations = new LinkedList<>();
+        index.forEachConcatenable((a1, a2) -> concatenations.add(Arrays.asList(a1, a2)));
+        assertEquals(Collections.singletonList(Arrays.asList(rxy, ryz)), concatenations);
+
+        // a role atom and an arbitrary length atom are merged in both orders
+        List<List<Binary>> merges = new LinkedList<>();
+        index.forEachMergeable((a1, a2) -> merges.add(Arrays.asList(a1, a2)));
+        assertEquals(2, merges.size());
+        assertTrue(merges.contains(Arrays.asList(rxy, ryz)));
+        assertTrue(merges.contains(Arrays.asList(ryz, rxy)));
+    }
+}
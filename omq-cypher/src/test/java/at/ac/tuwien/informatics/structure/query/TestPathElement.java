@@ -90,7 +90,7 @@ public class TestPathElement {
         PathElement p1 = new SingleLengthPathElement(new HashSet<>(Arrays.asList(o.getPropertyMap().get("r"),
                 o.getPropertyMap().get("s"), o.getPropertyMap().get("t"))));
         PathElement p2 = new SingleLengthPathElement(new HashSet<>(Collections.singleton(o.getPropertyMap().get("s"))));
-        p2.saturate(o);
+        p2 = p2.saturate(o);
 
         assertEquals(p1, p2);
     }
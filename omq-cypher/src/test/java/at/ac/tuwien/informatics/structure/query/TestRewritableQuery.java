@@ -0,0 +1,137 @@
+package at.ac.tuwien.informatics.structure.query;
+
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestRewritableQuery {
+
+    @Test
+    public void testEqualUpToRenaming() throws OWLOntologyCreationException, NotOWL2QLException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/subroles.owl");
+
+        // q(x):-r(x,y),s(y,z),A(z) and q(x):-r(x,v1),s(v1,v2),A(v2)
+        RewritableQuery q1 = new RewritableQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Arrays.asList(
+                        new Roles(Collections.singleton(o.getPropertyMap().get("r")),
+                                new Variable("x"), new Variable("y")),
+                        new Roles(Collections.singleton(o.getPropertyMap().get("s")),
+                                new Variable("y"), new Variable("z")),
+                        new Conceptname(o.getClassMap().get("A"), new Variable("z")))));
+        RewritableQuery q2 = new RewritableQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Arrays.asList(
+                        new Roles(Collections.singleton(o.getPropertyMap().get("r")),
+                                new Variable("x"), new Variable("v1")),
+                        new Roles(Collections.singleton(o.getPropertyMap().get("s").getInverseProperty()),
+                                new Variable("v2"), new Variable("v1")),
+                        new Conceptname(o.getClassMap().get("A"), new Variable("v2")))));
+
+        assertEquals(q1, q2);
+        assertEquals(q1.hashCode(), q2.hashCode());
+        assertEquals(1, new HashSet<>(Arrays.asList(q1, q2)).size());
+
+        // answer variables are identified by their position in the head
+        RewritableQuery q3 = new RewritableQuery(new LinkedList<>(Arrays.asList(new Variable("x"), new Variable("x"))),
+                new HashSet<>(Collections.singleton(
+                        new Roles(Collections.singleton(o.getPropertyMap().get("r")),
+                                new Variable("x"), new Variable("x")))));
+        RewritableQuery q4 = new RewritableQuery(new LinkedList<>(Arrays.asList(new Variable("y"), new Variable("y"))),
+                new HashSet<>(Collections.singleton(
+                        new Roles(Collections.singleton(o.getPropertyMap().get("r")),
+                                new Variable("y"), new Variable("y")))));
+
+        assertEquals(q3, q4);
+    }
+
+    @Test
+    public void testNotEqualUpToRenaming() throws OWLOntologyCreationException, NotOWL2QLException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/subroles.owl");
+
+        // q(x):-r(x,y),r(y,z),A(z) and q(x):-r(x,y),r(y,z),A(y)
+        RewritableQuery q1 = new RewritableQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Arrays.asList(
+                        new Roles(Collections.singleton(o.getPropertyMap().get("r")),
+                                new Variable("x"), new Variable("y")),
+                        new Roles(Collections.singleton(o.getPropertyMap().get("r")),
+                                new Variable("y"), new Variable("z")),
+                        new Conceptname(o.getClassMap().get("A"), new Variable("z")))));
+        RewritableQuery q2 = new RewritableQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Arrays.asList(
+                        new Roles(Collections.singleton(o.getPropertyMap().get("r")),
+                                new Variable("x"), new Variable("y")),
+                        new Roles(Collections.singleton(o.getPropertyMap().get("r")),
+                                new Variable("y"), new Variable("z")),
+                        new Conceptname(o.getClassMap().get("A"), new Variable("y")))));
+
+        assertNotEquals(q1, q2);
+
+        // renaming an answer variable to a non-answer variable is not allowed
+        RewritableQuery q3 = new RewritableQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Collections.singleton(
+                        new Roles(Collections.singleton(o.getPropertyMap().get("r")),
+                                new Variable("y"), new Variable("x")))));
+        RewritableQuery q4 = new RewritableQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Collections.singleton(
+                        new Roles(Collections.singleton(o.getPropertyMap().get("r")),
+                                new Variable("x"), new Variable("y")))));
+
+        assertNotEquals(q3, q4);
+    }
+
+    @Test
+    public void testEqualUnderSymmetry() throws OWLOntologyCreationException, NotOWL2QLException {
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/subroles.owl");
+
+        // q():-(r|s)(y,z),(s|r)(z,y) and q():-(s|r)(v1,v2),(r|s)(v2,v1), the variables can only be told apart by trying
+        RewritableQuery q1 = new RewritableQuery(new LinkedList<>(),
+                new HashSet<>(Arrays.asList(
+                        new Roles(new HashSet<>(Arrays.asList(o.getPropertyMap().get("r"),
+                                o.getPropertyMap().get("s"))), new Variable("y"), new Variable("z")),
+                        new Roles(new HashSet<>(Arrays.asList(o.getPropertyMap().get("s"),
+                                o.getPropertyMap().get("r"))), new Variable("z"), new Variable("y")))));
+        RewritableQuery q2 = new RewritableQuery(new LinkedList<>(),
+                new HashSet<>(Arrays.asList(
+                        new Roles(new HashSet<>(Arrays.asList(o.getPropertyMap().get("s"),
+                                o.getPropertyMap().get("r"))), new Variable("v1"), new Variable("v2")),
+                        new Roles(new HashSet<>(Arrays.asList(o.getPropertyMap().get("r"),
+                                o.getPropertyMap().get("s"))), new Variable("v2"), new Variable("v1")))));
+
+        assertEquals(q1, q2);
+        assertEquals(q1.hashCode(), q2.hashCode());
+        assertEquals(0, RewritableQuery.compareCanonicalKeys(q1, q2));
+
+        // q():-(r|s)(y,z),r(z,y) differs in the names of one atom
+        RewritableQuery q3 = new RewritableQuery(new LinkedList<>(),
+                new HashSet<>(Arrays.asList(
+                        new Roles(new HashSet<>(Arrays.asList(o.getPropertyMap().get("r"),
+                                o.getPropertyMap().get("s"))), new Variable("y"), new Variable("z")),
+                        new Roles(Collections.singleton(o.getPropertyMap().get("r")),
+                                new Variable("z"), new Variable("y")))));
+
+        assertNotEquals(q1, q3);
+        assertNotEquals(0, RewritableQuery.compareCanonicalKeys(q1, q3));
+    }
+
+    @Test
+    public void testKeysOfLargeSymbols() {
+        // the numbers of the sets of names grow over the lifetime of the process, and must not run out of bits
+        long large = CanonicalForm.key(CanonicalForm.ARBITRARY_LENGTH, Integer.MAX_VALUE, 1, 2);
+        assertTrue(large > 0);
+        assertNotEquals(large, CanonicalForm.key(CanonicalForm.ARBITRARY_LENGTH, Integer.MAX_VALUE - 1, 1, 2));
+        assertNotEquals(large, CanonicalForm.key(CanonicalForm.ROLES, Integer.MAX_VALUE, 1, 2));
+        assertNotEquals(large, CanonicalForm.key(CanonicalForm.ARBITRARY_LENGTH, Integer.MAX_VALUE, 2, 1));
+        assertTrue(CanonicalForm.key(CanonicalForm.CONCEPTNAME, 1 << 21, 1, 0) >
+                CanonicalForm.key(CanonicalForm.CONCEPTNAME, (1 << 21) - 1, 1, 0));
+    }
+}
@@ -111,7 +111,7 @@ public class TestRoles {
         Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/subroles.owl");
         Roles r1 = new Roles(new HashSet<>(Collections.singleton(o.getPropertyMap().get("s"))),
                 new Variable("x"), new Variable("y"));
-        r1.saturate(o);
+        r1 = r1.saturate(o);
         Set<OWLObjectPropertyExpression> subroles = new HashSet<>(Arrays.asList(o.getPropertyMap().get("r"),
                 o.getPropertyMap().get("s"), o.getPropertyMap().get("t")));
 
@@ -119,7 +119,7 @@ public class TestRoles {
 
         r1 = new Roles(new HashSet<>(Collections.singleton(o.getPropertyMap().get("s").getInverseProperty())),
                 new Variable("x"), new Variable("y"));
-        r1.saturate(o);
+        r1 = r1.saturate(o);
         subroles = new HashSet<>(Arrays.asList(o.getPropertyMap().get("r").getInverseProperty(),
                 o.getPropertyMap().get("s").getInverseProperty(), o.getPropertyMap().get("t").getInverseProperty()));
 
@@ -129,7 +129,7 @@ public class TestRoles {
         r1 = new Roles(new HashSet<>(Collections.singleton(o.getPropertyMap().get("teaches"))),
                 new Variable("x"), new Variable("y"));
 
-        r1.saturate(o);
+        r1 = r1.saturate(o);
 
         subroles = new HashSet<>(Arrays.asList(o.getPropertyMap().get("teaches"),
                 o.getPropertyMap().get("isTaughtBy").getInverseProperty(), o.getPropertyMap().get("givesLab"),
@@ -140,7 +140,7 @@ public class TestRoles {
         r1 = new Roles(new HashSet<>(Collections.singleton(o.getPropertyMap().get("teaches").getInverseProperty())),
                 new Variable("x"), new Variable("y"));
 
-        r1.saturate(o);
+        r1 = r1.saturate(o);
 
         subroles = new HashSet<>(Arrays.asList(o.getPropertyMap().get("teaches").getInverseProperty(),
                 o.getPropertyMap().get("isTaughtBy"), o.getPropertyMap().get("givesLab").getInverseProperty(),
@@ -175,7 +175,7 @@ public class TestRoles {
                 new Variable("x"),
                 new UnboundVariable("y"));
 
-        p.saturate(o);
+        p = p.saturate(o);
 
         applicableAxioms = new HashSet<>();
 
@@ -191,7 +191,7 @@ public class TestRoles {
                 new UnboundVariable("x"),
                 new UnboundVariable("y"));
 
-        p.saturate(o);
+        p = p.saturate(o);
 
         applicableAxioms = new HashSet<>();
 
@@ -208,7 +208,7 @@ public class TestRoles {
                 new UnboundVariable("x"),
                 new UnboundVariable("y"));
 
-        p.saturate(o);
+        p = p.saturate(o);
 
         applicableAxioms = new HashSet<>();
 
@@ -225,7 +225,7 @@ public class TestRoles {
                 new UnboundVariable("x"),
                 new Variable("y"));
 
-        p.saturate(o);
+        p = p.saturate(o);
 
         applicableAxioms = new HashSet<>();
 
@@ -242,7 +242,7 @@ public class TestRoles {
                 new Variable("x"),
                 new Variable("y"));
 
-        p.saturate(o);
+        p = p.saturate(o);
 
         applicableAxioms = new HashSet<>();
 
@@ -258,7 +258,7 @@ public class TestRoles {
                 new Variable("x"),
                 new Variable("y"));
 
-        p.saturate(o);
+        p = p.saturate(o);
 
         applicableAxioms = new HashSet<>();
 
@@ -271,6 +271,34 @@ public class TestRoles {
         assertEquals(0, applicableAxioms.size());
     }
 
+    @Test
+    public void testGetApplicableAxioms() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources/university2.ttl");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath());
+
+        List<Roles> atoms = Arrays.asList(
+                new Roles(new HashSet<>(Collections.singleton(o.getPropertyMap().get("gradStudentSupervisedBy"))),
+                        new Variable("x"), new UnboundVariable("y")),
+                new Roles(new HashSet<>(Collections.singleton(o.getPropertyMap().get("gradStudentSupervisedBy")
+                        .getInverseProperty())), new UnboundVariable("x"), new UnboundVariable("y")),
+                new Roles(new HashSet<>(Collections.singleton(o.getPropertyMap().get("gradStudentSupervisedBy")
+                        .getInverseProperty())), new UnboundVariable("x"), new Variable("y")),
+                new Roles(new HashSet<>(Collections.singleton(o.getPropertyMap().get("gradStudentSupervisedBy"))),
+                        new Variable("x"), new Variable("y")));
+
+        // the lookup in the ontology index must agree with checking every axiom
+        for (Roles p : atoms) {
+            Set<OWLAxiom> applicableAxioms = new HashSet<>();
+            for (OWLAxiom I: o.getOntology().getAxioms()) {
+                if (p.applicable(I)) {
+                    applicableAxioms.add(I);
+                }
+            }
+            assertEquals(applicableAxioms, p.getApplicableAxioms(o));
+        }
+    }
+
     @Test
     public void testApply() throws OWLOntologyCreationException, NotOWL2QLException {
         // load ontology
@@ -306,7 +334,7 @@ public class TestRoles {
                 new Variable("x"),
                 new UnboundVariable("y"));
 
-        p.saturate(o);
+        p = p.saturate(o);
 
         rewritten = new HashSet<>(Collections.singleton(
                 new Roles(new HashSet<>(Collections.singleton(o.getPropertyMap().get("gradStudentSupervisedBy"))),
@@ -328,7 +356,7 @@ public class TestRoles {
         p = new Roles(new HashSet<>(Collections.singleton(o.getPropertyMap().get("gradStudentSupervisedBy"))),
                 new UnboundVariable("x"), new UnboundVariable("y"));
 
-        p.saturate(o);
+        p = p.saturate(o);
 
         rewritten = new HashSet<>(Collections.singleton(
                 new Roles(new HashSet<>(Collections.singleton(o.getPropertyMap().get("gradStudentSupervisedBy"))),
@@ -352,7 +380,7 @@ public class TestRoles {
                 new UnboundVariable("x"),
                 new UnboundVariable("y"));
 
-        p.saturate(o);
+        p = p.saturate(o);
 
         rewritten = new HashSet<>(Collections.singleton(
                 new Roles(new HashSet<>(
@@ -379,7 +407,7 @@ public class TestRoles {
                 new UnboundVariable("x"),
                 new Variable("y"));
 
-        p.saturate(o);
+        p = p.saturate(o);
 
         rewritten = new HashSet<>(
                 Collections.singleton(
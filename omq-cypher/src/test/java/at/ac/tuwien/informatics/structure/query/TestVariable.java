@@ -8,6 +8,7 @@ import java.util.HashSet;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class TestVariable {
 
@@ -41,6 +42,19 @@ public class TestVariable {
         assertEquals(set1, set2);
     }
 
+    @Test
+    public void testNamesAreInterned() {
+        // names built at runtime are distinct String objects
+        String x = new StringBuilder("x").toString();
+        Variable v1 = new Variable(x);
+        Variable v2 = new Variable("x");
+
+        assertEquals(v1, v2);
+        assertSame(v1.getLabel(), v2.getLabel());
+        assertSame(v1.getLabel(), v1.getFresh().getLabel());
+        assertSame(new UnboundVariable("x").getLabel(), new UnboundVariable("y").getLabel());
+    }
+
     @Test
     public void testString() {
         Variable v1 = new Variable("x");
@@ -10,8 +10,11 @@ import org.junit.jupiter.api.Test;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.*;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
 
 public class TestCypherTranslator {
 
@@ -204,4 +207,31 @@ public class TestCypherTranslator {
 
         System.out.println(res);
     }
+
+    @Test
+    public void testStreamTranslation() throws OWLOntologyCreationException, NotOWL2QLException, IOException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+
+        RewriterImpl rewriter = new RewriterImpl();
+        // q(x):-teaches(x,y), Course(y)
+        InputQuery q = new InputQuery(new LinkedList<>(Collections.singleton(new Variable("x"))),
+                new HashSet<>(Arrays.asList(
+                        new Roles(new HashSet<>(Collections.singleton(o.getPropertyMap().get("teaches"))),
+                                new Variable("x"), new Variable("y")),
+                        new Conceptname(o.getClassMap().get("Course"), new Variable("y"))
+                )));
+
+        Translator translator = new CypherTranslator();
+
+        StringBuilder res = new StringBuilder();
+        translator.translate(q.getHead(), rewriter.rewriteStream(q, o), res);
+
+        // the same branches as in the translation of the whole set
+        // use a new rewriter, such that the names of fresh variables are the same
+        assertEquals(new HashSet<>(Arrays.asList(translator.translate(q.getHead(), new RewriterImpl().rewrite(q, o))
+                        .split("\nunion\n"))),
+                new HashSet<>(Arrays.asList(res.toString().split("\nunion\n"))));
+    }
 }
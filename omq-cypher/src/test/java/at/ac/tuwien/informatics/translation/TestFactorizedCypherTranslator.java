@@ -0,0 +1,92 @@
+package at.ac.tuwien.informatics.translation;
+
+import at.ac.tuwien.informatics.generated.QLexer;
+import at.ac.tuwien.informatics.generated.QParser;
+import at.ac.tuwien.informatics.reformulation.ContainmentPruner;
+import at.ac.tuwien.informatics.reformulation.RewriterImpl;
+import at.ac.tuwien.informatics.structure.InputQueryBuilder;
+import at.ac.tuwien.informatics.structure.Ontology;
+import at.ac.tuwien.informatics.structure.exception.NotOWL2QLException;
+import at.ac.tuwien.informatics.structure.query.*;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.junit.jupiter.api.Test;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+
+import java.io.File;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestFactorizedCypherTranslator {
+
+    @Test
+    public void testSharedMatch() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/university.owl");
+
+        List<Variable> head = new LinkedList<>(Collections.singleton(new Variable("x")));
+        Roles teaches = new Roles(new HashSet<>(Collections.singleton(o.getPropertyMap().get("teaches"))),
+                new Variable("x"), new Variable("y"));
+        // q(x):-teaches(x,y),Course(y) and q(x):-teaches(x,y),Student(y)
+        Set<RewritableQuery> queries = new HashSet<>(Arrays.asList(
+                new RewritableQuery(head, new HashSet<>(Arrays.asList(teaches,
+                        new Conceptname(o.getClassMap().get("Course"), new Variable("y"))))),
+                new RewritableQuery(head, new HashSet<>(Arrays.asList(teaches,
+                        new Conceptname(o.getClassMap().get("Student"), new Variable("y")))))
+        ));
+
+        String res = new FactorizedCypherTranslator().translate(head, queries);
+        System.out.println(res);
+
+        // the role atom is matched once, the concept names in a subquery
+        assertEquals(1, res.split("-\\[:teaches]->", -1).length - 1);
+        assertTrue(res.startsWith("match (x)-[:teaches]->(y)\ncall {\n"));
+        // the answer variable is imported into the subquery together with the variable of the match
+        assertTrue(res.contains("with x, y\nmatch (y:Course)\nreturn x as answer_x"));
+        assertTrue(res.contains("with x, y\nmatch (y:Student)\nreturn x as answer_x"));
+        assertTrue(res.endsWith("}\nreturn distinct answer_x as x"));
+    }
+
+    @Test
+    public void testBooleanQuery() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/paths2.owl");
+
+        // q():-A(x),r*(x,y),B(y)
+        InputQuery q = new InputQuery(new LinkedList<>(),
+                new HashSet<>(Arrays.asList(
+                        new Conceptname(o.getClassMap().get("A"), new Variable("x")),
+                        new Path(new LinkedList<>(Collections.singleton(
+                                new ArbitraryLengthPathElement(
+                                        new HashSet<>(Collections.singleton(o.getPropertyMap().get("r")))))),
+                                new Variable("x"), new Variable("y")),
+                        new Conceptname(o.getClassMap().get("B"), new Variable("y"))
+                )));
+        Set<RewritableQuery> Q = new RewriterImpl().rewrite(q, o);
+
+        String res = new FactorizedCypherTranslator().translate(q.getHead(), Q);
+        System.out.println(res);
+        assertTrue(res.endsWith("return distinct 1"));
+    }
+
+    @Test
+    public void testUseCaseQuery() throws OWLOntologyCreationException, NotOWL2QLException {
+        // load ontology
+        File resourcesDirectory = new File("src/test/resources");
+        Ontology o = new Ontology(resourcesDirectory.getAbsolutePath() + "/vvr.owl");
+
+        QParser parser = new QParser(new CommonTokenStream(new QLexer(CharStreams.fromString(
+                "q(x):-pedestrian(x),OF(y,x),HAS(y,z),pedestrian_moving(z)"))));
+        InputQuery q = (InputQuery) new InputQueryBuilder(o).visit(parser.query());
+        Set<RewritableQuery> Q = new ContainmentPruner().prune(new RewriterImpl().rewrite(q, o));
+
+        String flat = new CypherTranslator().translate(q.getHead(), Q);
+        String factorized = new FactorizedCypherTranslator().translate(q.getHead(), Q);
+
+        assertTrue(factorized.length() < flat.length(), factorized.length() + " vs " + flat.length());
+    }
+}